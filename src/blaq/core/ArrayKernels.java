@@ -0,0 +1,372 @@
+package blaq.core;
+
+import blaq.util.Comparison;
+import blaq.util.CompensatedSum;
+
+/**
+ * Loops over primitive arrays, used by {@link PrimitiveEnumerable} when a sequence is backed by one.
+ * <p>Each loop is a plain counted loop over an array with a single reduction and no calls in its body, which is
+ * the shape HotSpot's C2 unrolls and, where it can, turns into SIMD instructions. Computing only what was asked
+ * for (not a sum, min and max at once) keeps them that simple. See {@code playground.KernelBenchmark} for how they
+ * compare with going through an iterator.</p>
+ * <p>Comparisons are switched on once, outside the loop, and turned into 0 or 1 inside it rather than branched on;
+ * filtering writes every index to the selection vector and only advances past the ones which matched.</p>
+ */
+final class ArrayKernels {
+    private ArrayKernels(){throw new AssertionError("BLAQ doesn't need instances!");}
+
+    // ----------------------------- Sum -----------------------------
+
+    static void sum(int[] values, int from, int to, NumericAccumulator accumulator){
+        // Can't overflow: even 2^31 values of 2^31 need only 62 bits
+        long sum = 0;
+        for(int i = from; i < to; i++)
+            sum += values[i];
+        accumulator.addLongSum(to - from, sum, 0);
+    }
+
+    static void sum(long[] values, int from, int to, NumericAccumulator accumulator){
+        long sum = 0;
+        long sumHigh = 0;
+        for(int i = from; i < to; i++){
+            long value = values[i];
+            long result = sum + value;
+            sumHigh += NumericAccumulator.carry(sum, value, result);
+            sum = result;
+        }
+        accumulator.addLongSum(to - from, sum, sumHigh);
+    }
+
+    // Added up in order, like NumericAccumulator would, so it comes out the same to the last bit
+    static void sum(double[] values, int from, int to, NumericAccumulator accumulator){
+        accumulator.addDoubleSum(to - from, sum(values, from, to));
+    }
+
+    static CompensatedSum sum(double[] values, int from, int to){
+        CompensatedSum sum = new CompensatedSum();
+        for(int i = from; i < to; i++)
+            sum.accept(values[i]);
+        return sum;
+    }
+
+    // ----------------------------- Min/Max -----------------------------
+    // Ranges must not be empty. Branching beats Math.min/max here: past the first few elements it's rarely taken.
+
+    static int min(int[] values, int from, int to){
+        int min = values[from];
+        for(int i = from + 1; i < to; i++){
+            int value = values[i];
+            if(value < min)
+                min = value;
+        }
+        return min;
+    }
+
+    static int max(int[] values, int from, int to){
+        int max = values[from];
+        for(int i = from + 1; i < to; i++){
+            int value = values[i];
+            if(value > max)
+                max = value;
+        }
+        return max;
+    }
+
+    static long min(long[] values, int from, int to){
+        long min = values[from];
+        for(int i = from + 1; i < to; i++){
+            long value = values[i];
+            if(value < min)
+                min = value;
+        }
+        return min;
+    }
+
+    static long max(long[] values, int from, int to){
+        long max = values[from];
+        for(int i = from + 1; i < to; i++){
+            long value = values[i];
+            if(value > max)
+                max = value;
+        }
+        return max;
+    }
+
+    /*
+     * Doubles order like Double.compare (as the boxed operators do). Math.max already does (NaN wins, 0.0 beats -0.0)
+     * but Math.min returns NaN where NaN should lose, so then the minimum is searched for again.
+     */
+    static double min(double[] values, int from, int to){
+        double min = Double.POSITIVE_INFINITY;
+        for(int i = from; i < to; i++)
+            min = Math.min(min, values[i]);
+        if(Double.isNaN(min)){
+            for(int i = from; i < to; i++)
+                if(Double.compare(values[i], min) < 0)
+                    min = values[i];
+        }
+        return min;
+    }
+
+    static double max(double[] values, int from, int to){
+        double max = Double.NEGATIVE_INFINITY;
+        for(int i = from; i < to; i++)
+            max = Math.max(max, values[i]);
+        return max;
+    }
+
+    // ----------------------------- Int: Comparisons -----------------------------
+
+    static int count(int[] values, int from, int to, Comparison.OfInt comparison){
+        int operand = comparison.operand();
+        int count = 0;
+        switch(comparison.operator()){
+            case LESS_THAN:
+                for(int i = from; i < to; i++)
+                    count += values[i] < operand ? 1 : 0;
+                return count;
+            case LESS_THAN_OR_EQUAL:
+                for(int i = from; i < to; i++)
+                    count += values[i] <= operand ? 1 : 0;
+                return count;
+            case EQUAL:
+                for(int i = from; i < to; i++)
+                    count += values[i] == operand ? 1 : 0;
+                return count;
+            case NOT_EQUAL:
+                for(int i = from; i < to; i++)
+                    count += values[i] != operand ? 1 : 0;
+                return count;
+            case GREATER_THAN_OR_EQUAL:
+                for(int i = from; i < to; i++)
+                    count += values[i] >= operand ? 1 : 0;
+                return count;
+            case GREATER_THAN:
+                for(int i = from; i < to; i++)
+                    count += values[i] > operand ? 1 : 0;
+                return count;
+            default:
+                throw new AssertionError(comparison.operator());
+        }
+    }
+
+    /**
+     * Writes the indices of the values in {@code [from, to)} which match to {@code selection}, in order.
+     * @param selection Must have room for {@code to - from} indices.
+     * @return How many matched.
+     */
+    static int select(int[] values, int from, int to, Comparison.OfInt comparison, int[] selection){
+        int operand = comparison.operand();
+        int selected = 0;
+        switch(comparison.operator()){
+            case LESS_THAN:
+                for(int i = from; i < to; i++){
+                    selection[selected] = i;
+                    selected += values[i] < operand ? 1 : 0;
+                }
+                return selected;
+            case LESS_THAN_OR_EQUAL:
+                for(int i = from; i < to; i++){
+                    selection[selected] = i;
+                    selected += values[i] <= operand ? 1 : 0;
+                }
+                return selected;
+            case EQUAL:
+                for(int i = from; i < to; i++){
+                    selection[selected] = i;
+                    selected += values[i] == operand ? 1 : 0;
+                }
+                return selected;
+            case NOT_EQUAL:
+                for(int i = from; i < to; i++){
+                    selection[selected] = i;
+                    selected += values[i] != operand ? 1 : 0;
+                }
+                return selected;
+            case GREATER_THAN_OR_EQUAL:
+                for(int i = from; i < to; i++){
+                    selection[selected] = i;
+                    selected += values[i] >= operand ? 1 : 0;
+                }
+                return selected;
+            case GREATER_THAN:
+                for(int i = from; i < to; i++){
+                    selection[selected] = i;
+                    selected += values[i] > operand ? 1 : 0;
+                }
+                return selected;
+            default:
+                throw new AssertionError(comparison.operator());
+        }
+    }
+
+    // ----------------------------- Long: Comparisons -----------------------------
+
+    static int count(long[] values, int from, int to, Comparison.OfLong comparison){
+        long operand = comparison.operand();
+        int count = 0;
+        switch(comparison.operator()){
+            case LESS_THAN:
+                for(int i = from; i < to; i++)
+                    count += values[i] < operand ? 1 : 0;
+                return count;
+            case LESS_THAN_OR_EQUAL:
+                for(int i = from; i < to; i++)
+                    count += values[i] <= operand ? 1 : 0;
+                return count;
+            case EQUAL:
+                for(int i = from; i < to; i++)
+                    count += values[i] == operand ? 1 : 0;
+                return count;
+            case NOT_EQUAL:
+                for(int i = from; i < to; i++)
+                    count += values[i] != operand ? 1 : 0;
+                return count;
+            case GREATER_THAN_OR_EQUAL:
+                for(int i = from; i < to; i++)
+                    count += values[i] >= operand ? 1 : 0;
+                return count;
+            case GREATER_THAN:
+                for(int i = from; i < to; i++)
+                    count += values[i] > operand ? 1 : 0;
+                return count;
+            default:
+                throw new AssertionError(comparison.operator());
+        }
+    }
+
+    /**
+     * Writes the indices of the values in {@code [from, to)} which match to {@code selection}, in order.
+     * @param selection Must have room for {@code to - from} indices.
+     * @return How many matched.
+     */
+    static int select(long[] values, int from, int to, Comparison.OfLong comparison, int[] selection){
+        long operand = comparison.operand();
+        int selected = 0;
+        switch(comparison.operator()){
+            case LESS_THAN:
+                for(int i = from; i < to; i++){
+                    selection[selected] = i;
+                    selected += values[i] < operand ? 1 : 0;
+                }
+                return selected;
+            case LESS_THAN_OR_EQUAL:
+                for(int i = from; i < to; i++){
+                    selection[selected] = i;
+                    selected += values[i] <= operand ? 1 : 0;
+                }
+                return selected;
+            case EQUAL:
+                for(int i = from; i < to; i++){
+                    selection[selected] = i;
+                    selected += values[i] == operand ? 1 : 0;
+                }
+                return selected;
+            case NOT_EQUAL:
+                for(int i = from; i < to; i++){
+                    selection[selected] = i;
+                    selected += values[i] != operand ? 1 : 0;
+                }
+                return selected;
+            case GREATER_THAN_OR_EQUAL:
+                for(int i = from; i < to; i++){
+                    selection[selected] = i;
+                    selected += values[i] >= operand ? 1 : 0;
+                }
+                return selected;
+            case GREATER_THAN:
+                for(int i = from; i < to; i++){
+                    selection[selected] = i;
+                    selected += values[i] > operand ? 1 : 0;
+                }
+                return selected;
+            default:
+                throw new AssertionError(comparison.operator());
+        }
+    }
+
+    // ----------------------------- Double: Comparisons -----------------------------
+
+    static int count(double[] values, int from, int to, Comparison.OfDouble comparison){
+        double operand = comparison.operand();
+        int count = 0;
+        switch(comparison.operator()){
+            case LESS_THAN:
+                for(int i = from; i < to; i++)
+                    count += values[i] < operand ? 1 : 0;
+                return count;
+            case LESS_THAN_OR_EQUAL:
+                for(int i = from; i < to; i++)
+                    count += values[i] <= operand ? 1 : 0;
+                return count;
+            case EQUAL:
+                for(int i = from; i < to; i++)
+                    count += values[i] == operand ? 1 : 0;
+                return count;
+            case NOT_EQUAL:
+                for(int i = from; i < to; i++)
+                    count += values[i] != operand ? 1 : 0;
+                return count;
+            case GREATER_THAN_OR_EQUAL:
+                for(int i = from; i < to; i++)
+                    count += values[i] >= operand ? 1 : 0;
+                return count;
+            case GREATER_THAN:
+                for(int i = from; i < to; i++)
+                    count += values[i] > operand ? 1 : 0;
+                return count;
+            default:
+                throw new AssertionError(comparison.operator());
+        }
+    }
+
+    /**
+     * Writes the indices of the values in {@code [from, to)} which match to {@code selection}, in order.
+     * @param selection Must have room for {@code to - from} indices.
+     * @return How many matched.
+     */
+    static int select(double[] values, int from, int to, Comparison.OfDouble comparison, int[] selection){
+        double operand = comparison.operand();
+        int selected = 0;
+        switch(comparison.operator()){
+            case LESS_THAN:
+                for(int i = from; i < to; i++){
+                    selection[selected] = i;
+                    selected += values[i] < operand ? 1 : 0;
+                }
+                return selected;
+            case LESS_THAN_OR_EQUAL:
+                for(int i = from; i < to; i++){
+                    selection[selected] = i;
+                    selected += values[i] <= operand ? 1 : 0;
+                }
+                return selected;
+            case EQUAL:
+                for(int i = from; i < to; i++){
+                    selection[selected] = i;
+                    selected += values[i] == operand ? 1 : 0;
+                }
+                return selected;
+            case NOT_EQUAL:
+                for(int i = from; i < to; i++){
+                    selection[selected] = i;
+                    selected += values[i] != operand ? 1 : 0;
+                }
+                return selected;
+            case GREATER_THAN_OR_EQUAL:
+                for(int i = from; i < to; i++){
+                    selection[selected] = i;
+                    selected += values[i] >= operand ? 1 : 0;
+                }
+                return selected;
+            case GREATER_THAN:
+                for(int i = from; i < to; i++){
+                    selection[selected] = i;
+                    selected += values[i] > operand ? 1 : 0;
+                }
+                return selected;
+            default:
+                throw new AssertionError(comparison.operator());
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package blaq.core;
+
+import blaq.util.BlaqIterable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+
+/**
+ * The {@link BlaqIterable}s {@link Enumerable#asBlaqIterable(Iterable)} wraps collections in.
+ * <p>They copy nothing: every call goes through to the wrapped collection, so wrapping is O(1) and changes made to
+ * the collection afterwards (or through the view) are seen by both. They are the same kind of collection as what they
+ * wrap ({@link List}, {@link RandomAccess} lists, {@link Set}s), so operators which make use of that still can.</p>
+ */
+final class CollectionViews {
+    private CollectionViews(){throw new AssertionError("BLAQ doesn't need instances!");}
+
+    static <T> BlaqIterable<T> of(Collection<T> src){
+        if(src instanceof List)
+            return src instanceof RandomAccess
+                    ? new RandomAccessListView<>((List<T>) src)
+                    : new ListView<>((List<T>) src);
+        if(src instanceof Set)
+            return new SetView<>((Set<T>) src);
+        return new CollectionView<>(src);
+    }
+
+    static class ListView<T> extends AbstractList<T> implements BlaqIterable<T> {
+        final List<T> list;
+
+        ListView(List<T> list){
+            this.list = list;
+        }
+
+        @Override
+        public T get(int index) {
+            return list.get(index);
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public T set(int index, T element) {
+            return list.set(index, element);
+        }
+
+        @Override
+        public void add(int index, T element) {
+            list.add(index, element);
+        }
+
+        @Override
+        public T remove(int index) {
+            return list.remove(index);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return list.contains(o);
+        }
+
+        @NotNull
+        @Override
+        public Iterator<T> iterator() {
+            return list.iterator();
+        }
+
+        @Override
+        public Spliterator<T> spliterator() {
+            return list.spliterator();
+        }
+
+        // Both Collection and BlaqIterable provide stream(); the collection's own is the better one.
+        @Override
+        public Stream<T> stream() {
+            return list.stream();
+        }
+    }
+
+    static final class RandomAccessListView<T> extends ListView<T> implements RandomAccess {
+        RandomAccessListView(List<T> list){
+            super(list);
+        }
+    }
+
+    static final class SetView<T> extends AbstractSet<T> implements BlaqIterable<T> {
+        private final Set<T> set;
+
+        SetView(Set<T> set){
+            this.set = set;
+        }
+
+        @Override
+        public int size() {
+            return set.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return set.contains(o);
+        }
+
+        @Override
+        public boolean add(T t) {
+            return set.add(t);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return set.remove(o);
+        }
+
+        @NotNull
+        @Override
+        public Iterator<T> iterator() {
+            return set.iterator();
+        }
+
+        @Override
+        public Spliterator<T> spliterator() {
+            return set.spliterator();
+        }
+
+        @Override
+        public Stream<T> stream() {
+            return set.stream();
+        }
+    }
+
+    // Queues, deques and any other collection: only their size and membership tests are worth passing on
+    static final class CollectionView<T> extends AbstractCollection<T> implements BlaqIterable<T> {
+        private final Collection<T> collection;
+
+        CollectionView(Collection<T> collection){
+            this.collection = collection;
+        }
+
+        @Override
+        public int size() {
+            return collection.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return collection.contains(o);
+        }
+
+        @Override
+        public boolean add(T t) {
+            return collection.add(t);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return collection.remove(o);
+        }
+
+        @NotNull
+        @Override
+        public Iterator<T> iterator() {
+            return collection.iterator();
+        }
+
+        @Override
+        public Spliterator<T> spliterator() {
+            return collection.spliterator();
+        }
+
+        @Override
+        public Stream<T> stream() {
+            return collection.stream();
+        }
+    }
+}
@@ -7,7 +7,10 @@ import java.util.*;
 
 import blaq.tools.Yield;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.*;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
 
 
 /**
@@ -106,6 +109,9 @@ public final class Enumerable {
             throw new NullArgumentException("source");
         if(projector == null)
             throw new NullArgumentException("projector");
+        IPartition<TSource> partition = Partitions.of(source);
+        if(partition != null)
+            return new Partitions.Projection<>(partition, (item, index) -> projector.apply(item));
         return projectionImp(source, projector);
     }
 
@@ -123,6 +129,9 @@ public final class Enumerable {
             throw new NullArgumentException("source");
         if(projector == null)
             throw new NullArgumentException("projector");
+        IPartition<TSource> partition = Partitions.of(source);
+        if(partition != null)
+            return new Partitions.Projection<>(partition, projector);
         return projectionImp(source, projector);
     }
 
@@ -149,11 +158,9 @@ public final class Enumerable {
         return rangeImp(start, count);
     }
 
-    private static <T> Yield<Integer> rangeImp(int start, int count){
-        return yield -> {
-          for (int i = 0; i < count; i++)
-              yield.returning(start+i);
-        };
+    // Dedicated class rather than a Yield: it knows its size, so its spliterator can be split.
+    private static Iterable<Integer> rangeImp(int start, int count){
+        return new RangeIterable(start, count);
     }
 
     // ----------------------------- Empty. Caches (hence special class) -----------------------------
@@ -171,10 +178,7 @@ public final class Enumerable {
     }
 
     private static <T> Iterable<T> repeatImp(T e, int count) {
-        return (Yield<T>) yield -> {
-          for(int i=0; i < count; i++)
-              yield.returning(e);
-        };
+        return new RepeatIterable<>(e, count);
     }
 
     // ----------------------------- Count & LongCount (IE) -----------------------------
@@ -191,6 +195,10 @@ public final class Enumerable {
     public static <T> int count(Iterable<T> src){
         if(src == null)
             throw new NullArgumentException("src");
+        if(src instanceof IPartition)
+            return ((IPartition<T>) src).size();
+        if(src instanceof OrderedIterable)
+            return ((OrderedIterable<T, ?>) src).sourceCount();
         if(src instanceof Collection){
             Collection<T> c = (Collection<T>) src;
             return c.size();
@@ -241,6 +249,10 @@ public final class Enumerable {
         if(src == null)
             throw new NullArgumentException("src");
 
+        if(src instanceof IPartition)
+            return ((IPartition<T>) src).size();
+        if(src instanceof OrderedIterable)
+            return ((OrderedIterable<T, ?>) src).sourceCount();
         if(src instanceof Collection){
             Collection<T> c = (Collection<T>) src;
             return c.size();
@@ -304,6 +316,15 @@ public final class Enumerable {
             throw new NullArgumentException("source");
         List<T> result;
 
+        IPartition<T> partition = src instanceof IPartition ? (IPartition<T>) src : null;
+        if(partition != null){
+            int size = partition.size();
+            result = new ArrayList<>(size);
+            for(int i = 0; i < size; i++)
+                result.add(partition.get(i));
+            return result;
+        }
+
         // Optimise for when src is a Collection object
         if(src instanceof Collection){
             Collection<T> items = (Collection<T>)src;
@@ -482,7 +503,14 @@ public final class Enumerable {
     public static <T> boolean any(Iterable<T> src){
         if(src == null)
             throw new NullArgumentException("src");
-        return src.iterator().hasNext();
+        if(src instanceof IPartition)
+            return ((IPartition<T>) src).size() > 0;
+        Iterator<T> it = src.iterator();
+        try {
+            return it.hasNext();
+        } finally {
+            closeIterators(it);
+        }
     }
 
     /**
@@ -497,10 +525,15 @@ public final class Enumerable {
             throw new NullArgumentException("src");
         if(predicate == null)
             throw new NullArgumentException("predicate");
-        for(T item : src)
-            if(predicate.test(item))
-                return true;
-        return false;
+        Iterator<T> it = src.iterator();
+        try {
+            while(it.hasNext())
+                if(predicate.test(it.next()))
+                    return true;
+            return false;
+        } finally {
+            closeIterators(it);
+        }
     }
 
     // ----------------------------- All (IE) -----------------------------
@@ -518,10 +551,15 @@ public final class Enumerable {
             throw new NullArgumentException("src");
         if(predicate == null)
             throw new NullArgumentException("predicate");
-        for(T item : src)
-            if(!predicate.test(item))
-                return false;
-        return true;
+        Iterator<T> it = src.iterator();
+        try {
+            while(it.hasNext())
+                if(!predicate.test(it.next()))
+                    return false;
+            return true;
+        } finally {
+            closeIterators(it);
+        }
     }
 
     // ----------------------------- First -----------------------------
@@ -537,9 +575,20 @@ public final class Enumerable {
     public static <T> T first(Iterable<T> src){
         if(src == null)
             throw new NullArgumentException("src");
+        // Smallest element in one pass, rather than sorting everything for it
+        if(src instanceof OrderedIterable){
+            List<T> first = ((OrderedIterable<T, ?>) src).edge(false);
+            if(first.isEmpty())
+                throw new InvalidOperationException("Empty sequence");
+            return first.get(0);
+        }
         Iterator<T> it = src.iterator();
-        if(it.hasNext())
-            return it.next();
+        try {
+            if(it.hasNext())
+                return it.next();
+        } finally {
+            closeIterators(it);
+        }
         throw new InvalidOperationException("Empty sequence");
     }
 
@@ -557,9 +606,16 @@ public final class Enumerable {
             throw new NullArgumentException("src");
         if(predicate == null)
             throw new NullArgumentException("predicate");
-        for(T item : src)
-            if(predicate.test(item))
-                return item;
+        Iterator<T> it = src.iterator();
+        try {
+            while(it.hasNext()){
+                T item = it.next();
+                if(predicate.test(item))
+                    return item;
+            }
+        } finally {
+            closeIterators(it);
+        }
         throw new InvalidOperationException("No items match the predicate");
     }
 
@@ -577,10 +633,18 @@ public final class Enumerable {
     public static <T> T firstOrNull(Iterable<T> src){
         if(src == null)
             throw new NullArgumentException("src");
+        if(src instanceof OrderedIterable){
+            List<T> first = ((OrderedIterable<T, ?>) src).edge(false);
+            return first.isEmpty() ? null : first.get(0);
+        }
         Iterator<T> it = src.iterator();
-        if(it.hasNext())
-            return it.next();
-        return null;
+        try {
+            if(it.hasNext())
+                return it.next();
+            return null;
+        } finally {
+            closeIterators(it);
+        }
         //            return it.hasNext() ? it.next() : null;
     }
 
@@ -597,10 +661,17 @@ public final class Enumerable {
             throw new NullArgumentException("src");
         if(predicate == null)
             throw new NullArgumentException("predicate");
-        for(T item : src)
-            if(predicate.test(item))
-                return item;
-        return null;
+        Iterator<T> it = src.iterator();
+        try {
+            while(it.hasNext()){
+                T item = it.next();
+                if(predicate.test(item))
+                    return item;
+            }
+            return null;
+        } finally {
+            closeIterators(it);
+        }
     }
 
     // ----------------------------- Single (IE) -----------------------------
@@ -689,6 +760,19 @@ public final class Enumerable {
                 throw new InvalidOperationException("Sequence is empty");
             return c.get(c.size() - 1);
         }
+        if(src instanceof IPartition){
+            IPartition<T> partition = (IPartition<T>) src;
+            int size = partition.size();
+            if(size == 0)
+                throw new InvalidOperationException("Sequence is empty");
+            return partition.get(size - 1);
+        }
+        if(src instanceof OrderedIterable){
+            List<T> last = ((OrderedIterable<T, ?>) src).edge(true);
+            if(last.isEmpty())
+                throw new InvalidOperationException("Sequence is empty");
+            return last.get(0);
+        }
         Iterator<T> it = src.iterator();
         if(!it.hasNext())
             throw new  InvalidOperationException("Sequence is empty");
@@ -733,6 +817,15 @@ public final class Enumerable {
             List<T> c = (List<T>)src;
             return c.size() == 0 ? null : c.get(c.size() - 1);
         }
+        if(src instanceof IPartition){
+            IPartition<T> partition = (IPartition<T>) src;
+            int size = partition.size();
+            return size == 0 ? null : partition.get(size - 1);
+        }
+        if(src instanceof OrderedIterable){
+            List<T> last = ((OrderedIterable<T, ?>) src).edge(true);
+            return last.isEmpty() ? null : last.get(0);
+        }
         T last = null;
         for(T i : src)
             last = i;
@@ -812,11 +905,195 @@ public final class Enumerable {
         return resultProjector.apply(current);
     }
 
+    // ----------------------------- Stats (IE) -----------------------------
+
+    /**
+     * Gathers the count, sum, minimum, maximum, mean and variance of the values selected from a sequence, in a
+     * single pass.
+     * @param src A sequence of elements.
+     * @param selector A projection to apply to each element.
+     * @param <T> Type of elements of {@code src}.
+     * @return The statistics; on an empty sequence only the count and sum are defined.
+     * @throws NullArgumentException Thrown when {@code src} or {@code selector} is null.
+     */
+    public static <T> Statistics stats(Iterable<T> src, ToDoubleFunction<T> selector){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(selector == null)
+            throw new NullArgumentException("selector");
+
+        Statistics stats = new Statistics();
+        for(T item : src)
+            stats.accept(selector.applyAsDouble(item));
+        return stats;
+    }
+
+    // ----------------------------- Quantiles (IE) -----------------------------
+
+    /**
+     * Exact quantiles of the values selected from a sequence. The values are gathered into a primitive array and
+     * each quantile found by quickselect, rather than by sorting them all (as {@code orderBy(...).elementAt(...)}
+     * would).
+     * @param src A sequence of elements.
+     * @param selector A projection to apply to each element.
+     * @param probabilities Ranks of the quantiles, each between 0 (the minimum) and 1 (the maximum). A quantile
+     *                      between two values is interpolated linearly.
+     * @param <T> Type of elements of {@code src}.
+     * @return The quantiles, in the order of {@code probabilities}.
+     * @throws NullArgumentException Thrown when any argument is null.
+     * @throws ArgumentOutOfRangeException Thrown when a probability isn't between 0 and 1.
+     * @throws InvalidOperationException Thrown when {@code src} is empty.
+     * @see Quantiles
+     */
+    public static <T> double[] quantiles(Iterable<T> src, ToDoubleFunction<T> selector, double... probabilities){
+        checkQuantiles(src, selector, probabilities);
+        Quantiles quantiles = new Quantiles();
+        for(T item : src)
+            quantiles.accept(selector.applyAsDouble(item));
+        return quantiles.quantiles(probabilities);
+    }
+
+    /**
+     * @return The median of the values selected from {@code src}; the mean of the middle two for an even number.
+     * @see #quantiles(Iterable, ToDoubleFunction, double...)
+     */
+    public static <T> double median(Iterable<T> src, ToDoubleFunction<T> selector){
+        return quantiles(src, selector, 0.5)[0];
+    }
+
+    /**
+     * Approximate quantiles of the values selected from a sequence, in bounded memory, with a
+     * {@link QuantileSketch} of the {@link QuantileSketch#DEFAULT_K default size}.
+     * @see #quantiles(Iterable, ToDoubleFunction, double...)
+     */
+    public static <T> double[] approxQuantiles(Iterable<T> src, ToDoubleFunction<T> selector,
+                                               double... probabilities){
+        checkQuantiles(src, selector, probabilities);
+        return quantileSketch(src, selector, QuantileSketch.DEFAULT_K).quantiles(probabilities);
+    }
+
+    /**
+     * Sketches the values selected from a sequence, for sketches to be
+     * {@link QuantileSketch#merge(QuantileSketch) merged} before asking for quantiles.
+     * @param k Size of the sketch, at least 8; its error goes down as {@code 1/k}.
+     * @return A sketch of every value selected from {@code src}.
+     * @throws ArgumentOutOfRangeException Thrown when {@code k} is less than 8.
+     */
+    public static <T> QuantileSketch quantileSketch(Iterable<T> src, ToDoubleFunction<T> selector, int k){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(selector == null)
+            throw new NullArgumentException("selector");
+        if(k < 8)
+            throw new ArgumentOutOfRangeException("k");
+        QuantileSketch sketch = new QuantileSketch(k);
+        for(T item : src)
+            sketch.accept(selector.applyAsDouble(item));
+        return sketch;
+    }
+
+    private static void checkQuantiles(Iterable<?> src, Object selector, double[] probabilities){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(selector == null)
+            throw new NullArgumentException("selector");
+        if(probabilities == null)
+            throw new NullArgumentException("probabilities");
+        for(double probability : probabilities)
+            if(!(probability >= 0 && probability <= 1))
+                throw new ArgumentOutOfRangeException("probabilities");
+    }
+
+    // ----------------------------- AggregateAll (IE) -----------------------------
+    // Runs several aggregates over a single traversal of the source, so it's only enumerated (and whatever query
+    // produces it only run) once. Aggregates are java.util.stream.Collectors: Collectors.counting(),
+    // Collectors.summingInt(...), Statistics.collector(...) and so on all fit.
+
+    public static <T, R1, R2> Tuple2<R1, R2> aggregateAll(Iterable<T> src, Collector<? super T, ?, R1> first,
+                                                          Collector<? super T, ?, R2> second){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(first == null)
+            throw new NullArgumentException("first");
+        if(second == null)
+            throw new NullArgumentException("second");
+
+        CollectorState<T, ?, R1> firstState = new CollectorState<>(first);
+        CollectorState<T, ?, R2> secondState = new CollectorState<>(second);
+        for(T item : src){
+            firstState.accept(item);
+            secondState.accept(item);
+        }
+        return new Tuple2<>(firstState.finish(), secondState.finish());
+    }
+
+    /**
+     * @return The results of {@code collectors}, in the same order.
+     */
+    public static <T> List<Object> aggregateAll(Iterable<T> src, List<? extends Collector<? super T, ?, ?>> collectors){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(collectors == null)
+            throw new NullArgumentException("collectors");
+
+        List<CollectorState<T, ?, ?>> states = new ArrayList<>(collectors.size());
+        for(Collector<? super T, ?, ?> collector : collectors){
+            if(collector == null)
+                throw new NullArgumentException("collector");
+            states.add(new CollectorState<>(collector));
+        }
+        for(T item : src)
+            for(CollectorState<T, ?, ?> state : states)
+                state.accept(item);
+
+        List<Object> results = new ArrayList<>(states.size());
+        for(CollectorState<T, ?, ?> state : states)
+            results.add(state.finish());
+        return results;
+    }
+
+    // A collector with its container, so collectors of different container types can be driven together
+    private static final class CollectorState<T, A, R> {
+        private final Collector<? super T, A, R> collector;
+        private final BiConsumer<A, ? super T> accumulator;
+        private final A container;
+
+        CollectorState(Collector<? super T, A, R> collector){
+            this.collector = collector;
+            this.accumulator = collector.accumulator();
+            this.container = collector.supplier().get();
+        }
+
+        void accept(T item){
+            accumulator.accept(container, item);
+        }
+
+        R finish(){
+            return collector.finisher().apply(container);
+        }
+    }
+
     // ~~~~~~~~~ SET Operators! ~~~~~~~~~
     // NOTE: Seems there are some minor draw-backs in efficiency by using Comparator rather than IEqualityComparer.
     // https://stackoverflow.com/questions/7751170/why-we-need-the-iequalitycomparer-iequalitycomparert-interface
     // TODO: Re-implement these after creating HashSet wrapper
 
+    // NOTE: When both inputs are IOrderedIterables in the same order (same key selector instances, equal comparators)
+    // and no custom ICompareEquality is given, the set operators merge them in step instead of hashing (see
+    // SortedMerge), and their results are IOrderedIterables in that order too. Union's result is then in sorted
+    // order rather than "first, then second".
+
+    // Both inputs in the same known order and compared by their own equality: merge rather than hash.
+    @SuppressWarnings("unchecked")
+    private static <T> OrderedIterable<T, ?> commonOrdering(Iterable<T> first, Iterable<T> second,
+                                                            ICompareEquality<T> compareEquality){
+        if(!(compareEquality instanceof DefaultEquality)
+                || !(first instanceof OrderedIterable) || !(second instanceof OrderedIterable))
+            return null;
+        OrderedIterable<T, ?> ordering = (OrderedIterable<T, ?>) first;
+        return ordering.hasSameOrdering((OrderedIterable<T, ?>) second) ? ordering : null;
+    }
+
     // ----------------------------- Distinct (DE) ----------------------------- Set-based
     // Need to create IEqualityComparer (ICompareEquality) -- Nothing like it exists in java.
 
@@ -831,13 +1108,90 @@ public final class Enumerable {
     }
 
     private static <T> Iterable<T> distinctImp(Iterable<T> src, ICompareEquality<T> compareEquality) {
-        return (Yield<T>) yield -> {
+        OrderedIterable<T, ?> ordering = commonOrdering(src, src, compareEquality);
+        if(ordering != null)
+            return ordering.withSortedSource(SortedMerge.distinct(src, ordering.elementComparator()));
+
+        return new CharacterisedIterable<>((Yield<T>) yield -> {
             // TODO
             HashSet<T> passedElements = new HashSet<>(/*compareEquality*/);
             for(T item : src)
                 if(passedElements.add(item))
                     yield.returning(item);
-        };
+        }, Spliterator.DISTINCT);
+    }
+
+    public static <T> Iterable<T> distinct(Iterable<T> src, ISerializer<T> serializer, int limit){
+        return distinct(src, serializer, limit, null);
+    }
+
+    /**
+     * Distinct elements of a sequence, holding no more than {@code limit} of them in memory; the rest go through
+     * temporary files. The result is the same as {@link #distinct(Iterable, ICompareEquality)}'s, in the same
+     * order. The first {@code limit} distinct elements are yielded as soon as they're read, the others once
+     * {@code src} is exhausted.
+     * Iterating the result to the end, or closing its iterator, deletes the temporary files.
+     * @param src The sequence to remove duplicates from.
+     * @param serializer Writes elements out to the temporary files and reads them back.
+     * @param limit Most distinct elements held in memory; at least 1.
+     * @param compareEquality Compares elements; they're compared with {@code equals} when it's {@code null}.
+     * @param <T> Type of elements of {@code src}.
+     * @return A sequence of the distinct elements of {@code src}.
+     * @throws NullArgumentException Thrown when {@code src} or {@code serializer} is null.
+     * @throws ArgumentOutOfRangeException Thrown when {@code limit} is less than 1.
+     */
+    public static <T> Iterable<T> distinct(Iterable<T> src, ISerializer<T> serializer, int limit,
+                                           ICompareEquality<T> compareEquality){
+        if(src == null)
+            throw new NullArgumentException("src");
+        if(serializer == null)
+            throw new NullArgumentException("serializer");
+        if(limit < 1)
+            throw new ArgumentOutOfRangeException("limit");
+        ICompareEquality<T> equality = compareEquality != null ? compareEquality : new DefaultEquality<>();
+        return () -> Spilling.distinct(src, serializer, limit, equality);
+    }
+
+    // ----------------------------- ApproxCountDistinct (DE) -----------------------------
+
+    public static <T, K> long approxCountDistinct(Iterable<T> src, Function<T, K> keySelector){
+        return approxCountDistinct(src, keySelector, HyperLogLog.DEFAULT_PRECISION);
+    }
+
+    /**
+     * Estimates the number of distinct keys in a sequence, in fixed memory: unlike counting {@code distinct}
+     * elements, no key is held on to.
+     * @param src The sequence whose keys to count.
+     * @param keySelector A function to extract the key of each element.
+     * @param precision Precision of the {@link HyperLogLog} sketch, from {@link HyperLogLog#MIN_PRECISION} to
+     *                  {@link HyperLogLog#MAX_PRECISION}; it takes {@code 2^precision} bytes.
+     * @param <T> Type of elements of {@code src}.
+     * @param <K> Type of the keys.
+     * @return The estimated number of distinct keys.
+     * @throws NullArgumentException Thrown when {@code src} or {@code keySelector} is null.
+     * @throws ArgumentOutOfRangeException Thrown when {@code precision} is out of range.
+     */
+    public static <T, K> long approxCountDistinct(Iterable<T> src, Function<T, K> keySelector, int precision){
+        return hyperLogLog(src, keySelector, precision).estimate();
+    }
+
+    /**
+     * Sketches the distinct keys of a sequence, for sketches to be {@link HyperLogLog#merge(HyperLogLog) merged}
+     * or {@link HyperLogLog#toBytes() kept} before estimating.
+     * @return A sketch of every key of {@code src}.
+     * @see #approxCountDistinct(Iterable, Function, int)
+     */
+    public static <T, K> HyperLogLog hyperLogLog(Iterable<T> src, Function<T, K> keySelector, int precision){
+        if(src == null)
+            throw new NullArgumentException("src");
+        if(keySelector == null)
+            throw new NullArgumentException("keySelector");
+        if(precision < HyperLogLog.MIN_PRECISION || precision > HyperLogLog.MAX_PRECISION)
+            throw new ArgumentOutOfRangeException("precision");
+        HyperLogLog sketch = new HyperLogLog(precision);
+        for(T item : src)
+            sketch.add(keySelector.apply(item));
+        return sketch;
     }
 
     // ----------------------------- Union (DE) ----------------------------- Set-based
@@ -856,7 +1210,11 @@ public final class Enumerable {
     }
 
     private static <T> Iterable<T> unionImp(Iterable<T> first, Iterable<T> second, ICompareEquality<T> compareEquality) {
-        return (Yield<T>) y -> {
+        OrderedIterable<T, ?> ordering = commonOrdering(first, second, compareEquality);
+        if(ordering != null)
+            return ordering.withSortedSource(SortedMerge.union(first, second, ordering.elementComparator()));
+
+        return new CharacterisedIterable<>((Yield<T>) y -> {
             HashSet<T> passedElements = new HashSet<>(/*compareEquality*/);
             for(T item : first)
                 if(passedElements.add(item))
@@ -864,7 +1222,7 @@ public final class Enumerable {
             for(T item : second)
                 if(passedElements.add(item))
                     y.returning(item);
-        };
+        }, Spliterator.DISTINCT);
     }
 
     // ----------------------------- Intersect (DE) ----------------------------- Set-based
@@ -874,24 +1232,47 @@ public final class Enumerable {
     }
 
     public static <T> Iterable<T> intersect(Iterable<T> first, Iterable<T> second, ICompareEquality<T> compareEquality) {
+        return intersect(first, second, compareEquality, false);
+    }
+
+    /**
+     * Produces the set intersection of two sequences, optionally rejecting misses with a {@link BloomFilter}.
+     * @param first Sequence whose distinct elements that also appear in {@code second} will be returned.
+     * @param second Sequence whose distinct elements that also appear in {@code first} will be returned;
+     *               this is the side held in memory.
+     * @param compareEquality An {@link ICompareEquality} to compare values.
+     * @param prefilter {@code true} to build a Bloom filter (sized from {@code second}) alongside the hash set,
+     *                  so elements of {@code first} which are definitely absent skip the hash set probe.
+     *                  Worth it when {@code second} is large and most elements of {@code first} miss.
+     * @param <T> The type of the elements of the input sequences.
+     * @return A sequence that contains the elements that form the set intersection of two sequences.
+     */
+    public static <T> Iterable<T> intersect(Iterable<T> first, Iterable<T> second, ICompareEquality<T> compareEquality,
+                                            boolean prefilter) {
         if(first == null)
             throw new NullArgumentException("first");
         if(second == null)
             throw new NullArgumentException("second");
-        return intersectImp(first, second, compareEquality != null ? compareEquality : new DefaultEquality<>());
+        return intersectImp(first, second, compareEquality != null ? compareEquality : new DefaultEquality<>(), prefilter);
     }
 
     // NOTE: For use, best for Dev to use the longer list as the first and shorter as second (to maximise performance).
-    private static <T> Iterable<T> intersectImp(Iterable<T> first, Iterable<T> second, ICompareEquality<T> compareEquality) {
+    private static <T> Iterable<T> intersectImp(Iterable<T> first, Iterable<T> second, ICompareEquality<T> compareEquality,
+                                                boolean prefilter) {
+        OrderedIterable<T, ?> ordering = commonOrdering(first, second, compareEquality);
+        if(ordering != null)
+            return ordering.withSortedSource(SortedMerge.intersect(first, second, ordering.elementComparator()));
+
 //        Collection<T> conduit = toList(second);
-        return (Yield<T>) y -> {
+        return new CharacterisedIterable<>((Yield<T>) y -> {
             // TODO
             HashSet<T> potentialItems = new HashSet<>(/*, compareEquality*/);
             addToCollection(potentialItems, second);
+            BloomFilter<T> bloom = prefilter ? bloomFilterOf(potentialItems) : null;
             for(T item : first)
-                if(potentialItems.remove(item))
+                if((bloom == null || bloom.mightContain(item)) && potentialItems.remove(item))
                     y.returning(item);
-        };
+        }, Spliterator.DISTINCT);
     }
 
     // ----------------------------- Except (DE) -----------------------------
@@ -900,6 +1281,8 @@ public final class Enumerable {
         return except(first, second, null);
     }
 
+    // No Bloom filter prefilter here, unlike intersect and join: each element of first takes one add to the set of
+    // second, which both checks it and keeps the result distinct, so there's no probe for a filter to save.
     public static <T> Iterable<T> except(Iterable<T> first, Iterable<T> second, ICompareEquality<T> compareEquality){
         if(first == null)
             throw new NullArgumentException("first");
@@ -909,13 +1292,55 @@ public final class Enumerable {
     }
 
     private static <T> Iterable<T> exceptImp(Iterable<T> first, Iterable<T> second, ICompareEquality<T> compareEquality) {
-        return (Yield<T>) yield -> {
+        OrderedIterable<T, ?> ordering = commonOrdering(first, second, compareEquality);
+        if(ordering != null)
+            return ordering.withSortedSource(SortedMerge.except(first, second, ordering.elementComparator()));
+
+        return new CharacterisedIterable<>((Yield<T>) yield -> {
             HashSet<T> excludedElements = new HashSet<>(/*compareEquality*/);
             addToCollection(excludedElements, second);
             for(T item : first)
                 if(excludedElements.add(item))
                     yield.returning(item);
-        };
+        }, Spliterator.DISTINCT);
+    }
+
+    // Bloom filter sized from the build side, so its false positive rate is the default one.
+    private static <T> BloomFilter<T> bloomFilterOf(Collection<T> buildSide){
+        BloomFilter<T> bloom = new BloomFilter<>(buildSide.size(), BloomFilter.DEFAULT_FALSE_POSITIVE_RATE);
+        for(T item : buildSide)
+            bloom.add(item);
+        return bloom;
+    }
+
+    // ----------------------------- WhereMaybeIn (DE) -----------------------------
+
+    /**
+     * Filters a sequence down to the elements which might be in a {@link BloomFilter}.
+     * Cheap pre-filter before expensive projections or an exact join: elements which are definitely absent are dropped,
+     * but a small fraction of absent ones (the filter's false positives) get through.
+     * @param src An {@code Iterable} to be filtered.
+     * @param bloom The filter to test each element against.
+     * @param <T> Type of elements.
+     * @return The elements of {@code src} for which {@link BloomFilter#mightContain(Object)} is {@code true}.
+     * @throws NullArgumentException Thrown when {@code src} or {@code bloom} is null.
+     */
+    public static <T> Iterable<T> whereMaybeIn(Iterable<T> src, BloomFilter<T> bloom){
+        return whereMaybeIn(src, bloom, x -> x);
+    }
+
+    /**
+     * Filters a sequence down to the elements whose key might be in a {@link BloomFilter}.
+     * @see #whereMaybeIn(Iterable, BloomFilter)
+     */
+    public static <T, K> Iterable<T> whereMaybeIn(Iterable<T> src, BloomFilter<K> bloom, Function<T, K> keySelector){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(bloom == null)
+            throw new NullArgumentException("bloom");
+        if(keySelector == null)
+            throw new NullArgumentException("key selector");
+        return whereImp(src, item -> bloom.mightContain(keySelector.apply(item)));
     }
 
     // ----------------------------- ToLookup (IE)-----------------------------
@@ -980,6 +1405,22 @@ public final class Enumerable {
                                                                          Function<TInner, TKey> innerKeySelector,
                                                                          BiFunction<TOuter, TInner, TResult> resultSelector,
                                                                          ICompareEquality<TKey> compareEquality){
+        return join(outer, inner, outerKeySelector, innerKeySelector, resultSelector, compareEquality, false);
+    }
+
+    /**
+     * Correlates the elements of two sequences based on matching keys, optionally rejecting outer keys which have
+     * no match with a {@link BloomFilter} before probing the lookup.
+     * @param prefilter {@code true} to build a Bloom filter (sized from the number of distinct inner keys) alongside
+     *                  the lookup. Worth it when the inner sequence is large and most outer keys have no match.
+     * @see #join(Iterable, Iterable, Function, Function, BiFunction, ICompareEquality)
+     */
+    public static <TOuter, TInner, TKey, TResult> Iterable<TResult> join(Iterable<TOuter> outer, Iterable<TInner> inner,
+                                                                         Function<TOuter, TKey> outerKeySelector,
+                                                                         Function<TInner, TKey> innerKeySelector,
+                                                                         BiFunction<TOuter, TInner, TResult> resultSelector,
+                                                                         ICompareEquality<TKey> compareEquality,
+                                                                         boolean prefilter){
         if(outer == null)
             throw new NullArgumentException("outer");
         if(inner == null)
@@ -991,24 +1432,90 @@ public final class Enumerable {
         if(resultSelector == null)
             throw new NullArgumentException("result selector");
 
-        return joinImp(outer, inner, outerKeySelector, innerKeySelector, resultSelector, compareEquality);
+        return joinImp(outer, inner, outerKeySelector, innerKeySelector, resultSelector, compareEquality, prefilter);
     }
 
     private static <TResult, TOuter, TInner, TKey> Iterable<TResult> joinImp(Iterable<TOuter> outer, Iterable<TInner> inner,
                                                                              Function<TOuter, TKey> outerKeySelector,
                                                                              Function<TInner, TKey> innerKeySelector,
                                                                              BiFunction<TOuter, TInner, TResult> resultSelector,
-                                                                             ICompareEquality<TKey> compareEquality) {
+                                                                             ICompareEquality<TKey> compareEquality,
+                                                                             boolean prefilter) {
         ILookup<TKey, TInner> lookup = noNullLookup(inner, innerKeySelector, compareEquality);
+        BloomFilter<TKey> bloom = null;
+        if(prefilter){
+            bloom = new BloomFilter<>(lookup.size(), BloomFilter.DEFAULT_FALSE_POSITIVE_RATE);
+            for(IGrouping<TKey, TInner> group : lookup)
+                bloom.add(group.getKey());
+        }
+        BloomFilter<TKey> keyFilter = bloom;
         return (Yield<TResult>) yield -> {
             for(TOuter outerItem : outer){
                 TKey key = outerKeySelector.apply(outerItem);
+                if(keyFilter != null && !keyFilter.mightContain(key))
+                    continue;
                 for(TInner innerItem : lookup.getItem(key))
                     yield.returning(resultSelector.apply(outerItem, innerItem));
             }
         };
     }
 
+    // ----------------------------- ParallelJoin (DE) -----------------------------
+    // Ignores Null keys. Both sequences are read all the way through when the result is first iterated.
+
+    /**
+     * Correlates the elements of two sequences based on matching keys, using every available core.
+     * The result is in the same order as {@link #join(Iterable, Iterable, Function, Function, BiFunction)}.
+     * @see #parallelJoin(Iterable, Iterable, Function, Function, BiFunction, ICompareEquality, boolean, int)
+     */
+    public static <TOuter, TInner, TKey, TResult> Iterable<TResult> parallelJoin(Iterable<TOuter> outer, Iterable<TInner> inner,
+                                                                                 Function<TOuter, TKey> outerKeySelector,
+                                                                                 Function<TInner, TKey> innerKeySelector,
+                                                                                 BiFunction<TOuter, TInner, TResult> resultSelector){
+        return parallelJoin(outer, inner, outerKeySelector, innerKeySelector, resultSelector, null, true);
+    }
+
+    public static <TOuter, TInner, TKey, TResult> Iterable<TResult> parallelJoin(Iterable<TOuter> outer, Iterable<TInner> inner,
+                                                                                 Function<TOuter, TKey> outerKeySelector,
+                                                                                 Function<TInner, TKey> innerKeySelector,
+                                                                                 BiFunction<TOuter, TInner, TResult> resultSelector,
+                                                                                 ICompareEquality<TKey> compareEquality,
+                                                                                 boolean preserveOrder){
+        return parallelJoin(outer, inner, outerKeySelector, innerKeySelector, resultSelector, compareEquality,
+                preserveOrder, Parallel.defaultParallelism());
+    }
+
+    /**
+     * Correlates the elements of two sequences based on matching keys, on a fork/join pool.
+     * Both sequences are hash-partitioned on their keys; each partition builds its own table and probes it
+     * independently, so no locking takes place. The result selector is called from several threads.
+     * @param outer The first sequence to join.
+     * @param inner The sequence to join to the first sequence.
+     * @param outerKeySelector A function to extract the join key from each element of the first sequence.
+     * @param innerKeySelector A function to extract the join key from each element of the second sequence.
+     * @param resultSelector A function to create a result element from two matching elements.
+     * @param compareEquality An {@link ICompareEquality} to hash and compare keys, or {@code null} for the default.
+     * @param preserveOrder {@code true} to return matches in outer order (then inner order), exactly like {@code join};
+     *                      {@code false} to skip the final re-ordering step and return them partition by partition.
+     * @param parallelism The number of worker threads to use.
+     * @return An {@link Iterable} of the joined elements.
+     * @throws NullArgumentException Thrown when a sequence or a function is null.
+     * @throws ArgumentOutOfRangeException Thrown when {@code parallelism} is less than 1.
+     */
+    public static <TOuter, TInner, TKey, TResult> Iterable<TResult> parallelJoin(Iterable<TOuter> outer, Iterable<TInner> inner,
+                                                                                 Function<TOuter, TKey> outerKeySelector,
+                                                                                 Function<TInner, TKey> innerKeySelector,
+                                                                                 BiFunction<TOuter, TInner, TResult> resultSelector,
+                                                                                 ICompareEquality<TKey> compareEquality,
+                                                                                 boolean preserveOrder, int parallelism){
+        checkJoinArguments(outer, inner, outerKeySelector, innerKeySelector, resultSelector);
+        if(parallelism < 1)
+            throw new ArgumentOutOfRangeException("parallelism");
+
+        return ParallelJoin.join(outer, inner, outerKeySelector, innerKeySelector, resultSelector, compareEquality,
+                preserveOrder, parallelism);
+    }
+
     // ----------------------------- GroupBy (DE... Semi-DE) -----------------------------
     // Logically Function<K, Iterable<V>, S> == Function<IGrouping<K, V>, S>
 
@@ -1040,9 +1547,51 @@ public final class Enumerable {
         if(elementFunction == null)
             throw new NullArgumentException("elementFunction");
 
+        // Already sorted by this very key: equal keys are next to each other, so groups can be streamed
+        if(src instanceof OrderedIterable && ((OrderedIterable<T, ?>) src).isClusteredBy(keyFunction)
+                && (compareEquality == null || compareEquality instanceof DefaultEquality))
+            return groupSortedImp(src, keyFunction, elementFunction);
         return groupByImp(src, keyFunction, elementFunction, compareEquality);
     }
 
+    // Groups of a sequence sorted by its key in natural (or reverse) order. Equal keys tie in that order, so each
+    // run of tied keys is grouped on its own, by equals as groupByImp would; keys can tie without being equal
+    // (BigDecimal's 1.0 and 1.00), so a run may hold more than one group.
+    private static <T, K, V> Iterable<IGrouping<K, V>> groupSortedImp(Iterable<T> src, Function<T, K> keyFunction,
+                                                                     Function<T, V> elementFunction){
+        return (Yield<IGrouping<K, V>>) yield -> {
+            List<Grouping<K, V>> run = new ArrayList<>();
+            for(T item : src){
+                K key = keyFunction.apply(item);
+                if(!run.isEmpty() && !keysTie(run.get(0).getKey(), key)){
+                    for(Grouping<K, V> group : run)
+                        yield.returning(group);
+                    run.clear();
+                }
+                Grouping<K, V> group = null;
+                for(Grouping<K, V> candidate : run)
+                    if(keysEqual(candidate.getKey(), key, null)){
+                        group = candidate;
+                        break;
+                    }
+                if(group == null){
+                    group = new Grouping<>(key);
+                    run.add(group);
+                }
+                group.add(elementFunction.apply(item));
+            }
+            for(Grouping<K, V> group : run)
+                yield.returning(group);
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean keysTie(Object a, Object b){
+        if(a == null || b == null)
+            return a == b;
+        return ((Comparable<Object>) a).compareTo(b) == 0;
+    }
+
     private static <T, K, V> Iterable<IGrouping<K, V>> groupByImp(Iterable<T> src,
                                                                   Function<T, K> keyFunction,
                                                                   Function<T, V> elementFunction,
@@ -1054,6 +1603,65 @@ public final class Enumerable {
         };
     }
 
+    public static <T, K> Iterable<IGrouping<K, T>> groupBy(Iterable<T> src,
+                                                           Function<T, K> keyFunction,
+                                                           ISerializer<K> keySerializer,
+                                                           ISerializer<T> elementSerializer,
+                                                           int limit){
+        return groupBy(src, keyFunction, x -> x, keySerializer, elementSerializer, limit, null);
+    }
+
+    public static <T, K, V> Iterable<IGrouping<K, V>> groupBy(Iterable<T> src,
+                                                              Function<T, K> keyFunction,
+                                                              Function<T, V> elementFunction,
+                                                              ISerializer<K> keySerializer,
+                                                              ISerializer<V> elementSerializer,
+                                                              int limit){
+        return groupBy(src, keyFunction, elementFunction, keySerializer, elementSerializer, limit, null);
+    }
+
+    /**
+     * Groups a sequence holding no more than {@code limit} elements in memory, or about that: a single group can't be
+     * split, so one bigger than {@code limit} is still held whole. Once the groups get bigger than that, they and
+     * the rest of {@code src} go through temporary files, and are read back a share of the keys at a time.
+     * The result is the same as {@link #groupBy(Iterable, Function, Function, ICompareEquality)}'s, in the same
+     * order. Unlike a lookup, groups are streamed, and each iteration groups {@code src} again.
+     * Iterating the result to the end, or closing its iterator, deletes the temporary files.
+     * @param src The sequence to group.
+     * @param keyFunction Gets the key of an element.
+     * @param elementFunction Gets what goes in the group for an element.
+     * @param keySerializer Writes keys out to the temporary files and reads them back.
+     * @param elementSerializer Writes grouped elements out to the temporary files and reads them back.
+     * @param limit Most grouped elements held in memory; at least 1.
+     * @param compareEquality Compares keys; they're compared with {@code equals} when it's {@code null}.
+     * @return A sequence of the groups of {@code src}, in order of their first element.
+     * @throws NullArgumentException Thrown when any argument but {@code compareEquality} is null.
+     * @throws ArgumentOutOfRangeException Thrown when {@code limit} is less than 1.
+     */
+    public static <T, K, V> Iterable<IGrouping<K, V>> groupBy(Iterable<T> src,
+                                                              Function<T, K> keyFunction,
+                                                              Function<T, V> elementFunction,
+                                                              ISerializer<K> keySerializer,
+                                                              ISerializer<V> elementSerializer,
+                                                              int limit,
+                                                              ICompareEquality<K> compareEquality){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(keyFunction == null)
+            throw new NullArgumentException("keyFunction");
+        if(elementFunction == null)
+            throw new NullArgumentException("elementFunction");
+        if(keySerializer == null)
+            throw new NullArgumentException("keySerializer");
+        if(elementSerializer == null)
+            throw new NullArgumentException("elementSerializer");
+        if(limit < 1)
+            throw new ArgumentOutOfRangeException("limit");
+        ICompareEquality<K> equality = compareEquality != null ? compareEquality : new DefaultEquality<>();
+        return () -> Spilling.groupBy(src, keyFunction, elementFunction, keySerializer, elementSerializer, limit,
+                equality);
+    }
+
     public static <T, K, S> Iterable<S> groupBy(Iterable<T> src,
                                                 Function<T, K> keyFunction,
                                                 BiFunction<K, Iterable<T>, S> resultFunction){
@@ -1087,39 +1695,544 @@ public final class Enumerable {
                 group -> resultFunction.apply(group.getKey(), group));
     }
 
-    // ----------------------------- GroupJoin (DE) -----------------------------
-    // Ignores Null Keys
-    // When iterating through result, 'inner' sequence is immediately read all the way through
+    // ----------------------------- GroupAdjacent (DE) MoreLINQ -----------------------------
+    // Groups runs of consecutive elements sharing a key; a key seen again later starts a new group.
 
-    public static <TOuter, TInner, TKey, TResult> Iterable<TResult> groupJoin(Iterable<TOuter> outer, Iterable<TInner> inner,
-                                                                              Function<TOuter, TKey> outerKeySelector,
-                                                                              Function<TInner, TKey> innerKeySelector,
-                                                                              BiFunction<TOuter, Iterable<TInner>, TResult> resultSelector){
-        return groupJoin(outer, inner, outerKeySelector, innerKeySelector, resultSelector, new DefaultEquality<>());
+    public static <T, K> Iterable<IGrouping<K, T>> groupAdjacent(Iterable<T> src, Function<T, K> keyFunction){
+        return groupAdjacent(src, keyFunction, x -> x, new DefaultEquality<>());
     }
 
-    public static <TOuter, TInner, TKey, TResult> Iterable<TResult> groupJoin(Iterable<TOuter> outer, Iterable<TInner> inner,
-                                                                              Function<TOuter, TKey> outerKeySelector,
-                                                                              Function<TInner, TKey> innerKeySelector,
-                                                                              BiFunction<TOuter, Iterable<TInner>, TResult> resultSelector,
-                                                                              ICompareEquality<TKey> compareEquality){
-        if(outer == null)
-            throw new NullArgumentException("outer");
-        if(inner == null)
-            throw new NullArgumentException("inner");
-        if(outerKeySelector == null)
-            throw new NullArgumentException("outerKeySelector");
-        if(innerKeySelector == null)
-            throw new NullArgumentException("innerKeySelector");
-        if(resultSelector == null)
-            throw new NullArgumentException("resultSelector");
+    public static <T, K> Iterable<IGrouping<K, T>> groupAdjacent(Iterable<T> src, Function<T, K> keyFunction,
+                                                                ICompareEquality<K> compareEquality){
+        return groupAdjacent(src, keyFunction, x -> x, compareEquality);
+    }
 
-        return groupJoinImp(outer, inner, outerKeySelector, innerKeySelector, resultSelector, compareEquality);
+    public static <T, K, V> Iterable<IGrouping<K, V>> groupAdjacent(Iterable<T> src, Function<T, K> keyFunction,
+                                                                   Function<T, V> elementFunction){
+        return groupAdjacent(src, keyFunction, elementFunction, new DefaultEquality<>());
     }
 
-    public static <TOuter, TInner, TKey, TResult> Iterable<TResult> groupJoinImp(Iterable<TOuter> outer, Iterable<TInner> inner,
-                                                                              Function<TOuter, TKey> outerKeySelector,
-                                                                              Function<TInner, TKey> innerKeySelector,
+    /**
+     * Groups consecutive elements with equal keys. Each group is yielded as soon as an element with another key
+     * (or the end of {@code src}) is read, so only the current group is held in memory and {@code src} may be
+     * endless. On input already clustered by the key (sorted by it, bucketed by time, ...) this gives the same
+     * groups as {@link #groupBy(Iterable, Function, Function, ICompareEquality)}; {@code groupBy} does it by
+     * itself on sequences ordered by the same key selector instance.
+     * @param src The sequence to group.
+     * @param keyFunction Picks the key of each element.
+     * @param elementFunction Picks what goes into the group for each element.
+     * @param compareEquality Equality of keys; {@code null} for their own. Null keys equal each other.
+     * @return The groups, in the order of {@code src}.
+     * @throws NullArgumentException Thrown when {@code src}, {@code keyFunction} or {@code elementFunction} is null.
+     */
+    public static <T, K, V> Iterable<IGrouping<K, V>> groupAdjacent(Iterable<T> src, Function<T, K> keyFunction,
+                                                                   Function<T, V> elementFunction,
+                                                                   ICompareEquality<K> compareEquality){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(keyFunction == null)
+            throw new NullArgumentException("keyFunction");
+        if(elementFunction == null)
+            throw new NullArgumentException("elementFunction");
+        return groupAdjacentImp(src, keyFunction, elementFunction, compareEquality);
+    }
+
+    private static <T, K, V> Iterable<IGrouping<K, V>> groupAdjacentImp(Iterable<T> src, Function<T, K> keyFunction,
+                                                                       Function<T, V> elementFunction,
+                                                                       ICompareEquality<K> compareEquality){
+        return (Yield<IGrouping<K, V>>) yield -> {
+            Grouping<K, V> group = null;
+            for(T item : src){
+                K key = keyFunction.apply(item);
+                if(group == null || !keysEqual(group.getKey(), key, compareEquality)){
+                    if(group != null)
+                        yield.returning(group);
+                    group = new Grouping<>(key);
+                }
+                group.add(elementFunction.apply(item));
+            }
+            if(group != null)
+                yield.returning(group);
+        };
+    }
+
+    private static <K> boolean keysEqual(K a, K b, ICompareEquality<K> compareEquality){
+        if(a == null || b == null)
+            return a == b;
+        return compareEquality == null ? a.equals(b) : compareEquality.equals(a, b);
+    }
+
+    // ----------------------------- GroupAggregate (DE) -----------------------------
+    // Unlike groupBy, only one accumulator is kept per key, never the elements themselves.
+    // Keys come out in the order they were first seen; a null key is a key like any other.
+    // The work is done by iterator(), on the caller's thread, so exceptions (e.g. overflow) reach it.
+
+    public static <T, K, A> Iterable<Tuple2<K, A>> groupAggregate(Iterable<T> src,
+                                                                Function<T, K> keyFunction,
+                                                                Supplier<A> seedFactory,
+                                                                BiFunction<A, T, A> function){
+        return groupAggregate(src, keyFunction, seedFactory, function, new DefaultEquality<>());
+    }
+
+    /**
+     * Aggregates the elements of each key separately, in one pass: {@code function} folds each element into the
+     * accumulator of its key, which starts off as a new {@code seedFactory} value.
+     * @param src The sequence to aggregate.
+     * @param keyFunction Picks the key of each element.
+     * @param seedFactory Makes the starting accumulator of each key.
+     * @param function Folds an element into its key's accumulator; may update it in place and return it.
+     * @param compareEquality Equality of keys; {@code null} for their own.
+     * @param <T> Type of elements of {@code src}.
+     * @param <K> Type of the keys.
+     * @param <A> Type of the accumulators.
+     * @return A (key, accumulator) pair per key.
+     * @throws NullArgumentException Thrown when {@code src}, {@code keyFunction}, {@code seedFactory} or
+     *         {@code function} is null.
+     */
+    public static <T, K, A> Iterable<Tuple2<K, A>> groupAggregate(Iterable<T> src,
+                                                                Function<T, K> keyFunction,
+                                                                Supplier<A> seedFactory,
+                                                                BiFunction<A, T, A> function,
+                                                                ICompareEquality<K> compareEquality){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(keyFunction == null)
+            throw new NullArgumentException("keyFunction");
+        if(seedFactory == null)
+            throw new NullArgumentException("seedFactory");
+        if(function == null)
+            throw new NullArgumentException("function");
+
+        return () -> {
+            KeyTable.Aggregates<K, A> aggregates = new KeyTable.Aggregates<>(compareEquality);
+            for(T item : src)
+                aggregates.accept(keyFunction.apply(item), item, seedFactory, function);
+            List<Tuple2<K, A>> results = new ArrayList<>(aggregates.size());
+            for(int i = 0; i < aggregates.size(); i++)
+                results.add(new Tuple2<>(aggregates.key(i), aggregates.value(i)));
+            return results.iterator();
+        };
+    }
+
+    public static <T, K> Iterable<Tuple2<K, Long>> countBy(Iterable<T> src, Function<T, K> keyFunction){
+        return countBy(src, keyFunction, new DefaultEquality<>());
+    }
+
+    /**
+     * @return The number of elements of each key, as (key, count) pairs.
+     * @throws NullArgumentException Thrown when {@code src} or {@code keyFunction} is null.
+     */
+    public static <T, K> Iterable<Tuple2<K, Long>> countBy(Iterable<T> src, Function<T, K> keyFunction,
+                                                          ICompareEquality<K> compareEquality){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(keyFunction == null)
+            throw new NullArgumentException("keyFunction");
+
+        return () -> {
+            KeyTable<K> keys = new KeyTable<>(compareEquality);
+            long[] counts = new long[8];
+            for(T item : src){
+                int index = keys.add(keyFunction.apply(item));
+                counts = KeyTable.fit(counts, index + 1);
+                counts[index]++;
+            }
+            List<Tuple2<K, Long>> results = new ArrayList<>(keys.size());
+            for(int i = 0; i < keys.size(); i++)
+                results.add(new Tuple2<>(keys.key(i), counts[i]));
+            return results.iterator();
+        };
+    }
+
+    /**
+     * @return The sum of {@code selector} over the elements of each key, as (key, sum) pairs.
+     * @throws NullArgumentException Thrown when {@code src}, {@code keyFunction} or {@code selector} is null.
+     * @throws ArithmeticException Thrown when a key's sum doesn't fit in a {@code long}. Only the sums have to
+     *         fit, not the running totals along the way.
+     */
+    public static <T, K> Iterable<Tuple2<K, Long>> sumLongBy(Iterable<T> src, Function<T, K> keyFunction,
+                                                            ToLongFunction<T> selector){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(keyFunction == null)
+            throw new NullArgumentException("keyFunction");
+        if(selector == null)
+            throw new NullArgumentException("selector");
+
+        return () -> {
+            KeyTable<K> keys = new KeyTable<>(null);
+            long[] sums = new long[8];
+            long[] carries = new long[8];
+            for(T item : src){
+                int index = keys.add(keyFunction.apply(item));
+                sums = KeyTable.fit(sums, index + 1);
+                carries = KeyTable.fit(carries, index + 1);
+                long value = selector.applyAsLong(item);
+                long result = sums[index] + value;
+                carries[index] += NumericAccumulator.carry(sums[index], value, result);
+                sums[index] = result;
+            }
+            List<Tuple2<K, Long>> results = new ArrayList<>(keys.size());
+            for(int i = 0; i < keys.size(); i++){
+                if(carries[i] != 0)
+                    throw new ArithmeticException("Long Overflow exception.");
+                results.add(new Tuple2<>(keys.key(i), sums[i]));
+            }
+            return results.iterator();
+        };
+    }
+
+    /**
+     * @return The (compensated) sum of {@code selector} over the elements of each key, as (key, sum) pairs.
+     * @throws NullArgumentException Thrown when {@code src}, {@code keyFunction} or {@code selector} is null.
+     */
+    public static <T, K> Iterable<Tuple2<K, Double>> sumDoubleBy(Iterable<T> src, Function<T, K> keyFunction,
+                                                                ToDoubleFunction<T> selector){
+        if(selector == null)
+            throw new NullArgumentException("selector");
+        return project(groupAggregate(src, keyFunction, CompensatedSum::new, (sum, item) -> {
+            sum.accept(selector.applyAsDouble(item));
+            return sum;
+        }), pair -> new Tuple2<>(pair.getItem1(), pair.getItem2().value()));
+    }
+
+    public static <T, K, C> Iterable<Tuple2<K, T>> minByKey(Iterable<T> src, Function<T, K> keyFunction,
+                                                           Function<T, C> selector){
+        return minByKey(src, keyFunction, selector, null);
+    }
+
+    /**
+     * Per key {@link #minBy(Iterable, Function, Comparator)}: the element of each key with the smallest
+     * {@code selector} value, the first one on ties.
+     * @param comparator Orders the selected values; {@code null} for their natural order.
+     * @return (key, element) pairs.
+     * @throws NullArgumentException Thrown when {@code src}, {@code keyFunction} or {@code selector} is null.
+     */
+    public static <T, K, C> Iterable<Tuple2<K, T>> minByKey(Iterable<T> src, Function<T, K> keyFunction,
+                                                           Function<T, C> selector, Comparator<C> comparator){
+        return extremeByKey(src, keyFunction, selector, comparator, false);
+    }
+
+    public static <T, K, C> Iterable<Tuple2<K, T>> maxByKey(Iterable<T> src, Function<T, K> keyFunction,
+                                                           Function<T, C> selector){
+        return maxByKey(src, keyFunction, selector, null);
+    }
+
+    /**
+     * Per key {@link #maxBy(Iterable, Function, Comparator)}: the element of each key with the largest
+     * {@code selector} value, the first one on ties.
+     * @param comparator Orders the selected values; {@code null} for their natural order.
+     * @return (key, element) pairs.
+     * @throws NullArgumentException Thrown when {@code src}, {@code keyFunction} or {@code selector} is null.
+     */
+    public static <T, K, C> Iterable<Tuple2<K, T>> maxByKey(Iterable<T> src, Function<T, K> keyFunction,
+                                                           Function<T, C> selector, Comparator<C> comparator){
+        return extremeByKey(src, keyFunction, selector, comparator, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, K, C> Iterable<Tuple2<K, T>> extremeByKey(Iterable<T> src, Function<T, K> keyFunction,
+                                                                Function<T, C> selector, Comparator<C> comparator,
+                                                                boolean max){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(keyFunction == null)
+            throw new NullArgumentException("keyFunction");
+        if(selector == null)
+            throw new NullArgumentException("selector");
+        Comparator<C> order = comparator != null ? comparator : (Comparator<C>) Comparator.naturalOrder();
+
+        return () -> {
+            KeyTable<K> keys = new KeyTable<>(null);
+            // The best element of each key, and its selected value so it's only worked out once
+            Object[] best = new Object[8];
+            Object[] bestValues = new Object[8];
+            for(T item : src){
+                int seen = keys.size();
+                int index = keys.add(keyFunction.apply(item));
+                best = KeyTable.fit(best, index + 1);
+                bestValues = KeyTable.fit(bestValues, index + 1);
+                C value = selector.apply(item);
+                if(index == seen || isBetter(order.compare(value, (C) bestValues[index]), max)){
+                    best[index] = item;
+                    bestValues[index] = value;
+                }
+            }
+            List<Tuple2<K, T>> results = new ArrayList<>(keys.size());
+            for(int i = 0; i < keys.size(); i++)
+                results.add(new Tuple2<>(keys.key(i), (T) best[i]));
+            return results.iterator();
+        };
+    }
+
+    // Strictly better, so the first of equal elements is kept
+    private static boolean isBetter(int comparison, boolean max){
+        return max ? comparison > 0 : comparison < 0;
+    }
+
+    // ----------------------------- TopFrequent (IE) -----------------------------
+
+    public static <T, K> Iterable<Tuple2<K, Long>> topFrequent(Iterable<T> src, Function<T, K> keyFunction,
+                                                              int count){
+        return topFrequent(src, keyFunction, count, new DefaultEquality<>());
+    }
+
+    /**
+     * The most frequent keys of a sequence. Keys are counted in a {@code long[]} by key number, as in
+     * {@link #countBy(Iterable, Function, ICompareEquality) countBy}, and the top ones picked with a heap of
+     * {@code count} key numbers; no element is kept, and the keys aren't sorted.
+     * @param src A sequence of elements.
+     * @param keyFunction A function to extract the key of each element.
+     * @param count Most keys wanted; at least 1.
+     * @param compareEquality Compares keys; they're compared with {@code equals} when it's {@code null}.
+     * @param <T> Type of elements of {@code src}.
+     * @param <K> Type of the keys.
+     * @return Up to {@code count} (key, count) pairs, the most frequent key first. Keys with the same count come in
+     *         the order they first occurred.
+     * @throws NullArgumentException Thrown when {@code src} or {@code keyFunction} is null.
+     * @throws ArgumentOutOfRangeException Thrown when {@code count} is less than 1.
+     */
+    public static <T, K> Iterable<Tuple2<K, Long>> topFrequent(Iterable<T> src, Function<T, K> keyFunction,
+                                                              int count, ICompareEquality<K> compareEquality){
+        checkTopFrequent(src, keyFunction, count);
+        return () -> {
+            KeyTable<K> keys = new KeyTable<>(compareEquality);
+            long[] counts = new long[8];
+            for(T item : src){
+                int index = keys.add(keyFunction.apply(item));
+                counts = KeyTable.fit(counts, index + 1);
+                counts[index]++;
+            }
+            int[] top = topIndices(counts, keys.size(), count);
+            List<Tuple2<K, Long>> results = new ArrayList<>(top.length);
+            for(int index : top)
+                results.add(new Tuple2<>(keys.key(index), counts[index]));
+            return results.iterator();
+        };
+    }
+
+    // Numbers of the `count` largest counts, largest first, lower numbers first on ties
+    private static int[] topIndices(long[] counts, int size, int count){
+        // Min-heap: the root is the worst of the best so far
+        int[] heap = new int[Math.min(count, size)];
+        int filled = 0;
+        for(int index = 0; index < size; index++){
+            if(filled < heap.length){
+                heap[filled] = index;
+                siftUp(counts, heap, filled++);
+            }
+            else if(worse(counts, heap[0], index)){
+                heap[0] = index;
+                siftDown(counts, heap, filled);
+            }
+        }
+        // Emptying the heap gives the worst first
+        int[] top = new int[filled];
+        for(int end = filled - 1; end >= 0; end--){
+            top[end] = heap[0];
+            heap[0] = heap[end];
+            siftDown(counts, heap, end);
+        }
+        return top;
+    }
+
+    private static void siftUp(long[] counts, int[] heap, int position){
+        while(position > 0){
+            int parent = (position - 1) >>> 1;
+            if(!worse(counts, heap[position], heap[parent]))
+                break;
+            swap(heap, position, parent);
+            position = parent;
+        }
+    }
+
+    // From the root, over the first `size` positions of the heap
+    private static void siftDown(long[] counts, int[] heap, int size){
+        for(int position = 0; ; ){
+            int child = 2 * position + 1;
+            if(child >= size)
+                break;
+            if(child + 1 < size && worse(counts, heap[child + 1], heap[child]))
+                child++;
+            if(!worse(counts, heap[child], heap[position]))
+                break;
+            swap(heap, position, child);
+            position = child;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j){
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    private static boolean worse(long[] counts, int a, int b){
+        return counts[a] < counts[b] || (counts[a] == counts[b] && a > b);
+    }
+
+    public static <T, K> Iterable<Tuple2<K, Long>> approxTopFrequent(Iterable<T> src, Function<T, K> keyFunction,
+                                                                    int count){
+        return approxTopFrequent(src, keyFunction, count, (int) Math.min(Integer.MAX_VALUE >> 1,
+                Math.max(1000L, 10L * count)));
+    }
+
+    /**
+     * The most frequent keys of a sequence, estimated in constant memory with a {@link FrequentItems} summary: no
+     * more than {@code capacity} keys are ever held, however many distinct ones {@code src} has. Counts are over the
+     * truth by at most {@code n / capacity} for {@code n} elements.
+     * To follow the top keys of an endless stream, add its keys to a {@link FrequentItems} as they come instead.
+     * @param capacity Most keys counted at once; at least {@code count}. When not given, ten times {@code count}
+     *                 and at least 1000.
+     * @return Up to {@code count} (key, estimated count) pairs, the most frequent key first.
+     * @throws ArgumentOutOfRangeException Thrown when {@code count} is less than 1 or {@code capacity} is less than
+     *         {@code count}.
+     * @see #topFrequent(Iterable, Function, int, ICompareEquality)
+     */
+    public static <T, K> Iterable<Tuple2<K, Long>> approxTopFrequent(Iterable<T> src, Function<T, K> keyFunction,
+                                                                    int count, int capacity){
+        checkTopFrequent(src, keyFunction, count);
+        if(capacity < count)
+            throw new ArgumentOutOfRangeException("capacity");
+        return () -> {
+            FrequentItems<K> summary = new FrequentItems<>(capacity);
+            for(T item : src)
+                summary.add(keyFunction.apply(item));
+            return summary.top(count).iterator();
+        };
+    }
+
+    private static void checkTopFrequent(Iterable<?> src, Object keyFunction, int count){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(keyFunction == null)
+            throw new NullArgumentException("keyFunction");
+        if(count < 1)
+            throw new ArgumentOutOfRangeException("count");
+    }
+
+    // ----------------------------- TopNBy (DE) -----------------------------
+
+    @SuppressWarnings("unchecked")
+    public static <T, K, S> Iterable<IGrouping<K, T>> topNBy(Iterable<T> src, Function<T, K> keyFunction,
+                                                            Function<T, S> sortKeyFunction, int n){
+        return topNBy(src, keyFunction, sortKeyFunction, n, (Comparator<S>) Comparator.naturalOrder());
+    }
+
+    /**
+     * The first {@code n} elements of each group, in order of a sort key: the same as {@code groupBy} followed by
+     * {@code orderBy(sortKeyFunction, comparator).take(n)} on each group, in one pass. Each key only keeps a heap
+     * of its best {@code n} elements so far, never the whole group.
+     * The work is done by {@code iterator()}, on the caller's thread.
+     * @param src The sequence to group.
+     * @param keyFunction Picks the group key of each element. A null key is a key like any other.
+     * @param sortKeyFunction Picks the key each group is ordered by.
+     * @param n Most elements kept per group; at least 1.
+     * @param comparator Orders the sort keys; {@code null} for their natural order.
+     * @param <T> Type of elements of {@code src}.
+     * @param <K> Type of the group keys.
+     * @param <S> Type of the sort keys.
+     * @return The groups, in order of first occurrence of their keys, each with up to {@code n} elements in order of
+     *         sort key. Elements with equal sort keys keep the order of {@code src}, as {@code orderBy} is stable.
+     * @throws NullArgumentException Thrown when {@code src}, {@code keyFunction} or {@code sortKeyFunction} is null.
+     * @throws ArgumentOutOfRangeException Thrown when {@code n} is less than 1.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, K, S> Iterable<IGrouping<K, T>> topNBy(Iterable<T> src, Function<T, K> keyFunction,
+                                                            Function<T, S> sortKeyFunction, int n,
+                                                            Comparator<S> comparator){
+        return topNByImp(src, keyFunction, sortKeyFunction, n,
+                comparator != null ? comparator : (Comparator<S>) Comparator.naturalOrder());
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T, K, S> Iterable<IGrouping<K, T>> topNByDescending(Iterable<T> src, Function<T, K> keyFunction,
+                                                                      Function<T, S> sortKeyFunction, int n){
+        return topNByDescending(src, keyFunction, sortKeyFunction, n, (Comparator<S>) Comparator.naturalOrder());
+    }
+
+    /**
+     * Like {@link #topNBy(Iterable, Function, Function, int, Comparator)} with the order reversed, as
+     * {@code orderByDescending} does: the {@code n} greatest elements of each group, greatest first.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, K, S> Iterable<IGrouping<K, T>> topNByDescending(Iterable<T> src, Function<T, K> keyFunction,
+                                                                      Function<T, S> sortKeyFunction, int n,
+                                                                      Comparator<S> comparator){
+        return topNByImp(src, keyFunction, sortKeyFunction, n,
+                comparator != null ? comparator.reversed() : (Comparator<S>) Comparator.reverseOrder());
+    }
+
+    private static <T, K, S> Iterable<IGrouping<K, T>> topNByImp(Iterable<T> src, Function<T, K> keyFunction,
+                                                                Function<T, S> sortKeyFunction, int n,
+                                                                Comparator<S> comparator){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(keyFunction == null)
+            throw new NullArgumentException("keyFunction");
+        if(sortKeyFunction == null)
+            throw new NullArgumentException("sortKeyFunction");
+        if(n < 1)
+            throw new ArgumentOutOfRangeException("n");
+
+        return () -> {
+            KeyTable<K> keys = new KeyTable<>(null);
+            Object[] heaps = new Object[8];
+            long ordinal = 0;
+            for(T item : src){
+                int seen = keys.size();
+                int index = keys.add(keyFunction.apply(item));
+                if(index == seen){
+                    heaps = KeyTable.fit(heaps, index + 1);
+                    heaps[index] = new TopN<T, S>(n, comparator);
+                }
+                @SuppressWarnings("unchecked")
+                TopN<T, S> heap = (TopN<T, S>) heaps[index];
+                heap.offer(sortKeyFunction.apply(item), item, ordinal++);
+            }
+            List<IGrouping<K, T>> groups = new ArrayList<>(keys.size());
+            for(int i = 0; i < keys.size(); i++){
+                @SuppressWarnings("unchecked")
+                TopN<T, S> heap = (TopN<T, S>) heaps[i];
+                groups.add(heap.toGrouping(keys.key(i)));
+            }
+            return groups.iterator();
+        };
+    }
+
+    // ----------------------------- GroupJoin (DE) -----------------------------
+    // Ignores Null Keys
+    // When iterating through result, 'inner' sequence is immediately read all the way through
+
+    public static <TOuter, TInner, TKey, TResult> Iterable<TResult> groupJoin(Iterable<TOuter> outer, Iterable<TInner> inner,
+                                                                              Function<TOuter, TKey> outerKeySelector,
+                                                                              Function<TInner, TKey> innerKeySelector,
+                                                                              BiFunction<TOuter, Iterable<TInner>, TResult> resultSelector){
+        return groupJoin(outer, inner, outerKeySelector, innerKeySelector, resultSelector, new DefaultEquality<>());
+    }
+
+    public static <TOuter, TInner, TKey, TResult> Iterable<TResult> groupJoin(Iterable<TOuter> outer, Iterable<TInner> inner,
+                                                                              Function<TOuter, TKey> outerKeySelector,
+                                                                              Function<TInner, TKey> innerKeySelector,
+                                                                              BiFunction<TOuter, Iterable<TInner>, TResult> resultSelector,
+                                                                              ICompareEquality<TKey> compareEquality){
+        if(outer == null)
+            throw new NullArgumentException("outer");
+        if(inner == null)
+            throw new NullArgumentException("inner");
+        if(outerKeySelector == null)
+            throw new NullArgumentException("outerKeySelector");
+        if(innerKeySelector == null)
+            throw new NullArgumentException("innerKeySelector");
+        if(resultSelector == null)
+            throw new NullArgumentException("resultSelector");
+
+        return groupJoinImp(outer, inner, outerKeySelector, innerKeySelector, resultSelector, compareEquality);
+    }
+
+    public static <TOuter, TInner, TKey, TResult> Iterable<TResult> groupJoinImp(Iterable<TOuter> outer, Iterable<TInner> inner,
+                                                                              Function<TOuter, TKey> outerKeySelector,
+                                                                              Function<TInner, TKey> innerKeySelector,
                                                                               BiFunction<TOuter, Iterable<TInner>, TResult> resultSelector,
                                                                               ICompareEquality<TKey> compareEquality){
         ILookup<TKey, TInner> lookup = toLookup(inner, innerKeySelector, compareEquality);
@@ -1131,6 +2244,238 @@ public final class Enumerable {
         };
     }
 
+    // ----------------------------- LeftJoin/RightJoin/FullJoin (DE) -----------------------------
+    // Null keys never match, but the elements carrying them are still returned on their side of the join.
+    // When iterating through result, 'inner' sequence is immediately read all the way through, once.
+    // The missing side of an unmatched pair is passed to the result selector as null.
+
+    /**
+     * Correlates the elements of two sequences based on matching keys, keeping every outer element.
+     * Outer elements without a match are passed to {@code resultSelector} with a {@code null} inner element.
+     * @param outer The first sequence to join; all of its elements are kept.
+     * @param inner The sequence to join to the first sequence; it is the one held in the hash table.
+     * @param outerKeySelector A function to extract the join key from each element of the first sequence.
+     * @param innerKeySelector A function to extract the join key from each element of the second sequence.
+     * @param resultSelector A function to create a result element from two (possibly unmatched) elements.
+     * @param <TOuter> The type of the elements of the first sequence.
+     * @param <TInner> The type of the elements of the second sequence.
+     * @param <TKey> The type of the keys returned by the key selector functions.
+     * @param <TResult> The type of the result elements.
+     * @return An {@link Iterable} of the matched pairs, in outer order, with unmatched outer elements in place.
+     * @throws NullArgumentException Thrown when any of the arguments is null.
+     */
+    public static <TOuter, TInner, TKey, TResult> Iterable<TResult> leftJoin(Iterable<TOuter> outer, Iterable<TInner> inner,
+                                                                             Function<TOuter, TKey> outerKeySelector,
+                                                                             Function<TInner, TKey> innerKeySelector,
+                                                                             BiFunction<TOuter, TInner, TResult> resultSelector){
+        return leftJoin(outer, inner, outerKeySelector, innerKeySelector, resultSelector, null);
+    }
+
+    public static <TOuter, TInner, TKey, TResult> Iterable<TResult> leftJoin(Iterable<TOuter> outer, Iterable<TInner> inner,
+                                                                             Function<TOuter, TKey> outerKeySelector,
+                                                                             Function<TInner, TKey> innerKeySelector,
+                                                                             BiFunction<TOuter, TInner, TResult> resultSelector,
+                                                                             ICompareEquality<TKey> compareEquality){
+        checkJoinArguments(outer, inner, outerKeySelector, innerKeySelector, resultSelector);
+        return outerJoinImp(outer, inner, outerKeySelector, innerKeySelector, resultSelector, compareEquality,
+                true, false);
+    }
+
+    /**
+     * Correlates the elements of two sequences based on matching keys, keeping every inner element.
+     * Matched pairs are returned in outer order, followed by the inner elements which matched nothing
+     * (passed to {@code resultSelector} with a {@code null} outer element), in inner order.
+     * @see #leftJoin(Iterable, Iterable, Function, Function, BiFunction)
+     */
+    public static <TOuter, TInner, TKey, TResult> Iterable<TResult> rightJoin(Iterable<TOuter> outer, Iterable<TInner> inner,
+                                                                              Function<TOuter, TKey> outerKeySelector,
+                                                                              Function<TInner, TKey> innerKeySelector,
+                                                                              BiFunction<TOuter, TInner, TResult> resultSelector){
+        return rightJoin(outer, inner, outerKeySelector, innerKeySelector, resultSelector, null);
+    }
+
+    public static <TOuter, TInner, TKey, TResult> Iterable<TResult> rightJoin(Iterable<TOuter> outer, Iterable<TInner> inner,
+                                                                              Function<TOuter, TKey> outerKeySelector,
+                                                                              Function<TInner, TKey> innerKeySelector,
+                                                                              BiFunction<TOuter, TInner, TResult> resultSelector,
+                                                                              ICompareEquality<TKey> compareEquality){
+        checkJoinArguments(outer, inner, outerKeySelector, innerKeySelector, resultSelector);
+        return outerJoinImp(outer, inner, outerKeySelector, innerKeySelector, resultSelector, compareEquality,
+                false, true);
+    }
+
+    /**
+     * Correlates the elements of two sequences based on matching keys, keeping every element of both.
+     * The result is the left join, followed by the inner elements which matched nothing. Matched inner elements
+     * are tracked in a bit set, so the unmatched ones are found in a single sweep once the outer sequence ends.
+     * @see #leftJoin(Iterable, Iterable, Function, Function, BiFunction)
+     */
+    public static <TOuter, TInner, TKey, TResult> Iterable<TResult> fullJoin(Iterable<TOuter> outer, Iterable<TInner> inner,
+                                                                             Function<TOuter, TKey> outerKeySelector,
+                                                                             Function<TInner, TKey> innerKeySelector,
+                                                                             BiFunction<TOuter, TInner, TResult> resultSelector){
+        return fullJoin(outer, inner, outerKeySelector, innerKeySelector, resultSelector, null);
+    }
+
+    public static <TOuter, TInner, TKey, TResult> Iterable<TResult> fullJoin(Iterable<TOuter> outer, Iterable<TInner> inner,
+                                                                             Function<TOuter, TKey> outerKeySelector,
+                                                                             Function<TInner, TKey> innerKeySelector,
+                                                                             BiFunction<TOuter, TInner, TResult> resultSelector,
+                                                                             ICompareEquality<TKey> compareEquality){
+        checkJoinArguments(outer, inner, outerKeySelector, innerKeySelector, resultSelector);
+        return outerJoinImp(outer, inner, outerKeySelector, innerKeySelector, resultSelector, compareEquality,
+                true, true);
+    }
+
+    private static void checkJoinArguments(Iterable<?> outer, Iterable<?> inner,
+                                           Function<?, ?> outerKeySelector, Function<?, ?> innerKeySelector,
+                                           BiFunction<?, ?, ?> resultSelector){
+        if(outer == null)
+            throw new NullArgumentException("outer");
+        if(inner == null)
+            throw new NullArgumentException("inner");
+        if(outerKeySelector == null)
+            throw new NullArgumentException("outer key selector");
+        if(innerKeySelector == null)
+            throw new NullArgumentException("inner key selector");
+        if(resultSelector == null)
+            throw new NullArgumentException("result selector");
+    }
+
+    private static <TOuter, TInner, TKey, TResult> Iterable<TResult> outerJoinImp(Iterable<TOuter> outer, Iterable<TInner> inner,
+                                                                                  Function<TOuter, TKey> outerKeySelector,
+                                                                                  Function<TInner, TKey> innerKeySelector,
+                                                                                  BiFunction<TOuter, TInner, TResult> resultSelector,
+                                                                                  ICompareEquality<TKey> compareEquality,
+                                                                                  boolean keepOuter, boolean keepInner){
+        return (Yield<TResult>) yield -> {
+            JoinTable<TKey, TInner> table = new JoinTable<>(inner, innerKeySelector, compareEquality);
+            BitSet matched = keepInner ? new BitSet(table.size()) : null;
+
+            for(TOuter outerItem : outer){
+                int i = table.first(outerKeySelector.apply(outerItem));
+                if(i < 0 && keepOuter)
+                    yield.returning(resultSelector.apply(outerItem, null));
+                for(; i >= 0; i = table.next(i)){
+                    if(matched != null)
+                        matched.set(i);
+                    yield.returning(resultSelector.apply(outerItem, table.get(i)));
+                }
+            }
+
+            // Single sweep for the build side rows which never matched
+            if(matched != null)
+                for(int i = matched.nextClearBit(0); i < table.size(); i = matched.nextClearBit(i + 1))
+                    yield.returning(resultSelector.apply(null, table.get(i)));
+        };
+    }
+
+    // ----------------------------- WhereExists/WhereNotExists (DE) -----------------------------
+    // Semi-join and anti-join. Only the inner keys are kept, never the inner elements.
+    // Ignores Null keys, so an outer element with a null key never exists (and always "not exists").
+
+    /**
+     * Filters a sequence to the elements whose key matches the key of at least one element of another sequence.
+     * Unlike {@code join}, each outer element is returned at most once, no matter how many inner elements match it.
+     * @param outer The sequence to filter.
+     * @param inner The sequence to match against; only its keys are held in memory.
+     * @param outerKeySelector A function to extract the join key from each element of the outer sequence.
+     * @param innerKeySelector A function to extract the join key from each element of the inner sequence.
+     * @param <TOuter> The type of the elements of the outer sequence.
+     * @param <TInner> The type of the elements of the inner sequence.
+     * @param <TKey> The type of the keys.
+     * @return The outer elements which have a matching inner key, in their original order.
+     * @throws NullArgumentException Thrown when any of the arguments is null.
+     */
+    public static <TOuter, TInner, TKey> Iterable<TOuter> whereExists(Iterable<TOuter> outer, Iterable<TInner> inner,
+                                                                      Function<TOuter, TKey> outerKeySelector,
+                                                                      Function<TInner, TKey> innerKeySelector){
+        return whereExists(outer, inner, outerKeySelector, innerKeySelector, null);
+    }
+
+    /**
+     * Filters a sequence to the elements whose key matches the key of at least one element of another sequence,
+     * using a specified {@link ICompareEquality} to compare keys.
+     * @see #whereExists(Iterable, Iterable, Function, Function)
+     */
+    public static <TOuter, TInner, TKey> Iterable<TOuter> whereExists(Iterable<TOuter> outer, Iterable<TInner> inner,
+                                                                      Function<TOuter, TKey> outerKeySelector,
+                                                                      Function<TInner, TKey> innerKeySelector,
+                                                                      ICompareEquality<TKey> compareEquality){
+        if(outer == null)
+            throw new NullArgumentException("outer");
+        if(inner == null)
+            throw new NullArgumentException("inner");
+        if(outerKeySelector == null)
+            throw new NullArgumentException("outer key selector");
+        if(innerKeySelector == null)
+            throw new NullArgumentException("inner key selector");
+
+        return semiJoinImp(outer, inner, outerKeySelector, innerKeySelector, compareEquality, true);
+    }
+
+    /**
+     * Filters a sequence to the elements whose key matches no element of another sequence.
+     * @param outer The sequence to filter.
+     * @param inner The sequence to match against; only its keys are held in memory.
+     * @param outerKeySelector A function to extract the join key from each element of the outer sequence.
+     * @param innerKeySelector A function to extract the join key from each element of the inner sequence.
+     * @param <TOuter> The type of the elements of the outer sequence.
+     * @param <TInner> The type of the elements of the inner sequence.
+     * @param <TKey> The type of the keys.
+     * @return The outer elements which have no matching inner key, in their original order.
+     * @throws NullArgumentException Thrown when any of the arguments is null.
+     */
+    public static <TOuter, TInner, TKey> Iterable<TOuter> whereNotExists(Iterable<TOuter> outer, Iterable<TInner> inner,
+                                                                         Function<TOuter, TKey> outerKeySelector,
+                                                                         Function<TInner, TKey> innerKeySelector){
+        return whereNotExists(outer, inner, outerKeySelector, innerKeySelector, null);
+    }
+
+    /**
+     * Filters a sequence to the elements whose key matches no element of another sequence,
+     * using a specified {@link ICompareEquality} to compare keys.
+     * @see #whereNotExists(Iterable, Iterable, Function, Function)
+     */
+    public static <TOuter, TInner, TKey> Iterable<TOuter> whereNotExists(Iterable<TOuter> outer, Iterable<TInner> inner,
+                                                                         Function<TOuter, TKey> outerKeySelector,
+                                                                         Function<TInner, TKey> innerKeySelector,
+                                                                         ICompareEquality<TKey> compareEquality){
+        if(outer == null)
+            throw new NullArgumentException("outer");
+        if(inner == null)
+            throw new NullArgumentException("inner");
+        if(outerKeySelector == null)
+            throw new NullArgumentException("outer key selector");
+        if(innerKeySelector == null)
+            throw new NullArgumentException("inner key selector");
+
+        return semiJoinImp(outer, inner, outerKeySelector, innerKeySelector, compareEquality, false);
+    }
+
+    private static <TOuter, TInner, TKey> Iterable<TOuter> semiJoinImp(Iterable<TOuter> outer, Iterable<TInner> inner,
+                                                                       Function<TOuter, TKey> outerKeySelector,
+                                                                       Function<TInner, TKey> innerKeySelector,
+                                                                       ICompareEquality<TKey> compareEquality,
+                                                                       boolean exists){
+        return (Yield<TOuter>) yield -> {
+            // Inner sequence is read all the way through on the first iteration (like intersect)
+            HashSet<Object> innerKeys = new HashSet<>();
+            for(TInner innerItem : inner){
+                TKey key = innerKeySelector.apply(innerItem);
+                if(key != null)
+                    innerKeys.add(EqualityKey.of(key, compareEquality));
+            }
+
+            for(TOuter outerItem : outer){
+                TKey key = outerKeySelector.apply(outerItem);
+                boolean found = key != null && innerKeys.contains(EqualityKey.of(key, compareEquality));
+                if(found == exists)
+                    yield.returning(outerItem);
+            }
+        };
+    }
+
 
     // ----------------------------- Take (DE) -----------------------------
     // Might need CloseableIterator because Yield is a resource (due to threads)
@@ -1138,6 +2483,9 @@ public final class Enumerable {
     public static <T> Iterable<T> take(Iterable<T> src, int count){
         if (src == null)
             throw new NullArgumentException("source");
+        IPartition<T> partition = Partitions.of(src);
+        if(partition != null)
+            return partition.slice(0, count);
         return takeImp(src, count);
     }
 
@@ -1198,6 +2546,9 @@ public final class Enumerable {
             throw new NullArgumentException("source");
         if(count <= 0)
             return src;
+        IPartition<T> partition = Partitions.of(src);
+        if(partition != null)
+            return partition.slice(count, Integer.MAX_VALUE);
         return skipImp(src, count);
     }
 
@@ -1284,6 +2635,13 @@ public final class Enumerable {
             collection = (Collection<T>) src;
             return (T[])collection.toArray();
         }
+        if(src instanceof IPartition){
+            IPartition<T> partition = (IPartition<T>) src;
+            Object[] array = new Object[partition.size()];
+            for(int i = 0; i < array.length; i++)
+                array[i] = partition.get(i);
+            return (T[]) array;
+        }
         collection = new ArrayList<>();
         addToCollection(collection, src);
         return (T[])collection.toArray();
@@ -1364,6 +2722,68 @@ public final class Enumerable {
                 : (Comparator<K>) Comparator.reverseOrder());
     }
 
+    // ----------------------------- AsOrderedBy (DE) -----------------------------
+
+    @SuppressWarnings("unchecked")
+    public static <T, K> IOrderedIterable<T> asOrderedBy(Iterable<T> src, Function<T, K> keySelector){
+        return asOrderedBy(src, keySelector, (Comparator<K>) Comparator.naturalOrder());
+    }
+
+    /**
+     * Declares that a sequence is already ordered by a key (e.g. a time-ordered log), without sorting it.
+     * The order is checked as the sequence is read.
+     * @param src A sequence already in ascending order of {@code keySelector} according to {@code comparator}.
+     * @param keySelector A function to extract the key from an element.
+     * @param comparator A {@link Comparator} to compare keys; {@code null} for natural ordering.
+     * @param <T> Type of elements of {@code src}.
+     * @param <K> Type of key returned by {@code keySelector}.
+     * @return An {@link IOrderedIterable} yielding {@code src} as it is.
+     * @throws NullArgumentException Thrown when {@code src} or {@code keySelector} is null.
+     * @throws InvalidOperationException Thrown on iteration, when an element is found out of order.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, K> IOrderedIterable<T> asOrderedBy(Iterable<T> src, Function<T, K> keySelector,
+                                                         Comparator<K> comparator){
+        if (src == null)
+            throw new NullArgumentException("source");
+        if(keySelector == null)
+            throw new NullArgumentException("key selector");
+        return OrderedIterable.presorted(src, keySelector,
+                comparator != null ? comparator : (Comparator<K>) Comparator.naturalOrder(), true);
+    }
+
+    // ----------------------------- MergeSorted (DE) -----------------------------
+
+    @SuppressWarnings("unchecked")
+    public static <T, K> IOrderedIterable<T> mergeSorted(Iterable<? extends Iterable<T>> sources,
+                                                         Function<T, K> keySelector){
+        return mergeSorted(sources, keySelector, (Comparator<K>) Comparator.naturalOrder());
+    }
+
+    /**
+     * Merges sequences which are each already ordered by the same key into one ordered sequence.
+     * Only the current element of each sequence is held; elements ranking equally come out in the order of
+     * the sequences holding them, so the merge is stable.
+     * @param sources Sequences, each in ascending order of {@code keySelector} according to {@code comparator}.
+     * @param keySelector A function to extract the key from an element.
+     * @param comparator A {@link Comparator} to compare keys; {@code null} for natural ordering.
+     * @param <T> Type of elements of the sequences.
+     * @param <K> Type of key returned by {@code keySelector}.
+     * @return An {@link IOrderedIterable} of all the elements of {@code sources}.
+     * @throws NullArgumentException Thrown when {@code sources} or {@code keySelector} is null.
+     * @throws InvalidOperationException Thrown on iteration, when a source turns out not to be in order.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, K> IOrderedIterable<T> mergeSorted(Iterable<? extends Iterable<T>> sources,
+                                                         Function<T, K> keySelector, Comparator<K> comparator){
+        if(sources == null)
+            throw new NullArgumentException("sources");
+        if(keySelector == null)
+            throw new NullArgumentException("key selector");
+        Comparator<K> order = comparator != null ? comparator : (Comparator<K>) Comparator.naturalOrder();
+        return OrderedIterable.presorted(SortedMerge.merge(sources, keySelector, order), keySelector, order, true);
+    }
+
     // ----------------------------- ThenBy (DE) -----------------------------
 
     @SuppressWarnings("unchecked")
@@ -1401,17 +2821,18 @@ public final class Enumerable {
     public static <T> Iterable<T> reverse(Iterable<T> src){
         if(src == null)
             throw new NullArgumentException("source");
+        IPartition<T> partition = Partitions.of(src);
+        if(partition != null)
+            return new Partitions.Reversed<>(partition);
         return reverseImp(src);
     }
 
+    // Buffered when iterated (not when called), and read back from the end
     private static <T> Iterable<T> reverseImp(Iterable<T> src) {
-        Stack<T> stack = new Stack<>();
-        for(T item : src)
-            stack.push(item);
-
         return (Yield<T>) yield -> {
-            for(T item : stack)
-                yield.returning(item);
+            List<T> buffer = toList(src);
+            for(int i = buffer.size() - 1; i >= 0; i--)
+                yield.returning(buffer.get(i));
         };
     }
 
@@ -1431,8 +2852,9 @@ public final class Enumerable {
 
         int sum = 0;
         for(T item : src){
+            Integer value = selector.apply(item);
             if(sum < Integer.MAX_VALUE)
-                sum += selector.apply(item) == null ? 0 : selector.apply(item);
+                sum += value == null ? 0 : value;
             else
                 throw new ArithmeticException("Integer Overflow exception.");
         }
@@ -1451,8 +2873,9 @@ public final class Enumerable {
 
         long sum = 0L;
         for(T item : src){
+            Long value = selector.apply(item);
             if(sum < Long.MAX_VALUE)
-                sum += selector.apply(item) == null ? 0L : selector.apply(item);
+                sum += value == null ? 0L : value;
             else
                 throw new ArithmeticException("Long Overflow exception.");
         }
@@ -1471,8 +2894,9 @@ public final class Enumerable {
 
         short sum = 0;
         for(T item : src){
+            Short value = selector.apply(item);
             if(sum < Short.MAX_VALUE)
-                sum += selector.apply(item) == null ? 0 : selector.apply(item);
+                sum += value == null ? 0 : value;
             else
                 throw new ArithmeticException("Short Overflow exception.");
         }
@@ -1489,13 +2913,15 @@ public final class Enumerable {
         if(selector == null)
             throw new NullArgumentException("selector");
 
-        double sum = 0d;
-        for(T item : src)
-            sum += selector.apply(item) == null ? 0d : selector.apply(item);
-        return sum;
+        // Compensated, so the total doesn't drift as the number of values grows
+        CompensatedSum sum = new CompensatedSum();
+        for(T item : src){
+            Double value = selector.apply(item);
+            sum.accept(value == null ? 0d : value);
+        }
+        return sum.value();
     }
 
-    // TODO: Consider Kahan Summation algorithm. Aggregate Ops nightmare
     public static float floatSum(Iterable<Float> src){
         return floatSum(src, x -> x);
     }
@@ -1506,10 +2932,11 @@ public final class Enumerable {
         if(selector == null)
             throw new NullArgumentException("selector");
 
-        float sum = 0f;
+        // Added up as doubles, and only rounded to a float at the end
+        CompensatedSum sum = new CompensatedSum();
         for(T item : src)
-            sum += selector.apply(item);
-        return sum;
+            sum.accept(selector.apply(item));
+        return (float) sum.value();
     }
 
     // ----------------------------- Min (IE) -----------------------------
@@ -1638,44 +3065,135 @@ public final class Enumerable {
 
     // ----------------------------- Average (IE) -----------------------------
 
-    public static <T extends Number> double average(Iterable<T> src){
-        if(src == null)
-            throw new NullArgumentException("Source");
+    // Single pass: whole numbers are totalled exactly, anything else as a double.
+    public static <T extends Number> double average(Iterable<T> src){
+        if(src == null)
+            throw new NullArgumentException("Source");
+
+        NumericAccumulator accumulator = new NumericAccumulator();
+        for(T item : src)
+            addNumber(accumulator, item);
+
+        if(accumulator.count() == 0)
+            throw new InvalidOperationException("Sequence containsKey no elements!");
+        return accumulator.average();
+    }
+
+    public static <T> double average(Iterable<T> src, Function<T, Number> selector){
+        if(src == null)
+            throw new NullArgumentException("Source");
+        if(selector == null)
+            throw new NullArgumentException("Selector");
+
+        NumericAccumulator accumulator = new NumericAccumulator();
+        for(T item : src)
+            addNumber(accumulator, selector.apply(item));
+
+        if(accumulator.count() == 0)
+            throw new InvalidOperationException("Sequence containsKey no elements!");
+        return accumulator.average();
+    }
+
+    private static void addNumber(NumericAccumulator accumulator, Number n){
+        if(n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte)
+            accumulator.addLong(n.longValue());
+        else
+            accumulator.addDouble(n.doubleValue());
+    }
+
+    // ----------------------------- Sum/Average/Min/Max over primitive selectors (IE) -----------------------------
+    // Named by type rather than overloaded, since a lambda would fit both a Function<T, Integer> and a
+    // ToIntFunction<T> overload. Values are never boxed, the selector is called once per element and sums are exact:
+    // overflowing the result type throws ArithmeticException instead of wrapping around.
+
+    public static <T> int sumInt(Iterable<T> src, ToIntFunction<T> selector){
+        return accumulateInt(src, selector).intSum();
+    }
+
+    public static <T> long sumLong(Iterable<T> src, ToLongFunction<T> selector){
+        return accumulateLong(src, selector).longSum();
+    }
+
+    public static <T> double sumDouble(Iterable<T> src, ToDoubleFunction<T> selector){
+        return accumulateDouble(src, selector).doubleSum();
+    }
+
+    /**
+     * Computes the average of the {@code int} values selected from a sequence, in a single pass.
+     * @param src A sequence of values to average.
+     * @param selector A projection to apply to each element.
+     * @param <T> Type of elements of {@code src}.
+     * @return The average of the selected values.
+     * @throws NullArgumentException Thrown when {@code src} or {@code selector} is null.
+     * @throws InvalidOperationException Thrown when {@code src} is empty.
+     */
+    public static <T> double averageInt(Iterable<T> src, ToIntFunction<T> selector){
+        return accumulateInt(src, selector).average();
+    }
+
+    public static <T> double averageLong(Iterable<T> src, ToLongFunction<T> selector){
+        return accumulateLong(src, selector).average();
+    }
+
+    public static <T> double averageDouble(Iterable<T> src, ToDoubleFunction<T> selector){
+        return accumulateDouble(src, selector).average();
+    }
+
+    public static <T> int minInt(Iterable<T> src, ToIntFunction<T> selector){
+        return (int) accumulateInt(src, selector).longMin();
+    }
+
+    public static <T> long minLong(Iterable<T> src, ToLongFunction<T> selector){
+        return accumulateLong(src, selector).longMin();
+    }
+
+    public static <T> double minDouble(Iterable<T> src, ToDoubleFunction<T> selector){
+        return accumulateDouble(src, selector).doubleMin();
+    }
 
-        Iterator<T> it = src.iterator();
+    public static <T> int maxInt(Iterable<T> src, ToIntFunction<T> selector){
+        return (int) accumulateInt(src, selector).longMax();
+    }
 
-        if(!it.hasNext())
-            throw new InvalidOperationException("Sequence containsKey no elements!");
+    public static <T> long maxLong(Iterable<T> src, ToLongFunction<T> selector){
+        return accumulateLong(src, selector).longMax();
+    }
 
-        Number n = it.next();
-        long count = 0;
-        double total = 0;
-        if(n instanceof Long || n instanceof Integer){
-            for(T item : src){
-                total += item.longValue();
-                count++;
-            }
-        } else if(n instanceof Double || n instanceof Float){
-            for(T item : src){
-                total += item.doubleValue();
-                count++;
-            }
-        } else {
-            for(T item : src){
-                total += item.shortValue();
-                count++;
-            }
-        }
+    public static <T> double maxDouble(Iterable<T> src, ToDoubleFunction<T> selector){
+        return accumulateDouble(src, selector).doubleMax();
+    }
 
-        return total/ count;
+    private static <T> NumericAccumulator accumulateInt(Iterable<T> src, ToIntFunction<T> selector){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(selector == null)
+            throw new NullArgumentException("selector");
+        NumericAccumulator accumulator = new NumericAccumulator();
+        for(T item : src)
+            accumulator.addLong(selector.applyAsInt(item));
+        return accumulator;
     }
 
-    // TODO: Better optimisation for primitives!
-    public static <T> double average(Iterable<T> src, Function<T, Number> selector){
+    private static <T> NumericAccumulator accumulateLong(Iterable<T> src, ToLongFunction<T> selector){
+        if(src == null)
+            throw new NullArgumentException("source");
         if(selector == null)
-            throw new NullArgumentException("Selector");
+            throw new NullArgumentException("selector");
+        NumericAccumulator accumulator = new NumericAccumulator();
+        for(T item : src)
+            accumulator.addLong(selector.applyAsLong(item));
+        return accumulator;
+    }
 
-        return average(project(src, selector));
+    private static <T> NumericAccumulator accumulateDouble(Iterable<T> src, ToDoubleFunction<T> selector){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(selector == null)
+            throw new NullArgumentException("selector");
+        NumericAccumulator accumulator = new NumericAccumulator();
+        for(T item : src)
+            accumulator.addDouble(selector.applyAsDouble(item));
+        return accumulator;
     }
 
     // work on Float version
@@ -1702,6 +3220,11 @@ public final class Enumerable {
         if (index < 0)
             return null;
 
+        if(src instanceof IPartition){
+            IPartition<T> partition = (IPartition<T>) src;
+            return index < partition.size() ? partition.get(index) : null;
+        }
+
         if(src instanceof Collection){
             Collection<T> c = (Collection<T>)src;
             int count = c.size();
@@ -1714,18 +3237,22 @@ public final class Enumerable {
         }
 
         Iterator<T> it = src.iterator();
-        // Note use of -1 so that we start off my moving onto element 0.
-        // Don't want to use i <= index in case index == Integer.MaxValue!
-        if(it.hasNext()){
-            for(int i = -1; i < index; i++){
-                it.next();
-                if(!it.hasNext())
-                    return null;
+        try {
+            // Note use of -1 so that we start off my moving onto element 0.
+            // Don't want to use i <= index in case index == Integer.MaxValue!
+            if(it.hasNext()){
+                for(int i = -1; i < index; i++){
+                    it.next();
+                    if(!it.hasNext())
+                        return null;
+                }
+                return it.next();
             }
-            return it.next();
-        }
 
-        return null;
+            return null;
+        } finally {
+            closeIterators(it);
+        }
     }
 
     // ----------------------------- Contains (IE) -----------------------------
@@ -1741,11 +3268,16 @@ public final class Enumerable {
             throw new NullArgumentException("source");
 
         compareEquality = compareEquality != null ? compareEquality : new DefaultEquality<>();
-        for(T item : src)
-            if(compareEquality.equals(value, item))
-                return true;
+        Iterator<T> it = src.iterator();
+        try {
+            while(it.hasNext())
+                if(compareEquality.equals(value, it.next()))
+                    return true;
 
-        return false;
+            return false;
+        } finally {
+            closeIterators(it);
+        }
     }
 
     // ----------------------------- Cast/OfType (IE) -----------------------------
@@ -1776,22 +3308,26 @@ public final class Enumerable {
         // Get the iterators of both sequences and use them "in parallel"
         Iterator<T> it1 = first.iterator(), it2 = second.iterator();
 
-        while(true){
-            boolean n1 = it1.hasNext();
-            boolean n2 = it2.hasNext();
+        try {
+            while(true){
+                boolean n1 = it1.hasNext();
+                boolean n2 = it2.hasNext();
 
-            if(n1 != n2) {
-                return false;
-            }
+                if(n1 != n2) {
+                    return false;
+                }
 
-            // At this point both sequences could be exhausted.
-            if(!n1) {
-                return true;
-            }
+                // At this point both sequences could be exhausted.
+                if(!n1) {
+                    return true;
+                }
 
-            if(!compareEquality.equals(it1.next(), it2.next())) {
-                return false;
+                if(!compareEquality.equals(it1.next(), it2.next())) {
+                    return false;
+                }
             }
+        } finally {
+            closeIterators(it1, it2);
         }
     }
 
@@ -1805,6 +3341,10 @@ public final class Enumerable {
             throw new NullArgumentException("Second sequence");
         if(resultSelector == null)
             throw new NullArgumentException("Function");
+        IPartition<T> firstPartition = Partitions.of(first);
+        IPartition<S> secondPartition = Partitions.of(second);
+        if(firstPartition != null && secondPartition != null)
+            return new Partitions.Zipped<>(firstPartition, secondPartition, resultSelector);
         return zipImp(first, second, resultSelector);
     }
 
@@ -1819,24 +3359,355 @@ public final class Enumerable {
         };
     }
 
+    // ----------------------------- From (DE) -----------------------------
+
+    /**
+     * Wraps a {@link Stream} so it can be queried. Like the stream itself, the result can only be iterated once.
+     * Its spliterator is the stream's, so a parallel stream stays splittable.
+     * @param stream The stream to wrap.
+     * @param <T> Type of elements of the stream.
+     * @return A {@link BlaqIterable} reading {@code stream}.
+     * @throws NullArgumentException Thrown when {@code stream} is null.
+     */
+    public static <T> BlaqIterable<T> from(Stream<T> stream){
+        if(stream == null)
+            throw new NullArgumentException("stream");
+        return new StreamIterable<>(() -> stream);
+    }
+
+    /**
+     * Wraps a supplier of {@link Stream}s so they can be queried; each iteration reads a new stream.
+     * @param streams Creates the stream to read, on each iteration.
+     * @param <T> Type of elements of the streams.
+     * @return A {@link BlaqIterable} reading the streams {@code streams} supplies.
+     * @throws NullArgumentException Thrown when {@code streams} is null.
+     */
+    public static <T> BlaqIterable<T> from(Supplier<? extends Stream<T>> streams){
+        if(streams == null)
+            throw new NullArgumentException("streams");
+        return new StreamIterable<>(streams);
+    }
+
+    // ----------------------------- Window (DE) MoreLINQ -----------------------------
+    // Only whole windows are yielded: the first once size elements have been read, then one every step elements.
+    // step == size gives tumbling windows, step > size leaves elements out between windows.
+    // Sums and averages of windows, without boxing, are on the primitive sequences (projectToInt(...).windowSum).
+
+    public static <T> Iterable<List<T>> window(Iterable<T> src, int size){
+        return window(src, size, 1);
+    }
+
+    /**
+     * Sliding windows over a sequence. The last {@code size} elements are kept in a ring buffer, and each window
+     * is copied out of it into a list of its own, which the caller may keep.
+     * @param src The sequence to slide a window over.
+     * @param size Number of elements in a window; at least 1.
+     * @param step Number of elements the window moves on by between windows; at least 1.
+     * @param <T> Type of elements of {@code src}.
+     * @return A sequence of the windows, each oldest element first.
+     * @throws NullArgumentException Thrown when {@code src} is null.
+     * @throws ArgumentOutOfRangeException Thrown when {@code size} or {@code step} is less than 1.
+     */
+    public static <T> Iterable<List<T>> window(Iterable<T> src, int size, int step){
+        Windows.check(src, size, step);
+        return () -> new Iterator<List<T>>() {
+            private final Iterator<T> it = src.iterator();
+            private final Windows.Elements<T> window = new Windows.Elements<>(size, step);
+            private boolean ready;
+
+            @Override
+            public boolean hasNext() {
+                while(!ready && it.hasNext())
+                    ready = window.push(it.next());
+                return ready;
+            }
+
+            @Override
+            public List<T> next() {
+                if(!hasNext())
+                    throw new NoSuchElementException();
+                ready = false;
+                return window.toList();
+            }
+        };
+    }
+
+    public static <T> Iterable<T> windowMin(Iterable<T> src, int size){
+        return windowMin(src, size, 1, null);
+    }
+
+    public static <T> Iterable<T> windowMin(Iterable<T> src, int size, int step){
+        return windowMin(src, size, step, null);
+    }
+
+    /**
+     * Smallest element of each window (see {@link #window(Iterable, int, int)}), kept with a monotonic deque, so
+     * each element costs O(1) however big the window. Ties go to the element which came first.
+     * @param comparator Orders elements; {@code null} for their natural order.
+     */
+    public static <T> Iterable<T> windowMin(Iterable<T> src, int size, int step, Comparator<? super T> comparator){
+        Windows.check(src, size, step);
+        return windowExtremes(src, size, step, comparator, false);
+    }
+
+    public static <T> Iterable<T> windowMax(Iterable<T> src, int size){
+        return windowMax(src, size, 1, null);
+    }
+
+    public static <T> Iterable<T> windowMax(Iterable<T> src, int size, int step){
+        return windowMax(src, size, step, null);
+    }
+
+    public static <T> Iterable<T> windowMax(Iterable<T> src, int size, int step, Comparator<? super T> comparator){
+        Windows.check(src, size, step);
+        return windowExtremes(src, size, step, comparator, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Iterable<T> windowExtremes(Iterable<T> src, int size, int step,
+                                                  Comparator<? super T> comparator, boolean max){
+        Comparator<? super T> order = comparator != null ? comparator : (Comparator<T>) Comparator.naturalOrder();
+        return () -> new Iterator<T>() {
+            private final Iterator<T> it = src.iterator();
+            private final Windows.Extreme<T> window = new Windows.Extreme<>(size, step, order, max);
+            private boolean ready;
+
+            @Override
+            public boolean hasNext() {
+                while(!ready && it.hasNext())
+                    ready = window.push(it.next());
+                return ready;
+            }
+
+            @Override
+            public T next() {
+                if(!hasNext())
+                    throw new NoSuchElementException();
+                ready = false;
+                return window.value();
+            }
+        };
+    }
+
+    // ----------------------------- TumblingWindows/SessionWindows (DE) -----------------------------
+    // Windows of event time, for sequences which may never end: each window is yielded once the watermark (see
+    // WatermarkPolicy) passes its end, and only the aggregates of windows still open are held.
+
+    public static <T> Iterable<TimeWindow<List<T>>> tumblingWindows(Iterable<T> src, ToLongFunction<T> timestamp,
+                                                                   long width, WatermarkPolicy watermarks){
+        return tumblingWindows(src, timestamp, width, watermarks, ArrayList::new, (list, item) -> {
+            list.add(item);
+            return list;
+        });
+    }
+
+    /**
+     * Aggregates elements by fixed, back to back windows of event time: {@code [0, width)},
+     * {@code [width, 2 * width)}, ... Windows no element fell into aren't yielded.
+     * @param src The sequence of events, possibly endless.
+     * @param timestamp Gets the event time of an element.
+     * @param width Length of a window, in the units of {@code timestamp}; at least 1.
+     * @param watermarks When windows are done with; elements for windows already yielded are dropped.
+     * @param seedFactory Creates the aggregate of a new window.
+     * @param function Adds an element to its window's aggregate.
+     * @param <T> Type of elements of {@code src}.
+     * @param <A> Type of the aggregates.
+     * @return A sequence of the windows and their aggregates, in order of time.
+     * @throws NullArgumentException Thrown when any argument is null.
+     * @throws ArgumentOutOfRangeException Thrown when {@code width} is less than 1.
+     */
+    public static <T, A> Iterable<TimeWindow<A>> tumblingWindows(Iterable<T> src, ToLongFunction<T> timestamp,
+                                                                long width, WatermarkPolicy watermarks,
+                                                                Supplier<A> seedFactory,
+                                                                BiFunction<A, T, A> function){
+        checkEventTimeWindows(src, timestamp, watermarks, seedFactory, function);
+        if(width < 1)
+            throw new ArgumentOutOfRangeException("width");
+        return () -> EventTimeWindows.tumbling(src, timestamp, width, watermarks, seedFactory, function);
+    }
+
+    public static <T> Iterable<TimeWindow<List<T>>> sessionWindows(Iterable<T> src, ToLongFunction<T> timestamp,
+                                                                  long gap, WatermarkPolicy watermarks){
+        return sessionWindows(src, timestamp, gap, watermarks, ArrayList::new, (list, item) -> {
+            list.add(item);
+            return list;
+        }, (left, right) -> {
+            left.addAll(right);
+            return left;
+        });
+    }
+
+    /**
+     * Aggregates elements by sessions: runs of elements less than {@code gap} apart in event time. A session is
+     * {@code [first time, last time + gap)}, and is yielded once the watermark passes its end. An element arriving
+     * out of order may join two sessions together, whose aggregates are then combined.
+     * @param gap Time after an element which keeps its session open, in the units of {@code timestamp}; at least 1.
+     * @param combiner Combines the aggregates of two sessions, the earlier one first.
+     * @see #tumblingWindows(Iterable, ToLongFunction, long, WatermarkPolicy, Supplier, BiFunction)
+     */
+    public static <T, A> Iterable<TimeWindow<A>> sessionWindows(Iterable<T> src, ToLongFunction<T> timestamp,
+                                                               long gap, WatermarkPolicy watermarks,
+                                                               Supplier<A> seedFactory, BiFunction<A, T, A> function,
+                                                               BinaryOperator<A> combiner){
+        checkEventTimeWindows(src, timestamp, watermarks, seedFactory, function);
+        if(combiner == null)
+            throw new NullArgumentException("combiner");
+        if(gap < 1)
+            throw new ArgumentOutOfRangeException("gap");
+        return () -> EventTimeWindows.session(src, timestamp, gap, watermarks, seedFactory, function, combiner);
+    }
+
+    private static void checkEventTimeWindows(Iterable<?> src, Object timestamp, WatermarkPolicy watermarks,
+                                              Object seedFactory, Object function){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(timestamp == null)
+            throw new NullArgumentException("timestamp");
+        if(watermarks == null)
+            throw new NullArgumentException("watermarks");
+        if(seedFactory == null)
+            throw new NullArgumentException("seed factory");
+        if(function == null)
+            throw new NullArgumentException("function");
+    }
+
+    // ----------------------------- Memoize (DE) -----------------------------
+
+    public static <T> Iterable<T> memoize(Iterable<T> src){
+        return memoize(src, BufferPolicy.unbounded());
+    }
+
+    /**
+     * Caches a sequence, so it's only computed once however many times it's iterated.
+     * Nothing is read until the result is first iterated, and then only as far as that iteration goes; later
+     * iterations replay what was read, and carry on reading {@code src} where the furthest one stopped.
+     * Iterations may run at the same time, on different threads.
+     * @param src The sequence to cache.
+     * @param policy How many elements may be cached. Replaying never lets elements go, so it can't be
+     *               {@link BufferPolicy.Overflow#BLOCK}.
+     * @param <T> Type of elements of {@code src}.
+     * @return A sequence of the elements of {@code src}, read once.
+     * @throws NullArgumentException Thrown when {@code src} or {@code policy} is null.
+     * @throws ArgumentOutOfRangeException Thrown when {@code policy} would block.
+     */
+    public static <T> Iterable<T> memoize(Iterable<T> src, BufferPolicy policy){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(policy == null)
+            throw new NullArgumentException("policy");
+        if(policy.isBounded() && policy.overflow() == BufferPolicy.Overflow.BLOCK)
+            throw new ArgumentOutOfRangeException("policy");
+        SharedBuffer<T> buffer = new SharedBuffer<>(src, policy, true);
+        return buffer::fromStart;
+    }
+
+    // ----------------------------- Share (DE) -----------------------------
+
+    public static <T> Iterable<T> share(Iterable<T> src){
+        return share(src, BufferPolicy.unbounded());
+    }
+
+    /**
+     * Lets any number of iterations read a single pass over a sequence: each one gets the elements read from
+     * {@code src} after it started, whichever iteration read them. Elements are only held until every iteration
+     * still going has got past them. Once the pass has finished and no iteration is left, the next one starts a
+     * new pass.
+     * <p>To have several consumers each see the whole sequence, start them all first (one per thread), or use
+     * {@link #tee(Iterable, int, BufferPolicy)}. Closing an iterator (they are {@link CloseableIterator}s) before it
+     * is exhausted stops elements being held back for it; operators stopping early, such as {@code first} or
+     * {@code any}, close theirs, and an iterator dropped without closing stops once it's garbage collected.</p>
+     * @param src The sequence to share.
+     * @param policy How far apart the iterations may get.
+     * @param <T> Type of elements of {@code src}.
+     * @return A sequence whose iterations share one pass over {@code src}.
+     * @throws NullArgumentException Thrown when {@code src} or {@code policy} is null.
+     */
+    public static <T> Iterable<T> share(Iterable<T> src, BufferPolicy policy){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(policy == null)
+            throw new NullArgumentException("policy");
+        SharedBuffer<T> buffer = new SharedBuffer<>(src, policy, false);
+        return buffer::fromNext;
+    }
+
+    // ----------------------------- Tee (DE) -----------------------------
+
+    public static <T> List<Iterable<T>> tee(Iterable<T> src, int count){
+        return tee(src, count, BufferPolicy.unbounded());
+    }
+
+    /**
+     * Splits a sequence into {@code count} copies, which all read the same single pass over it. Each copy sees all
+     * of the elements and can be iterated once; elements are held until every copy has read them (or closed its
+     * iterator).
+     * @param src The sequence to split.
+     * @param count Number of copies.
+     * @param policy How far apart the copies may get. With {@link BufferPolicy.Overflow#BLOCK} the copies have to
+     *               be read on different threads.
+     * @param <T> Type of elements of {@code src}.
+     * @return {@code count} sequences of the elements of {@code src}.
+     * @throws NullArgumentException Thrown when {@code src} or {@code policy} is null.
+     * @throws ArgumentOutOfRangeException Thrown when {@code count} is less than 1.
+     */
+    public static <T> List<Iterable<T>> tee(Iterable<T> src, int count, BufferPolicy policy){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(policy == null)
+            throw new NullArgumentException("policy");
+        if(count < 1)
+            throw new ArgumentOutOfRangeException("count");
+        SharedBuffer<T> buffer = new SharedBuffer<>(src, policy, false);
+        List<Iterable<T>> copies = new ArrayList<>(count);
+        for(int i = 0; i < count; i++){
+            // Every copy is reading from the start, so nothing is let go before they've all had it
+            CloseableIterator<T> reader = buffer.fromStart();
+            AtomicBoolean iterated = new AtomicBoolean();
+            copies.add(() -> {
+                if(iterated.getAndSet(true))
+                    throw new InvalidOperationException("A tee copy can only be iterated once.");
+                return reader;
+            });
+        }
+        return copies;
+    }
+
+    // ----------------------------- AsParallel (DE) -----------------------------
+
+    public static <T> ParallelBlaqIterable<T> asParallel(Iterable<T> src){
+        return asParallel(src, Parallel.defaultParallelism());
+    }
+
+    /**
+     * Turns a sequence into a parallel query; its operators run on a fork/join pool over splits of {@code src}.
+     * @param src The sequence to query.
+     * @param parallelism Number of worker threads to use.
+     * @param <T> Type of elements of {@code src}.
+     * @return An unordered {@link ParallelBlaqIterable} over {@code src}.
+     * @throws NullArgumentException Thrown when {@code src} is null.
+     * @throws ArgumentOutOfRangeException Thrown when {@code parallelism} is less than 1.
+     */
+    public static <T> ParallelBlaqIterable<T> asParallel(Iterable<T> src, int parallelism){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(parallelism < 1)
+            throw new ArgumentOutOfRangeException("parallelism");
+        return new ParallelQuery<>(src, parallelism);
+    }
+
     // ----------------------------- AsEnumerable (IE) -----------------------------
 
     // Almost pointless operator. In LINQ this is usually used for changing the compile-time type of the expression.
     // Usually used for "out of process" queries (i.e. Databases). More fitting for LINQ-to-SQL.
 
     // Refactored to return a BlaqIterable object
+    // Collections are wrapped in views rather than copied, so this is O(1) and later changes to them are seen.
     public static <T> BlaqIterable<T> asBlaqIterable(Iterable<T> src){
         // Optimisations
-        if(src instanceof ArrayDeque)
-            return new BlaqDeque<>(src);
-        if(src instanceof List){
-            if(src instanceof LinkedList)
-                return new BlaqLinkedList<>(src);
-            if(src instanceof ArrayList)
-                return new BlaqList<>(src);
-        }
-        if(src instanceof Set)
-            return new BlaqSet<>(src);
+        if(src instanceof BlaqIterable)
+            return (BlaqIterable<T>) src;
+        if(src instanceof Collection)
+            return CollectionViews.of((Collection<T>) src);
 
         // Wrap the src with BlaqIterable
         return src::iterator;
@@ -1847,11 +3718,13 @@ public final class Enumerable {
 
     /* --------------------Nested Classes & Helpers---------------------- */
 
-//    private static void closeIterators(Iterator<?>... its){
-//        for(Iterator<?> i : its)
-//            if(i instanceof CloseableIterator)
-//                ((CloseableIterator) i).close();
-//    }
+    // For operators which stop reading before the end: lets go of what the iterators hold (a Yield's thread, a
+    // share's buffered elements, a spill's files)
+    private static void closeIterators(Iterator<?>... its){
+        for(Iterator<?> i : its)
+            if(i instanceof CloseableIterator)
+                ((CloseableIterator) i).close();
+    }
 
     private enum EmptyIterable implements Iterable<Object>{
         INSTANCE;
@@ -1861,7 +3734,208 @@ public final class Enumerable {
         public Iterator<Object> iterator() {
             return Collections.emptyIterator();
         }
+
+        @Override
+        public Spliterator<Object> spliterator() {
+            return Spliterators.emptySpliterator();
+        }
+    }
+
+    private static final class RangeIterable implements Iterable<Integer>{
+        private final int start, count;
+
+        RangeIterable(int start, int count){
+            this.start = start;
+            this.count = count;
+        }
+
+        @NotNull
+        @Override
+        public Iterator<Integer> iterator() {
+            return new Iterator<Integer>() {
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < count;
+                }
+
+                @Override
+                public Integer next() {
+                    if(index >= count)
+                        throw new NoSuchElementException();
+                    return start + index++;
+                }
+            };
+        }
+
+        @Override
+        public Spliterator<Integer> spliterator() {
+            return new RangeSpliterator(start, 0, count);
+        }
+    }
+
+    private static final class RangeSpliterator implements Spliterator<Integer>{
+        private final int start;
+        private int index;
+        private final int end;
+
+        RangeSpliterator(int start, int index, int end){
+            this.start = start;
+            this.index = index;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Integer> action) {
+            if(index >= end)
+                return false;
+            action.accept(start + index++);
+            return true;
+        }
+
+        @Override
+        public Spliterator<Integer> trySplit() {
+            int mid = (index + end) >>> 1;
+            if(mid <= index)
+                return null;
+            RangeSpliterator prefix = new RangeSpliterator(start, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | SORTED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return null; // natural order
+        }
+    }
+
+    private static final class RepeatIterable<T> implements Iterable<T>{
+        private final T element;
+        private final int count;
+
+        RepeatIterable(T element, int count){
+            this.element = element;
+            this.count = count;
+        }
+
+        @NotNull
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < count;
+                }
+
+                @Override
+                public T next() {
+                    if(index >= count)
+                        throw new NoSuchElementException();
+                    index++;
+                    return element;
+                }
+            };
+        }
+
+        @Override
+        public Spliterator<T> spliterator() {
+            return new RepeatSpliterator<>(element, count);
+        }
+    }
+
+    private static final class RepeatSpliterator<T> implements Spliterator<T>{
+        private final T element;
+        private int remaining;
+
+        RepeatSpliterator(T element, int remaining){
+            this.element = element;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if(remaining <= 0)
+                return false;
+            remaining--;
+            action.accept(element);
+            return true;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int half = remaining >>> 1;
+            if(half == 0)
+                return null;
+            remaining -= half;
+            return new RepeatSpliterator<>(element, half);
+        }
+
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+        }
+    }
+
+    // Yield based results which know something about their elements (e.g. that they're distinct), so that
+    // streams over them can make use of it.
+    private static final class CharacterisedIterable<T> implements Iterable<T>{
+        private final Iterable<T> source;
+        private final int characteristics;
+
+        CharacterisedIterable(Iterable<T> source, int characteristics){
+            this.source = source;
+            this.characteristics = characteristics;
+        }
+
+        @NotNull
+        @Override
+        public Iterator<T> iterator() {
+            return source.iterator();
+        }
+
+        @Override
+        public Spliterator<T> spliterator() {
+            return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | characteristics);
+        }
+    }
+
+    // Over a stream supplier: each iteration asks for a new stream. Over a single stream: it can be read only once.
+    private static final class StreamIterable<T> implements BlaqIterable<T>{
+        private final Supplier<? extends Stream<T>> streams;
+
+        StreamIterable(Supplier<? extends Stream<T>> streams){
+            this.streams = streams;
+        }
+
+        @NotNull
+        @Override
+        public Iterator<T> iterator() {
+            return streams.get().iterator();
+        }
+
+        @Override
+        public Spliterator<T> spliterator() {
+            return streams.get().spliterator();
+        }
     }
 
-    private static class DefaultEquality<T> implements ICompareEquality<T>{}
+    static class DefaultEquality<T> implements ICompareEquality<T>{}
 }
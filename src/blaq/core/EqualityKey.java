@@ -0,0 +1,50 @@
+package blaq.core;
+
+import blaq.annotations.Readonly;
+import blaq.util.ICompareEquality;
+
+/**
+ * Wraps a key so that hash based collections from {@code java.util} use an {@link ICompareEquality}
+ * rather than the key's own {@code equals} and {@code hashCode}.
+ * Keys compared with the default equality are not wrapped at all, so the common case costs nothing extra.
+ * @param <K> Type of the wrapped key.
+ */
+final class EqualityKey<K> {
+
+    @Readonly
+    private K key;
+    @Readonly
+    private ICompareEquality<K> compareEquality;
+
+    private EqualityKey(K key, ICompareEquality<K> compareEquality){
+        this.key = key;
+        this.compareEquality = compareEquality;
+    }
+
+    /**
+     * Returns an object which can be stored in a {@link java.util.HashSet} or used as a {@link java.util.HashMap} key.
+     * @param key The key to wrap.
+     * @param compareEquality Equality to honour; {@code null} or the default equality leave the key as it is.
+     * @param <K> Type of the key.
+     * @return {@code key} itself, or a wrapper delegating to {@code compareEquality}.
+     */
+    static <K> Object of(K key, ICompareEquality<K> compareEquality){
+        if(compareEquality == null || compareEquality instanceof Enumerable.DefaultEquality)
+            return key;
+        return new EqualityKey<>(key, compareEquality);
+    }
+
+    @Override
+    public int hashCode() {
+        return compareEquality.hashCode(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean equals(Object other) {
+        if(this == other) return true;
+        if(!(other instanceof EqualityKey))
+            return false;
+        return compareEquality.equals(key, ((EqualityKey<K>) other).key);
+    }
+}
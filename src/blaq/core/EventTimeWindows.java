@@ -0,0 +1,153 @@
+package blaq.core;
+
+import blaq.util.TimeWindow;
+import blaq.util.WatermarkPolicy;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Iterators behind {@code tumblingWindows} and {@code sessionWindows}.
+ * <p>Only windows still open are held, by start, each with its aggregate (never the elements themselves). Open
+ * windows never overlap, so they end in the same order as they start: each time an element is read and the watermark
+ * moves on, the windows at the front which end at or before it are yielded. Elements are read only until a window
+ * is ready, so an endless source is fine.</p>
+ */
+final class EventTimeWindows {
+
+    private EventTimeWindows(){throw new AssertionError("BLAQ doesn't need instances!");}
+
+    static <T, A> Iterator<TimeWindow<A>> tumbling(Iterable<T> src, ToLongFunction<T> timestamp, long width,
+                                                   WatermarkPolicy watermarks, Supplier<A> seedFactory,
+                                                   BiFunction<A, T, A> function){
+        return new WindowIterator<T, A>(src.iterator(), timestamp, watermarks) {
+            @Override
+            boolean add(T item, long time){
+                long start = Math.floorDiv(time, width) * width;
+                long end = saturatedAdd(start, width);
+                if(end <= watermark)
+                    return false;
+                Window<A> window = open.get(start);
+                if(window == null)
+                    open.put(start, window = new Window<>(start, end, seedFactory.get()));
+                window.value = function.apply(window.value, item);
+                return true;
+            }
+        };
+    }
+
+    /**
+     * An element starts a session of its own, {@code [time, time + gap)}, or joins (and may bridge) the sessions it
+     * overlaps. The element is added to the earliest of them, and the others are combined into it in order.
+     */
+    static <T, A> Iterator<TimeWindow<A>> session(Iterable<T> src, ToLongFunction<T> timestamp, long gap,
+                                                  WatermarkPolicy watermarks, Supplier<A> seedFactory,
+                                                  BiFunction<A, T, A> function, BinaryOperator<A> combiner){
+        return new WindowIterator<T, A>(src.iterator(), timestamp, watermarks) {
+            @Override
+            boolean add(T item, long time){
+                if(time < watermark)
+                    return false;
+                long end = saturatedAdd(time, gap);
+                List<Window<A>> overlapping = new ArrayList<>();
+                for(Window<A> window : open.headMap(end, false).descendingMap().values()){
+                    if(window.end <= time)
+                        break;
+                    overlapping.add(0, window);
+                }
+                if(overlapping.isEmpty()){
+                    Window<A> window = new Window<>(time, end, seedFactory.get());
+                    window.value = function.apply(window.value, item);
+                    open.put(time, window);
+                    return true;
+                }
+                Window<A> merged = overlapping.get(0);
+                open.remove(merged.start);
+                merged.value = function.apply(merged.value, item);
+                merged.start = Math.min(merged.start, time);
+                merged.end = Math.max(merged.end, end);
+                for(Window<A> window : overlapping.subList(1, overlapping.size())){
+                    open.remove(window.start);
+                    merged.value = combiner.apply(merged.value, window.value);
+                    merged.end = Math.max(merged.end, window.end);
+                }
+                open.put(merged.start, merged);
+                return true;
+            }
+        };
+    }
+
+    private static long saturatedAdd(long time, long length){
+        return time > Long.MAX_VALUE - length ? Long.MAX_VALUE : time + length;
+    }
+
+    private static final class Window<A> {
+        private long start;
+        private long end;
+        private A value;
+
+        Window(long start, long end, A value){
+            this.start = start;
+            this.end = end;
+            this.value = value;
+        }
+    }
+
+    private abstract static class WindowIterator<T, A> implements Iterator<TimeWindow<A>> {
+        private final Iterator<T> source;
+        private final ToLongFunction<T> timestamp;
+        private final WatermarkPolicy watermarks;
+        final TreeMap<Long, Window<A>> open = new TreeMap<>();
+        long watermark = Long.MIN_VALUE;
+        private long latest = Long.MIN_VALUE;
+        private boolean exhausted;
+
+        WindowIterator(Iterator<T> source, ToLongFunction<T> timestamp, WatermarkPolicy watermarks){
+            this.source = source;
+            this.timestamp = timestamp;
+            this.watermarks = watermarks;
+        }
+
+        /**
+         * Adds an element to the window(s) it belongs to.
+         * @return {@code false} if it's late, and was dropped.
+         */
+        abstract boolean add(T item, long time);
+
+        @Override
+        public boolean hasNext() {
+            while(true){
+                Map.Entry<Long, Window<A>> first = open.firstEntry();
+                if(first != null && (exhausted || first.getValue().end <= watermark))
+                    return true;
+                if(exhausted)
+                    return false;
+                if(!source.hasNext()){
+                    exhausted = true;
+                    continue;
+                }
+                T item = source.next();
+                long time = timestamp.applyAsLong(item);
+                if(add(item, time))
+                    latest = Math.max(latest, time);
+                watermark = Math.max(watermark, watermarks.watermark(latest));
+            }
+        }
+
+        @Override
+        public TimeWindow<A> next() {
+            if(!hasNext())
+                throw new NoSuchElementException();
+            Window<A> window = open.pollFirstEntry().getValue();
+            return new TimeWindow<>(window.start, window.end, window.value);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package blaq.core;
+
+import blaq.annotations.Readonly;
+import blaq.util.ICompareEquality;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.Function;
+
+/**
+ * Build side of a hash join.
+ * Every element of the build sequence is kept in one array, in its original order, so it can be addressed
+ * by index (e.g. from a {@link java.util.BitSet} of matched elements). Elements sharing a key are chained
+ * together through an {@code int[]} rather than being copied into a list per key like {@link Lookup} does.
+ * Elements with a null key are kept (so they can still be swept up) but are never matched.
+ * @param <K> Type of the join key.
+ * @param <V> Type of the build side elements.
+ */
+final class JoinTable<K, V> {
+
+    private static final int END = -1;
+
+    @Readonly
+    private ArrayList<V> items;
+    // key -> {index of first element, index of last element} with that key
+    @Readonly
+    private HashMap<Object, int[]> chains;
+    @Readonly
+    private ICompareEquality<K> compareEquality;
+
+    private int[] next;
+
+    JoinTable(Iterable<V> src, Function<V, K> keySelector, ICompareEquality<K> compareEquality){
+        this.compareEquality = compareEquality;
+        items = new ArrayList<>();
+        chains = new HashMap<>();
+        next = new int[16];
+
+        for(V item : src){
+            int index = items.size();
+            items.add(item);
+            if(index == next.length)
+                next = Arrays.copyOf(next, next.length * 2);
+            next[index] = END;
+
+            K key = keySelector.apply(item);
+            if(key == null)
+                continue;
+
+            int[] chain = chains.get(EqualityKey.of(key, compareEquality));
+            if(chain == null)
+                chains.put(EqualityKey.of(key, compareEquality), new int[]{index, index});
+            else {
+                next[chain[1]] = index; // Append, so matches come out in build order
+                chain[1] = index;
+            }
+        }
+    }
+
+    /**
+     * @return Index of the first element with the given key, or a negative number if there is none.
+     */
+    int first(K key){
+        if(key == null)
+            return END;
+        int[] chain = chains.get(EqualityKey.of(key, compareEquality));
+        return chain == null ? END : chain[0];
+    }
+
+    /**
+     * @return Index of the next element sharing the key of element {@code index}, or a negative number.
+     */
+    int next(int index){
+        return next[index];
+    }
+
+    V get(int index){
+        return items.get(index);
+    }
+
+    int size(){
+        return items.size();
+    }
+}
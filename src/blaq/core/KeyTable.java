@@ -0,0 +1,187 @@
+package blaq.core;
+
+import blaq.util.ICompareEquality;
+
+import java.util.Arrays;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Numbers the distinct keys of a sequence 0, 1, 2, ... in the order they are first seen, so per key state can be
+ * kept in plain arrays indexed by that number ({@code long[]} counts, ...) instead of a map entry or a list of
+ * elements per key.
+ * <p>Open addressing with linear probing: the table only holds {@code int}s (key number + 1, 0 for empty) and each
+ * key's hash is kept next to it, so growing never calls {@code hashCode} again. A null key is a key like any other.
+ * Keys are compared with an {@link ICompareEquality} when one other than the default is given.</p>
+ * @param <K> Type of the keys.
+ */
+final class KeyTable<K> {
+
+    private static final int EMPTY = 0;
+
+    private final ICompareEquality<K> compareEquality;
+
+    private int[] slots = new int[16];
+    private Object[] keys = new Object[8];
+    private int[] hashes = new int[8];
+    private int size;
+    private int nullIndex = -1;
+
+    KeyTable(ICompareEquality<K> compareEquality){
+        this.compareEquality = compareEquality == null || compareEquality instanceof Enumerable.DefaultEquality
+                ? null : compareEquality;
+    }
+
+    /**
+     * @return Number of {@code key}, which is given the next one if it hasn't been seen before.
+     */
+    int add(K key){
+        if(key == null){
+            if(nullIndex < 0)
+                nullIndex = append(null, 0);
+            return nullIndex;
+        }
+        int hash = hash(key);
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+        while(slots[slot] != EMPTY){
+            int index = slots[slot] - 1;
+            if(hashes[index] == hash && equal(key, index))
+                return index;
+            slot = (slot + 1) & mask;
+        }
+        int index = append(key, hash);
+        slots[slot] = index + 1;
+        if(size * 2 > slots.length)
+            rehash();
+        return index;
+    }
+
+    /**
+     * @return Number of {@code key}, or -1 if it hasn't been added.
+     */
+    int indexOf(K key){
+        if(key == null)
+            return nullIndex;
+        int hash = hash(key);
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+        while(slots[slot] != EMPTY){
+            int index = slots[slot] - 1;
+            if(hashes[index] == hash && equal(key, index))
+                return index;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    int size(){
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    K key(int index){
+        return (K) keys[index];
+    }
+
+    private int append(K key, int hash){
+        if(size == keys.length){
+            keys = Arrays.copyOf(keys, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        keys[size] = key;
+        hashes[size] = hash;
+        return size++;
+    }
+
+    private void rehash(){
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for(int index = 0; index < size; index++){
+            if(index == nullIndex)
+                continue;
+            int slot = mix(hashes[index]) & mask;
+            while(slots[slot] != EMPTY)
+                slot = (slot + 1) & mask;
+            slots[slot] = index + 1;
+        }
+    }
+
+    private int hash(K key){
+        return compareEquality == null ? key.hashCode() : compareEquality.hashCode(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean equal(K key, int index){
+        Object other = keys[index];
+        if(other == null)
+            return false;
+        return compareEquality == null ? key.equals(other) : compareEquality.equals(key, (K) other);
+    }
+
+    // Spreads the bits of poor hash codes (small integers, ...) over the table
+    private static int mix(int hash){
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Grows {@code array} to hold a value for every key, as keys are added.
+     */
+    static long[] fit(long[] array, int size){
+        return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+    }
+
+    static Object[] fit(Object[] array, int size){
+        return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+    }
+
+    /**
+     * An accumulator per key, as built by {@code groupAggregate}. Two of them over different parts of a sequence
+     * {@link #merge(Aggregates, BinaryOperator) merge} into the aggregates of the whole.
+     */
+    static final class Aggregates<K, A> {
+        private final KeyTable<K> keys;
+        private Object[] values = new Object[8];
+
+        Aggregates(ICompareEquality<K> compareEquality){
+            keys = new KeyTable<>(compareEquality);
+        }
+
+        <T> void accept(K key, T item, Supplier<A> seedFactory, BiFunction<A, T, A> function){
+            int seen = keys.size();
+            int index = keys.add(key);
+            values = fit(values, index + 1);
+            values[index] = function.apply(index == seen ? seedFactory.get() : value(index), item);
+        }
+
+        /**
+         * Adds the keys of {@code right}, which come after those of this one, combining the accumulators of keys
+         * both have. {@code right} is left as it was.
+         * @return This instance.
+         */
+        Aggregates<K, A> merge(Aggregates<K, A> right, BinaryOperator<A> combiner){
+            for(int i = 0; i < right.size(); i++){
+                int seen = keys.size();
+                int index = keys.add(right.key(i));
+                values = fit(values, index + 1);
+                values[index] = index == seen ? right.value(i) : combiner.apply(value(index), right.value(i));
+            }
+            return this;
+        }
+
+        int size(){
+            return keys.size();
+        }
+
+        K key(int index){
+            return keys.key(index);
+        }
+
+        @SuppressWarnings("unchecked")
+        A value(int index){
+            return (A) values[index];
+        }
+    }
+}
@@ -36,15 +36,21 @@ public final class Lookup<K, V> implements ILookup<K, V> {
     }
 
     public void add(K k, V v){
-        Grouping<K, V> elements = new Grouping<>(k);
-        if(!multimap.containsKey(k)){
+        Grouping<K, V> elements = multimap.get(k);
+        if(elements == null){
+            elements = new Grouping<>(k);
             multimap.put(k, elements);
             keys.add(k);
-        } else
-            elements = multimap.get(k);
+        }
         elements.add(v);
     }
 
+    // Appends a grouping whose key isn't in this lookup yet.
+    void addGrouping(Grouping<K, V> grouping){
+        multimap.put(grouping.getKey(), grouping);
+        keys.add(grouping.getKey());
+    }
+
     @Override
     public boolean containsKey(K key) {
         return multimap.containsKey(key);
@@ -0,0 +1,148 @@
+package blaq.core;
+
+import blaq.util.CompensatedSum;
+
+/**
+ * Running count, sum, minimum and maximum of a sequence of numbers, updated in a single pass without boxing.
+ * Shared by the numeric aggregates (sum, average, min, max) of {@link Enumerable} and {@link PrimitiveEnumerable}.
+ * <p>
+ *     Integral values ({@code int}/{@code long}) are summed exactly: a {@code long} wraps around as usual and every
+ *     time it does (detected like {@link Math#addExact(long, long)} does) a second word counts it, so the total is
+ *     effectively 128 bits wide. Only the final sum has to fit its type, and an average can still be computed when
+ *     it doesn't. Floating point values are summed separately (with a {@link CompensatedSum}), so a sequence may mix
+ *     both kinds.
+ * </p>
+ */
+final class NumericAccumulator {
+
+    private long count;
+
+    private long longSum;
+    private long longSumHigh;
+    private long longMin = Long.MAX_VALUE;
+    private long longMax = Long.MIN_VALUE;
+
+    private final CompensatedSum doubleSum = new CompensatedSum();
+    private double doubleMin = Double.NaN;
+    private double doubleMax = Double.NaN;
+    private boolean hasDoubles;
+
+    void addLong(long value){
+        count++;
+        long result = longSum + value;
+        longSumHigh += carry(longSum, value, result);
+        longSum = result;
+        if(value < longMin)
+            longMin = value;
+        if(value > longMax)
+            longMax = value;
+    }
+
+    /**
+     * Adds the sum of {@code count} integral values worked out elsewhere (see {@link ArrayKernels}).
+     * Their minimum and maximum aren't, so only ask for the sum, count or average afterwards.
+     * @param sum Low word of their sum.
+     * @param sumHigh Number of times {@code sum} wrapped around, negative ones counted as -1.
+     */
+    void addLongSum(long count, long sum, long sumHigh){
+        this.count += count;
+        long result = longSum + sum;
+        longSumHigh += sumHigh + carry(longSum, sum, result);
+        longSum = result;
+    }
+
+    // Minimum and maximum order values like Double.compare (as the boxed operators do): NaN is the greatest.
+    void addDouble(double value){
+        count++;
+        doubleSum.accept(value);
+        if(!hasDoubles){
+            doubleMin = doubleMax = value;
+            hasDoubles = true;
+        } else {
+            if(Double.compare(value, doubleMin) < 0)
+                doubleMin = value;
+            if(Double.compare(value, doubleMax) > 0)
+                doubleMax = value;
+        }
+    }
+
+    /**
+     * Floating point counterpart of {@link #addLongSum(long, long, long)}.
+     */
+    void addDoubleSum(long count, CompensatedSum sum){
+        this.count += count;
+        doubleSum.merge(sum);
+    }
+
+    /**
+     * The carry out of {@code result = a + b}: 1 if it wrapped around past {@link Long#MAX_VALUE}, -1 if past
+     * {@link Long#MIN_VALUE}, 0 otherwise. Branch free, so it doesn't get in the way of unrolled loops.
+     */
+    static long carry(long a, long b, long result){
+        long overflowed = ((a ^ result) & (b ^ result)) >>> 63;
+        return overflowed * (1 | (b >> 63));
+    }
+
+    /**
+     * The borrow of {@code result = a - b}: 1 if it wrapped around past {@link Long#MIN_VALUE}, -1 if past
+     * {@link Long#MAX_VALUE}, 0 otherwise.
+     */
+    static long borrow(long a, long b, long result){
+        long overflowed = ((a ^ b) & (a ^ result)) >>> 63;
+        return overflowed * (1 | (b >> 63));
+    }
+
+    long count(){
+        return count;
+    }
+
+    int intSum(){
+        if(longSumHigh != 0 || longSum > Integer.MAX_VALUE || longSum < Integer.MIN_VALUE)
+            throw new ArithmeticException("Integer Overflow exception.");
+        return (int) longSum;
+    }
+
+    long longSum(){
+        if(longSumHigh != 0)
+            throw new ArithmeticException("Long Overflow exception.");
+        return longSum;
+    }
+
+    double doubleSum(){
+        return doubleSum.value();
+    }
+
+    /**
+     * @throws InvalidOperationException Thrown when nothing was added.
+     */
+    double average(){
+        requireNonEmpty();
+        double integral = longSumHigh * 0x1p64 + longSum;
+        return (integral + doubleSum.value()) / count;
+    }
+
+    long longMin(){
+        requireNonEmpty();
+        return longMin;
+    }
+
+    long longMax(){
+        requireNonEmpty();
+        return longMax;
+    }
+
+    double doubleMin(){
+        requireNonEmpty();
+        return doubleMin;
+    }
+
+    double doubleMax(){
+        requireNonEmpty();
+        return doubleMax;
+    }
+
+    private void requireNonEmpty(){
+        if(count == 0)
+            throw new InvalidOperationException("Sequence was empty.");
+    }
+}
@@ -7,7 +7,9 @@ import blaq.tools.Yield;
 import blaq.annotations.Readonly;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 // TODO
 public class OrderedIterable<V, TCompositeKey> implements IOrderedIterable<V> {
 
@@ -17,13 +19,135 @@ public class OrderedIterable<V, TCompositeKey> implements IOrderedIterable<V> {
     private Function<V, TCompositeKey> compositeSelector;
     @Readonly
     private Comparator<TCompositeKey> compositeComparator;
+    // Each orderBy/thenBy criterion as given, so two sequences can tell whether they're in the same order
+    @Readonly
+    private List<SortLevel<V>> levels;
+    // Source is already in order: iterate it as it is rather than sorting
+    @Readonly
+    private boolean presorted;
+    @Readonly
+    private boolean verifyOrder;
 
     OrderedIterable(final Iterable<V> src,
                     Function<V, TCompositeKey> compositeSelector,
                     final Comparator<TCompositeKey> comparator){
+        this(src, compositeSelector, comparator,
+                Collections.singletonList(new SortLevel<>(compositeSelector, comparator)), false, false);
+    }
+
+    private OrderedIterable(Iterable<V> src, Function<V, TCompositeKey> compositeSelector,
+                            Comparator<TCompositeKey> comparator, List<SortLevel<V>> levels,
+                            boolean presorted, boolean verifyOrder){
         source = src;
         this.compositeSelector = compositeSelector;
         compositeComparator = comparator;
+        this.levels = levels;
+        this.presorted = presorted;
+        this.verifyOrder = verifyOrder;
+    }
+
+    /**
+     * Declares a sequence to already be ordered by a key; it is never sorted.
+     * @param verifyOrder {@code true} to check each element against the previous one as it's read, and throw
+     *                    {@link InvalidOperationException} if the sequence turns out not to be in order.
+     */
+    static <V, K> OrderedIterable<V, K> presorted(Iterable<V> src, Function<V, K> keySelector,
+                                                  Comparator<K> comparator, boolean verifyOrder){
+        return new OrderedIterable<>(src, keySelector, comparator,
+                Collections.singletonList(new SortLevel<>(keySelector, comparator)), true, verifyOrder);
+    }
+
+    /**
+     * Wraps a sequence which is known to be in the same order as this one (e.g. the result of merging it),
+     * so that it can be treated as such without being sorted again.
+     */
+    OrderedIterable<V, TCompositeKey> withSortedSource(Iterable<V> sortedSrc){
+        return new OrderedIterable<>(sortedSrc, compositeSelector, compositeComparator, levels, true, false);
+    }
+
+    /**
+     * @return Whether {@code other} orders its elements by the same criteria as this. Key selectors must be the
+     *         same instances; comparators must be {@link Comparator#equals(Object) equal}.
+     */
+    boolean hasSameOrdering(OrderedIterable<V, ?> other){
+        if(levels.size() != other.levels.size())
+            return false;
+        for(int i = 0; i < levels.size(); i++){
+            SortLevel<V> level = levels.get(i), otherLevel = other.levels.get(i);
+            if(level.keySelector != otherLevel.keySelector || !level.comparator.equals(otherLevel.comparator))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return Whether elements whose keys compare equal come out next to one another: the primary sort key is
+     *         {@code keySelector} itself (the same instance), in natural or reverse natural order. Keys which are
+     *         {@code equals} compare equal, but the reverse doesn't always hold (e.g. {@code BigDecimal} 1.0 and
+     *         1.00), so a run of tied keys may hold several distinct ones.
+     */
+    boolean isClusteredBy(Function<V, ?> keySelector){
+        SortLevel<V> primary = levels.get(0);
+        return primary.keySelector == keySelector
+                && (primary.comparator.equals(Comparator.naturalOrder())
+                    || primary.comparator.equals(Comparator.reverseOrder()));
+    }
+
+    /**
+     * @return A comparator placing elements in the order this sequence yields them (ignoring ties).
+     */
+    Comparator<V> elementComparator(){
+        List<SortLevel<V>> criteria = levels;
+        return (a, b) -> {
+            for(SortLevel<V> level : criteria){
+                int comparison = level.compare(a, b);
+                if(comparison != 0)
+                    return comparison;
+            }
+            return 0;
+        };
+    }
+
+    /**
+     * @return Number of elements, which sorting doesn't change: the source's count.
+     */
+    int sourceCount(){
+        return Enumerable.count(source);
+    }
+
+    /**
+     * Finds the first or last element this sequence would yield in a single pass over the source, without sorting.
+     * Ties go the way the (stable) sort would break them: to the earliest element for the first, the latest for the
+     * last.
+     * A presorted sequence is already in order, so its first element is simply the first one read (which also keeps
+     * endless sources working), and its order is still verified if asked for.
+     * @return The element in a one element list, or an empty list when the sequence is empty.
+     */
+    List<V> edge(boolean last){
+        if(presorted){
+            Iterator<V> it = iterator();
+            if(!it.hasNext())
+                return Collections.emptyList();
+            V edge = it.next();
+            while(last && it.hasNext())
+                edge = it.next();
+            return Collections.singletonList(edge);
+        }
+        Iterator<V> it = source.iterator();
+        if(!it.hasNext())
+            return Collections.emptyList();
+        V edge = it.next();
+        TCompositeKey edgeKey = compositeSelector.apply(edge);
+        while(it.hasNext()){
+            V item = it.next();
+            TCompositeKey key = compositeSelector.apply(item);
+            int comparison = compositeComparator.compare(key, edgeKey);
+            if(last ? comparison >= 0 : comparison < 0){
+                edge = item;
+                edgeKey = key;
+            }
+        }
+        return Collections.singletonList(edge);
     }
 
     @SuppressWarnings("unchecked")
@@ -52,12 +176,39 @@ public class OrderedIterable<V, TCompositeKey> implements IOrderedIterable<V> {
         Comparator<CompositeKey<TCompositeKey, K>> newKeyComparator =
                 new CompositeKey<TCompositeKey, K>().new CompComparator(compositeComparator, comparator);
 
-        return new OrderedIterable<>(source, newKeySelector, newKeyComparator); // <V, CompositeKey<TCompositeKey, K>>
+        List<SortLevel<V>> newLevels = new ArrayList<>(levels);
+        newLevels.add(new SortLevel<>(keySelector, comparator));
+
+        return new OrderedIterable<>(source, newKeySelector, newKeyComparator, newLevels, false, false); // <V, CompositeKey<TCompositeKey, K>>
     }
 
     @NotNull
     @Override
     public Iterator<V> iterator() {
+        if(presorted)
+            return verifyOrder ? verifyingIterator() : source.iterator();
+        return Arrays.asList(sort()).iterator();
+    }
+
+    /**
+     * Reports {@link Spliterator#SORTED} with a comparator for whole elements, so streams know the order.
+     * Sorting waits until the spliterator is first traversed (or asked for its size).
+     */
+    @Override
+    public Spliterator<V> spliterator() {
+        Comparator<V> order = elementComparator();
+        if(presorted){
+            Spliterator<V> base = verifyOrder
+                    ? Spliterators.spliteratorUnknownSize(verifyingIterator(), Spliterator.ORDERED)
+                    : source.spliterator();
+            return new SortedSpliterator<>(() -> base, base.characteristics() | Spliterator.ORDERED, order);
+        }
+        return new SortedSpliterator<>(() -> Spliterators.spliterator(sort(), Spliterator.ORDERED),
+                Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED, order);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V[] sort() {
         // Sorting will occur here
         /*
         * The sorting algorithm needs to:
@@ -91,10 +242,10 @@ public class OrderedIterable<V, TCompositeKey> implements IOrderedIterable<V> {
 
         quickSort(indexes, keys, 0, count - 1);
 
-        return ((Yield<V>) y -> {
-            for (int i : indexes)
-                y.returning(data[i]);
-        }).iterator();
+        V[] sorted = (V[]) new Object[count];
+        for(int i = 0; i < count; i++)
+            sorted[i] = data[indexes[i]];
+        return sorted;
 
         /* With continuous Yield (development) */
         // We need to "fake" recursion to our sort so elements can be yielded when necessary
@@ -173,6 +324,30 @@ public class OrderedIterable<V, TCompositeKey> implements IOrderedIterable<V> {
 
     //private int partition
 
+    private Iterator<V> verifyingIterator(){
+        Iterator<V> items = source.iterator();
+        Comparator<V> order = elementComparator();
+        return new Iterator<V>() {
+            private V previous;
+            private boolean started;
+
+            @Override
+            public boolean hasNext() {
+                return items.hasNext();
+            }
+
+            @Override
+            public V next() {
+                V item = items.next();
+                if(started && order.compare(previous, item) > 0)
+                    throw new InvalidOperationException("Sequence is not in the declared order");
+                previous = item;
+                started = true;
+                return item;
+            }
+        };
+    }
+
     @SuppressWarnings("unchecked")
     private Tuple2<V[], Integer> toBuffer(Iterable<V> src){
         // Returns the array and the actual number of elements (not indexes)
@@ -195,6 +370,76 @@ public class OrderedIterable<V, TCompositeKey> implements IOrderedIterable<V> {
         return new Tuple2<>(arr, count);
     }
 
+    /**
+     * Adds {@link Spliterator#SORTED} (and the comparator) to a spliterator which is created on first use.
+     */
+    private static final class SortedSpliterator<V> implements Spliterator<V> {
+        private Supplier<Spliterator<V>> factory;
+        private Spliterator<V> base;
+        private final int characteristics;
+        private final Comparator<V> comparator;
+
+        SortedSpliterator(Supplier<Spliterator<V>> factory, int characteristics, Comparator<V> comparator){
+            this.factory = factory;
+            this.characteristics = characteristics | SORTED;
+            this.comparator = comparator;
+        }
+
+        private Spliterator<V> base(){
+            if(base == null){
+                base = factory.get();
+                factory = null;
+            }
+            return base;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super V> action) {
+            return base().tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super V> action) {
+            base().forEachRemaining(action);
+        }
+
+        @Override
+        public Spliterator<V> trySplit() {
+            Spliterator<V> prefix = base().trySplit();
+            return prefix == null ? null : new SortedSpliterator<>(() -> prefix, characteristics, comparator);
+        }
+
+        @Override
+        public long estimateSize() {
+            return base().estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+
+        @Override
+        public Comparator<? super V> getComparator() {
+            return comparator;
+        }
+    }
+
+    private static class SortLevel<V>{
+        final Function<V, ?> keySelector;
+        final Comparator<?> comparator;
+
+        SortLevel(Function<V, ?> keySelector, Comparator<?> comparator){
+            this.keySelector = keySelector;
+            this.comparator = comparator;
+        }
+
+        @SuppressWarnings("unchecked")
+        int compare(V a, V b){
+            return ((Comparator<Object>) comparator).compare(keySelector.apply(a), keySelector.apply(b));
+        }
+    }
+
     private static class SortCache{
         int start, end;
         SortCache(int start, int end){
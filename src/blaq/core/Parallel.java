@@ -0,0 +1,96 @@
+package blaq.core;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Small fork/join helpers shared by the parallel operators.
+ */
+final class Parallel {
+    private Parallel(){throw new AssertionError("BLAQ doesn't need instances!");}
+
+    /**
+     * Number of elements per chunk for reductions whose result must not depend on the parallelism, such as floating
+     * point sums (which aren't associative). Chunk boundaries, and the order their results are combined in, then
+     * depend only on the input.
+     */
+    static final int FIXED_CHUNK_SIZE = 1 << 12;
+
+    static int fixedChunkCount(int length){
+        return (int) ((length + (long) FIXED_CHUNK_SIZE - 1) / FIXED_CHUNK_SIZE);
+    }
+
+    /**
+     * @return The common pool when it already has the requested parallelism, otherwise a dedicated pool
+     *         which the caller must {@link #release(ForkJoinPool) release}.
+     */
+    static ForkJoinPool pool(int parallelism){
+        if(parallelism < 1)
+            throw new ArgumentOutOfRangeException("parallelism");
+        if(parallelism == ForkJoinPool.getCommonPoolParallelism())
+            return ForkJoinPool.commonPool();
+        return new ForkJoinPool(parallelism);
+    }
+
+    static void release(ForkJoinPool pool){
+        if(pool != ForkJoinPool.commonPool())
+            pool.shutdown();
+    }
+
+    static int defaultParallelism(){
+        return ForkJoinPool.getCommonPoolParallelism();
+    }
+
+    /**
+     * Runs {@code body} for every index in {@code [0, count)} on {@code pool}, and waits for all of them.
+     * Exceptions thrown by {@code body} are rethrown to the caller.
+     */
+    static void forEach(ForkJoinPool pool, int count, IntConsumer body){
+        if(count == 1)
+            body.accept(0);
+        else if(count > 1)
+            pool.invoke(new RangeAction(0, count, body));
+    }
+
+    /**
+     * Copies a sequence into an array, using {@link Collection#toArray()} when possible.
+     */
+    static Object[] toArray(Iterable<?> src){
+        if(src instanceof Collection)
+            return ((Collection<?>) src).toArray();
+        Object[] arr = new Object[16];
+        int count = 0;
+        for(Object item : src){
+            if(count == arr.length)
+                arr = Arrays.copyOf(arr, arr.length * 2);
+            arr[count++] = item;
+        }
+        return Arrays.copyOf(arr, count);
+    }
+
+    private static final class RangeAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+        private final IntConsumer body;
+
+        RangeAction(int from, int to, IntConsumer body){
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from == 1){
+                body.accept(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeAction(from, mid, body), new RangeAction(mid, to, body));
+        }
+    }
+}
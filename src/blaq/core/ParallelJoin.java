@@ -0,0 +1,224 @@
+package blaq.core;
+
+import blaq.util.ICompareEquality;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Partitioned hash join, executed on a {@link ForkJoinPool}.
+ * <p>
+ *     Both inputs are hash-partitioned on their keys, so that every key lives in exactly one partition.
+ *     Each partition then builds its own table and probes it with its own outer rows, so no table is ever
+ *     shared between workers and nothing needs to be locked. Every phase only writes to array slots owned
+ *     by the worker doing the writing.
+ * </p>
+ * <p>
+ *     Workings:
+ *     1. Split each input into one chunk per worker; each chunk hashes its keys and counts rows per partition.
+ *     2. Prefix-sum the counts and scatter the row indexes, so each partition's rows sit together
+ *        (still in their original relative order).
+ *     3. Per partition: chain the inner rows by key, then probe with the outer rows.
+ *     4. For an ordered result, each outer row's sequence number (its index) is used to place its matches
+ *        directly into the final array.
+ * </p>
+ */
+final class ParallelJoin {
+    private ParallelJoin(){throw new AssertionError("BLAQ doesn't need instances!");}
+
+    private static final int END = -1;
+
+    @SuppressWarnings("unchecked")
+    static <TOuter, TInner, TKey, TResult> Iterable<TResult> join(Iterable<TOuter> outer, Iterable<TInner> inner,
+                                                                  Function<TOuter, TKey> outerKeySelector,
+                                                                  Function<TInner, TKey> innerKeySelector,
+                                                                  BiFunction<TOuter, TInner, TResult> resultSelector,
+                                                                  ICompareEquality<TKey> compareEquality,
+                                                                  boolean preserveOrder, int parallelism){
+        // Deferred: nothing is read until the result is iterated.
+        return () -> {
+            ForkJoinPool pool = Parallel.pool(parallelism);
+            try {
+                return new ParallelJoin.Run<>((TOuter[]) Parallel.toArray(outer), (TInner[]) Parallel.toArray(inner),
+                        outerKeySelector, innerKeySelector, resultSelector, compareEquality, pool, parallelism)
+                        .execute(preserveOrder);
+            } finally {
+                Parallel.release(pool);
+            }
+        };
+    }
+
+    private static final class Run<TOuter, TInner, TKey, TResult> {
+        private final TOuter[] outer;
+        private final TInner[] inner;
+        private final Function<TOuter, TKey> outerKeySelector;
+        private final Function<TInner, TKey> innerKeySelector;
+        private final BiFunction<TOuter, TInner, TResult> resultSelector;
+        private final ICompareEquality<TKey> compareEquality;
+        private final ForkJoinPool pool;
+        private final int workers;
+        private final int partitions;
+
+        Run(TOuter[] outer, TInner[] inner,
+            Function<TOuter, TKey> outerKeySelector, Function<TInner, TKey> innerKeySelector,
+            BiFunction<TOuter, TInner, TResult> resultSelector, ICompareEquality<TKey> compareEquality,
+            ForkJoinPool pool, int parallelism){
+            this.outer = outer;
+            this.inner = inner;
+            this.outerKeySelector = outerKeySelector;
+            this.innerKeySelector = innerKeySelector;
+            this.resultSelector = resultSelector;
+            this.compareEquality = compareEquality;
+            this.pool = pool;
+            workers = parallelism;
+            // A few more partitions than workers evens out skewed keys.
+            partitions = parallelism * 4;
+        }
+
+        Iterator<TResult> execute(boolean preserveOrder){
+            Partitioned innerSide = partition(inner, innerKeySelector);
+            Partitioned outerSide = partition(outer, outerKeySelector);
+
+            int[] next = new int[inner.length];
+            List<List<TResult>> results = new ArrayList<>(partitions);
+            List<int[]> sequences = new ArrayList<>(partitions);
+            for(int p = 0; p < partitions; p++){
+                results.add(null);
+                sequences.add(null);
+            }
+            int[] matchCounts = preserveOrder ? new int[outer.length] : null;
+
+            Parallel.forEach(pool, partitions, p -> {
+                HashMap<Object, int[]> chains = new HashMap<>();
+                for(int j = innerSide.start[p]; j < innerSide.start[p + 1]; j++){
+                    int row = innerSide.rows[j];
+                    next[row] = END;
+                    int[] chain = chains.get(innerSide.keys[row]);
+                    if(chain == null)
+                        chains.put(innerSide.keys[row], new int[]{row, row});
+                    else {
+                        next[chain[1]] = row;
+                        chain[1] = row;
+                    }
+                }
+
+                List<TResult> out = new ArrayList<>();
+                int[] seq = preserveOrder ? new int[16] : null;
+                for(int j = outerSide.start[p]; j < outerSide.start[p + 1]; j++){
+                    int row = outerSide.rows[j];
+                    int[] chain = chains.get(outerSide.keys[row]);
+                    if(chain == null)
+                        continue;
+                    for(int i = chain[0]; i != END; i = next[i]){
+                        if(preserveOrder){
+                            if(out.size() == seq.length)
+                                seq = Arrays.copyOf(seq, seq.length * 2);
+                            seq[out.size()] = row;
+                            matchCounts[row]++;
+                        }
+                        out.add(resultSelector.apply(outer[row], inner[i]));
+                    }
+                }
+                results.set(p, out);
+                sequences.set(p, seq);
+            });
+
+            if(!preserveOrder)
+                return results.stream().flatMap(List::stream).iterator();
+
+            // Turn the per-row match counts into the position of each outer row's first match.
+            int total = 0;
+            for(int row = 0; row < matchCounts.length; row++){
+                int c = matchCounts[row];
+                matchCounts[row] = total;
+                total += c;
+            }
+
+            Object[] ordered = new Object[total];
+            Parallel.forEach(pool, partitions, p -> {
+                List<TResult> out = results.get(p);
+                int[] seq = sequences.get(p);
+                // Every outer row belongs to exactly one partition, so its cursor is never shared.
+                for(int i = 0; i < out.size(); i++)
+                    ordered[matchCounts[seq[i]]++] = out.get(i);
+            });
+
+            @SuppressWarnings("unchecked")
+            List<TResult> list = (List<TResult>) Arrays.asList(ordered);
+            return list.iterator();
+        }
+
+        /**
+         * Hashes every key of {@code src} and groups the row indexes by partition, keeping their original order.
+         */
+        private <T> Partitioned partition(T[] src, Function<T, TKey> keySelector){
+            int n = src.length;
+            Partitioned result = new Partitioned(n, partitions);
+            int[] part = new int[n];
+            int chunks = Math.max(1, Math.min(workers, n));
+            int[][] counts = new int[chunks][partitions];
+
+            Parallel.forEach(pool, chunks, c -> {
+                int[] count = counts[c];
+                for(int i = chunkStart(c, chunks, n), end = chunkStart(c + 1, chunks, n); i < end; i++){
+                    TKey key = keySelector.apply(src[i]);
+                    if(key == null){ // Null keys never match
+                        part[i] = END;
+                        continue;
+                    }
+                    Object wrapped = EqualityKey.of(key, compareEquality);
+                    result.keys[i] = wrapped;
+                    part[i] = partitionOf(wrapped.hashCode());
+                    count[part[i]]++;
+                }
+            });
+
+            // Exclusive prefix sums: partition-major, chunk-minor, so rows keep their original order.
+            int[][] offsets = new int[chunks][partitions];
+            int total = 0;
+            for(int p = 0; p < partitions; p++){
+                result.start[p] = total;
+                for(int c = 0; c < chunks; c++){
+                    offsets[c][p] = total;
+                    total += counts[c][p];
+                }
+            }
+            result.start[partitions] = total;
+
+            Parallel.forEach(pool, chunks, c -> {
+                int[] offset = offsets[c];
+                for(int i = chunkStart(c, chunks, n), end = chunkStart(c + 1, chunks, n); i < end; i++)
+                    if(part[i] != END)
+                        result.rows[offset[part[i]]++] = i;
+            });
+            return result;
+        }
+
+        private int partitionOf(int hash){
+            // Use the high bits of a multiplicative hash; HashMap uses the low bits inside each partition.
+            return ((hash * 0x9E3779B9) >>> 8) % partitions;
+        }
+
+        private static int chunkStart(int chunk, int chunks, int n){
+            return (int)((long)n * chunk / chunks);
+        }
+    }
+
+    private static final class Partitioned {
+        final Object[] keys;   // wrapped key of each row (null for null keys)
+        final int[] rows;      // row indexes, grouped by partition
+        final int[] start;     // partition p owns rows[start[p] .. start[p+1])
+
+        Partitioned(int n, int partitions){
+            keys = new Object[n];
+            rows = new int[n];
+            start = new int[partitions + 1];
+        }
+    }
+}
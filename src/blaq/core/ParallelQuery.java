@@ -0,0 +1,664 @@
+package blaq.core;
+
+import blaq.annotations.Readonly;
+import blaq.util.BlaqIterable;
+import blaq.util.CompensatedSum;
+import blaq.util.HyperLogLog;
+import blaq.util.IGrouping;
+import blaq.util.ILookup;
+import blaq.util.IOrderedIterable;
+import blaq.util.ParallelBlaqIterable;
+import blaq.util.QuantileSketch;
+import blaq.util.Quantiles;
+import blaq.util.Statistics;
+import blaq.util.Tuple2;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+
+/**
+ * Fork/join implementation of {@link ParallelBlaqIterable}.
+ * <p>
+ *     Workings:
+ *     A query is its source plus a pipeline: a function which, given the sink for this stage's elements, returns
+ *     the sink source elements are pushed into. {@code where}/{@code project}/{@code projectMany} just wrap the
+ *     pipeline, so running a query is a single pass per split with no intermediate collections.
+ *     On a terminal operator the source is copied into an array and cut into a few splits per worker; each split
+ *     builds its own sink chain and feeds its own accumulator, and the accumulators are combined left to right up
+ *     the fork/join tree, which keeps encounter order without any locking.
+ * </p>
+ * @param <T> Type of elements this query produces.
+ */
+final class ParallelQuery<T> implements ParallelBlaqIterable<T> {
+
+    // Splits per worker: enough to even out uneven work without making the combine tree deep.
+    private static final int SPLITS_PER_WORKER = 4;
+    private static final Object NULL_ELEMENT = new Object();
+
+    @Readonly
+    private Iterable<?> source;
+    @Readonly
+    private Function<Consumer<T>, Consumer<Object>> pipeline;
+    @Readonly
+    private int parallelism;
+    @Readonly
+    private boolean ordered;
+
+    @SuppressWarnings("unchecked")
+    ParallelQuery(Iterable<T> src, int parallelism){
+        this(src, sink -> (Consumer<Object>) sink, parallelism, false);
+    }
+
+    private ParallelQuery(Iterable<?> src, Function<Consumer<T>, Consumer<Object>> pipeline, int parallelism,
+                          boolean ordered){
+        source = src;
+        this.pipeline = pipeline;
+        this.parallelism = parallelism;
+        this.ordered = ordered;
+    }
+
+    private <R> ParallelQuery<R> then(Function<Consumer<R>, Consumer<T>> stage){
+        Function<Consumer<T>, Consumer<Object>> upstream = pipeline;
+        return new ParallelQuery<>(source, sink -> upstream.apply(stage.apply(sink)), parallelism, ordered);
+    }
+
+    // Starts a new query over results which can't be streamed through (e.g. distinct); computed on iteration.
+    private ParallelQuery<T> barrier(Supplier<List<T>> results){
+        return new ParallelQuery<>((Iterable<T>) () -> results.get().iterator(), parallelism);
+    }
+
+    @Override
+    public ParallelBlaqIterable<T> withParallelism(int parallelism) {
+        if(parallelism < 1)
+            throw new ArgumentOutOfRangeException("parallelism");
+        return new ParallelQuery<>(source, pipeline, parallelism, ordered);
+    }
+
+    @Override
+    public ParallelBlaqIterable<T> asOrdered() {
+        return new ParallelQuery<>(source, pipeline, parallelism, true);
+    }
+
+    @Override
+    public ParallelBlaqIterable<T> asUnordered() {
+        return new ParallelQuery<>(source, pipeline, parallelism, false);
+    }
+
+    @Override
+    public BlaqIterable<T> sequential() {
+        return Enumerable.asBlaqIterable(this);
+    }
+
+    // ----------------------------- Intermediate -----------------------------
+
+    @Override
+    public ParallelBlaqIterable<T> where(Predicate<T> predicate) {
+        if(predicate == null)
+            throw new NullArgumentException("predicate");
+        return then(sink -> item -> {
+            if(predicate.test(item))
+                sink.accept(item);
+        });
+    }
+
+    @Override
+    public <R> ParallelBlaqIterable<R> project(Function<T, R> selector) {
+        if(selector == null)
+            throw new NullArgumentException("selector");
+        return this.<R>then(sink -> item -> sink.accept(selector.apply(item)));
+    }
+
+    @Override
+    public <R> ParallelBlaqIterable<R> projectMany(Function<T, Iterable<R>> selector) {
+        if(selector == null)
+            throw new NullArgumentException("selector");
+        return this.<R>then(sink -> item -> {
+            for(R result : selector.apply(item))
+                sink.accept(result);
+        });
+    }
+
+    @Override
+    public ParallelBlaqIterable<T> distinct() {
+        ParallelQuery<T> distinctQuery = barrier(() -> {
+            if(ordered)
+                return new ArrayList<>(reduce(LinkedHashSet::new, Set::add, (left, right) -> {
+                    left.addAll(right);
+                    return left;
+                }, null));
+
+            // Unordered: one shared set, so splits never wait on each other
+            Set<Object> seen = ConcurrentHashMap.newKeySet();
+            return collectUnordered((chunk, item) -> {
+                if(seen.add(item == null ? NULL_ELEMENT : item))
+                    chunk.add(item);
+            });
+        });
+        return ordered ? distinctQuery.asOrdered() : distinctQuery;
+    }
+
+    // ----------------------------- Terminal -----------------------------
+
+    @Override
+    public <A> A aggregate(Supplier<A> seedFactory, BiFunction<A, T, A> function, BinaryOperator<A> combiner) {
+        if(seedFactory == null)
+            throw new NullArgumentException("seed factory");
+        if(function == null)
+            throw new NullArgumentException("function");
+        if(combiner == null)
+            throw new NullArgumentException("combiner");
+        // Accumulators may be immutable, so each split's current value is kept in a one element array
+        Object[] result = reduce(() -> new Object[]{seedFactory.get()},
+                (acc, item) -> acc[0] = function.apply(cast(acc[0]), item),
+                (left, right) -> new Object[]{combiner.apply(cast(left[0]), cast(right[0]))}, null);
+        return cast(result[0]);
+    }
+
+    @Override
+    public T aggregate(BinaryOperator<T> function) {
+        if(function == null)
+            throw new NullArgumentException("function");
+        // {seen any, value}: splits without elements mustn't take part in the combine
+        Object[] result = reduce(() -> new Object[2],
+                (acc, item) -> {
+                    acc[1] = acc[0] == null ? item : function.apply(cast(acc[1]), item);
+                    acc[0] = Boolean.TRUE;
+                },
+                (left, right) -> left[0] == null ? right : right[0] == null ? left
+                        : new Object[]{Boolean.TRUE, function.apply(cast(left[1]), cast(right[1]))}, null);
+        if(result[0] == null)
+            throw new InvalidOperationException("Sequence was empty.");
+        return cast(result[1]);
+    }
+
+    @Override
+    public int sum(Function<T, Integer> selector) {
+        if(selector == null)
+            throw new NullArgumentException("selector");
+        long[] total = reduce(() -> new long[1], (acc, item) -> {
+            Integer value = selector.apply(item);
+            acc[0] += value == null ? 0 : value;
+        }, (left, right) -> {
+            left[0] += right[0];
+            return left;
+        }, null);
+        if(total[0] > Integer.MAX_VALUE || total[0] < Integer.MIN_VALUE)
+            throw new ArithmeticException("Integer Overflow exception.");
+        return (int) total[0];
+    }
+
+    @Override
+    public long longSum(Function<T, Long> selector) {
+        if(selector == null)
+            throw new NullArgumentException("selector");
+        long[] total = reduce(() -> new long[1], (acc, item) -> {
+            Long value = selector.apply(item);
+            acc[0] = Math.addExact(acc[0], value == null ? 0L : value);
+        }, (left, right) -> {
+            left[0] = Math.addExact(left[0], right[0]);
+            return left;
+        }, null);
+        return total[0];
+    }
+
+    @Override
+    public double doubleSum(Function<T, Double> selector) {
+        if(selector == null)
+            throw new NullArgumentException("selector");
+        // Compensated, and in fixed chunks, so the total is accurate and the same whatever the parallelism
+        CompensatedSum total = reduceInFixedChunks(CompensatedSum::new, (acc, item) -> {
+            Double value = selector.apply(item);
+            acc.accept(value == null ? 0d : value);
+        }, CompensatedSum::merge);
+        return total.value();
+    }
+
+    @Override
+    public double average(Function<T, Number> selector) {
+        if(selector == null)
+            throw new NullArgumentException("Selector");
+        // {total, count}
+        double[] totals = reduce(() -> new double[2], (acc, item) -> {
+            acc[0] += selector.apply(item).doubleValue();
+            acc[1]++;
+        }, (left, right) -> {
+            left[0] += right[0];
+            left[1] += right[1];
+            return left;
+        }, null);
+        if(totals[1] == 0)
+            throw new InvalidOperationException("Sequence containsKey no elements!");
+        return totals[0] / totals[1];
+    }
+
+    @Override
+    public Statistics stats(ToDoubleFunction<T> selector) {
+        if(selector == null)
+            throw new NullArgumentException("selector");
+        return reduce(Statistics::new, (stats, item) -> stats.accept(selector.applyAsDouble(item)),
+                Statistics::merge, null);
+    }
+
+    @Override
+    public double[] quantiles(ToDoubleFunction<T> selector, double... probabilities) {
+        checkQuantiles(selector, probabilities);
+        return reduce(Quantiles::new, (quantiles, item) -> quantiles.accept(selector.applyAsDouble(item)),
+                Quantiles::merge, null).quantiles(probabilities);
+    }
+
+    @Override
+    public double[] approxQuantiles(ToDoubleFunction<T> selector, double... probabilities) {
+        checkQuantiles(selector, probabilities);
+        return reduce(QuantileSketch::new, (sketch, item) -> sketch.accept(selector.applyAsDouble(item)),
+                QuantileSketch::merge, null).quantiles(probabilities);
+    }
+
+    private static void checkQuantiles(Object selector, double[] probabilities){
+        if(selector == null)
+            throw new NullArgumentException("selector");
+        if(probabilities == null)
+            throw new NullArgumentException("probabilities");
+        for(double probability : probabilities)
+            if(!(probability >= 0 && probability <= 1))
+                throw new ArgumentOutOfRangeException("probabilities");
+    }
+
+    @Override
+    public <R1, R2> Tuple2<R1, R2> aggregateAll(Collector<? super T, ?, R1> first,
+                                                Collector<? super T, ?, R2> second) {
+        if(first == null)
+            throw new NullArgumentException("first");
+        if(second == null)
+            throw new NullArgumentException("second");
+        // The containers' types are unknown here, but each only ever meets its own collector's functions
+        Collector<T, Object, R1> firstCollector = cast(first);
+        Collector<T, Object, R2> secondCollector = cast(second);
+        BiConsumer<Object, T> addFirst = firstCollector.accumulator();
+        BiConsumer<Object, T> addSecond = secondCollector.accumulator();
+        BinaryOperator<Object> combineFirst = firstCollector.combiner();
+        BinaryOperator<Object> combineSecond = secondCollector.combiner();
+        Object[] containers = reduce(
+                () -> new Object[]{firstCollector.supplier().get(), secondCollector.supplier().get()},
+                (acc, item) -> {
+                    addFirst.accept(acc[0], item);
+                    addSecond.accept(acc[1], item);
+                },
+                (left, right) -> new Object[]{combineFirst.apply(left[0], right[0]),
+                        combineSecond.apply(left[1], right[1])}, null);
+        return new Tuple2<>(firstCollector.finisher().apply(containers[0]),
+                secondCollector.finisher().apply(containers[1]));
+    }
+
+    @Override
+    public <S> S min(Function<T, S> selector) {
+        return extreme(selector, -1);
+    }
+
+    @Override
+    public <S> S max(Function<T, S> selector) {
+        return extreme(selector, 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <S> S extreme(Function<T, S> selector, int sign){
+        if(selector == null)
+            throw new NullArgumentException("Selector");
+        Comparator<S> comparator = (Comparator<S>) Comparator.naturalOrder();
+        BinaryOperator<S> pick = (a, b) -> sign * comparator.compare(b, a) > 0 ? b : a;
+        return this.project(selector).aggregate(pick);
+    }
+
+    @Override
+    public <K> long approxCountDistinct(Function<T, K> keySelector, int precision) {
+        if(keySelector == null)
+            throw new NullArgumentException("key selector");
+        if(precision < HyperLogLog.MIN_PRECISION || precision > HyperLogLog.MAX_PRECISION)
+            throw new ArgumentOutOfRangeException("precision");
+        return reduce(() -> new HyperLogLog(precision), (sketch, item) -> sketch.add(keySelector.apply(item)),
+                HyperLogLog::merge, null).estimate();
+    }
+
+    @Override
+    public int count() {
+        return count(x -> true);
+    }
+
+    @Override
+    public int count(Predicate<T> predicate) {
+        if(predicate == null)
+            throw new NullArgumentException("predicate");
+        long[] total = reduce(() -> new long[1], (acc, item) -> {
+            if(predicate.test(item))
+                acc[0]++;
+        }, (left, right) -> {
+            left[0] += right[0];
+            return left;
+        }, null);
+        return Math.toIntExact(total[0]);
+    }
+
+    @Override
+    public boolean any() {
+        return any(x -> true);
+    }
+
+    @Override
+    public boolean any(Predicate<T> predicate) {
+        if(predicate == null)
+            throw new NullArgumentException("predicate");
+        // The flag doubles as the stop signal, so every split gives up as soon as one finds a match
+        AtomicBoolean found = new AtomicBoolean();
+        reduce(() -> found, (flag, item) -> {
+            if(predicate.test(item))
+                flag.set(true);
+        }, (left, right) -> left, found);
+        return found.get();
+    }
+
+    @Override
+    public boolean all(Predicate<T> predicate) {
+        if(predicate == null)
+            throw new NullArgumentException("predicate");
+        return !any(predicate.negate());
+    }
+
+    @Override
+    public <K> BlaqIterable<IGrouping<K, T>> groupBy(Function<T, K> keySelector) {
+        return groupBy(keySelector, x -> x);
+    }
+
+    @Override
+    public <K, V> BlaqIterable<IGrouping<K, V>> groupBy(Function<T, K> keySelector, Function<T, V> valueSelector) {
+        if(keySelector == null)
+            throw new NullArgumentException("key selector");
+        if(valueSelector == null)
+            throw new NullArgumentException("value selector");
+        // Deferred, like the sequential groupBy
+        return Enumerable.asBlaqIterable(() -> lookup(keySelector, valueSelector).iterator());
+    }
+
+    @Override
+    public <K> ILookup<K, T> toLookup(Function<T, K> keySelector) {
+        return toLookup(keySelector, x -> x);
+    }
+
+    @Override
+    public <K, V> ILookup<K, V> toLookup(Function<T, K> keySelector, Function<T, V> valueSelector) {
+        if(keySelector == null)
+            throw new NullArgumentException("key selector");
+        if(valueSelector == null)
+            throw new NullArgumentException("value selector");
+        return lookup(keySelector, valueSelector);
+    }
+
+    @Override
+    public <K, A> BlaqIterable<Tuple2<K, A>> groupAggregate(Function<T, K> keySelector, Supplier<A> seedFactory,
+                                                            BiFunction<A, T, A> function, BinaryOperator<A> combiner) {
+        if(keySelector == null)
+            throw new NullArgumentException("key selector");
+        if(seedFactory == null)
+            throw new NullArgumentException("seed factory");
+        if(function == null)
+            throw new NullArgumentException("function");
+        if(combiner == null)
+            throw new NullArgumentException("combiner");
+        return Enumerable.asBlaqIterable(() -> {
+            KeyTable.Aggregates<K, A> aggregates = reduce(() -> new KeyTable.Aggregates<K, A>(null),
+                    (acc, item) -> acc.accept(keySelector.apply(item), item, seedFactory, function),
+                    (left, right) -> left.merge(right, combiner), null);
+            List<Tuple2<K, A>> results = new ArrayList<>(aggregates.size());
+            for(int i = 0; i < aggregates.size(); i++)
+                results.add(new Tuple2<>(aggregates.key(i), aggregates.value(i)));
+            return results.iterator();
+        });
+    }
+
+    @Override
+    public <K> BlaqIterable<Tuple2<K, Long>> countBy(Function<T, K> keySelector) {
+        // Counts are updated in place, so a split allocates one holder per key rather than a Long per element
+        return groupAggregate(keySelector, () -> new long[1], (count, item) -> {
+            count[0]++;
+            return count;
+        }, (left, right) -> {
+            left[0] += right[0];
+            return left;
+        }).project(pair -> new Tuple2<>(pair.getItem1(), pair.getItem2()[0]));
+    }
+
+    /**
+     * Groups without merging whole lookups one into another: each split sorts its elements by key hash partition,
+     * then each partition is grouped by a worker of its own, and the groups are put back in order of first
+     * occurrence (see {@link PartitionedGrouping}). Keys and values keep encounter order either way.
+     */
+    private <K, V> Lookup<K, V> lookup(Function<T, K> keySelector, Function<T, V> valueSelector){
+        Object[] data = Parallel.toArray(source);
+        int splits = splitCount(data.length);
+        if(splits < 2)
+            return runSplit(data, 0, splits, () -> new Lookup<K, V>(null),
+                    (lookup, item) -> lookup.add(keySelector.apply(item), valueSelector.apply(item)), null);
+
+        PartitionedGrouping<T, K, V> grouping = new PartitionedGrouping<>(keySelector, valueSelector,
+                PartitionedGrouping.partitionCount(splits));
+        List<PartitionedGrouping<T, K, V>.Split> read = new ArrayList<>(splits);
+        List<PartitionedGrouping<T, K, V>.Partition> grouped = new ArrayList<>(grouping.partitions());
+        Object[] partials = new Object[Math.max(splits, grouping.partitions())];
+        ForkJoinPool pool = Parallel.pool(parallelism);
+        try {
+            Parallel.forEach(pool, splits, split -> partials[split] = runSplit(data, split, splits,
+                    grouping::newSplit, (acc, item) -> acc.accept(item), null));
+            for(int i = 0; i < splits; i++)
+                read.add(cast(partials[i]));
+            Parallel.forEach(pool, grouping.partitions(),
+                    partition -> partials[partition] = grouping.group(read, partition));
+            for(int i = 0; i < grouping.partitions(); i++)
+                grouped.add(cast(partials[i]));
+        } finally {
+            Parallel.release(pool);
+        }
+        return grouping.assemble(grouped);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <K> IOrderedIterable<T> orderBy(Function<T, K> keySelector) {
+        return orderBy(keySelector, (Comparator<K>) Comparator.naturalOrder());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <K> IOrderedIterable<T> orderBy(Function<T, K> keySelector, Comparator<K> comparator) {
+        if(keySelector == null)
+            throw new NullArgumentException("key selector");
+        return sorted(keySelector, comparator != null ? comparator : (Comparator<K>) Comparator.naturalOrder());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <K> IOrderedIterable<T> orderByDescending(Function<T, K> keySelector) {
+        if(keySelector == null)
+            throw new NullArgumentException("key selector");
+        return sorted(keySelector, (Comparator<K>) Comparator.reverseOrder());
+    }
+
+    // Keys are computed while collecting, then sorted with a stable parallel merge sort on the same pool.
+    // The result has the same ordering as the sequential orderBy, so it can take part in merged set operators.
+    @SuppressWarnings("unchecked")
+    private <K> IOrderedIterable<T> sorted(Function<T, K> keySelector, Comparator<K> comparator){
+        Iterable<T> sortedSrc = () -> {
+            Object[][] keyed = this.<Object[]>project(item -> new Object[]{keySelector.apply(item), item})
+                    .asOrdered().toList().toArray(new Object[0][]);
+            ForkJoinPool pool = Parallel.pool(parallelism);
+            try {
+                pool.submit(() -> Arrays.parallelSort(keyed, (a, b) -> comparator.compare((K) a[0], (K) b[0]))).join();
+            } finally {
+                Parallel.release(pool);
+            }
+            List<T> items = new ArrayList<>(keyed.length);
+            for(Object[] pair : keyed)
+                items.add((T) pair[1]);
+            return items.iterator();
+        };
+        return OrderedIterable.presorted(sortedSrc, keySelector, comparator, false);
+    }
+
+    @Override
+    public List<T> toList() {
+        if(ordered)
+            return reduce(ArrayList::new, List::add, (left, right) -> {
+                left.addAll(right);
+                return left;
+            }, null);
+        return collectUnordered(List::add);
+    }
+
+    @NotNull
+    @Override
+    public Iterator<T> iterator() {
+        return toList().iterator();
+    }
+
+    // ----------------------------- Execution -----------------------------
+
+    /**
+     * Runs the query with one accumulator per split, combining them in encounter order.
+     * @param stop When not {@code null}, splits stop feeding elements once it is set.
+     */
+    private <A> A reduce(Supplier<A> container, BiConsumer<A, T> accumulator, BinaryOperator<A> combiner,
+                         AtomicBoolean stop){
+        Object[] data = Parallel.toArray(source);
+        int splits = splitCount(data.length);
+        if(splits < 2)
+            return runSplit(data, 0, splits, container, accumulator, stop);
+
+        ForkJoinPool pool = Parallel.pool(parallelism);
+        try {
+            return pool.invoke(new ReduceTask<>(data, 0, splits, splits, container, accumulator, combiner, stop));
+        } finally {
+            Parallel.release(pool);
+        }
+    }
+
+    /**
+     * Like {@link #reduce}, but over {@link Parallel#FIXED_CHUNK_SIZE fixed size} splits rather than a number
+     * of them per worker, combined left to right once all are done.
+     */
+    private <A> A reduceInFixedChunks(Supplier<A> container, BiConsumer<A, T> accumulator,
+                                      BinaryOperator<A> combiner){
+        Object[] data = Parallel.toArray(source);
+        int chunks = Parallel.fixedChunkCount(data.length);
+        if(chunks < 2)
+            return runSplit(data, 0, chunks, container, accumulator, null);
+
+        Object[] partials = new Object[chunks];
+        ForkJoinPool pool = Parallel.pool(parallelism);
+        try {
+            Parallel.forEach(pool, chunks,
+                    chunk -> partials[chunk] = runSplit(data, chunk, chunks, container, accumulator, null));
+        } finally {
+            Parallel.release(pool);
+        }
+        A result = cast(partials[0]);
+        for(int i = 1; i < chunks; i++)
+            result = combiner.apply(result, cast(partials[i]));
+        return result;
+    }
+
+    /**
+     * Runs the query, each split feeding its own list; lists are concatenated in whichever order they finish.
+     */
+    private List<T> collectUnordered(BiConsumer<List<T>, T> accumulator){
+        Object[] data = Parallel.toArray(source);
+        int splits = splitCount(data.length);
+        if(splits < 2)
+            return runSplit(data, 0, splits, ArrayList::new, accumulator, null);
+
+        ConcurrentLinkedQueue<List<T>> finished = new ConcurrentLinkedQueue<>();
+        ForkJoinPool pool = Parallel.pool(parallelism);
+        try {
+            Parallel.forEach(pool, splits,
+                    split -> finished.add(runSplit(data, split, splits, ArrayList::new, accumulator, null)));
+        } finally {
+            Parallel.release(pool);
+        }
+        List<T> results = new ArrayList<>();
+        for(List<T> chunk : finished)
+            results.addAll(chunk);
+        return results;
+    }
+
+    private int splitCount(int length){
+        return (int) Math.min(length, (long) parallelism * SPLITS_PER_WORKER);
+    }
+
+    private <A> A runSplit(Object[] data, int split, int splits, Supplier<A> container, BiConsumer<A, T> accumulator,
+                           AtomicBoolean stop){
+        A acc = container.get();
+        if(splits == 0)
+            return acc;
+        int from = (int) ((long) split * data.length / splits);
+        int to = (int) ((long) (split + 1) * data.length / splits);
+        Consumer<Object> sink = pipeline.apply(item -> accumulator.accept(acc, item));
+        for(int i = from; i < to && (stop == null || !stop.get()); i++)
+            sink.accept(data[i]);
+        return acc;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S> S cast(Object o){
+        return (S) o;
+    }
+
+    private final class ReduceTask<A> extends RecursiveTask<A> {
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] data;
+        private final int from, to, splits;
+        private final Supplier<A> container;
+        private final BiConsumer<A, T> accumulator;
+        private final BinaryOperator<A> combiner;
+        private final AtomicBoolean stop;
+
+        ReduceTask(Object[] data, int from, int to, int splits, Supplier<A> container, BiConsumer<A, T> accumulator,
+                   BinaryOperator<A> combiner, AtomicBoolean stop){
+            this.data = data;
+            this.from = from;
+            this.to = to;
+            this.splits = splits;
+            this.container = container;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+            this.stop = stop;
+        }
+
+        @Override
+        protected A compute() {
+            if(to - from == 1)
+                return runSplit(data, from, splits, container, accumulator, stop);
+            int mid = (from + to) >>> 1;
+            ReduceTask<A> left = new ReduceTask<>(data, from, mid, splits, container, accumulator, combiner, stop);
+            left.fork();
+            A right = new ReduceTask<>(data, mid, to, splits, container, accumulator, combiner, stop).compute();
+            return combiner.apply(left.join(), right);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package blaq.core;
+
+import blaq.util.Grouping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * Builds a {@link Lookup} in parallel without any locking, in three steps:
+ * <ol>
+ *     <li>Each split works out the key of each of its elements and drops the element into one of a fixed number of
+ *     partitions, by the key's hash. Nothing is shared between splits.</li>
+ *     <li>Each partition is then grouped on its own: it holds every element of its keys, from every split, and
+ *     reads the splits in order, so each group's elements keep encounter order.</li>
+ *     <li>The groups of all partitions are put together in order of the first occurrence of their keys, which makes
+ *     the result the same as a sequential {@code toLookup}.</li>
+ * </ol>
+ * Keys are hashed and compared with their own {@code hashCode} and {@code equals}, as in {@link Lookup}.
+ * @param <T> Type of the elements.
+ * @param <K> Type of the keys.
+ * @param <V> Type of the grouped values.
+ */
+final class PartitionedGrouping<T, K, V> {
+
+    private final Function<T, K> keySelector;
+    private final Function<T, V> valueSelector;
+    private final int partitions;
+    private final int shift;
+
+    /**
+     * @param partitions Number of partitions; a power of two, at least 2.
+     */
+    PartitionedGrouping(Function<T, K> keySelector, Function<T, V> valueSelector, int partitions){
+        this.keySelector = keySelector;
+        this.valueSelector = valueSelector;
+        this.partitions = partitions;
+        this.shift = 32 - Integer.numberOfTrailingZeros(partitions);
+    }
+
+    /**
+     * @return A power of two number of partitions, enough to keep every worker busy while merging.
+     */
+    static int partitionCount(int splits){
+        return Math.max(2, Integer.highestOneBit(Math.max(1, splits - 1)) << 1);
+    }
+
+    int partitions(){
+        return partitions;
+    }
+
+    Split newSplit(){
+        return new Split();
+    }
+
+    // The top bits of the (spread) hash, so the low bits the grouping table uses still differ within a partition
+    private int partitionOf(K key){
+        return key == null ? 0 : (key.hashCode() * 0x9E3779B9) >>> shift;
+    }
+
+    /**
+     * Step 1: what a single split has read, sorted by partition.
+     */
+    final class Split {
+        private final Bucket[] buckets = new Bucket[partitions];
+        private int ordinal;
+
+        void accept(T item){
+            K key = keySelector.apply(item);
+            int partition = partitionOf(key);
+            Bucket bucket = buckets[partition];
+            if(bucket == null)
+                bucket = buckets[partition] = new Bucket();
+            bucket.add(key, item, ordinal++);
+        }
+    }
+
+    // Keys, elements and their position within the split, in the order they were read
+    private static final class Bucket {
+        private Object[] keys = new Object[8];
+        private Object[] items = new Object[8];
+        private int[] ordinals = new int[8];
+        private int size;
+
+        void add(Object key, Object item, int ordinal){
+            if(size == keys.length){
+                keys = Arrays.copyOf(keys, size * 2);
+                items = Arrays.copyOf(items, size * 2);
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            keys[size] = key;
+            items[size] = item;
+            ordinals[size++] = ordinal;
+        }
+    }
+
+    /**
+     * Step 2: groups one partition of every split, reading the splits in order.
+     */
+    @SuppressWarnings("unchecked")
+    Partition group(List<Split> splits, int partition){
+        Partition result = new Partition();
+        KeyTable<K> keys = new KeyTable<>(null);
+        for(int split = 0; split < splits.size(); split++){
+            Bucket bucket = splits.get(split).buckets[partition];
+            if(bucket == null)
+                continue;
+            for(int i = 0; i < bucket.size; i++){
+                K key = (K) bucket.keys[i];
+                int seen = keys.size();
+                int index = keys.add(key);
+                if(index == seen)
+                    result.add(new Grouping<>(key), ((long) split << 32) | bucket.ordinals[i]);
+                result.groups.get(index).add(valueSelector.apply((T) bucket.items[i]));
+            }
+        }
+        return result;
+    }
+
+    final class Partition {
+        private final List<Grouping<K, V>> groups = new ArrayList<>();
+        // Where each group's key first occurs: split in the high word, position within the split in the low one
+        private long[] first = new long[8];
+
+        private void add(Grouping<K, V> group, long position){
+            if(groups.size() == first.length)
+                first = Arrays.copyOf(first, first.length * 2);
+            first[groups.size()] = position;
+            groups.add(group);
+        }
+    }
+
+    /**
+     * Step 3: merges the partitions' groups (each already in first occurrence order) into one lookup.
+     */
+    Lookup<K, V> assemble(List<Partition> grouped){
+        Lookup<K, V> lookup = new Lookup<>(null);
+        // {partition, index of its next group}, by where that group's key first occurs
+        PriorityQueue<int[]> next = new PriorityQueue<>(grouped.size(),
+                (a, b) -> Long.compare(grouped.get(a[0]).first[a[1]], grouped.get(b[0]).first[b[1]]));
+        for(int partition = 0; partition < grouped.size(); partition++)
+            if(!grouped.get(partition).groups.isEmpty())
+                next.add(new int[]{partition, 0});
+        while(!next.isEmpty()){
+            int[] head = next.poll();
+            Partition partition = grouped.get(head[0]);
+            lookup.addGrouping(partition.groups.get(head[1]));
+            if(++head[1] < partition.groups.size())
+                next.add(head);
+        }
+        return lookup;
+    }
+}
@@ -0,0 +1,187 @@
+package blaq.core;
+
+import blaq.util.IPartition;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+
+/**
+ * The {@link IPartition}s produced by the operators of {@link Enumerable}.
+ * None of them copy anything: each element is worked out from its source's when asked for.
+ */
+final class Partitions {
+    private Partitions(){throw new AssertionError("BLAQ doesn't need instances!");}
+
+    /**
+     * @return {@code src} as a partition, or {@code null} when it can't be one (it isn't a random access list).
+     */
+    @SuppressWarnings("unchecked")
+    static <T> IPartition<T> of(Iterable<T> src){
+        if(src instanceof IPartition)
+            return (IPartition<T>) src;
+        if(src instanceof List && src instanceof RandomAccess)
+            return new ListPartition<>((List<T>) src);
+        return null;
+    }
+
+    abstract static class Partition<T> implements IPartition<T> {
+
+        // Reads the size as it goes, like a Yield over the source would notice elements being added
+        @NotNull
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < size();
+                }
+
+                @Override
+                public T next() {
+                    if(!hasNext())
+                        throw new NoSuchElementException();
+                    return get(index++);
+                }
+            };
+        }
+
+        @Override
+        public Spliterator<T> spliterator() {
+            return Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED);
+        }
+
+        @Override
+        public IPartition<T> slice(int skip, int take) {
+            return new Slice<>(this, skip, take);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("[");
+            for (T t : this) {
+                sb.append(t);
+                sb.append(",");
+            }
+            if(sb.length() > 1) sb.deleteCharAt(sb.length() - 1);
+            sb.append("]");
+            return sb.toString();
+        }
+    }
+
+    static final class ListPartition<T> extends Partition<T> {
+        private final List<T> list;
+
+        ListPartition(List<T> list){
+            this.list = list;
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public T get(int index) {
+            return list.get(index);
+        }
+    }
+
+    static final class Projection<S, R> extends Partition<R> {
+        private final IPartition<S> source;
+        private final BiFunction<S, Integer, R> projector;
+
+        Projection(IPartition<S> source, BiFunction<S, Integer, R> projector){
+            this.source = source;
+            this.projector = projector;
+        }
+
+        @Override
+        public int size() {
+            return source.size();
+        }
+
+        @Override
+        public R get(int index) {
+            return projector.apply(source.get(index), index);
+        }
+    }
+
+    static final class Slice<T> extends Partition<T> {
+        private final IPartition<T> source;
+        private final int skip;
+        private final int take;
+
+        Slice(IPartition<T> source, int skip, int take){
+            this.source = source;
+            this.skip = Math.max(0, skip);
+            this.take = Math.max(0, take);
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.max(0, Math.min(take, (long) source.size() - skip));
+        }
+
+        @Override
+        public T get(int index) {
+            return source.get(skip + index);
+        }
+
+        // A slice of a slice is a single slice of the original
+        @Override
+        public IPartition<T> slice(int skip, int take) {
+            skip = Math.max(0, skip);
+            long newSkip = Math.min(Integer.MAX_VALUE, (long) this.skip + skip);
+            long newTake = Math.max(0, Math.min((long) this.take - skip, take));
+            return new Slice<>(source, (int) newSkip, (int) newTake);
+        }
+    }
+
+    static final class Reversed<T> extends Partition<T> {
+        private final IPartition<T> source;
+
+        Reversed(IPartition<T> source){
+            this.source = source;
+        }
+
+        @Override
+        public int size() {
+            return source.size();
+        }
+
+        @Override
+        public T get(int index) {
+            return source.get(source.size() - 1 - index);
+        }
+    }
+
+    static final class Zipped<A, B, R> extends Partition<R> {
+        private final IPartition<A> first;
+        private final IPartition<B> second;
+        private final BiFunction<A, B, R> resultSelector;
+
+        Zipped(IPartition<A> first, IPartition<B> second, BiFunction<A, B, R> resultSelector){
+            this.first = first;
+            this.second = second;
+            this.resultSelector = resultSelector;
+        }
+
+        @Override
+        public int size() {
+            return Math.min(first.size(), second.size());
+        }
+
+        @Override
+        public R get(int index) {
+            return resultSelector.apply(first.get(index), second.get(index));
+        }
+    }
+}
@@ -0,0 +1,1106 @@
+package blaq.core;
+
+import blaq.util.BlaqIterable;
+import blaq.util.Comparison;
+import blaq.util.CompensatedSum;
+import blaq.util.DoubleBlaqIterable;
+import blaq.util.IntBlaqIterable;
+import blaq.util.IntHashSet;
+import blaq.util.LongBlaqIterable;
+import blaq.util.LongHashSet;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.*;
+import java.util.stream.IntStream;
+
+/**
+ * Operators for sequences of {@code int}, {@code long} and {@code double} ({@link IntBlaqIterable},
+ * {@link LongBlaqIterable} and {@link DoubleBlaqIterable}), which never box their values.
+ * Counterpart of {@link Enumerable}; the primitive sequences' default methods delegate here.
+ * <p>Iterators are plain classes rather than {@link blaq.tools.Yield}s, since handing every value over to another
+ * thread would cost far more than the boxing being avoided.</p>
+ * <p>Sequences backed by an array ({@link #asBlaqIterable(int[])}, ...) skip iterating altogether for aggregates,
+ * and for {@code where}/{@code count} given a {@link Comparison}: those run as loops over the array
+ * (see {@link ArrayKernels}). So does {@link #range(int, int)}, whose aggregates don't need the values at all.</p>
+ */
+public final class PrimitiveEnumerable {
+    private PrimitiveEnumerable(){throw new AssertionError("BLAQ doesn't need instances!");}
+
+    // Number of elements filtered at a time into a selection vector, when filtering an array by a Comparison
+    private static final int SELECTION_BLOCK = 1024;
+
+    // ----------------------------- AsBlaqIterable (DE) -----------------------------
+    // Arrays are not copied: changes to them before the sequence is iterated show up in it.
+
+    public static IntBlaqIterable asBlaqIterable(int[] values){
+        if(values == null)
+            throw new NullArgumentException("values");
+        return new IntArraySequence(values);
+    }
+
+    public static LongBlaqIterable asBlaqIterable(long[] values){
+        if(values == null)
+            throw new NullArgumentException("values");
+        return new LongArraySequence(values);
+    }
+
+    public static DoubleBlaqIterable asBlaqIterable(double[] values){
+        if(values == null)
+            throw new NullArgumentException("values");
+        return new DoubleArraySequence(values);
+    }
+
+    // ----------------------------- Range (DE) -----------------------------
+
+    /**
+     * Generates a sequence of consecutive {@code int}s, like {@link Enumerable#range(int, int)} but unboxed.
+     * @param start The first value.
+     * @param count Number of values.
+     * @return An {@link IntBlaqIterable} of {@code start} to {@code start + count - 1}.
+     * @throws ArgumentOutOfRangeException Thrown when {@code count} is negative, or the last value would overflow.
+     */
+    public static IntBlaqIterable range(int start, int count){
+        if(count < 0)
+            throw new ArgumentOutOfRangeException("size");
+        if((long)start + (long)count - 1L > Integer.MAX_VALUE)
+            throw new ArgumentOutOfRangeException("size");
+        return new IntRangeSequence(start, count);
+    }
+
+    // ----------------------------- ProjectToInt/Long/Double (DE) -----------------------------
+
+    public static <T> IntBlaqIterable projectToInt(Iterable<T> src, ToIntFunction<T> projector){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(projector == null)
+            throw new NullArgumentException("projector");
+        return () -> new PrimitiveIterator.OfInt() {
+            private final Iterator<T> it = src.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public int nextInt() {
+                return projector.applyAsInt(it.next());
+            }
+        };
+    }
+
+    public static <T> LongBlaqIterable projectToLong(Iterable<T> src, ToLongFunction<T> projector){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(projector == null)
+            throw new NullArgumentException("projector");
+        return () -> new PrimitiveIterator.OfLong() {
+            private final Iterator<T> it = src.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public long nextLong() {
+                return projector.applyAsLong(it.next());
+            }
+        };
+    }
+
+    public static <T> DoubleBlaqIterable projectToDouble(Iterable<T> src, ToDoubleFunction<T> projector){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(projector == null)
+            throw new NullArgumentException("projector");
+        return () -> new PrimitiveIterator.OfDouble() {
+            private final Iterator<T> it = src.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public double nextDouble() {
+                return projector.applyAsDouble(it.next());
+            }
+        };
+    }
+
+    // ----------------------------- Int: Where (DE) -----------------------------
+
+    public static IntBlaqIterable where(IntBlaqIterable src, IntPredicate predicate){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(predicate == null)
+            throw new NullArgumentException("predicate");
+        if(src instanceof IntArraySequence && predicate instanceof Comparison.OfInt)
+            return whereSelected(((IntArraySequence) src).values, (Comparison.OfInt) predicate);
+        return () -> new PrimitiveIterator.OfInt() {
+            private final PrimitiveIterator.OfInt it = src.iterator();
+            private int next;
+            private boolean ready;
+
+            @Override
+            public boolean hasNext() {
+                while(!ready && it.hasNext()){
+                    int value = it.nextInt();
+                    if(predicate.test(value)){
+                        next = value;
+                        ready = true;
+                    }
+                }
+                return ready;
+            }
+
+            @Override
+            public int nextInt() {
+                if(!hasNext())
+                    throw new NoSuchElementException();
+                ready = false;
+                return next;
+            }
+        };
+    }
+
+    private static IntBlaqIterable whereSelected(int[] values, Comparison.OfInt comparison){
+        return () -> new PrimitiveIterator.OfInt() {
+            private final int[] selection = new int[Math.min(SELECTION_BLOCK, values.length)];
+            private int blockEnd;
+            private int selected;
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                while(position == selected && blockEnd < values.length){
+                    int from = blockEnd;
+                    blockEnd = Math.min(values.length, from + SELECTION_BLOCK);
+                    selected = ArrayKernels.select(values, from, blockEnd, comparison, selection);
+                    position = 0;
+                }
+                return position < selected;
+            }
+
+            @Override
+            public int nextInt() {
+                if(!hasNext())
+                    throw new NoSuchElementException();
+                return values[selection[position++]];
+            }
+        };
+    }
+
+    // ----------------------------- Int: Project (DE) -----------------------------
+
+    public static IntBlaqIterable project(IntBlaqIterable src, IntUnaryOperator projector){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(projector == null)
+            throw new NullArgumentException("projector");
+        return () -> new PrimitiveIterator.OfInt() {
+            private final PrimitiveIterator.OfInt it = src.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public int nextInt() {
+                return projector.applyAsInt(it.nextInt());
+            }
+        };
+    }
+
+    public static <R> BlaqIterable<R> projectToObj(IntBlaqIterable src, IntFunction<R> projector){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(projector == null)
+            throw new NullArgumentException("projector");
+        return () -> new Iterator<R>() {
+            private final PrimitiveIterator.OfInt it = src.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public R next() {
+                return projector.apply(it.nextInt());
+            }
+        };
+    }
+
+    // ----------------------------- Int: Distinct (DE) -----------------------------
+
+    public static IntBlaqIterable distinct(IntBlaqIterable src){
+        if(src == null)
+            throw new NullArgumentException("source");
+        return () -> {
+            IntHashSet seen = new IntHashSet();
+            return where(src, value -> seen.add(value)).iterator();
+        };
+    }
+
+    // ----------------------------- Int: Aggregates (IE) -----------------------------
+
+    public static int sum(IntBlaqIterable src){
+        return accumulate(src).intSum();
+    }
+
+    public static int min(IntBlaqIterable src){
+        if(src instanceof IntArraySequence){
+            int[] values = ((IntArraySequence) src).values;
+            requireNonEmpty(values.length);
+            return ArrayKernels.min(values, 0, values.length);
+        }
+        if(src instanceof IntRangeSequence){
+            IntRangeSequence range = (IntRangeSequence) src;
+            requireNonEmpty(range.count);
+            return range.start;
+        }
+        return (int) accumulate(src).longMin();
+    }
+
+    public static int max(IntBlaqIterable src){
+        if(src instanceof IntArraySequence){
+            int[] values = ((IntArraySequence) src).values;
+            requireNonEmpty(values.length);
+            return ArrayKernels.max(values, 0, values.length);
+        }
+        if(src instanceof IntRangeSequence){
+            IntRangeSequence range = (IntRangeSequence) src;
+            requireNonEmpty(range.count);
+            return range.start + range.count - 1;
+        }
+        return (int) accumulate(src).longMax();
+    }
+
+    public static double average(IntBlaqIterable src){
+        return accumulate(src).average();
+    }
+
+    private static NumericAccumulator accumulate(IntBlaqIterable src){
+        if(src == null)
+            throw new NullArgumentException("source");
+        NumericAccumulator accumulator = new NumericAccumulator();
+        if(src instanceof IntArraySequence){
+            int[] values = ((IntArraySequence) src).values;
+            ArrayKernels.sum(values, 0, values.length, accumulator);
+            return accumulator;
+        }
+        if(src instanceof IntRangeSequence){
+            ((IntRangeSequence) src).sum(accumulator);
+            return accumulator;
+        }
+        PrimitiveIterator.OfInt it = src.iterator();
+        while(it.hasNext())
+            accumulator.addLong(it.nextInt());
+        return accumulator;
+    }
+
+    public static int count(IntBlaqIterable src){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(src instanceof IntArraySequence)
+            return ((IntArraySequence) src).values.length;
+        if(src instanceof IntRangeSequence)
+            return ((IntRangeSequence) src).count;
+        int count = 0;
+        PrimitiveIterator.OfInt it = src.iterator();
+        while(it.hasNext()){
+            it.nextInt();
+            count++;
+        }
+        return count;
+    }
+
+    public static int count(IntBlaqIterable src, IntPredicate predicate){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(predicate == null)
+            throw new NullArgumentException("predicate");
+        if(src instanceof IntArraySequence && predicate instanceof Comparison.OfInt){
+            int[] values = ((IntArraySequence) src).values;
+            return ArrayKernels.count(values, 0, values.length, (Comparison.OfInt) predicate);
+        }
+        int count = 0;
+        PrimitiveIterator.OfInt it = src.iterator();
+        while(it.hasNext()){
+            if(predicate.test(it.nextInt()))
+                count++;
+        }
+        return count;
+    }
+
+    public static int[] toArray(IntBlaqIterable src){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(src instanceof IntArraySequence)
+            return ((IntArraySequence) src).values.clone();
+        int[] arr = new int[16];
+        int count = 0;
+        PrimitiveIterator.OfInt it = src.iterator();
+        while(it.hasNext()){
+            if(count == arr.length)
+                arr = Arrays.copyOf(arr, arr.length * 2);
+            arr[count++] = it.nextInt();
+        }
+        return Arrays.copyOf(arr, count);
+    }
+
+    // ----------------------------- Long: Where (DE) -----------------------------
+
+    public static LongBlaqIterable where(LongBlaqIterable src, LongPredicate predicate){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(predicate == null)
+            throw new NullArgumentException("predicate");
+        if(src instanceof LongArraySequence && predicate instanceof Comparison.OfLong)
+            return whereSelected(((LongArraySequence) src).values, (Comparison.OfLong) predicate);
+        return () -> new PrimitiveIterator.OfLong() {
+            private final PrimitiveIterator.OfLong it = src.iterator();
+            private long next;
+            private boolean ready;
+
+            @Override
+            public boolean hasNext() {
+                while(!ready && it.hasNext()){
+                    long value = it.nextLong();
+                    if(predicate.test(value)){
+                        next = value;
+                        ready = true;
+                    }
+                }
+                return ready;
+            }
+
+            @Override
+            public long nextLong() {
+                if(!hasNext())
+                    throw new NoSuchElementException();
+                ready = false;
+                return next;
+            }
+        };
+    }
+
+    private static LongBlaqIterable whereSelected(long[] values, Comparison.OfLong comparison){
+        return () -> new PrimitiveIterator.OfLong() {
+            private final int[] selection = new int[Math.min(SELECTION_BLOCK, values.length)];
+            private int blockEnd;
+            private int selected;
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                while(position == selected && blockEnd < values.length){
+                    int from = blockEnd;
+                    blockEnd = Math.min(values.length, from + SELECTION_BLOCK);
+                    selected = ArrayKernels.select(values, from, blockEnd, comparison, selection);
+                    position = 0;
+                }
+                return position < selected;
+            }
+
+            @Override
+            public long nextLong() {
+                if(!hasNext())
+                    throw new NoSuchElementException();
+                return values[selection[position++]];
+            }
+        };
+    }
+
+    // ----------------------------- Long: Project (DE) -----------------------------
+
+    public static LongBlaqIterable project(LongBlaqIterable src, LongUnaryOperator projector){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(projector == null)
+            throw new NullArgumentException("projector");
+        return () -> new PrimitiveIterator.OfLong() {
+            private final PrimitiveIterator.OfLong it = src.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public long nextLong() {
+                return projector.applyAsLong(it.nextLong());
+            }
+        };
+    }
+
+    public static <R> BlaqIterable<R> projectToObj(LongBlaqIterable src, LongFunction<R> projector){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(projector == null)
+            throw new NullArgumentException("projector");
+        return () -> new Iterator<R>() {
+            private final PrimitiveIterator.OfLong it = src.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public R next() {
+                return projector.apply(it.nextLong());
+            }
+        };
+    }
+
+    // ----------------------------- Long: Distinct (DE) -----------------------------
+
+    public static LongBlaqIterable distinct(LongBlaqIterable src){
+        if(src == null)
+            throw new NullArgumentException("source");
+        return () -> {
+            LongHashSet seen = new LongHashSet();
+            return where(src, value -> seen.add(value)).iterator();
+        };
+    }
+
+    // ----------------------------- Long: Aggregates (IE) -----------------------------
+
+    public static long sum(LongBlaqIterable src){
+        return accumulate(src).longSum();
+    }
+
+    public static long min(LongBlaqIterable src){
+        if(src instanceof LongArraySequence){
+            long[] values = ((LongArraySequence) src).values;
+            requireNonEmpty(values.length);
+            return ArrayKernels.min(values, 0, values.length);
+        }
+        return accumulate(src).longMin();
+    }
+
+    public static long max(LongBlaqIterable src){
+        if(src instanceof LongArraySequence){
+            long[] values = ((LongArraySequence) src).values;
+            requireNonEmpty(values.length);
+            return ArrayKernels.max(values, 0, values.length);
+        }
+        return accumulate(src).longMax();
+    }
+
+    public static double average(LongBlaqIterable src){
+        return accumulate(src).average();
+    }
+
+    private static NumericAccumulator accumulate(LongBlaqIterable src){
+        if(src == null)
+            throw new NullArgumentException("source");
+        NumericAccumulator accumulator = new NumericAccumulator();
+        if(src instanceof LongArraySequence){
+            long[] values = ((LongArraySequence) src).values;
+            ArrayKernels.sum(values, 0, values.length, accumulator);
+            return accumulator;
+        }
+        PrimitiveIterator.OfLong it = src.iterator();
+        while(it.hasNext())
+            accumulator.addLong(it.nextLong());
+        return accumulator;
+    }
+
+    public static int count(LongBlaqIterable src){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(src instanceof LongArraySequence)
+            return ((LongArraySequence) src).values.length;
+        int count = 0;
+        PrimitiveIterator.OfLong it = src.iterator();
+        while(it.hasNext()){
+            it.nextLong();
+            count++;
+        }
+        return count;
+    }
+
+    public static int count(LongBlaqIterable src, LongPredicate predicate){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(predicate == null)
+            throw new NullArgumentException("predicate");
+        if(src instanceof LongArraySequence && predicate instanceof Comparison.OfLong){
+            long[] values = ((LongArraySequence) src).values;
+            return ArrayKernels.count(values, 0, values.length, (Comparison.OfLong) predicate);
+        }
+        int count = 0;
+        PrimitiveIterator.OfLong it = src.iterator();
+        while(it.hasNext()){
+            if(predicate.test(it.nextLong()))
+                count++;
+        }
+        return count;
+    }
+
+    public static long[] toArray(LongBlaqIterable src){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(src instanceof LongArraySequence)
+            return ((LongArraySequence) src).values.clone();
+        long[] arr = new long[16];
+        int count = 0;
+        PrimitiveIterator.OfLong it = src.iterator();
+        while(it.hasNext()){
+            if(count == arr.length)
+                arr = Arrays.copyOf(arr, arr.length * 2);
+            arr[count++] = it.nextLong();
+        }
+        return Arrays.copyOf(arr, count);
+    }
+
+    // ----------------------------- Double: Where (DE) -----------------------------
+
+    public static DoubleBlaqIterable where(DoubleBlaqIterable src, DoublePredicate predicate){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(predicate == null)
+            throw new NullArgumentException("predicate");
+        if(src instanceof DoubleArraySequence && predicate instanceof Comparison.OfDouble)
+            return whereSelected(((DoubleArraySequence) src).values, (Comparison.OfDouble) predicate);
+        return () -> new PrimitiveIterator.OfDouble() {
+            private final PrimitiveIterator.OfDouble it = src.iterator();
+            private double next;
+            private boolean ready;
+
+            @Override
+            public boolean hasNext() {
+                while(!ready && it.hasNext()){
+                    double value = it.nextDouble();
+                    if(predicate.test(value)){
+                        next = value;
+                        ready = true;
+                    }
+                }
+                return ready;
+            }
+
+            @Override
+            public double nextDouble() {
+                if(!hasNext())
+                    throw new NoSuchElementException();
+                ready = false;
+                return next;
+            }
+        };
+    }
+
+    private static DoubleBlaqIterable whereSelected(double[] values, Comparison.OfDouble comparison){
+        return () -> new PrimitiveIterator.OfDouble() {
+            private final int[] selection = new int[Math.min(SELECTION_BLOCK, values.length)];
+            private int blockEnd;
+            private int selected;
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                while(position == selected && blockEnd < values.length){
+                    int from = blockEnd;
+                    blockEnd = Math.min(values.length, from + SELECTION_BLOCK);
+                    selected = ArrayKernels.select(values, from, blockEnd, comparison, selection);
+                    position = 0;
+                }
+                return position < selected;
+            }
+
+            @Override
+            public double nextDouble() {
+                if(!hasNext())
+                    throw new NoSuchElementException();
+                return values[selection[position++]];
+            }
+        };
+    }
+
+    // ----------------------------- Double: Project (DE) -----------------------------
+
+    public static DoubleBlaqIterable project(DoubleBlaqIterable src, DoubleUnaryOperator projector){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(projector == null)
+            throw new NullArgumentException("projector");
+        return () -> new PrimitiveIterator.OfDouble() {
+            private final PrimitiveIterator.OfDouble it = src.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public double nextDouble() {
+                return projector.applyAsDouble(it.nextDouble());
+            }
+        };
+    }
+
+    public static <R> BlaqIterable<R> projectToObj(DoubleBlaqIterable src, DoubleFunction<R> projector){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(projector == null)
+            throw new NullArgumentException("projector");
+        return () -> new Iterator<R>() {
+            private final PrimitiveIterator.OfDouble it = src.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public R next() {
+                return projector.apply(it.nextDouble());
+            }
+        };
+    }
+
+    // ----------------------------- Double: Distinct (DE) -----------------------------
+
+    public static DoubleBlaqIterable distinct(DoubleBlaqIterable src){
+        if(src == null)
+            throw new NullArgumentException("source");
+        return () -> {
+            LongHashSet seen = new LongHashSet();
+            return where(src, value -> seen.add(Double.doubleToLongBits(value))).iterator();
+        };
+    }
+
+    // ----------------------------- Double: Aggregates (IE) -----------------------------
+
+    public static double sum(DoubleBlaqIterable src){
+        return accumulate(src).doubleSum();
+    }
+
+    // Min and max order values like Double.compare (as the boxed operators do): NaN is greater than everything.
+    public static double min(DoubleBlaqIterable src){
+        if(src instanceof DoubleArraySequence){
+            double[] values = ((DoubleArraySequence) src).values;
+            requireNonEmpty(values.length);
+            return ArrayKernels.min(values, 0, values.length);
+        }
+        return accumulate(src).doubleMin();
+    }
+
+    public static double max(DoubleBlaqIterable src){
+        if(src instanceof DoubleArraySequence){
+            double[] values = ((DoubleArraySequence) src).values;
+            requireNonEmpty(values.length);
+            return ArrayKernels.max(values, 0, values.length);
+        }
+        return accumulate(src).doubleMax();
+    }
+
+    public static double parallelSum(DoubleBlaqIterable src){
+        return parallelSum(src, Parallel.defaultParallelism());
+    }
+
+    /**
+     * Sums a sequence of {@code double}s on several threads. Values are summed in chunks of a fixed size, each with
+     * a {@link CompensatedSum}, and the chunks' sums are combined in order, so the result is as accurate as
+     * {@link #sum(DoubleBlaqIterable)}'s and doesn't depend on the number of threads.
+     * @param src A sequence of values; array backed ones are read in place, others are copied to an array first.
+     * @param parallelism Number of threads.
+     * @return The sum of {@code src}.
+     * @throws ArgumentOutOfRangeException Thrown when {@code parallelism} is less than 1.
+     */
+    public static double parallelSum(DoubleBlaqIterable src, int parallelism){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(parallelism < 1)
+            throw new ArgumentOutOfRangeException("parallelism");
+        double[] values = src instanceof DoubleArraySequence ? ((DoubleArraySequence) src).values : toArray(src);
+        int chunks = Parallel.fixedChunkCount(values.length);
+        if(chunks < 2)
+            return ArrayKernels.sum(values, 0, values.length).value();
+
+        CompensatedSum[] partials = new CompensatedSum[chunks];
+        ForkJoinPool pool = Parallel.pool(parallelism);
+        try {
+            Parallel.forEach(pool, chunks, chunk -> {
+                int from = chunk * Parallel.FIXED_CHUNK_SIZE;
+                partials[chunk] = ArrayKernels.sum(values, from,
+                        Math.min(values.length, from + Parallel.FIXED_CHUNK_SIZE));
+            });
+        } finally {
+            Parallel.release(pool);
+        }
+        CompensatedSum total = partials[0];
+        for(int i = 1; i < chunks; i++)
+            total.merge(partials[i]);
+        return total.value();
+    }
+
+    public static double average(DoubleBlaqIterable src){
+        return accumulate(src).average();
+    }
+
+    private static NumericAccumulator accumulate(DoubleBlaqIterable src){
+        if(src == null)
+            throw new NullArgumentException("source");
+        NumericAccumulator accumulator = new NumericAccumulator();
+        if(src instanceof DoubleArraySequence){
+            double[] values = ((DoubleArraySequence) src).values;
+            ArrayKernels.sum(values, 0, values.length, accumulator);
+            return accumulator;
+        }
+        PrimitiveIterator.OfDouble it = src.iterator();
+        while(it.hasNext())
+            accumulator.addDouble(it.nextDouble());
+        return accumulator;
+    }
+
+    public static int count(DoubleBlaqIterable src){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(src instanceof DoubleArraySequence)
+            return ((DoubleArraySequence) src).values.length;
+        int count = 0;
+        PrimitiveIterator.OfDouble it = src.iterator();
+        while(it.hasNext()){
+            it.nextDouble();
+            count++;
+        }
+        return count;
+    }
+
+    public static int count(DoubleBlaqIterable src, DoublePredicate predicate){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(predicate == null)
+            throw new NullArgumentException("predicate");
+        if(src instanceof DoubleArraySequence && predicate instanceof Comparison.OfDouble){
+            double[] values = ((DoubleArraySequence) src).values;
+            return ArrayKernels.count(values, 0, values.length, (Comparison.OfDouble) predicate);
+        }
+        int count = 0;
+        PrimitiveIterator.OfDouble it = src.iterator();
+        while(it.hasNext()){
+            if(predicate.test(it.nextDouble()))
+                count++;
+        }
+        return count;
+    }
+
+    public static double[] toArray(DoubleBlaqIterable src){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(src instanceof DoubleArraySequence)
+            return ((DoubleArraySequence) src).values.clone();
+        double[] arr = new double[16];
+        int count = 0;
+        PrimitiveIterator.OfDouble it = src.iterator();
+        while(it.hasNext()){
+            if(count == arr.length)
+                arr = Arrays.copyOf(arr, arr.length * 2);
+            arr[count++] = it.nextDouble();
+        }
+        return Arrays.copyOf(arr, count);
+    }
+
+    // ----------------------------- Windows (DE) -----------------------------
+    // Windows are only yielded whole: the first once size values have been read, then one every step values.
+    // Each value read costs O(1), whatever the size of the window (see Windows).
+
+    /**
+     * Sums of a sliding window over a sequence of {@code int}s, as {@code long}s so they can't overflow.
+     * @param src A sequence of values.
+     * @param size Number of values in a window; at least 1.
+     * @param step Number of values the window moves on by between sums; at least 1. {@code step == size} gives
+     *             tumbling windows, {@code step > size} leaves values out between windows.
+     * @return A sequence of the sums of the windows.
+     * @throws ArgumentOutOfRangeException Thrown when {@code size} or {@code step} is less than 1.
+     */
+    public static LongBlaqIterable windowSum(IntBlaqIterable src, int size, int step){
+        Windows.check(src, size, step);
+        return longWindows(() -> widen(src.iterator()), () -> new Windows.LongSum(size, step), Windows.LongSum::sum);
+    }
+
+    public static DoubleBlaqIterable windowAverage(IntBlaqIterable src, int size, int step){
+        Windows.check(src, size, step);
+        return averageWindows(() -> widen(src.iterator()), () -> new Windows.LongSum(size, step),
+                Windows.LongSum::average);
+    }
+
+    /**
+     * Minimums of a sliding window over a sequence of {@code int}s, kept with a monotonic deque.
+     * @see #windowSum(IntBlaqIterable, int, int)
+     */
+    public static IntBlaqIterable windowMin(IntBlaqIterable src, int size, int step){
+        Windows.check(src, size, step);
+        return intWindows(() -> widen(src.iterator()), () -> new Windows.LongExtreme(size, step, false));
+    }
+
+    public static IntBlaqIterable windowMax(IntBlaqIterable src, int size, int step){
+        Windows.check(src, size, step);
+        return intWindows(() -> widen(src.iterator()), () -> new Windows.LongExtreme(size, step, true));
+    }
+
+    /**
+     * Sums of a sliding window over a sequence of {@code long}s. Values may overflow on their way in and out of
+     * the window, only each window's sum has to fit.
+     * @throws ArithmeticException Thrown, while iterating, when a window's sum overflows.
+     * @see #windowSum(IntBlaqIterable, int, int)
+     */
+    public static LongBlaqIterable windowSum(LongBlaqIterable src, int size, int step){
+        Windows.check(src, size, step);
+        return longWindows(src::iterator, () -> new Windows.LongSum(size, step), Windows.LongSum::sum);
+    }
+
+    public static DoubleBlaqIterable windowAverage(LongBlaqIterable src, int size, int step){
+        Windows.check(src, size, step);
+        return averageWindows(src::iterator, () -> new Windows.LongSum(size, step), Windows.LongSum::average);
+    }
+
+    public static LongBlaqIterable windowMin(LongBlaqIterable src, int size, int step){
+        Windows.check(src, size, step);
+        return longWindows(src::iterator, () -> new Windows.LongExtreme(size, step, false),
+                Windows.LongExtreme::value);
+    }
+
+    public static LongBlaqIterable windowMax(LongBlaqIterable src, int size, int step){
+        Windows.check(src, size, step);
+        return longWindows(src::iterator, () -> new Windows.LongExtreme(size, step, true),
+                Windows.LongExtreme::value);
+    }
+
+    /**
+     * Sums of a sliding window over a sequence of {@code double}s. The running sum is compensated (see
+     * {@link CompensatedSum}), so values taken back out of it don't leave rounding errors behind; infinities and
+     * NaNs only affect the windows they're in.
+     * @see #windowSum(IntBlaqIterable, int, int)
+     */
+    public static DoubleBlaqIterable windowSum(DoubleBlaqIterable src, int size, int step){
+        Windows.check(src, size, step);
+        return doubleWindows(src, () -> new Windows.DoubleSum(size, step), Windows.DoubleSum::sum);
+    }
+
+    public static DoubleBlaqIterable windowAverage(DoubleBlaqIterable src, int size, int step){
+        Windows.check(src, size, step);
+        return doubleWindows(src, () -> new Windows.DoubleSum(size, step), Windows.DoubleSum::average);
+    }
+
+    // Ordered like min and max: NaN is greater than everything
+    public static DoubleBlaqIterable windowMin(DoubleBlaqIterable src, int size, int step){
+        Windows.check(src, size, step);
+        return doubleWindows(src, () -> new Windows.DoubleExtreme(size, step, false), Windows.DoubleExtreme::value);
+    }
+
+    public static DoubleBlaqIterable windowMax(DoubleBlaqIterable src, int size, int step){
+        Windows.check(src, size, step);
+        return doubleWindows(src, () -> new Windows.DoubleExtreme(size, step, true), Windows.DoubleExtreme::value);
+    }
+
+    private static PrimitiveIterator.OfLong widen(PrimitiveIterator.OfInt it){
+        return new PrimitiveIterator.OfLong() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public long nextLong() {
+                return it.nextInt();
+            }
+        };
+    }
+
+    private static <W extends Windows.OfLong> LongBlaqIterable longWindows(Supplier<PrimitiveIterator.OfLong> values,
+                                                                           Supplier<W> windows,
+                                                                           ToLongFunction<W> result){
+        return () -> new PrimitiveIterator.OfLong() {
+            private final PrimitiveIterator.OfLong it = values.get();
+            private final W window = windows.get();
+            private boolean ready;
+
+            @Override
+            public boolean hasNext() {
+                while(!ready && it.hasNext())
+                    ready = window.push(it.nextLong());
+                return ready;
+            }
+
+            @Override
+            public long nextLong() {
+                if(!hasNext())
+                    throw new NoSuchElementException();
+                ready = false;
+                return result.applyAsLong(window);
+            }
+        };
+    }
+
+    // Extremes of int windows are ints, so they go back into an int sequence
+    private static IntBlaqIterable intWindows(Supplier<PrimitiveIterator.OfLong> values,
+                                              Supplier<Windows.LongExtreme> windows){
+        return () -> new PrimitiveIterator.OfInt() {
+            private final PrimitiveIterator.OfLong it = longWindows(values, windows, Windows.LongExtreme::value)
+                    .iterator();
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public int nextInt() {
+                return (int) it.nextLong();
+            }
+        };
+    }
+
+    private static <W extends Windows.OfLong> DoubleBlaqIterable averageWindows(
+            Supplier<PrimitiveIterator.OfLong> values, Supplier<W> windows, ToDoubleFunction<W> result){
+        return () -> new PrimitiveIterator.OfDouble() {
+            private final PrimitiveIterator.OfLong it = values.get();
+            private final W window = windows.get();
+            private boolean ready;
+
+            @Override
+            public boolean hasNext() {
+                while(!ready && it.hasNext())
+                    ready = window.push(it.nextLong());
+                return ready;
+            }
+
+            @Override
+            public double nextDouble() {
+                if(!hasNext())
+                    throw new NoSuchElementException();
+                ready = false;
+                return result.applyAsDouble(window);
+            }
+        };
+    }
+
+    private static <W extends Windows.OfDouble> DoubleBlaqIterable doubleWindows(DoubleBlaqIterable src,
+                                                                                 Supplier<W> windows,
+                                                                                 ToDoubleFunction<W> result){
+        return () -> new PrimitiveIterator.OfDouble() {
+            private final PrimitiveIterator.OfDouble it = src.iterator();
+            private final W window = windows.get();
+            private boolean ready;
+
+            @Override
+            public boolean hasNext() {
+                while(!ready && it.hasNext())
+                    ready = window.push(it.nextDouble());
+                return ready;
+            }
+
+            @Override
+            public double nextDouble() {
+                if(!hasNext())
+                    throw new NoSuchElementException();
+                ready = false;
+                return result.applyAsDouble(window);
+            }
+        };
+    }
+
+    private static void requireNonEmpty(int count){
+        if(count == 0)
+            throw new InvalidOperationException("Sequence was empty.");
+    }
+
+    private static final class IntArraySequence implements IntBlaqIterable {
+        private final int[] values;
+
+        IntArraySequence(int[] values){
+            this.values = values;
+        }
+
+        @NotNull
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            return Spliterators.iterator(spliterator());
+        }
+
+        @Override
+        public Spliterator.OfInt spliterator() {
+            return Spliterators.spliterator(values, Spliterator.ORDERED);
+        }
+    }
+
+    private static final class LongArraySequence implements LongBlaqIterable {
+        private final long[] values;
+
+        LongArraySequence(long[] values){
+            this.values = values;
+        }
+
+        @NotNull
+        @Override
+        public PrimitiveIterator.OfLong iterator() {
+            return Spliterators.iterator(spliterator());
+        }
+
+        @Override
+        public Spliterator.OfLong spliterator() {
+            return Spliterators.spliterator(values, Spliterator.ORDERED);
+        }
+    }
+
+    private static final class DoubleArraySequence implements DoubleBlaqIterable {
+        private final double[] values;
+
+        DoubleArraySequence(double[] values){
+            this.values = values;
+        }
+
+        @NotNull
+        @Override
+        public PrimitiveIterator.OfDouble iterator() {
+            return Spliterators.iterator(spliterator());
+        }
+
+        @Override
+        public Spliterator.OfDouble spliterator() {
+            return Spliterators.spliterator(values, Spliterator.ORDERED);
+        }
+    }
+
+    private static final class IntRangeSequence implements IntBlaqIterable {
+        private final int start;
+        private final int count;
+
+        IntRangeSequence(int start, int count){
+            this.start = start;
+            this.count = count;
+        }
+
+        @NotNull
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            return Spliterators.iterator(spliterator());
+        }
+
+        // Sized, splittable, sorted and distinct
+        @Override
+        public Spliterator.OfInt spliterator() {
+            return count == 0 ? Spliterators.emptyIntSpliterator()
+                    : IntStream.rangeClosed(start, start + count - 1).spliterator();
+        }
+
+        // Arithmetic series: count * start + (0 + 1 + ... + count - 1), which fits in a long
+        void sum(NumericAccumulator accumulator){
+            accumulator.addLongSum(count, (long) count * start + (long) count * (count - 1) / 2, 0);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package blaq.core;
+
+import blaq.util.BufferPolicy;
+import blaq.util.CloseableIterator;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * One pass over a source, read by any number of consumers, each at its own position. Behind {@code memoize},
+ * {@code share} and {@code tee}.
+ * <p>Elements pulled from the source are kept in a ring until every consumer has got past them (or, when replaying,
+ * for good), within what the {@link BufferPolicy} allows. The source is only ever pulled by one consumer at a
+ * time, and the consumers may be on different threads.</p>
+ * <p>Consumers are held weakly: one given up on without being closed (a loop broken out of, a {@code take}) stops
+ * holding elements back once it has been garbage collected.</p>
+ * @param <T> Type of the elements.
+ */
+final class SharedBuffer<T> {
+
+    private final Iterable<T> source;
+    private final BufferPolicy policy;
+    // Elements are kept for consumers yet to come, not only for the ones reading now
+    private final boolean replay;
+    private final List<WeakReference<Reader>> readers = new ArrayList<>();
+
+    private Iterator<T> upstream;
+    private boolean exhausted;
+    // The upstream said it has another element, which hasn't been taken yet
+    private boolean pending;
+
+    private Object[] ring = new Object[16];
+    private int head;
+    private int size;
+    // Position in the source of the element at head
+    private long base;
+
+    SharedBuffer(Iterable<T> source, BufferPolicy policy, boolean replay){
+        this.source = source;
+        this.policy = policy;
+        this.replay = replay;
+    }
+
+    /**
+     * @return A consumer reading from the oldest element still held.
+     */
+    synchronized CloseableIterator<T> fromStart(){
+        return register(new Reader(base));
+    }
+
+    /**
+     * @return A consumer reading from the next element yet to be pulled; the start of a new pass when no other
+     *         consumer is reading and the last pass has finished.
+     */
+    synchronized CloseableIterator<T> fromNext(){
+        readers.removeIf(reader -> reader.get() == null);
+        if(readers.isEmpty() && exhausted){
+            upstream = null;
+            exhausted = false;
+            pending = false;
+            clear();
+        }
+        return register(new Reader(base + size));
+    }
+
+    private Reader register(Reader reader){
+        if(!replay)
+            readers.add(new WeakReference<>(reader));
+        return reader;
+    }
+
+    // Caller holds the lock. Returns false when the reader has read everything.
+    private boolean advanceTo(Reader reader){
+        if(reader.position < base)
+            reader.position = base;   // What it hadn't read yet was dropped
+        while(reader.position >= base + size){
+            if(exhausted)
+                return false;
+            if(upstream == null)
+                upstream = source.iterator();
+            // hasNext isn't always idempotent (a Yield's moves on), so it's only asked once per element
+            if(!pending){
+                if(!upstream.hasNext()){
+                    exhausted = true;
+                    notifyAll();
+                    continue;
+                }
+                pending = true;
+            }
+            // Only once there is another element, so the last ones aren't dropped for nothing
+            if(size == policy.capacity() && !makeRoom())
+                continue;
+            pending = false;
+            append(upstream.next());
+            notifyAll();
+        }
+        return true;
+    }
+
+    // Returns false when it had to wait, since other readers may have moved on in the meantime
+    private boolean makeRoom(){
+        trim();
+        if(size < policy.capacity())
+            return true;
+        switch (policy.overflow()){
+            case FAIL:
+                throw new InvalidOperationException("More than " + policy.capacity()
+                        + " elements would have to be buffered.");
+            case DROP_OLDEST:
+                dropHead();
+                return true;
+            case BLOCK:
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InvalidOperationException("Interrupted waiting for slower consumers.");
+                }
+                return false;
+            default:
+                throw new AssertionError(policy.overflow());
+        }
+    }
+
+    private void append(T item){
+        if(size == ring.length){
+            trim();
+            if(size == ring.length)
+                grow();
+        }
+        ring[(head + size) % ring.length] = item;
+        size++;
+    }
+
+    private void grow(){
+        Object[] bigger = new Object[(int) Math.min((long) ring.length << 1, Integer.MAX_VALUE - 8)];
+        for(int i = 0; i < size; i++)
+            bigger[i] = ring[(head + i) % ring.length];
+        ring = bigger;
+        head = 0;
+    }
+
+    // Lets go of the elements every reader has got past, forgetting the readers which were collected
+    private void trim(){
+        if(replay)
+            return;
+        long min = base + size;
+        for(Iterator<WeakReference<Reader>> it = readers.iterator(); it.hasNext();){
+            Reader reader = it.next().get();
+            if(reader == null)
+                it.remove();
+            else
+                min = Math.min(min, reader.position);
+        }
+        boolean trimmed = false;
+        while(base < min && size > 0){
+            dropHead();
+            trimmed = true;
+        }
+        if(trimmed)
+            notifyAll();
+    }
+
+    private void dropHead(){
+        ring[head] = null;
+        head = (head + 1) % ring.length;
+        size--;
+        base++;
+    }
+
+    private void clear(){
+        while(size > 0)
+            dropHead();
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elementAt(long position){
+        return (T) ring[(int) ((head + (position - base)) % ring.length)];
+    }
+
+    private final class Reader implements CloseableIterator<T> {
+        private long position;
+        private boolean closed;
+
+        Reader(long position){
+            this.position = position;
+        }
+
+        @Override
+        public boolean hasNext() {
+            synchronized (SharedBuffer.this){
+                if(closed)
+                    return false;
+                if(advanceTo(this))
+                    return true;
+                close();
+                return false;
+            }
+        }
+
+        @Override
+        public T next() {
+            synchronized (SharedBuffer.this){
+                if(!hasNext())
+                    throw new NoSuchElementException();
+                T item = elementAt(position);
+                if(position++ == base)
+                    trim();
+                return item;
+            }
+        }
+
+        // Stops holding elements back for this reader
+        @Override
+        public void close() {
+            synchronized (SharedBuffer.this){
+                if(closed)
+                    return;
+                closed = true;
+                readers.removeIf(reader -> reader.get() == this);
+                trim();
+                SharedBuffer.this.notifyAll();
+            }
+        }
+    }
+}
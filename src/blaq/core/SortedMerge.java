@@ -0,0 +1,208 @@
+package blaq.core;
+
+import blaq.tools.Yield;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * Streaming set operators over sequences which are already in the same order.
+ * <p>
+ *     Rather than hashing every element, both inputs are walked in step, one run of equally-ranked elements
+ *     at a time. Only the current run is held in memory (to tell apart elements which rank equally but aren't
+ *     equal), so for orderings on a unique key memory use is constant.
+ * </p>
+ * <p>
+ *     This relies on equal elements always ranking equally, which holds for the elements' own {@code equals}
+ *     but not necessarily for a custom {@link blaq.util.ICompareEquality}; callers only come here without one.
+ * </p>
+ */
+final class SortedMerge {
+    private SortedMerge(){throw new AssertionError("BLAQ doesn't need instances!");}
+
+    static <T> Iterable<T> distinct(Iterable<T> src, Comparator<T> order){
+        return (Yield<T>) yield -> {
+            Cursor<T> a = new Cursor<>(src);
+            RunSet<T> run = new RunSet<>();
+            while(a.valid){
+                T runHead = a.current;
+                for(; a.valid && order.compare(a.current, runHead) == 0; a.advance())
+                    if(run.add(a.current))
+                        yield.returning(a.current);
+                run.clear();
+            }
+        };
+    }
+
+    static <T> Iterable<T> union(Iterable<T> first, Iterable<T> second, Comparator<T> order){
+        return (Yield<T>) yield -> {
+            Cursor<T> a = new Cursor<>(first), b = new Cursor<>(second);
+            RunSet<T> run = new RunSet<>();
+            while(a.valid || b.valid){
+                T runHead = !b.valid || (a.valid && order.compare(a.current, b.current) <= 0) ? a.current : b.current;
+                for(; a.valid && order.compare(a.current, runHead) == 0; a.advance())
+                    if(run.add(a.current))
+                        yield.returning(a.current);
+                for(; b.valid && order.compare(b.current, runHead) == 0; b.advance())
+                    if(run.add(b.current))
+                        yield.returning(b.current);
+                run.clear();
+            }
+        };
+    }
+
+    static <T> Iterable<T> intersect(Iterable<T> first, Iterable<T> second, Comparator<T> order){
+        return (Yield<T>) yield -> {
+            Cursor<T> a = new Cursor<>(first), b = new Cursor<>(second);
+            RunSet<T> run = new RunSet<>();
+            while(a.valid && b.valid){
+                int comparison = order.compare(a.current, b.current);
+                if(comparison < 0)
+                    a.advance();
+                else if(comparison > 0)
+                    b.advance();
+                else {
+                    T runHead = b.current;
+                    for(; b.valid && order.compare(b.current, runHead) == 0; b.advance())
+                        run.add(b.current);
+                    for(; a.valid && order.compare(a.current, runHead) == 0; a.advance())
+                        if(run.remove(a.current))
+                            yield.returning(a.current);
+                    run.clear();
+                }
+            }
+        };
+    }
+
+    static <T> Iterable<T> except(Iterable<T> first, Iterable<T> second, Comparator<T> order){
+        return (Yield<T>) yield -> {
+            Cursor<T> a = new Cursor<>(first), b = new Cursor<>(second);
+            RunSet<T> excluded = new RunSet<>(), returned = new RunSet<>();
+            while(a.valid){
+                T runHead = a.current;
+                while(b.valid && order.compare(b.current, runHead) < 0)
+                    b.advance();
+                for(; b.valid && order.compare(b.current, runHead) == 0; b.advance())
+                    excluded.add(b.current);
+                for(; a.valid && order.compare(a.current, runHead) == 0; a.advance())
+                    if(!excluded.contains(a.current) && returned.add(a.current))
+                        yield.returning(a.current);
+                excluded.clear();
+                returned.clear();
+            }
+        };
+    }
+
+    /**
+     * K-way merge using a heap of the current head of each source; ties are taken from the earlier source first.
+     */
+    static <T, K> Iterable<T> merge(Iterable<? extends Iterable<T>> sources, Function<T, K> keySelector,
+                                    Comparator<K> comparator){
+        return (Yield<T>) yield -> {
+            PriorityQueue<Head<T, K>> heads = new PriorityQueue<>((x, y) -> {
+                int comparison = comparator.compare(x.key, y.key);
+                return comparison != 0 ? comparison : Integer.compare(x.source, y.source);
+            });
+            int index = 0;
+            for(Iterable<T> source : sources){
+                Iterator<T> items = source.iterator();
+                if(items.hasNext())
+                    heads.add(new Head<>(items, keySelector, index));
+                index++;
+            }
+            while(!heads.isEmpty()){
+                Head<T, K> head = heads.poll();
+                yield.returning(head.item);
+                if(head.advance())
+                    heads.add(head);
+            }
+        };
+    }
+
+    private static final class Cursor<T> {
+        private final Iterator<T> items;
+        T current;
+        boolean valid;
+
+        Cursor(Iterable<T> src){
+            items = src.iterator();
+            advance();
+        }
+
+        void advance(){
+            valid = items.hasNext();
+            current = valid ? items.next() : null;
+        }
+    }
+
+    private static final class Head<T, K> {
+        private final Iterator<T> items;
+        private final Function<T, K> keySelector;
+        final int source;
+        T item;
+        K key;
+
+        Head(Iterator<T> items, Function<T, K> keySelector, int source){
+            this.items = items;
+            this.keySelector = keySelector;
+            this.source = source;
+            advance();
+        }
+
+        boolean advance(){
+            if(!items.hasNext())
+                return false;
+            item = items.next();
+            key = keySelector.apply(item);
+            return true;
+        }
+    }
+
+    /**
+     * Elements of the current run. Runs are usually tiny, so they're scanned linearly until they grow large
+     * enough for a hash set to pay off.
+     */
+    private static final class RunSet<T> {
+        private static final int INDEX_THRESHOLD = 8;
+
+        private final List<T> items = new ArrayList<>();
+        private HashSet<T> index;
+
+        boolean add(T item){
+            if(contains(item))
+                return false;
+            if(index != null)
+                index.add(item);
+            else {
+                items.add(item);
+                if(items.size() > INDEX_THRESHOLD)
+                    index = new HashSet<>(items);
+            }
+            return true;
+        }
+
+        boolean contains(T item){
+            if(index != null)
+                return index.contains(item);
+            for(T member : items)
+                if(Objects.equals(member, item))
+                    return true;
+            return false;
+        }
+
+        boolean remove(T item){
+            return index != null ? index.remove(item) : items.remove(item);
+        }
+
+        void clear(){
+            items.clear();
+            index = null;
+        }
+    }
+}
@@ -0,0 +1,564 @@
+package blaq.core;
+
+import blaq.util.CloseableIterator;
+import blaq.util.Grouping;
+import blaq.util.ICompareEquality;
+import blaq.util.IGrouping;
+import blaq.util.ISerializer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * {@code distinct} and {@code groupBy} holding no more than a given number of elements in memory.
+ * <p>
+ *     Workings:
+ *     Elements are kept in memory until the limit is reached. From then on, elements which can't be settled in
+ *     memory are appended, along with their position in the source, to one of {@link #FANOUT} temporary files picked
+ *     by the hash of their key. Equal keys always land in the same file, so once the source is exhausted each file
+ *     is worked through on its own, one at a time; a file still too big for the limit is split again on other bits
+ *     of the hash. Each file's results are written to a run in order of position, and the runs are merged back by
+ *     position, so results come out in the same order as they would without a limit.
+ * </p>
+ * <p>Temporary files are deleted as soon as they've been read, and all of them once the iterator is exhausted,
+ * closed or fails.</p>
+ */
+final class Spilling {
+
+    private Spilling(){throw new AssertionError("BLAQ doesn't need instances!");}
+
+    private static final int FANOUT_BITS = 5;
+    private static final int FANOUT = 1 << FANOUT_BITS;
+    // Deepest split there are hash bits left for; a file at this level is worked through whatever its size
+    private static final int MAX_LEVEL = 32 / FANOUT_BITS - 1;
+
+    static <T> CloseableIterator<T> distinct(Iterable<T> src, ISerializer<T> serializer, int limit,
+                                             ICompareEquality<T> compareEquality){
+        return new Distinct<>(src, serializer, limit, compareEquality);
+    }
+
+    static <T, K, V> CloseableIterator<IGrouping<K, V>> groupBy(Iterable<T> src, Function<T, K> keyFunction,
+                                                                Function<T, V> elementFunction,
+                                                                ISerializer<K> keySerializer,
+                                                                ISerializer<V> elementSerializer, int limit,
+                                                                ICompareEquality<K> compareEquality){
+        return new GroupBy<>(src, keyFunction, elementFunction, keySerializer, elementSerializer, limit,
+                compareEquality);
+    }
+
+    // Top bits of a product with another constant than KeyTable's, so keys within one file still spread over a table
+    private static int partitionOf(int hash, int level){
+        return ((hash * 0x85EBCA6B) >>> (32 - FANOUT_BITS * (level + 1))) & (FANOUT - 1);
+    }
+
+    private static <T> void write(ISerializer<T> serializer, T item, DataOutput out) throws IOException {
+        out.writeBoolean(item != null);
+        if(item != null)
+            serializer.write(item, out);
+    }
+
+    private static <T> T read(ISerializer<T> serializer, DataInput in) throws IOException {
+        return in.readBoolean() ? serializer.read(in) : null;
+    }
+
+    /**
+     * A temporary file of records, written then read back (possibly more than once) from the start.
+     */
+    private static final class SpillFile {
+        private final Path path;
+        private DataOutputStream out;
+        private DataInputStream in;
+        private long records;
+
+        SpillFile() throws IOException {
+            path = Files.createTempFile("blaq-spill", ".tmp");
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        }
+
+        // Stream to write one more record to
+        DataOutput append(){
+            records++;
+            return out;
+        }
+
+        long records(){
+            return records;
+        }
+
+        DataInputStream read() throws IOException {
+            if(out != null){
+                out.close();
+                out = null;
+            }
+            if(in != null)
+                in.close();
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+            return in;
+        }
+
+        void delete(){
+            try {
+                if(out != null)
+                    out.close();
+                if(in != null)
+                    in.close();
+                Files.deleteIfExists(path);
+            } catch (IOException ignored){
+                // Only a temporary file left behind
+            }
+        }
+    }
+
+    // A run being merged, positioned on its next record
+    private static final class Run {
+        private final SpillFile file;
+        private final DataInputStream in;
+        private long remaining;
+        private long position;
+
+        Run(SpillFile file) throws IOException {
+            this.file = file;
+            this.in = file.read();
+            this.remaining = file.records();
+        }
+
+        boolean advance() throws IOException {
+            if(remaining == 0)
+                return false;
+            remaining--;
+            position = in.readLong();
+            return true;
+        }
+    }
+
+    /**
+     * What both operators share: the temporary files, splitting files which don't fit and merging runs.
+     * Records in files and runs all start with the position they are ordered by.
+     */
+    private abstract static class SpillingIterator<R> implements CloseableIterator<R> {
+        final int limit;
+        private final List<SpillFile> files = new ArrayList<>();
+        private PriorityQueue<Run> runs;
+        private R next;
+        private boolean ready;
+        private boolean closed;
+
+        SpillingIterator(int limit){
+            this.limit = limit;
+        }
+
+        /**
+         * Finds the next result and hands it to {@link #found(Object)}.
+         * @return {@code false} when there are no more.
+         */
+        abstract boolean advance() throws IOException;
+
+        /**
+         * Reads {@code partition}, writing its results to {@code run}.
+         * @param unlimited {@code true} when {@code partition} can't be split any further, so has to be worked
+         *                  through in memory whatever its size.
+         * @return {@code false}, having given up, if it needed more than the limit.
+         */
+        abstract boolean reduce(SpillFile partition, SpillFile run, boolean unlimited) throws IOException;
+
+        /**
+         * Reads the rest of a record of a file being split, and appends it to one of {@code into}.
+         */
+        abstract void respill(DataInput in, long position, SpillFile[] into, int level) throws IOException;
+
+        /**
+         * Reads the rest of a record of a run.
+         */
+        abstract R result(DataInput in) throws IOException;
+
+        /**
+         * Writes the rest of a record of a run.
+         */
+        abstract void writeResult(R result, DataOutput out) throws IOException;
+
+        final boolean found(R item){
+            next = item;
+            ready = true;
+            return true;
+        }
+
+        final SpillFile newFile() throws IOException {
+            SpillFile file = new SpillFile();
+            files.add(file);
+            return file;
+        }
+
+        final void discard(SpillFile file){
+            file.delete();
+            files.remove(file);
+        }
+
+        /**
+         * @return The stream to write the rest of the record at {@code position} to.
+         */
+        final DataOutput append(SpillFile[] partitions, int hash, int level, long position) throws IOException {
+            int partition = partitionOf(hash, level);
+            if(partitions[partition] == null)
+                partitions[partition] = newFile();
+            DataOutput out = partitions[partition].append();
+            out.writeLong(position);
+            return out;
+        }
+
+        /**
+         * Works through every partition, once the source is exhausted, and gets their runs ready to
+         * {@link #nextMerged() merge}.
+         */
+        final void reduceAll(SpillFile[] partitions) throws IOException {
+            List<SpillFile> reduced = new ArrayList<>();
+            reduceAll(partitions, 0, reduced);
+            runs = open(reduced);
+        }
+
+        private void reduceAll(SpillFile[] partitions, int level, List<SpillFile> reduced) throws IOException {
+            for(SpillFile partition : partitions){
+                if(partition == null)
+                    continue;
+                SpillFile run = newFile();
+                if(reduce(partition, run, level == MAX_LEVEL)){
+                    discard(partition);
+                    reduced.add(run);
+                    continue;
+                }
+                discard(run);
+                SpillFile[] split = new SpillFile[FANOUT];
+                DataInput in = partition.read();
+                for(long i = 0; i < partition.records(); i++)
+                    respill(in, in.readLong(), split, level + 1);
+                discard(partition);
+                // Merged straight away, so there's never more than a few runs per level open at once
+                List<SpillFile> subRuns = new ArrayList<>();
+                reduceAll(split, level + 1, subRuns);
+                reduced.add(subRuns.size() == 1 ? subRuns.get(0) : merge(subRuns));
+            }
+        }
+
+        private PriorityQueue<Run> open(List<SpillFile> files) throws IOException {
+            PriorityQueue<Run> opened = new PriorityQueue<>(Math.max(1, files.size()),
+                    Comparator.comparingLong(run -> run.position));
+            for(SpillFile file : files){
+                Run run = new Run(file);
+                if(run.advance())
+                    opened.add(run);
+                else
+                    discard(file);
+            }
+            return opened;
+        }
+
+        private SpillFile merge(List<SpillFile> files) throws IOException {
+            SpillFile merged = newFile();
+            PriorityQueue<Run> opened = open(files);
+            for(Run head = opened.poll(); head != null; head = opened.poll()){
+                DataOutput out = merged.append();
+                out.writeLong(head.position);
+                writeResult(result(head.in), out);
+                if(head.advance())
+                    opened.add(head);
+                else
+                    discard(head.file);
+            }
+            return merged;
+        }
+
+        final boolean nextMerged() throws IOException {
+            Run head = runs.poll();
+            if(head == null)
+                return false;
+            R result = result(head.in);
+            if(head.advance())
+                runs.add(head);
+            else
+                discard(head.file);
+            return found(result);
+        }
+
+        @Override
+        public final boolean hasNext() {
+            if(ready)
+                return true;
+            if(closed)
+                return false;
+            try {
+                if(!advance())
+                    close();
+            } catch (IOException e){
+                close();
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException | Error e){
+                close();
+                throw e;
+            }
+            return ready;
+        }
+
+        @Override
+        public final R next() {
+            if(!hasNext())
+                throw new NoSuchElementException();
+            R item = next;
+            next = null;
+            ready = false;
+            return item;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            for(SpillFile file : files)
+                file.delete();
+            files.clear();
+            runs = null;
+        }
+    }
+
+    /**
+     * First occurrences held in memory are yielded straight away. Once there are {@code limit} of them, only elements
+     * which aren't among them are written out; those are all later in the source than anything yielded so far, and
+     * follow once it's exhausted.
+     */
+    private static final class Distinct<T> extends SpillingIterator<T> {
+        private final ISerializer<T> serializer;
+        private final ICompareEquality<T> compareEquality;
+        private Iterator<T> source;
+        private KeyTable<T> seen;
+        private SpillFile[] partitions;
+        private long position;
+
+        Distinct(Iterable<T> src, ISerializer<T> serializer, int limit, ICompareEquality<T> compareEquality){
+            super(limit);
+            this.serializer = serializer;
+            this.compareEquality = compareEquality;
+            this.source = src.iterator();
+            this.seen = new KeyTable<>(compareEquality);
+        }
+
+        private int hash(T item){
+            return item == null ? 0 : compareEquality.hashCode(item);
+        }
+
+        @Override
+        boolean advance() throws IOException {
+            if(source != null){
+                while(source.hasNext()){
+                    T item = source.next();
+                    long at = position++;
+                    if(partitions == null){
+                        int count = seen.size();
+                        if(seen.add(item) == count){
+                            if(seen.size() == limit)
+                                partitions = new SpillFile[FANOUT];
+                            return found(item);
+                        }
+                    } else if(seen.indexOf(item) < 0)
+                        write(serializer, item, append(partitions, hash(item), 0, at));
+                }
+                source = null;
+                seen = null;
+                if(partitions == null)
+                    return false;
+                reduceAll(partitions);
+                partitions = null;
+            }
+            return nextMerged();
+        }
+
+        @Override
+        boolean reduce(SpillFile partition, SpillFile run, boolean unlimited) throws IOException {
+            KeyTable<T> table = new KeyTable<>(compareEquality);
+            DataInput in = partition.read();
+            for(long i = 0; i < partition.records(); i++){
+                long at = in.readLong();
+                T item = read(serializer, in);
+                int count = table.size();
+                if(table.add(item) == count){
+                    if(table.size() > limit && !unlimited)
+                        return false;
+                    DataOutput out = run.append();
+                    out.writeLong(at);
+                    writeResult(item, out);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        void respill(DataInput in, long position, SpillFile[] into, int level) throws IOException {
+            T item = read(serializer, in);
+            write(serializer, item, append(into, hash(item), level, position));
+        }
+
+        @Override
+        T result(DataInput in) throws IOException {
+            return read(serializer, in);
+        }
+
+        @Override
+        void writeResult(T result, DataOutput out) throws IOException {
+            write(serializer, result, out);
+        }
+    }
+
+    /**
+     * Groups are built in memory until they hold more than {@code limit} elements between them. Then they're all
+     * written out, each element tagged with the position of its group's first element, and every element after
+     * them follows. Each written group is read back whole; runs hold whole groups.
+     */
+    private static final class GroupBy<T, K, V> extends SpillingIterator<IGrouping<K, V>> {
+        private final Function<T, K> keyFunction;
+        private final Function<T, V> elementFunction;
+        private final ISerializer<K> keySerializer;
+        private final ISerializer<V> elementSerializer;
+        private final ICompareEquality<K> compareEquality;
+        private Iterator<T> source;
+        private Groups groups;
+        private Iterator<Grouping<K, V>> inMemory;
+        private SpillFile[] partitions;
+        private long position;
+
+        GroupBy(Iterable<T> src, Function<T, K> keyFunction, Function<T, V> elementFunction,
+                ISerializer<K> keySerializer, ISerializer<V> elementSerializer, int limit,
+                ICompareEquality<K> compareEquality){
+            super(limit);
+            this.keyFunction = keyFunction;
+            this.elementFunction = elementFunction;
+            this.keySerializer = keySerializer;
+            this.elementSerializer = elementSerializer;
+            this.compareEquality = compareEquality;
+            this.source = src.iterator();
+            this.groups = new Groups();
+        }
+
+        // Groups in order of their first element, and where that element is
+        private final class Groups {
+            private final KeyTable<K> keys = new KeyTable<>(compareEquality);
+            private final List<Grouping<K, V>> list = new ArrayList<>();
+            private long[] firsts = new long[8];
+            private long elements;
+
+            void add(K key, V value, long at){
+                int count = keys.size();
+                int index = keys.add(key);
+                if(index == count){
+                    list.add(new Grouping<>(key));
+                    firsts = KeyTable.fit(firsts, index + 1);
+                    firsts[index] = at;
+                }
+                list.get(index).add(value);
+                elements++;
+            }
+        }
+
+        private int hash(K key){
+            return key == null ? 0 : compareEquality.hashCode(key);
+        }
+
+        private void writeElement(DataOutput out, K key, V value) throws IOException {
+            write(keySerializer, key, out);
+            write(elementSerializer, value, out);
+        }
+
+        @Override
+        boolean advance() throws IOException {
+            if(source != null){
+                while(source.hasNext()){
+                    T item = source.next();
+                    long at = position++;
+                    K key = keyFunction.apply(item);
+                    V value = elementFunction.apply(item);
+                    if(partitions != null){
+                        writeElement(append(partitions, hash(key), 0, at), key, value);
+                        continue;
+                    }
+                    groups.add(key, value, at);
+                    if(groups.elements > limit)
+                        spillGroups();
+                }
+                source = null;
+                if(partitions == null)
+                    inMemory = groups.list.iterator();
+                else {
+                    reduceAll(partitions);
+                    partitions = null;
+                }
+                groups = null;
+            }
+            if(inMemory != null)
+                return inMemory.hasNext() && found(inMemory.next());
+            return nextMerged();
+        }
+
+        private void spillGroups() throws IOException {
+            partitions = new SpillFile[FANOUT];
+            for(int i = 0; i < groups.list.size(); i++){
+                Grouping<K, V> group = groups.list.get(i);
+                int hash = hash(group.getKey());
+                for(V value : group)
+                    writeElement(append(partitions, hash, 0, groups.firsts[i]), group.getKey(), value);
+            }
+            groups = null;
+        }
+
+        @Override
+        boolean reduce(SpillFile partition, SpillFile run, boolean unlimited) throws IOException {
+            Groups reduced = new Groups();
+            DataInput in = partition.read();
+            for(long i = 0; i < partition.records(); i++){
+                long at = in.readLong();
+                K key = read(keySerializer, in);
+                reduced.add(key, read(elementSerializer, in), at);
+                if(reduced.elements > limit && !unlimited)
+                    return false;
+            }
+            for(int i = 0; i < reduced.list.size(); i++){
+                DataOutput out = run.append();
+                out.writeLong(reduced.firsts[i]);
+                writeResult(reduced.list.get(i), out);
+            }
+            return true;
+        }
+
+        @Override
+        void respill(DataInput in, long position, SpillFile[] into, int level) throws IOException {
+            K key = read(keySerializer, in);
+            V value = read(elementSerializer, in);
+            writeElement(append(into, hash(key), level, position), key, value);
+        }
+
+        @Override
+        IGrouping<K, V> result(DataInput in) throws IOException {
+            Grouping<K, V> group = new Grouping<>(read(keySerializer, in));
+            for(int i = in.readInt(); i > 0; i--)
+                group.add(read(elementSerializer, in));
+            return group;
+        }
+
+        @Override
+        void writeResult(IGrouping<K, V> result, DataOutput out) throws IOException {
+            write(keySerializer, result.getKey(), out);
+            out.writeInt(Enumerable.count(result));
+            for(V value : result)
+                write(elementSerializer, value, out);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package blaq.core;
+
+import blaq.util.Grouping;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The first {@code n} elements of a group in order of a sort key, as {@code orderBy(sortKey).take(n)} would give
+ * them, kept in a bounded heap as the elements are read.
+ * <p>The root of the heap is the element which would go first if another one came along: the greatest key, the
+ * latest of equal ones. A new element is always later than those already held, so with the heap full it only goes
+ * in if its key is strictly less than the root's; ties go to the earlier element, as the sort is stable. The heap
+ * grows as needed, up to {@code n}, so small groups don't take {@code n} slots.</p>
+ * @param <T> Type of the elements.
+ * @param <S> Type of the sort keys.
+ */
+final class TopN<T, S> {
+
+    private final int n;
+    private final Comparator<? super S> comparator;
+    private Object[] keys = new Object[4];
+    private Object[] items = new Object[4];
+    private long[] ordinals = new long[4];
+    private int size;
+
+    TopN(int n, Comparator<? super S> comparator){
+        this.n = n;
+        this.comparator = comparator;
+    }
+
+    /**
+     * @param ordinal Position of {@code item} in the source; greater than that of any element offered before.
+     */
+    void offer(S key, T item, long ordinal){
+        if(size < n){
+            if(size == keys.length){
+                int length = (int) Math.min(n, 2L * size);
+                keys = Arrays.copyOf(keys, length);
+                items = Arrays.copyOf(items, length);
+                ordinals = Arrays.copyOf(ordinals, length);
+            }
+            set(size, key, item, ordinal);
+            up(size++);
+        }
+        else if(compare(key, 0) < 0){
+            set(0, key, item, ordinal);
+            down(0);
+        }
+    }
+
+    /**
+     * @return The elements held, in order of key and then of position.
+     */
+    @SuppressWarnings("unchecked")
+    <K> Grouping<K, T> toGrouping(K groupKey){
+        Integer[] order = new Integer[size];
+        for(int i = 0; i < size; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> {
+            int comparison = comparator.compare((S) keys[a], (S) keys[b]);
+            return comparison != 0 ? comparison : Long.compare(ordinals[a], ordinals[b]);
+        });
+        Grouping<K, T> group = new Grouping<>(groupKey);
+        for(int index : order)
+            group.add((T) items[index]);
+        return group;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(S key, int position){
+        return comparator.compare(key, (S) keys[position]);
+    }
+
+    // Whether the element at position a goes after the one at b
+    @SuppressWarnings("unchecked")
+    private boolean after(int a, int b){
+        int comparison = comparator.compare((S) keys[a], (S) keys[b]);
+        return comparison > 0 || (comparison == 0 && ordinals[a] > ordinals[b]);
+    }
+
+    private void up(int position){
+        while(position > 0){
+            int parent = (position - 1) >>> 1;
+            if(!after(position, parent))
+                break;
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void down(int position){
+        while(true){
+            int child = 2 * position + 1;
+            if(child >= size)
+                break;
+            if(child + 1 < size && after(child + 1, child))
+                child++;
+            if(!after(child, position))
+                break;
+            swap(position, child);
+            position = child;
+        }
+    }
+
+    private void set(int position, S key, T item, long ordinal){
+        keys[position] = key;
+        items[position] = item;
+        ordinals[position] = ordinal;
+    }
+
+    private void swap(int i, int j){
+        Object key = keys[i], item = items[i];
+        long ordinal = ordinals[i];
+        keys[i] = keys[j];
+        items[i] = items[j];
+        ordinals[i] = ordinals[j];
+        keys[j] = key;
+        items[j] = item;
+        ordinals[j] = ordinal;
+    }
+}
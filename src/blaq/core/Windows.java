@@ -0,0 +1,321 @@
+package blaq.core;
+
+import blaq.util.CompensatedSum;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * State behind the window operators ({@code window}, {@code windowSum}, {@code windowMin}, ...), fed one element at
+ * a time.
+ * <p>A window holds the last {@code size} elements read; one is due once {@code size} elements have been read, then
+ * again after every {@code step} more. Sums are kept up to date by adding the element coming in and taking away the
+ * one going out, minimums and maximums with a monotonic deque (the elements which could still be the extreme of a
+ * later window, in order), so each element costs O(1) whatever the size of the window.</p>
+ */
+final class Windows {
+
+    private Windows(){throw new AssertionError("BLAQ doesn't need instances!");}
+
+    // Arguments of every window operator, over objects or primitives
+    static void check(Iterable<?> src, int size, int step){
+        if(src == null)
+            throw new NullArgumentException("source");
+        if(size < 1)
+            throw new ArgumentOutOfRangeException("size");
+        if(step < 1)
+            throw new ArgumentOutOfRangeException("step");
+    }
+
+    private abstract static class Window {
+        final int size;
+        private final int step;
+        // Elements read so far
+        long read;
+
+        Window(int size, int step){
+            this.size = size;
+            this.step = step;
+        }
+
+        // Called once an element has been added
+        final boolean due(){
+            return ++read >= size && (read - size) % step == 0;
+        }
+
+        // Where element number `position` (counting from 0) is kept, while it's in the window
+        final int slot(long position){
+            return (int) (position % size);
+        }
+    }
+
+    abstract static class OfLong extends Window {
+        OfLong(int size, int step){
+            super(size, step);
+        }
+
+        /**
+         * @return Whether a window is due now.
+         */
+        abstract boolean push(long value);
+    }
+
+    abstract static class OfDouble extends Window {
+        OfDouble(int size, int step){
+            super(size, step);
+        }
+
+        abstract boolean push(double value);
+    }
+
+    // ----------------------------- Elements -----------------------------
+
+    static final class Elements<T> extends Window {
+        private final Object[] ring;
+
+        Elements(int size, int step){
+            super(size, step);
+            ring = new Object[size];
+        }
+
+        boolean push(T item){
+            ring[slot(read)] = item;
+            return due();
+        }
+
+        /**
+         * @return A new list of the elements in the window, oldest first.
+         */
+        @SuppressWarnings("unchecked")
+        List<T> toList(){
+            List<T> window = new ArrayList<>(size);
+            for(long position = read - size; position < read; position++)
+                window.add((T) ring[slot(position)]);
+            return window;
+        }
+    }
+
+    // ----------------------------- Sums -----------------------------
+
+    /**
+     * Sum of integral values, in two words like {@link NumericAccumulator}'s, so values going in and out can wrap
+     * around as long as the window's sum doesn't.
+     */
+    static final class LongSum extends OfLong {
+        private final long[] ring;
+        private long sum;
+        private long sumHigh;
+
+        LongSum(int size, int step){
+            super(size, step);
+            ring = new long[size];
+        }
+
+        @Override
+        boolean push(long value){
+            int slot = slot(read);
+            if(read >= size){
+                long out = ring[slot];
+                long result = sum - out;
+                sumHigh -= NumericAccumulator.borrow(sum, out, result);
+                sum = result;
+            }
+            ring[slot] = value;
+            long result = sum + value;
+            sumHigh += NumericAccumulator.carry(sum, value, result);
+            sum = result;
+            return due();
+        }
+
+        long sum(){
+            if(sumHigh != 0)
+                throw new ArithmeticException("Long Overflow exception.");
+            return sum;
+        }
+
+        double average(){
+            return (sumHigh * 0x1p64 + sum) / size;
+        }
+    }
+
+    /**
+     * Compensated sum of the finite values in the window. Infinities and NaNs are counted rather than added, since
+     * once in a running sum they'd never come back out (inf - inf = NaN).
+     */
+    static final class DoubleSum extends OfDouble {
+        private final double[] ring;
+        private CompensatedSum sum = new CompensatedSum();
+        private int positiveInfinities;
+        private int negativeInfinities;
+        private int nans;
+
+        DoubleSum(int size, int step){
+            super(size, step);
+            ring = new double[size];
+        }
+
+        @Override
+        boolean push(double value){
+            int slot = slot(read);
+            if(read >= size)
+                add(ring[slot], -1);
+            ring[slot] = value;
+            add(value, 1);
+            return due();
+        }
+
+        private void add(double value, int sign){
+            if(Double.isNaN(value))
+                nans += sign;
+            else if(value == Double.POSITIVE_INFINITY)
+                positiveInfinities += sign;
+            else if(value == Double.NEGATIVE_INFINITY)
+                negativeInfinities += sign;
+            else
+                sum.accept(sign * value);
+        }
+
+        double sum(){
+            if(nans > 0 || (positiveInfinities > 0 && negativeInfinities > 0))
+                return Double.NaN;
+            if(positiveInfinities > 0)
+                return Double.POSITIVE_INFINITY;
+            if(negativeInfinities > 0)
+                return Double.NEGATIVE_INFINITY;
+            return sum.value();
+        }
+
+        double average(){
+            return sum() / size;
+        }
+    }
+
+    // ----------------------------- Minimum/Maximum -----------------------------
+
+    /**
+     * Positions of the deque live in a ring of {@code size}: it never holds more than the window does.
+     * Values behind a new one which is at least as good can never be the extreme again, so they're dropped; what's
+     * left is in order of position and of value, with the window's extreme at the front.
+     */
+    static final class LongExtreme extends OfLong {
+        private final boolean max;
+        private final long[] values;
+        private final long[] positions;
+        private int head;
+        private int count;
+
+        LongExtreme(int size, int step, boolean max){
+            super(size, step);
+            this.max = max;
+            values = new long[size];
+            positions = new long[size];
+        }
+
+        @Override
+        boolean push(long value){
+            if(count > 0 && positions[head] <= read - size){
+                head = (head + 1) % size;
+                count--;
+            }
+            while(count > 0){
+                long last = values[(head + count - 1) % size];
+                if(max ? last > value : last < value)
+                    break;
+                count--;
+            }
+            int tail = (head + count++) % size;
+            values[tail] = value;
+            positions[tail] = read;
+            return due();
+        }
+
+        long value(){
+            return values[head];
+        }
+    }
+
+    // Ordered like Double.compare, as min and max are: NaN is greater than everything, -0.0 less than 0.0
+    static final class DoubleExtreme extends OfDouble {
+        private final boolean max;
+        private final double[] values;
+        private final long[] positions;
+        private int head;
+        private int count;
+
+        DoubleExtreme(int size, int step, boolean max){
+            super(size, step);
+            this.max = max;
+            values = new double[size];
+            positions = new long[size];
+        }
+
+        @Override
+        boolean push(double value){
+            if(count > 0 && positions[head] <= read - size){
+                head = (head + 1) % size;
+                count--;
+            }
+            while(count > 0){
+                int comparison = Double.compare(values[(head + count - 1) % size], value);
+                if(max ? comparison > 0 : comparison < 0)
+                    break;
+                count--;
+            }
+            int tail = (head + count++) % size;
+            values[tail] = value;
+            positions[tail] = read;
+            return due();
+        }
+
+        double value(){
+            return values[head];
+        }
+    }
+
+    /**
+     * Like {@link LongExtreme}, but ties go to the element which came first, as with {@code minBy}/{@code maxBy}.
+     */
+    static final class Extreme<T> extends Window {
+        private final Comparator<? super T> comparator;
+        private final boolean max;
+        private final Object[] values;
+        private final long[] positions;
+        private int head;
+        private int count;
+
+        Extreme(int size, int step, Comparator<? super T> comparator, boolean max){
+            super(size, step);
+            this.comparator = comparator;
+            this.max = max;
+            values = new Object[size];
+            positions = new long[size];
+        }
+
+        @SuppressWarnings("unchecked")
+        boolean push(T item){
+            if(count > 0 && positions[head] <= read - size){
+                values[head] = null;
+                head = (head + 1) % size;
+                count--;
+            }
+            while(count > 0){
+                int last = (head + count - 1) % size;
+                int comparison = comparator.compare((T) values[last], item);
+                if(max ? comparison >= 0 : comparison <= 0)
+                    break;
+                values[last] = null;
+                count--;
+            }
+            int tail = (head + count++) % size;
+            values[tail] = item;
+            positions[tail] = read;
+            return due();
+        }
+
+        @SuppressWarnings("unchecked")
+        T value(){
+            return (T) values[head];
+        }
+    }
+}
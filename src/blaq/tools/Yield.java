@@ -5,6 +5,8 @@ import blaq.util.CloseableIterator;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.atomic.AtomicReference;
@@ -49,12 +51,17 @@ public interface Yield<T> extends Iterable<T> {
     default CloseableIterator<T> iterator(){ // Originally returned CloseableIterator<T> -  Can change to Iterable<T>
         YieldDef<T> yieldDef = new YieldDef<>();
         Thread collector = new Thread(() -> {
-            yieldDef.waitUntilFirstValueRequested();
             try {
+                yieldDef.waitUntilFirstValueRequested();
                 execute(yieldDef);
             } catch (BreakException e){
                 //Might add logger here to experiment.
 //                System.out.println("broke");
+            } catch (RuntimeException e){
+                // Closing interrupts the thread: nobody is reading any more, so there's nothing to signal
+                if(Thread.interrupted() || e.getCause() instanceof InterruptedException)
+                    return;
+                throw e;
             }
             yieldDef.signalComplete();
         });
@@ -64,6 +71,15 @@ public interface Yield<T> extends Iterable<T> {
         return yieldDef.iterator();
     }
 
+    /**
+     * Generated values keep the order they were returned in; how many there are isn't known up front.
+     * @return
+     */
+    @Override
+    default Spliterator<T> spliterator(){
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+    }
+
     /**
      * Nested class defining the properties and behaviors of the yield.
      * Threads are resources, therefore each yield must be disposed of (closed) to free threads.
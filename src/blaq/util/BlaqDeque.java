@@ -2,6 +2,7 @@ package blaq.util;
 
 import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.stream.Stream;
 
 public class BlaqDeque<T> extends ArrayDeque<T> implements BlaqIterable<T> {
 
@@ -23,4 +24,10 @@ public class BlaqDeque<T> extends ArrayDeque<T> implements BlaqIterable<T> {
         for(T i : src)
             offer(i);
     }
+
+    // Both Collection and BlaqIterable provide stream(); the collection's own is the better one.
+    @Override
+    public Stream<T> stream(){
+        return super.stream();
+    }
 }
@@ -2,15 +2,27 @@ package blaq.util;
 
 import org.jetbrains.annotations.NotNull;
 import blaq.core.Enumerable;
+import blaq.core.PrimitiveEnumerable;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
+import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Interface used for simulating the same syntactical sugar of Extension Methods in C#, exclusively for the BLAQ Library.
@@ -32,11 +44,23 @@ public interface BlaqIterable<T> extends Iterable<T> {
     }
 
     default <R> BlaqIterable<R> project(Function<T, R> projector){
-        return new Blaqen<>(Enumerable.project(this, projector));
+        return Blaqen.keepingPartition(Enumerable.project(this, projector));
     }
 
     default <R> BlaqIterable<R> project(BiFunction<T, Integer, R> projector){
-        return new Blaqen<>(Enumerable.project(this, projector));
+        return Blaqen.keepingPartition(Enumerable.project(this, projector));
+    }
+
+    default IntBlaqIterable projectToInt(ToIntFunction<T> projector){
+        return PrimitiveEnumerable.projectToInt(this, projector);
+    }
+
+    default LongBlaqIterable projectToLong(ToLongFunction<T> projector){
+        return PrimitiveEnumerable.projectToLong(this, projector);
+    }
+
+    default DoubleBlaqIterable projectToDouble(ToDoubleFunction<T> projector){
+        return PrimitiveEnumerable.projectToDouble(this, projector);
     }
 
     // range only in Enumerable
@@ -169,36 +193,96 @@ public interface BlaqIterable<T> extends Iterable<T> {
         return Enumerable.aggregate(this, seed, biF, f);
     }
 
+    default Statistics stats(ToDoubleFunction<T> selector){
+        return Enumerable.stats(this, selector);
+    }
+
+    default double[] quantiles(ToDoubleFunction<T> selector, double... probabilities){
+        return Enumerable.quantiles(this, selector, probabilities);
+    }
+
+    default double median(ToDoubleFunction<T> selector){
+        return Enumerable.median(this, selector);
+    }
+
+    default double[] approxQuantiles(ToDoubleFunction<T> selector, double... probabilities){
+        return Enumerable.approxQuantiles(this, selector, probabilities);
+    }
+
+    default QuantileSketch quantileSketch(ToDoubleFunction<T> selector, int k){
+        return Enumerable.quantileSketch(this, selector, k);
+    }
+
+    default <R1, R2> Tuple2<R1, R2> aggregateAll(Collector<? super T, ?, R1> first, Collector<? super T, ?, R2> second){
+        return Enumerable.aggregateAll(this, first, second);
+    }
+
+    default List<Object> aggregateAll(List<? extends Collector<? super T, ?, ?>> collectors){
+        return Enumerable.aggregateAll(this, collectors);
+    }
+
     default BlaqIterable<T> distinct(){
-        return new Blaqen<>(Enumerable.distinct(this));
+        return Blaqen.keepingOrder(Enumerable.distinct(this));
     }
 
     default BlaqIterable<T> distinct(ICompareEquality<T> c){
-        return new Blaqen<>(Enumerable.distinct(this, c));
+        return Blaqen.keepingOrder(Enumerable.distinct(this, c));
+    }
+
+    default BlaqIterable<T> distinct(ISerializer<T> serializer, int limit){
+        return Blaqen.keepingOrder(Enumerable.distinct(this, serializer, limit));
+    }
+
+    default BlaqIterable<T> distinct(ISerializer<T> serializer, int limit, ICompareEquality<T> c){
+        return Blaqen.keepingOrder(Enumerable.distinct(this, serializer, limit, c));
+    }
+
+    default <K> long approxCountDistinct(Function<T, K> keyF){
+        return Enumerable.approxCountDistinct(this, keyF);
+    }
+
+    default <K> long approxCountDistinct(Function<T, K> keyF, int precision){
+        return Enumerable.approxCountDistinct(this, keyF, precision);
+    }
+
+    default <K> HyperLogLog hyperLogLog(Function<T, K> keyF, int precision){
+        return Enumerable.hyperLogLog(this, keyF, precision);
     }
 
     default BlaqIterable<T> union(Iterable<T> other){
-        return new Blaqen<>(Enumerable.union(this, other));
+        return Blaqen.keepingOrder(Enumerable.union(this, other));
     }
 
     default BlaqIterable<T> union(Iterable<T> other, ICompareEquality<T> c){
-        return new Blaqen<>(Enumerable.union(this, other, c));
+        return Blaqen.keepingOrder(Enumerable.union(this, other, c));
     }
 
     default BlaqIterable<T> intersect(Iterable<T> other){
-        return new Blaqen<>(Enumerable.intersect(this, other));
+        return Blaqen.keepingOrder(Enumerable.intersect(this, other));
     }
 
     default BlaqIterable<T> intersect(Iterable<T> other, ICompareEquality<T> c){
-        return new Blaqen<>(Enumerable.intersect(this, other, c));
+        return Blaqen.keepingOrder(Enumerable.intersect(this, other, c));
+    }
+
+    default BlaqIterable<T> intersect(Iterable<T> other, ICompareEquality<T> c, boolean prefilter){
+        return Blaqen.keepingOrder(Enumerable.intersect(this, other, c, prefilter));
     }
 
     default BlaqIterable<T> except(Iterable<T> other){
-        return new Blaqen<>(Enumerable.except(this, other));
+        return Blaqen.keepingOrder(Enumerable.except(this, other));
     }
 
     default BlaqIterable<T> except(Iterable<T> other, ICompareEquality<T> c){
-        return new Blaqen<>(Enumerable.except(this, other, c));
+        return Blaqen.keepingOrder(Enumerable.except(this, other, c));
+    }
+
+    default BlaqIterable<T> whereMaybeIn(BloomFilter<T> bloom){
+        return new Blaqen<>(Enumerable.whereMaybeIn(this, bloom));
+    }
+
+    default <K> BlaqIterable<T> whereMaybeIn(BloomFilter<K> bloom, Function<T, K> keySelector){
+        return new Blaqen<>(Enumerable.whereMaybeIn(this, bloom, keySelector));
     }
 
     default <K> ILookup<K, T> toLookup(Function<T, K> keySelector){
@@ -230,6 +314,35 @@ public interface BlaqIterable<T> extends Iterable<T> {
         return new Blaqen<>(Enumerable.join(this, inner, oks, iks, resultSelector, c));
     }
 
+    default <TInner, TKey, TResult> BlaqIterable<TResult> join(Iterable<TInner> inner,
+                                                               Function<T, TKey> oks, Function<TInner, TKey> iks,
+                                                               BiFunction<T, TInner, TResult> resultSelector,
+                                                               ICompareEquality<TKey> c, boolean prefilter){
+        return new Blaqen<>(Enumerable.join(this, inner, oks, iks, resultSelector, c, prefilter));
+    }
+
+    default <TInner, TKey, TResult> BlaqIterable<TResult> parallelJoin(Iterable<TInner> inner,
+                                                                       Function<T, TKey> oks, Function<TInner, TKey> iks,
+                                                                       BiFunction<T, TInner, TResult> resultSelector){
+        return new Blaqen<>(Enumerable.parallelJoin(this, inner, oks, iks, resultSelector));
+    }
+
+    default <TInner, TKey, TResult> BlaqIterable<TResult> parallelJoin(Iterable<TInner> inner,
+                                                                       Function<T, TKey> oks, Function<TInner, TKey> iks,
+                                                                       BiFunction<T, TInner, TResult> resultSelector,
+                                                                       ICompareEquality<TKey> c, boolean preserveOrder){
+        return new Blaqen<>(Enumerable.parallelJoin(this, inner, oks, iks, resultSelector, c, preserveOrder));
+    }
+
+    default <TInner, TKey, TResult> BlaqIterable<TResult> parallelJoin(Iterable<TInner> inner,
+                                                                       Function<T, TKey> oks, Function<TInner, TKey> iks,
+                                                                       BiFunction<T, TInner, TResult> resultSelector,
+                                                                       ICompareEquality<TKey> c, boolean preserveOrder,
+                                                                       int parallelism){
+        return new Blaqen<>(Enumerable.parallelJoin(this, inner, oks, iks, resultSelector, c, preserveOrder,
+                parallelism));
+    }
+
     default <K> BlaqIterable<IGrouping<K, T>> groupBy(Function<T, K> keyF){
         return new Blaqen<>(Enumerable.groupBy(this, keyF));
     }
@@ -247,6 +360,22 @@ public interface BlaqIterable<T> extends Iterable<T> {
         return new Blaqen<>(Enumerable.groupBy(this, keyF, elementF, c));
     }
 
+    default <K> BlaqIterable<IGrouping<K, T>> groupBy(Function<T, K> keyF, ISerializer<K> keyS,
+                                                      ISerializer<T> elementS, int limit){
+        return new Blaqen<>(Enumerable.groupBy(this, keyF, keyS, elementS, limit));
+    }
+
+    default <K, V> BlaqIterable<IGrouping<K, V>> groupBy(Function<T, K> keyF, Function<T, V> elementF,
+                                                         ISerializer<K> keyS, ISerializer<V> elementS, int limit){
+        return new Blaqen<>(Enumerable.groupBy(this, keyF, elementF, keyS, elementS, limit));
+    }
+
+    default <K, V> BlaqIterable<IGrouping<K, V>> groupBy(Function<T, K> keyF, Function<T, V> elementF,
+                                                         ISerializer<K> keyS, ISerializer<V> elementS, int limit,
+                                                         ICompareEquality<K> c){
+        return new Blaqen<>(Enumerable.groupBy(this, keyF, elementF, keyS, elementS, limit, c));
+    }
+
     default <K, S> BlaqIterable<S> groupBy(Function<T, K> keyF, BiFunction<K, Iterable<T>, S> resultF){
         return new Blaqen<>(Enumerable.groupBy(this, keyF, resultF));
     }
@@ -266,6 +395,102 @@ public interface BlaqIterable<T> extends Iterable<T> {
         return new Blaqen<>(Enumerable.groupBy(this, keyF, elementF, resF, c));
     }
 
+    default <K> BlaqIterable<IGrouping<K, T>> groupAdjacent(Function<T, K> keyF){
+        return new Blaqen<>(Enumerable.groupAdjacent(this, keyF));
+    }
+
+    default <K> BlaqIterable<IGrouping<K, T>> groupAdjacent(Function<T, K> keyF, ICompareEquality<K> c){
+        return new Blaqen<>(Enumerable.groupAdjacent(this, keyF, c));
+    }
+
+    default <K, V> BlaqIterable<IGrouping<K, V>> groupAdjacent(Function<T, K> keyF, Function<T, V> elementF){
+        return new Blaqen<>(Enumerable.groupAdjacent(this, keyF, elementF));
+    }
+
+    default <K, V> BlaqIterable<IGrouping<K, V>> groupAdjacent(Function<T, K> keyF, Function<T, V> elementF,
+                                                               ICompareEquality<K> c){
+        return new Blaqen<>(Enumerable.groupAdjacent(this, keyF, elementF, c));
+    }
+
+    default <K, A> BlaqIterable<Tuple2<K, A>> groupAggregate(Function<T, K> keyF, Supplier<A> seedFactory,
+                                                             BiFunction<A, T, A> function){
+        return new Blaqen<>(Enumerable.groupAggregate(this, keyF, seedFactory, function));
+    }
+
+    default <K, A> BlaqIterable<Tuple2<K, A>> groupAggregate(Function<T, K> keyF, Supplier<A> seedFactory,
+                                                             BiFunction<A, T, A> function, ICompareEquality<K> c){
+        return new Blaqen<>(Enumerable.groupAggregate(this, keyF, seedFactory, function, c));
+    }
+
+    default <K> BlaqIterable<Tuple2<K, Long>> countBy(Function<T, K> keyF){
+        return new Blaqen<>(Enumerable.countBy(this, keyF));
+    }
+
+    default <K> BlaqIterable<Tuple2<K, Long>> countBy(Function<T, K> keyF, ICompareEquality<K> c){
+        return new Blaqen<>(Enumerable.countBy(this, keyF, c));
+    }
+
+    default <K, S> BlaqIterable<IGrouping<K, T>> topNBy(Function<T, K> keyF, Function<T, S> sortKeyF, int n){
+        return new Blaqen<>(Enumerable.topNBy(this, keyF, sortKeyF, n));
+    }
+
+    default <K, S> BlaqIterable<IGrouping<K, T>> topNBy(Function<T, K> keyF, Function<T, S> sortKeyF, int n,
+                                                       Comparator<S> comparator){
+        return new Blaqen<>(Enumerable.topNBy(this, keyF, sortKeyF, n, comparator));
+    }
+
+    default <K, S> BlaqIterable<IGrouping<K, T>> topNByDescending(Function<T, K> keyF, Function<T, S> sortKeyF,
+                                                                 int n){
+        return new Blaqen<>(Enumerable.topNByDescending(this, keyF, sortKeyF, n));
+    }
+
+    default <K, S> BlaqIterable<IGrouping<K, T>> topNByDescending(Function<T, K> keyF, Function<T, S> sortKeyF,
+                                                                 int n, Comparator<S> comparator){
+        return new Blaqen<>(Enumerable.topNByDescending(this, keyF, sortKeyF, n, comparator));
+    }
+
+    default <K> BlaqIterable<Tuple2<K, Long>> topFrequent(Function<T, K> keyF, int count){
+        return new Blaqen<>(Enumerable.topFrequent(this, keyF, count));
+    }
+
+    default <K> BlaqIterable<Tuple2<K, Long>> topFrequent(Function<T, K> keyF, int count, ICompareEquality<K> c){
+        return new Blaqen<>(Enumerable.topFrequent(this, keyF, count, c));
+    }
+
+    default <K> BlaqIterable<Tuple2<K, Long>> approxTopFrequent(Function<T, K> keyF, int count){
+        return new Blaqen<>(Enumerable.approxTopFrequent(this, keyF, count));
+    }
+
+    default <K> BlaqIterable<Tuple2<K, Long>> approxTopFrequent(Function<T, K> keyF, int count, int capacity){
+        return new Blaqen<>(Enumerable.approxTopFrequent(this, keyF, count, capacity));
+    }
+
+    default <K> BlaqIterable<Tuple2<K, Long>> sumLongBy(Function<T, K> keyF, ToLongFunction<T> selector){
+        return new Blaqen<>(Enumerable.sumLongBy(this, keyF, selector));
+    }
+
+    default <K> BlaqIterable<Tuple2<K, Double>> sumDoubleBy(Function<T, K> keyF, ToDoubleFunction<T> selector){
+        return new Blaqen<>(Enumerable.sumDoubleBy(this, keyF, selector));
+    }
+
+    default <K, C> BlaqIterable<Tuple2<K, T>> minByKey(Function<T, K> keyF, Function<T, C> selector){
+        return new Blaqen<>(Enumerable.minByKey(this, keyF, selector));
+    }
+
+    default <K, C> BlaqIterable<Tuple2<K, T>> minByKey(Function<T, K> keyF, Function<T, C> selector,
+                                                       Comparator<C> comparator){
+        return new Blaqen<>(Enumerable.minByKey(this, keyF, selector, comparator));
+    }
+
+    default <K, C> BlaqIterable<Tuple2<K, T>> maxByKey(Function<T, K> keyF, Function<T, C> selector){
+        return new Blaqen<>(Enumerable.maxByKey(this, keyF, selector));
+    }
+
+    default <K, C> BlaqIterable<Tuple2<K, T>> maxByKey(Function<T, K> keyF, Function<T, C> selector,
+                                                       Comparator<C> comparator){
+        return new Blaqen<>(Enumerable.maxByKey(this, keyF, selector, comparator));
+    }
+
     default <TInner, TKey, TResult> BlaqIterable<TResult> groupJoin(Iterable<TInner> inner,
                                                                Function<T, TKey> oks, Function<TInner, TKey> iks,
                                                                BiFunction<T, Iterable<TInner>, TResult> resultSelector){
@@ -279,8 +504,69 @@ public interface BlaqIterable<T> extends Iterable<T> {
         return new Blaqen<>(Enumerable.groupJoin(this, inner, oks, iks, resultSelector, c));
     }
 
+    default <TInner, TKey, TResult> BlaqIterable<TResult> leftJoin(Iterable<TInner> inner,
+                                                                   Function<T, TKey> oks, Function<TInner, TKey> iks,
+                                                                   BiFunction<T, TInner, TResult> resultSelector){
+        return new Blaqen<>(Enumerable.leftJoin(this, inner, oks, iks, resultSelector));
+    }
+
+    default <TInner, TKey, TResult> BlaqIterable<TResult> leftJoin(Iterable<TInner> inner,
+                                                                   Function<T, TKey> oks, Function<TInner, TKey> iks,
+                                                                   BiFunction<T, TInner, TResult> resultSelector,
+                                                                   ICompareEquality<TKey> c){
+        return new Blaqen<>(Enumerable.leftJoin(this, inner, oks, iks, resultSelector, c));
+    }
+
+    default <TInner, TKey, TResult> BlaqIterable<TResult> rightJoin(Iterable<TInner> inner,
+                                                                    Function<T, TKey> oks, Function<TInner, TKey> iks,
+                                                                    BiFunction<T, TInner, TResult> resultSelector){
+        return new Blaqen<>(Enumerable.rightJoin(this, inner, oks, iks, resultSelector));
+    }
+
+    default <TInner, TKey, TResult> BlaqIterable<TResult> rightJoin(Iterable<TInner> inner,
+                                                                    Function<T, TKey> oks, Function<TInner, TKey> iks,
+                                                                    BiFunction<T, TInner, TResult> resultSelector,
+                                                                    ICompareEquality<TKey> c){
+        return new Blaqen<>(Enumerable.rightJoin(this, inner, oks, iks, resultSelector, c));
+    }
+
+    default <TInner, TKey, TResult> BlaqIterable<TResult> fullJoin(Iterable<TInner> inner,
+                                                                   Function<T, TKey> oks, Function<TInner, TKey> iks,
+                                                                   BiFunction<T, TInner, TResult> resultSelector){
+        return new Blaqen<>(Enumerable.fullJoin(this, inner, oks, iks, resultSelector));
+    }
+
+    default <TInner, TKey, TResult> BlaqIterable<TResult> fullJoin(Iterable<TInner> inner,
+                                                                   Function<T, TKey> oks, Function<TInner, TKey> iks,
+                                                                   BiFunction<T, TInner, TResult> resultSelector,
+                                                                   ICompareEquality<TKey> c){
+        return new Blaqen<>(Enumerable.fullJoin(this, inner, oks, iks, resultSelector, c));
+    }
+
+    default <TInner, TKey> BlaqIterable<T> whereExists(Iterable<TInner> inner,
+                                                       Function<T, TKey> oks, Function<TInner, TKey> iks){
+        return new Blaqen<>(Enumerable.whereExists(this, inner, oks, iks));
+    }
+
+    default <TInner, TKey> BlaqIterable<T> whereExists(Iterable<TInner> inner,
+                                                       Function<T, TKey> oks, Function<TInner, TKey> iks,
+                                                       ICompareEquality<TKey> c){
+        return new Blaqen<>(Enumerable.whereExists(this, inner, oks, iks, c));
+    }
+
+    default <TInner, TKey> BlaqIterable<T> whereNotExists(Iterable<TInner> inner,
+                                                          Function<T, TKey> oks, Function<TInner, TKey> iks){
+        return new Blaqen<>(Enumerable.whereNotExists(this, inner, oks, iks));
+    }
+
+    default <TInner, TKey> BlaqIterable<T> whereNotExists(Iterable<TInner> inner,
+                                                          Function<T, TKey> oks, Function<TInner, TKey> iks,
+                                                          ICompareEquality<TKey> c){
+        return new Blaqen<>(Enumerable.whereNotExists(this, inner, oks, iks, c));
+    }
+
     default BlaqIterable<T> take(int n){
-        return new Blaqen<>(Enumerable.take(this, n));
+        return Blaqen.keepingPartition(Enumerable.take(this, n));
     }
 
     default BlaqIterable<T> takeWhile(Function<T, Boolean> p){
@@ -292,7 +578,7 @@ public interface BlaqIterable<T> extends Iterable<T> {
     }
 
     default BlaqIterable<T> skip(int n){
-        return new Blaqen<>(Enumerable.skip(this, n));
+        return Blaqen.keepingPartition(Enumerable.skip(this, n));
     }
 
     default BlaqIterable<T> skipWhile(Function<T, Boolean> p){
@@ -333,6 +619,14 @@ public interface BlaqIterable<T> extends Iterable<T> {
         return Enumerable.orderBy(this, keyS, c);
     }
 
+    default <K> IOrderedIterable<T> asOrderedBy(Function<T, K> keyS){
+        return Enumerable.asOrderedBy(this, keyS);
+    }
+
+    default <K> IOrderedIterable<T> asOrderedBy(Function<T, K> keyS, Comparator<K> c){
+        return Enumerable.asOrderedBy(this, keyS, c);
+    }
+
     default <K> IOrderedIterable<T> orderByDescending(Function<T, K> keyS){
         return Enumerable.orderByDescending(this, keyS);
     }
@@ -344,7 +638,7 @@ public interface BlaqIterable<T> extends Iterable<T> {
     /* End Ordering Operators */
 
     default BlaqIterable<T> reverse(){
-        return new Blaqen<>(Enumerable.reverse(this));
+        return Blaqen.keepingPartition(Enumerable.reverse(this));
     }
 
     // TODO no arg sums
@@ -403,6 +697,54 @@ public interface BlaqIterable<T> extends Iterable<T> {
         return Enumerable.average(this, f);
     }
 
+    default int sumInt(ToIntFunction<T> f){
+        return Enumerable.sumInt(this, f);
+    }
+
+    default long sumLong(ToLongFunction<T> f){
+        return Enumerable.sumLong(this, f);
+    }
+
+    default double sumDouble(ToDoubleFunction<T> f){
+        return Enumerable.sumDouble(this, f);
+    }
+
+    default double averageInt(ToIntFunction<T> f){
+        return Enumerable.averageInt(this, f);
+    }
+
+    default double averageLong(ToLongFunction<T> f){
+        return Enumerable.averageLong(this, f);
+    }
+
+    default double averageDouble(ToDoubleFunction<T> f){
+        return Enumerable.averageDouble(this, f);
+    }
+
+    default int minInt(ToIntFunction<T> f){
+        return Enumerable.minInt(this, f);
+    }
+
+    default long minLong(ToLongFunction<T> f){
+        return Enumerable.minLong(this, f);
+    }
+
+    default double minDouble(ToDoubleFunction<T> f){
+        return Enumerable.minDouble(this, f);
+    }
+
+    default int maxInt(ToIntFunction<T> f){
+        return Enumerable.maxInt(this, f);
+    }
+
+    default long maxLong(ToLongFunction<T> f){
+        return Enumerable.maxLong(this, f);
+    }
+
+    default double maxDouble(ToDoubleFunction<T> f){
+        return Enumerable.maxDouble(this, f);
+    }
+
     default T elementAt(int n){
         return Enumerable.elementAt(this, n);
     }
@@ -428,7 +770,106 @@ public interface BlaqIterable<T> extends Iterable<T> {
     }
 
     default <S, R> BlaqIterable<R> zip(Iterable<S> other, BiFunction<T, S, R> f){
-        return new Blaqen<>(Enumerable.zip(this, other, f));
+        return Blaqen.keepingPartition(Enumerable.zip(this, other, f));
+    }
+
+    default BlaqIterable<List<T>> window(int size){
+        return new Blaqen<>(Enumerable.window(this, size));
+    }
+
+    default BlaqIterable<List<T>> window(int size, int step){
+        return new Blaqen<>(Enumerable.window(this, size, step));
+    }
+
+    default BlaqIterable<T> windowMin(int size){
+        return new Blaqen<>(Enumerable.windowMin(this, size));
+    }
+
+    default BlaqIterable<T> windowMin(int size, int step, Comparator<? super T> comparator){
+        return new Blaqen<>(Enumerable.windowMin(this, size, step, comparator));
+    }
+
+    default BlaqIterable<T> windowMax(int size){
+        return new Blaqen<>(Enumerable.windowMax(this, size));
+    }
+
+    default BlaqIterable<T> windowMax(int size, int step, Comparator<? super T> comparator){
+        return new Blaqen<>(Enumerable.windowMax(this, size, step, comparator));
+    }
+
+    default BlaqIterable<TimeWindow<List<T>>> tumblingWindows(ToLongFunction<T> timestamp, long width,
+                                                             WatermarkPolicy watermarks){
+        return new Blaqen<>(Enumerable.tumblingWindows(this, timestamp, width, watermarks));
+    }
+
+    default <A> BlaqIterable<TimeWindow<A>> tumblingWindows(ToLongFunction<T> timestamp, long width,
+                                                           WatermarkPolicy watermarks, Supplier<A> seedF,
+                                                           BiFunction<A, T, A> f){
+        return new Blaqen<>(Enumerable.tumblingWindows(this, timestamp, width, watermarks, seedF, f));
+    }
+
+    default BlaqIterable<TimeWindow<List<T>>> sessionWindows(ToLongFunction<T> timestamp, long gap,
+                                                            WatermarkPolicy watermarks){
+        return new Blaqen<>(Enumerable.sessionWindows(this, timestamp, gap, watermarks));
+    }
+
+    default <A> BlaqIterable<TimeWindow<A>> sessionWindows(ToLongFunction<T> timestamp, long gap,
+                                                          WatermarkPolicy watermarks, Supplier<A> seedF,
+                                                          BiFunction<A, T, A> f, BinaryOperator<A> combiner){
+        return new Blaqen<>(Enumerable.sessionWindows(this, timestamp, gap, watermarks, seedF, f, combiner));
+    }
+
+    default BlaqIterable<T> memoize(){
+        return new Blaqen<>(Enumerable.memoize(this));
+    }
+
+    default BlaqIterable<T> memoize(BufferPolicy policy){
+        return new Blaqen<>(Enumerable.memoize(this, policy));
+    }
+
+    default BlaqIterable<T> share(){
+        return new Blaqen<>(Enumerable.share(this));
+    }
+
+    default BlaqIterable<T> share(BufferPolicy policy){
+        return new Blaqen<>(Enumerable.share(this, policy));
+    }
+
+    default List<BlaqIterable<T>> tee(int count){
+        return tee(count, BufferPolicy.unbounded());
+    }
+
+    default List<BlaqIterable<T>> tee(int count, BufferPolicy policy){
+        List<Iterable<T>> tees = Enumerable.tee(this, count, policy);
+        List<BlaqIterable<T>> copies = new ArrayList<>(tees.size());
+        for(Iterable<T> copy : tees)
+            copies.add(new Blaqen<>(copy));
+        return copies;
+    }
+
+    default ParallelBlaqIterable<T> parallel(){
+        return Enumerable.asParallel(this);
+    }
+
+    default ParallelBlaqIterable<T> parallel(int parallelism){
+        return Enumerable.asParallel(this, parallelism);
+    }
+
+    /**
+     * BLAQ sequences have an encounter order, so their spliterators report {@link Spliterator#ORDERED}.
+     * Sequences which know their size (or anything else about their elements) override this.
+     */
+    @Override
+    default Spliterator<T> spliterator(){
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+    }
+
+    /**
+     * @return A sequential {@link Stream} over this sequence. Call {@code parallel()} on it for a parallel one;
+     *         how well that splits depends on {@link #spliterator()}.
+     */
+    default Stream<T> stream(){
+        return StreamSupport.stream(spliterator(), false);
     }
 
     // Shouldn't need asBlaqIterable here since objects of this type will already be BlaqIterables.
@@ -445,12 +886,28 @@ public interface BlaqIterable<T> extends Iterable<T> {
             iterable = it;
         }
 
+        // Results which know their order (e.g. merged set operators) are returned as they are, so it isn't lost.
+        static <T> BlaqIterable<T> keepingOrder(Iterable<T> it){
+            return it instanceof IOrderedIterable ? (IOrderedIterable<T>) it : new Blaqen<>(it);
+        }
+
+        // Likewise partitions, so they can still be counted and indexed without iterating
+        static <T> BlaqIterable<T> keepingPartition(Iterable<T> it){
+            return it instanceof IPartition ? (IPartition<T>) it : new Blaqen<>(it);
+        }
+
         @NotNull
         @Override
         public Iterator<T> iterator() {
             return iterable.iterator();
         }
 
+        // Collections (and sequences such as range and orderBy results) know their size and can split
+        @Override
+        public Spliterator<T> spliterator() {
+            return iterable.spliterator();
+        }
+
         @Override
         public String toString() {
             StringBuilder sb = new StringBuilder("[");
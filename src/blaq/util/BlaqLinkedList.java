@@ -2,6 +2,7 @@ package blaq.util;
 
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.stream.Stream;
 
 public class BlaqLinkedList<T> extends LinkedList<T> implements BlaqIterable<T>{
 
@@ -16,4 +17,10 @@ public class BlaqLinkedList<T> extends LinkedList<T> implements BlaqIterable<T>{
     public BlaqLinkedList(Collection<? extends T> c){
         super(c);
     }
+
+    // Both Collection and BlaqIterable provide stream(); the collection's own is the better one.
+    @Override
+    public Stream<T> stream(){
+        return super.stream();
+    }
 }
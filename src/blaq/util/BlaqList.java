@@ -3,6 +3,7 @@ package blaq.util;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class BlaqList<E> extends ArrayList<E> implements BlaqIterable<E> {
 
@@ -18,4 +19,10 @@ public class BlaqList<E> extends ArrayList<E> implements BlaqIterable<E> {
     }
 
 //    public BlaqList(Collection<? extends E> c){super(c);}
+
+    // Both Collection and BlaqIterable provide stream(); the collection's own is the better one.
+    @Override
+    public Stream<E> stream(){
+        return super.stream();
+    }
 }
@@ -4,6 +4,7 @@ import blaq.core.NullArgumentException;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.stream.Stream;
 
 public class BlaqSet<T> extends HashSet<T> implements BlaqIterable<T> {
 
@@ -41,4 +42,10 @@ public class BlaqSet<T> extends HashSet<T> implements BlaqIterable<T> {
         for(T item: src)
             add(item);
     }
+
+    // Both Collection and BlaqIterable provide stream(); the collection's own is the better one.
+    @Override
+    public Stream<T> stream(){
+        return super.stream();
+    }
 }
@@ -0,0 +1,128 @@
+package blaq.util;
+
+import blaq.annotations.Readonly;
+import blaq.core.NullArgumentException;
+
+import java.util.Collection;
+
+/**
+ * Probabilistic set membership test, backed by a bit array.
+ * <p>{@link #mightContain(Object)} never returns {@code false} for an element which was added, but may return
+ * {@code true} for one which wasn't (a false positive). In exchange it takes a few bits per element and
+ * no calls to {@code equals}, which makes it a cheap way of rejecting misses before probing a real hash table.</p>
+ * <p>Elements are hashed with {@code hashCode} (or an {@link ICompareEquality}). That 32 bit hash is mixed into
+ * 64 bits and split into two halves, from which all {@code k} bit positions are derived (Kirsch-Mitzenmacher).</p>
+ * Not thread-safe for concurrent {@link #add(Object) adds}; concurrent reads are fine.
+ * @param <T> Type of the elements.
+ */
+public final class BloomFilter<T> {
+
+    /** False positive rate used when none is specified. */
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    @Readonly
+    private long[] bits;
+    @Readonly
+    private long bitCount;
+    @Readonly
+    private int hashCount;
+    @Readonly
+    private ICompareEquality<T> compareEquality;
+
+    /**
+     * Creates a filter sized for an expected number of elements.
+     * @param expectedElements How many elements will be added. Adding more raises the false positive rate.
+     * @param falsePositiveRate Desired false positive rate, strictly between 0 and 1.
+     */
+    public BloomFilter(long expectedElements, double falsePositiveRate){
+        this(expectedElements, falsePositiveRate, null);
+    }
+
+    /**
+     * Creates a filter sized for an expected number of elements, hashing them with an {@link ICompareEquality}.
+     * @param expectedElements How many elements will be added. Adding more raises the false positive rate.
+     * @param falsePositiveRate Desired false positive rate, strictly between 0 and 1.
+     * @param compareEquality Used for its {@code hashCode}; {@code null} to use the elements' own.
+     */
+    public BloomFilter(long expectedElements, double falsePositiveRate, ICompareEquality<T> compareEquality){
+        if(expectedElements < 0)
+            throw new IllegalArgumentException("expectedElements");
+        if(!(falsePositiveRate > 0d && falsePositiveRate < 1d))
+            throw new IllegalArgumentException("falsePositiveRate");
+
+        // m = -n ln(p) / ln(2)^2 ; k = m/n ln(2)
+        long n = Math.max(1L, expectedElements);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        m = Math.max(64L, m);
+        bits = new long[(int) Math.min(Integer.MAX_VALUE, (m + 63) >>> 6)];
+        bitCount = (long) bits.length << 6;
+        hashCount = (int) Math.max(1L, Math.min(16L, Math.round((double) m / n * Math.log(2))));
+        this.compareEquality = compareEquality;
+    }
+
+    /**
+     * Creates a filter containing every element of a sequence, sized from the number of elements.
+     * @param src Elements to add; it is read twice unless it is a {@link Collection}.
+     * @param <T> Type of the elements.
+     * @return A populated filter with the {@link #DEFAULT_FALSE_POSITIVE_RATE default false positive rate}.
+     */
+    public static <T> BloomFilter<T> of(Iterable<T> src){
+        if(src == null)
+            throw new NullArgumentException("src");
+        BloomFilter<T> filter = new BloomFilter<>(sizeOf(src), DEFAULT_FALSE_POSITIVE_RATE);
+        for(T item : src)
+            filter.add(item);
+        return filter;
+    }
+
+    private static long sizeOf(Iterable<?> src){
+        if(src instanceof Collection)
+            return ((Collection<?>) src).size();
+        long count = 0;
+        for(Object ignored : src)
+            count++;
+        return count;
+    }
+
+    public void add(T item){
+        long hash = mix(item);
+        int h1 = (int) hash, h2 = (int) (hash >>> 32);
+        for(int i = 1; i <= hashCount; i++){
+            long index = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+            bits[(int) (index >>> 6)] |= 1L << index;
+        }
+    }
+
+    /**
+     * @return {@code false} if {@code item} was definitely never added; {@code true} if it might have been.
+     */
+    public boolean mightContain(T item){
+        long hash = mix(item);
+        int h1 = (int) hash, h2 = (int) (hash >>> 32);
+        for(int i = 1; i <= hashCount; i++){
+            long index = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+            if((bits[(int) (index >>> 6)] & (1L << index)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    public long bitSize(){
+        return bitCount;
+    }
+
+    public int hashFunctions(){
+        return hashCount;
+    }
+
+    private long mix(T item){
+        long h = item == null ? 0 : compareEquality != null ? compareEquality.hashCode(item) : item.hashCode();
+        // MurmurHash3 fmix64
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
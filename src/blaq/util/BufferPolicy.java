@@ -0,0 +1,79 @@
+package blaq.util;
+
+import blaq.core.NullArgumentException;
+
+/**
+ * How many elements {@code memoize}, {@code share} and {@code tee} may hold on to, and what happens when they'd need
+ * more.
+ * <ul>
+ *     <li>{@link #unbounded()}: as many as it takes.</li>
+ *     <li>{@link #fail(int)}: enumerating throws an {@code InvalidOperationException} once it would need more.</li>
+ *     <li>{@link #dropOldest(int)}: the oldest element is let go. A consumer which hadn't got to it yet skips it,
+ *     and a memoized sequence enumerated again starts from the oldest element it still has.</li>
+ *     <li>{@link #block(int)}: the consumer which has got furthest ahead waits for the others to catch up. Only for
+ *     consumers on different threads; a single thread enumerating one consumer then the next would wait forever.
+ *     Not for {@code memoize}, which never lets elements go.</li>
+ * </ul>
+ */
+public final class BufferPolicy {
+
+    public enum Overflow {
+        FAIL,
+        DROP_OLDEST,
+        BLOCK
+    }
+
+    private static final BufferPolicy UNBOUNDED = new BufferPolicy(Integer.MAX_VALUE, Overflow.FAIL);
+
+    private final int capacity;
+    private final Overflow overflow;
+
+    private BufferPolicy(int capacity, Overflow overflow){
+        this.capacity = capacity;
+        this.overflow = overflow;
+    }
+
+    public static BufferPolicy unbounded(){
+        return UNBOUNDED;
+    }
+
+    public static BufferPolicy fail(int capacity){
+        return of(capacity, Overflow.FAIL);
+    }
+
+    public static BufferPolicy dropOldest(int capacity){
+        return of(capacity, Overflow.DROP_OLDEST);
+    }
+
+    public static BufferPolicy block(int capacity){
+        return of(capacity, Overflow.BLOCK);
+    }
+
+    /**
+     * @param capacity Most elements held at once; at least 1.
+     */
+    public static BufferPolicy of(int capacity, Overflow overflow){
+        if(capacity < 1)
+            throw new IllegalArgumentException("capacity");
+        if(overflow == null)
+            throw new NullArgumentException("overflow");
+        return new BufferPolicy(capacity, overflow);
+    }
+
+    public int capacity(){
+        return capacity;
+    }
+
+    public Overflow overflow(){
+        return overflow;
+    }
+
+    public boolean isBounded(){
+        return capacity != Integer.MAX_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        return isBounded() ? overflow + "(" + capacity + ")" : "UNBOUNDED";
+    }
+}
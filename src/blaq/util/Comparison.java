@@ -0,0 +1,220 @@
+package blaq.util;
+
+import java.util.function.DoublePredicate;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+
+/**
+ * Predicates comparing a value against a constant, such as {@code x < 10}.
+ * <p>They behave exactly like the equivalent lambda, but the operator and operand can be read back, so operators
+ * over array backed primitive sequences ({@link IntBlaqIterable#where(IntPredicate)},
+ * {@link IntBlaqIterable#count(IntPredicate)}, ...) recognise them and run a tight loop over the array instead of
+ * calling the predicate for every element.</p>
+ * <pre>{@code
+ * int negatives = PrimitiveEnumerable.asBlaqIterable(values).count(Comparison.lessThan(0));
+ * }</pre>
+ * Doubles compare like the {@code <}, {@code ==}, ... operators do: NaN is neither less than, greater than nor
+ * equal to anything.
+ */
+public final class Comparison {
+    private Comparison(){throw new AssertionError("BLAQ doesn't need instances!");}
+
+    public enum Operator {
+        LESS_THAN("<"),
+        LESS_THAN_OR_EQUAL("<="),
+        EQUAL("=="),
+        NOT_EQUAL("!="),
+        GREATER_THAN_OR_EQUAL(">="),
+        GREATER_THAN(">");
+
+        private final String symbol;
+
+        Operator(String symbol){
+            this.symbol = symbol;
+        }
+
+        public String symbol(){
+            return symbol;
+        }
+    }
+
+    public static OfInt lessThan(int operand){
+        return new OfInt(Operator.LESS_THAN, operand);
+    }
+
+    public static OfInt lessThanOrEqual(int operand){
+        return new OfInt(Operator.LESS_THAN_OR_EQUAL, operand);
+    }
+
+    public static OfInt equalTo(int operand){
+        return new OfInt(Operator.EQUAL, operand);
+    }
+
+    public static OfInt notEqualTo(int operand){
+        return new OfInt(Operator.NOT_EQUAL, operand);
+    }
+
+    public static OfInt greaterThanOrEqual(int operand){
+        return new OfInt(Operator.GREATER_THAN_OR_EQUAL, operand);
+    }
+
+    public static OfInt greaterThan(int operand){
+        return new OfInt(Operator.GREATER_THAN, operand);
+    }
+
+    public static OfLong lessThan(long operand){
+        return new OfLong(Operator.LESS_THAN, operand);
+    }
+
+    public static OfLong lessThanOrEqual(long operand){
+        return new OfLong(Operator.LESS_THAN_OR_EQUAL, operand);
+    }
+
+    public static OfLong equalTo(long operand){
+        return new OfLong(Operator.EQUAL, operand);
+    }
+
+    public static OfLong notEqualTo(long operand){
+        return new OfLong(Operator.NOT_EQUAL, operand);
+    }
+
+    public static OfLong greaterThanOrEqual(long operand){
+        return new OfLong(Operator.GREATER_THAN_OR_EQUAL, operand);
+    }
+
+    public static OfLong greaterThan(long operand){
+        return new OfLong(Operator.GREATER_THAN, operand);
+    }
+
+    public static OfDouble lessThan(double operand){
+        return new OfDouble(Operator.LESS_THAN, operand);
+    }
+
+    public static OfDouble lessThanOrEqual(double operand){
+        return new OfDouble(Operator.LESS_THAN_OR_EQUAL, operand);
+    }
+
+    public static OfDouble equalTo(double operand){
+        return new OfDouble(Operator.EQUAL, operand);
+    }
+
+    public static OfDouble notEqualTo(double operand){
+        return new OfDouble(Operator.NOT_EQUAL, operand);
+    }
+
+    public static OfDouble greaterThanOrEqual(double operand){
+        return new OfDouble(Operator.GREATER_THAN_OR_EQUAL, operand);
+    }
+
+    public static OfDouble greaterThan(double operand){
+        return new OfDouble(Operator.GREATER_THAN, operand);
+    }
+
+    public static final class OfInt implements IntPredicate {
+        private final Operator operator;
+        private final int operand;
+
+        private OfInt(Operator operator, int operand){
+            this.operator = operator;
+            this.operand = operand;
+        }
+
+        public Operator operator(){
+            return operator;
+        }
+
+        public int operand(){
+            return operand;
+        }
+
+        @Override
+        public boolean test(int value) {
+            switch(operator){
+                case LESS_THAN: return value < operand;
+                case LESS_THAN_OR_EQUAL: return value <= operand;
+                case EQUAL: return value == operand;
+                case NOT_EQUAL: return value != operand;
+                case GREATER_THAN_OR_EQUAL: return value >= operand;
+                case GREATER_THAN: return value > operand;
+                default: throw new AssertionError(operator);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "x " + operator.symbol() + " " + operand;
+        }
+    }
+
+    public static final class OfLong implements LongPredicate {
+        private final Operator operator;
+        private final long operand;
+
+        private OfLong(Operator operator, long operand){
+            this.operator = operator;
+            this.operand = operand;
+        }
+
+        public Operator operator(){
+            return operator;
+        }
+
+        public long operand(){
+            return operand;
+        }
+
+        @Override
+        public boolean test(long value) {
+            switch(operator){
+                case LESS_THAN: return value < operand;
+                case LESS_THAN_OR_EQUAL: return value <= operand;
+                case EQUAL: return value == operand;
+                case NOT_EQUAL: return value != operand;
+                case GREATER_THAN_OR_EQUAL: return value >= operand;
+                case GREATER_THAN: return value > operand;
+                default: throw new AssertionError(operator);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "x " + operator.symbol() + " " + operand;
+        }
+    }
+
+    public static final class OfDouble implements DoublePredicate {
+        private final Operator operator;
+        private final double operand;
+
+        private OfDouble(Operator operator, double operand){
+            this.operator = operator;
+            this.operand = operand;
+        }
+
+        public Operator operator(){
+            return operator;
+        }
+
+        public double operand(){
+            return operand;
+        }
+
+        @Override
+        public boolean test(double value) {
+            switch(operator){
+                case LESS_THAN: return value < operand;
+                case LESS_THAN_OR_EQUAL: return value <= operand;
+                case EQUAL: return value == operand;
+                case NOT_EQUAL: return value != operand;
+                case GREATER_THAN_OR_EQUAL: return value >= operand;
+                case GREATER_THAN: return value > operand;
+                default: throw new AssertionError(operator);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "x " + operator.symbol() + " " + operand;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package blaq.util;
+
+import blaq.core.NullArgumentException;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * Running sum of {@code double}s which keeps track of the rounding error of each addition (Kahan-Babuska, in
+ * Neumaier's form) and adds it back at the end.
+ * <p>A plain running sum loses the low bits of every value added to a much larger total, so its error grows with
+ * the number of values; this one's stays at about one rounding of the result, whatever the order of the values,
+ * at the cost of a few more floating point operations per value.</p>
+ * Sums of parts of a sequence can be {@link #merge(CompensatedSum) merged}, carrying their compensation along.
+ * Not thread-safe.
+ */
+public final class CompensatedSum implements DoubleConsumer {
+
+    private double sum;
+    private double compensation;
+    // Without the compensation, to fall back on when it's lost to an overflow (inf - inf = NaN)
+    private double simpleSum;
+
+    @Override
+    public void accept(double value) {
+        simpleSum += value;
+        add(value);
+    }
+
+    private void add(double value){
+        double total = sum + value;
+        if(Math.abs(sum) >= Math.abs(value))
+            compensation += (sum - total) + value;
+        else
+            compensation += (value - total) + sum;
+        sum = total;
+    }
+
+    /**
+     * Adds everything {@code other} was given to this sum. {@code other} is left as it was.
+     * @return This instance.
+     */
+    public CompensatedSum merge(CompensatedSum other){
+        if(other == null)
+            throw new NullArgumentException("other");
+        simpleSum += other.simpleSum;
+        add(other.sum);
+        add(other.compensation);
+        return this;
+    }
+
+    /**
+     * @return The sum, 0 when nothing was added.
+     */
+    public double value(){
+        double value = sum + compensation;
+        if(Double.isNaN(value) && Double.isInfinite(simpleSum))
+            return simpleSum;
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(value());
+    }
+}
@@ -0,0 +1,125 @@
+package blaq.util;
+
+import blaq.core.PrimitiveEnumerable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sequence of {@code double}s, which are never boxed on their way through its operators.
+ * <p>It is still an {@code Iterable<Double>}, so it can be passed anywhere a BLAQ sequence can; use
+ * {@link #iterator()}'s {@code nextDouble()} (or the operators here) to keep values unboxed.</p>
+ * @see PrimitiveEnumerable
+ */
+public interface DoubleBlaqIterable extends Iterable<Double> {
+
+    @NotNull
+    @Override
+    PrimitiveIterator.OfDouble iterator();
+
+    @Override
+    default Spliterator.OfDouble spliterator(){
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+    }
+
+    default DoubleStream stream(){
+        return StreamSupport.doubleStream(spliterator(), false);
+    }
+
+    /* Default ops */
+
+    default DoubleBlaqIterable where(DoublePredicate p){
+        return PrimitiveEnumerable.where(this, p);
+    }
+
+    default DoubleBlaqIterable project(DoubleUnaryOperator projector){
+        return PrimitiveEnumerable.project(this, projector);
+    }
+
+    default <R> BlaqIterable<R> projectToObj(DoubleFunction<R> projector){
+        return PrimitiveEnumerable.projectToObj(this, projector);
+    }
+
+    default DoubleBlaqIterable distinct(){
+        return PrimitiveEnumerable.distinct(this);
+    }
+
+    default double sum(){
+        return PrimitiveEnumerable.sum(this);
+    }
+
+    default double parallelSum(){
+        return PrimitiveEnumerable.parallelSum(this);
+    }
+
+    default double parallelSum(int parallelism){
+        return PrimitiveEnumerable.parallelSum(this, parallelism);
+    }
+
+    default double min(){
+        return PrimitiveEnumerable.min(this);
+    }
+
+    default double max(){
+        return PrimitiveEnumerable.max(this);
+    }
+
+    default double average(){
+        return PrimitiveEnumerable.average(this);
+    }
+
+    default int count(){
+        return PrimitiveEnumerable.count(this);
+    }
+
+    default int count(DoublePredicate p){
+        return PrimitiveEnumerable.count(this, p);
+    }
+
+    default double[] toArray(){
+        return PrimitiveEnumerable.toArray(this);
+    }
+
+    default DoubleBlaqIterable windowSum(int size){
+        return PrimitiveEnumerable.windowSum(this, size, 1);
+    }
+
+    default DoubleBlaqIterable windowSum(int size, int step){
+        return PrimitiveEnumerable.windowSum(this, size, step);
+    }
+
+    default DoubleBlaqIterable windowAverage(int size){
+        return PrimitiveEnumerable.windowAverage(this, size, 1);
+    }
+
+    default DoubleBlaqIterable windowAverage(int size, int step){
+        return PrimitiveEnumerable.windowAverage(this, size, step);
+    }
+
+    default DoubleBlaqIterable windowMin(int size){
+        return PrimitiveEnumerable.windowMin(this, size, 1);
+    }
+
+    default DoubleBlaqIterable windowMin(int size, int step){
+        return PrimitiveEnumerable.windowMin(this, size, step);
+    }
+
+    default DoubleBlaqIterable windowMax(int size){
+        return PrimitiveEnumerable.windowMax(this, size, 1);
+    }
+
+    default DoubleBlaqIterable windowMax(int size, int step){
+        return PrimitiveEnumerable.windowMax(this, size, step);
+    }
+
+    default BlaqIterable<Double> boxed(){
+        return projectToObj(x -> x);
+    }
+}
@@ -0,0 +1,210 @@
+package blaq.util;
+
+import blaq.core.NullArgumentException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate counts of the most frequent keys of a stream, in constant memory: the Space-Saving algorithm
+ * (Metwally, Agrawal and El Abbadi, "Efficient computation of frequent and top-k elements in data streams", 2005).
+ * <p>At most {@code capacity} keys are counted. A key not counted yet, once they all are, takes the place of the key
+ * with the lowest count, and starts from that count plus one. So counts are never under the truth, and over it by
+ * no more than that lowest count, which is at most {@code n / capacity} after {@code n} keys. Every key occurring
+ * more than {@code n / capacity} times is among those counted, and the top ones come out in the right order once
+ * their counts are further apart than the error.</p>
+ * <p>Counters are kept in a min-heap on their counts, with a map from key to position in it, so each key costs
+ * O(log capacity) at worst. Summaries of parts of a stream can be {@link #merge(FrequentItems) merged}
+ * (Agarwal et al., "Mergeable summaries").</p>
+ * Keys are compared with {@code equals}; {@code null} is a key like any other.
+ * Not thread-safe.
+ * @param <K> Type of the keys.
+ */
+public final class FrequentItems<K> {
+
+    private final int capacity;
+    // Min-heap on counts; the key at a position, its count, and how much of it may be overcounted
+    private final Object[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private int size;
+    private final Map<Object, Integer> positions;
+    private long total;
+
+    /**
+     * @param capacity Most keys counted at once, at least 1. The larger, the smaller the error.
+     */
+    public FrequentItems(int capacity){
+        if(capacity < 1)
+            throw new IllegalArgumentException("capacity");
+        this.capacity = capacity;
+        keys = new Object[capacity];
+        counts = new long[capacity];
+        errors = new long[capacity];
+        positions = new HashMap<>(Math.min(capacity, 1 << 16) * 4 / 3 + 1);
+    }
+
+    public void add(K key){
+        add(key, 1);
+    }
+
+    /**
+     * Counts {@code key} {@code count} times.
+     */
+    public void add(K key, long count){
+        if(count < 0)
+            throw new IllegalArgumentException("count");
+        if(count == 0)
+            return;
+        total += count;
+        Integer position = positions.get(key);
+        if(position != null){
+            counts[position] += count;
+            down(position);
+        }
+        else if(size < capacity){
+            put(size, key, count, 0);
+            up(size++);
+        }
+        else {
+            // Takes the place of the least counted key, and inherits its count as the possible error
+            positions.remove(keys[0]);
+            put(0, key, counts[0] + count, counts[0]);
+            down(0);
+        }
+    }
+
+    /**
+     * Adds the counts of {@code other} to these. {@code other} is left as it was.
+     * A key counted on one side only may have occurred as often as the other side's lowest count (if that side is
+     * full), so that is added to its count and to its error. The {@code capacity} largest counts are kept.
+     * @return This instance.
+     */
+    public FrequentItems<K> merge(FrequentItems<K> other){
+        if(other == null)
+            throw new NullArgumentException("other");
+        long thisFloor = size == capacity ? counts[0] : 0;
+        long otherFloor = other.size == other.capacity ? other.counts[0] : 0;
+        Map<Object, long[]> merged = new HashMap<>();
+        for(int i = 0; i < size; i++)
+            merged.put(keys[i], new long[]{counts[i] + otherFloor, errors[i] + otherFloor});
+        for(int i = 0; i < other.size; i++){
+            long[] entry = merged.get(other.keys[i]);
+            if(entry == null)
+                merged.put(other.keys[i], new long[]{other.counts[i] + thisFloor, other.errors[i] + thisFloor});
+            else {
+                entry[0] += other.counts[i] - otherFloor;
+                entry[1] += other.errors[i] - otherFloor;
+            }
+        }
+        List<Map.Entry<Object, long[]>> entries = new ArrayList<>(merged.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        positions.clear();
+        Arrays.fill(keys, null);
+        size = 0;
+        for(Map.Entry<Object, long[]> entry : entries.subList(0, Math.min(capacity, entries.size()))){
+            put(size, entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+            up(size++);
+        }
+        total += other.total;
+        return this;
+    }
+
+    /**
+     * @return Number of keys added, counting repeats.
+     */
+    public long count(){
+        return total;
+    }
+
+    public int capacity(){
+        return capacity;
+    }
+
+    /**
+     * @param count Most keys wanted.
+     * @return The {@code count} most frequent keys and their estimated counts, the most frequent first; keys with
+     *         the same count come with the smallest possible error first.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Tuple2<K, Long>> top(int count){
+        if(count < 0)
+            throw new IllegalArgumentException("count");
+        Integer[] order = new Integer[size];
+        for(int i = 0; i < size; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> counts[a] != counts[b] ? Long.compare(counts[b], counts[a])
+                : Long.compare(errors[a], errors[b]));
+        List<Tuple2<K, Long>> top = new ArrayList<>(Math.min(count, size));
+        for(int i = 0; i < Math.min(count, size); i++)
+            top.add(new Tuple2<>((K) keys[order[i]], counts[order[i]]));
+        return top;
+    }
+
+    /**
+     * @return The estimated count of {@code key}: 0 if it isn't counted, which it then occurred at most
+     *         {@link #error(Object)} times.
+     */
+    public long estimate(K key){
+        Integer position = positions.get(key);
+        return position == null ? 0 : counts[position];
+    }
+
+    /**
+     * @return By how much {@link #estimate(Object)} may be over the true count of {@code key}; for a key not
+     *         counted, how often it may have occurred.
+     */
+    public long error(K key){
+        Integer position = positions.get(key);
+        if(position == null)
+            return size == capacity ? counts[0] : 0;
+        return errors[position];
+    }
+
+    private void put(int position, Object key, long count, long error){
+        keys[position] = key;
+        counts[position] = count;
+        errors[position] = error;
+        positions.put(key, position);
+    }
+
+    private void up(int position){
+        while(position > 0){
+            int parent = (position - 1) >>> 1;
+            if(counts[parent] <= counts[position])
+                break;
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void down(int position){
+        while(true){
+            int child = 2 * position + 1;
+            if(child >= size)
+                break;
+            if(child + 1 < size && counts[child + 1] < counts[child])
+                child++;
+            if(counts[position] <= counts[child])
+                break;
+            swap(position, child);
+            position = child;
+        }
+    }
+
+    private void swap(int i, int j){
+        Object key = keys[i];
+        long count = counts[i], error = errors[i];
+        keys[i] = keys[j];
+        counts[i] = counts[j];
+        errors[i] = errors[j];
+        keys[j] = key;
+        counts[j] = count;
+        errors[j] = error;
+        positions.put(keys[i], i);
+        positions.put(keys[j], j);
+    }
+}
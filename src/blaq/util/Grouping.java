@@ -6,6 +6,8 @@ import blaq.annotations.Readonly;
 
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.stream.Stream;
 
 /**
  * Lightweight wrapper around an ArrayList.
@@ -41,6 +43,17 @@ public final class Grouping<K, E> extends ArrayList<E> implements IGrouping<K, E
         return elements.iterator();
     }
 
+    // Elements live in their own list rather than in the super class, so splitting has to go through it too
+    @Override
+    public Spliterator<E> spliterator() {
+        return elements.spliterator();
+    }
+
+    @Override
+    public Stream<E> stream(){
+        return elements.stream();
+    }
+
     @Override
     public boolean add(E item){
         return elements.add(item);
@@ -51,6 +64,12 @@ public final class Grouping<K, E> extends ArrayList<E> implements IGrouping<K, E
         return elements.size();
     }
 
+    // Random access goes to the elements as well, since operators index into lists rather than iterate them
+    @Override
+    public E get(int index){
+        return elements.get(index);
+    }
+
     @Override
     public String toString(){
         StringBuilder sb = new StringBuilder(key.toString());
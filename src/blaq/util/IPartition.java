@@ -0,0 +1,28 @@
+package blaq.util;
+
+/**
+ * A sequence which knows its size and can reach any of its elements directly, without iterating up to it.
+ * <p>Random access lists are partitions, and so are the results of {@code project}, {@code take}, {@code skip},
+ * {@code reverse} and {@code zip} over partitions: rather than iterating their source they work out each element
+ * from its position in it. Operators such as {@code count}, {@code elementAt}, {@code last} and {@code toList} use
+ * this, so {@code list.project(f).elementAt(i)} only calls {@code f} once.</p>
+ * <p>Like other deferred results, partitions read their source each time they're used, so a change to a list
+ * shows up in partitions built over it.</p>
+ * @param <T> Type of elements of the sequence.
+ */
+public interface IPartition<T> extends BlaqIterable<T> {
+
+    int size();
+
+    /**
+     * @param index Position of the element, from 0 to {@link #size()} - 1. Not checked.
+     */
+    T get(int index);
+
+    /**
+     * @param skip Number of elements to leave out from the start; non positive for none.
+     * @param take Maximum number of elements to keep after those; non positive for none.
+     * @return A partition of elements {@code skip} to {@code skip + take - 1} of this one (fewer if it's smaller).
+     */
+    IPartition<T> slice(int skip, int take);
+}
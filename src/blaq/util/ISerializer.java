@@ -0,0 +1,117 @@
+package blaq.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * <p>Writes elements out and reads them back, for operators which move elements they can't keep in memory to disk
+ * ({@code distinct} and {@code groupBy} given a memory limit).</p>
+ *
+ * <p>{@link #read(DataInput)} must read exactly what {@link #write(Object, DataOutput)} wrote, as elements are
+ * written one after the other. Neither is given {@code null}: null elements are taken care of by the caller.</p>
+ * @param <T> Type of the elements.
+ */
+public interface ISerializer<T> {
+
+    void write(T item, DataOutput out) throws IOException;
+
+    T read(DataInput in) throws IOException;
+
+    static ISerializer<String> strings(){
+        return new ISerializer<String>() {
+            @Override
+            public void write(String item, DataOutput out) throws IOException {
+                // writeUTF is limited to 64KB, so the length goes first
+                out.writeInt(item.length());
+                out.writeChars(item);
+            }
+
+            @Override
+            public String read(DataInput in) throws IOException {
+                char[] chars = new char[in.readInt()];
+                for(int i = 0; i < chars.length; i++)
+                    chars[i] = in.readChar();
+                return new String(chars);
+            }
+        };
+    }
+
+    static ISerializer<Integer> integers(){
+        return new ISerializer<Integer>() {
+            @Override
+            public void write(Integer item, DataOutput out) throws IOException {
+                out.writeInt(item);
+            }
+
+            @Override
+            public Integer read(DataInput in) throws IOException {
+                return in.readInt();
+            }
+        };
+    }
+
+    static ISerializer<Long> longs(){
+        return new ISerializer<Long>() {
+            @Override
+            public void write(Long item, DataOutput out) throws IOException {
+                out.writeLong(item);
+            }
+
+            @Override
+            public Long read(DataInput in) throws IOException {
+                return in.readLong();
+            }
+        };
+    }
+
+    static ISerializer<Double> doubles(){
+        return new ISerializer<Double>() {
+            @Override
+            public void write(Double item, DataOutput out) throws IOException {
+                out.writeDouble(item);
+            }
+
+            @Override
+            public Double read(DataInput in) throws IOException {
+                return in.readDouble();
+            }
+        };
+    }
+
+    /**
+     * Java serialization, one element at a time. Works for any {@link Serializable} element, but is much bigger and
+     * slower than writing the fields out by hand.
+     */
+    static <T extends Serializable> ISerializer<T> serializable(){
+        return new ISerializer<T>() {
+            @Override
+            public void write(T item, DataOutput out) throws IOException {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try(ObjectOutputStream objects = new ObjectOutputStream(bytes)){
+                    objects.writeObject(item);
+                }
+                out.writeInt(bytes.size());
+                out.write(bytes.toByteArray());
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T read(DataInput in) throws IOException {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                try(ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(bytes))){
+                    return (T) objects.readObject();
+                } catch (ClassNotFoundException e){
+                    throw new InvalidClassException(e.getMessage());
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package blaq.util;
+
+import blaq.core.PrimitiveEnumerable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sequence of {@code int}s, which are never boxed on their way through its operators.
+ * <p>It is still an {@code Iterable<Integer>}, so it can be passed anywhere a BLAQ sequence can; use
+ * {@link #iterator()}'s {@code nextInt()} (or the operators here) to keep values unboxed.</p>
+ * @see PrimitiveEnumerable
+ */
+public interface IntBlaqIterable extends Iterable<Integer> {
+
+    @NotNull
+    @Override
+    PrimitiveIterator.OfInt iterator();
+
+    @Override
+    default Spliterator.OfInt spliterator(){
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+    }
+
+    default IntStream stream(){
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    /* Default ops */
+
+    default IntBlaqIterable where(IntPredicate p){
+        return PrimitiveEnumerable.where(this, p);
+    }
+
+    default IntBlaqIterable project(IntUnaryOperator projector){
+        return PrimitiveEnumerable.project(this, projector);
+    }
+
+    default <R> BlaqIterable<R> projectToObj(IntFunction<R> projector){
+        return PrimitiveEnumerable.projectToObj(this, projector);
+    }
+
+    default IntBlaqIterable distinct(){
+        return PrimitiveEnumerable.distinct(this);
+    }
+
+    default int sum(){
+        return PrimitiveEnumerable.sum(this);
+    }
+
+    default int min(){
+        return PrimitiveEnumerable.min(this);
+    }
+
+    default int max(){
+        return PrimitiveEnumerable.max(this);
+    }
+
+    default double average(){
+        return PrimitiveEnumerable.average(this);
+    }
+
+    default int count(){
+        return PrimitiveEnumerable.count(this);
+    }
+
+    default int count(IntPredicate p){
+        return PrimitiveEnumerable.count(this, p);
+    }
+
+    default int[] toArray(){
+        return PrimitiveEnumerable.toArray(this);
+    }
+
+    default LongBlaqIterable windowSum(int size){
+        return PrimitiveEnumerable.windowSum(this, size, 1);
+    }
+
+    default LongBlaqIterable windowSum(int size, int step){
+        return PrimitiveEnumerable.windowSum(this, size, step);
+    }
+
+    default DoubleBlaqIterable windowAverage(int size){
+        return PrimitiveEnumerable.windowAverage(this, size, 1);
+    }
+
+    default DoubleBlaqIterable windowAverage(int size, int step){
+        return PrimitiveEnumerable.windowAverage(this, size, step);
+    }
+
+    default IntBlaqIterable windowMin(int size){
+        return PrimitiveEnumerable.windowMin(this, size, 1);
+    }
+
+    default IntBlaqIterable windowMin(int size, int step){
+        return PrimitiveEnumerable.windowMin(this, size, step);
+    }
+
+    default IntBlaqIterable windowMax(int size){
+        return PrimitiveEnumerable.windowMax(this, size, 1);
+    }
+
+    default IntBlaqIterable windowMax(int size, int step){
+        return PrimitiveEnumerable.windowMax(this, size, step);
+    }
+
+    default BlaqIterable<Integer> boxed(){
+        return projectToObj(x -> x);
+    }
+}
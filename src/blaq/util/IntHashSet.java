@@ -0,0 +1,98 @@
+package blaq.util;
+
+import java.util.Arrays;
+
+/**
+ * Set of {@code int}s, without boxing.
+ * Open addressing with linear probing over a power of two table. Zero marks an empty slot, so whether zero itself
+ * is a member is kept on the side.
+ */
+public final class IntHashSet {
+
+    private static final int EMPTY = 0;
+
+    private int[] slots;
+    private int mask;
+    private int size;
+    private boolean containsZero;
+
+    public IntHashSet(){
+        this(16);
+    }
+
+    /**
+     * @param expectedSize Number of elements the set can take before it needs to grow.
+     */
+    public IntHashSet(int expectedSize){
+        if(expectedSize < 0)
+            throw new IllegalArgumentException("expectedSize");
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        slots = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * @return {@code true} if {@code value} wasn't already in the set.
+     */
+    public boolean add(int value){
+        if(value == EMPTY){
+            if(containsZero)
+                return false;
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int index = mix(value) & mask;
+        while(slots[index] != EMPTY){
+            if(slots[index] == value)
+                return false;
+            index = (index + 1) & mask;
+        }
+        slots[index] = value;
+        if(++size * 2 > slots.length)
+            grow();
+        return true;
+    }
+
+    public boolean contains(int value){
+        if(value == EMPTY)
+            return containsZero;
+        int index = mix(value) & mask;
+        while(slots[index] != EMPTY){
+            if(slots[index] == value)
+                return true;
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public void clear(){
+        Arrays.fill(slots, EMPTY);
+        containsZero = false;
+        size = 0;
+    }
+
+    private void grow(){
+        int[] old = slots;
+        slots = new int[old.length * 2];
+        mask = slots.length - 1;
+        for(int value : old){
+            if(value == EMPTY)
+                continue;
+            int index = mix(value) & mask;
+            while(slots[index] != EMPTY)
+                index = (index + 1) & mask;
+            slots[index] = value;
+        }
+    }
+
+    // Spreads the bits, so sequential values don't fill one run of the table
+    private static int mix(int value){
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
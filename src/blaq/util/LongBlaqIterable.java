@@ -0,0 +1,117 @@
+package blaq.util;
+
+import blaq.core.PrimitiveEnumerable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sequence of {@code long}s, which are never boxed on their way through its operators.
+ * <p>It is still an {@code Iterable<Long>}, so it can be passed anywhere a BLAQ sequence can; use
+ * {@link #iterator()}'s {@code nextLong()} (or the operators here) to keep values unboxed.</p>
+ * @see PrimitiveEnumerable
+ */
+public interface LongBlaqIterable extends Iterable<Long> {
+
+    @NotNull
+    @Override
+    PrimitiveIterator.OfLong iterator();
+
+    @Override
+    default Spliterator.OfLong spliterator(){
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+    }
+
+    default LongStream stream(){
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
+    /* Default ops */
+
+    default LongBlaqIterable where(LongPredicate p){
+        return PrimitiveEnumerable.where(this, p);
+    }
+
+    default LongBlaqIterable project(LongUnaryOperator projector){
+        return PrimitiveEnumerable.project(this, projector);
+    }
+
+    default <R> BlaqIterable<R> projectToObj(LongFunction<R> projector){
+        return PrimitiveEnumerable.projectToObj(this, projector);
+    }
+
+    default LongBlaqIterable distinct(){
+        return PrimitiveEnumerable.distinct(this);
+    }
+
+    default long sum(){
+        return PrimitiveEnumerable.sum(this);
+    }
+
+    default long min(){
+        return PrimitiveEnumerable.min(this);
+    }
+
+    default long max(){
+        return PrimitiveEnumerable.max(this);
+    }
+
+    default double average(){
+        return PrimitiveEnumerable.average(this);
+    }
+
+    default int count(){
+        return PrimitiveEnumerable.count(this);
+    }
+
+    default int count(LongPredicate p){
+        return PrimitiveEnumerable.count(this, p);
+    }
+
+    default long[] toArray(){
+        return PrimitiveEnumerable.toArray(this);
+    }
+
+    default LongBlaqIterable windowSum(int size){
+        return PrimitiveEnumerable.windowSum(this, size, 1);
+    }
+
+    default LongBlaqIterable windowSum(int size, int step){
+        return PrimitiveEnumerable.windowSum(this, size, step);
+    }
+
+    default DoubleBlaqIterable windowAverage(int size){
+        return PrimitiveEnumerable.windowAverage(this, size, 1);
+    }
+
+    default DoubleBlaqIterable windowAverage(int size, int step){
+        return PrimitiveEnumerable.windowAverage(this, size, step);
+    }
+
+    default LongBlaqIterable windowMin(int size){
+        return PrimitiveEnumerable.windowMin(this, size, 1);
+    }
+
+    default LongBlaqIterable windowMin(int size, int step){
+        return PrimitiveEnumerable.windowMin(this, size, step);
+    }
+
+    default LongBlaqIterable windowMax(int size){
+        return PrimitiveEnumerable.windowMax(this, size, 1);
+    }
+
+    default LongBlaqIterable windowMax(int size, int step){
+        return PrimitiveEnumerable.windowMax(this, size, step);
+    }
+
+    default BlaqIterable<Long> boxed(){
+        return projectToObj(x -> x);
+    }
+}
@@ -0,0 +1,100 @@
+package blaq.util;
+
+import java.util.Arrays;
+
+/**
+ * Set of {@code long}s, without boxing.
+ * Open addressing with linear probing over a power of two table. Zero marks an empty slot, so whether zero itself
+ * is a member is kept on the side.
+ * <p>Also used for {@code double}s, through {@link Double#doubleToLongBits(double)} (which is how
+ * {@link Double#equals(Object)} compares them).</p>
+ */
+public final class LongHashSet {
+
+    private static final long EMPTY = 0L;
+
+    private long[] slots;
+    private int mask;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet(){
+        this(16);
+    }
+
+    /**
+     * @param expectedSize Number of elements the set can take before it needs to grow.
+     */
+    public LongHashSet(int expectedSize){
+        if(expectedSize < 0)
+            throw new IllegalArgumentException("expectedSize");
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        slots = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * @return {@code true} if {@code value} wasn't already in the set.
+     */
+    public boolean add(long value){
+        if(value == EMPTY){
+            if(containsZero)
+                return false;
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int index = mix(value) & mask;
+        while(slots[index] != EMPTY){
+            if(slots[index] == value)
+                return false;
+            index = (index + 1) & mask;
+        }
+        slots[index] = value;
+        if(++size * 2 > slots.length)
+            grow();
+        return true;
+    }
+
+    public boolean contains(long value){
+        if(value == EMPTY)
+            return containsZero;
+        int index = mix(value) & mask;
+        while(slots[index] != EMPTY){
+            if(slots[index] == value)
+                return true;
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public void clear(){
+        Arrays.fill(slots, EMPTY);
+        containsZero = false;
+        size = 0;
+    }
+
+    private void grow(){
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        mask = slots.length - 1;
+        for(long value : old){
+            if(value == EMPTY)
+                continue;
+            int index = mix(value) & mask;
+            while(slots[index] != EMPTY)
+                index = (index + 1) & mask;
+            slots[index] = value;
+        }
+    }
+
+    // Folds the high bits in and spreads them, so sequential values don't fill one run of the table
+    private static int mix(long value){
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
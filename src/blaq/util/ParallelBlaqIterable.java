@@ -0,0 +1,154 @@
+package blaq.util;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+
+/**
+ * A sequence whose operators run on several cores, over fork/join splits of the source.
+ * <p>Intermediate operators ({@code where}, {@code project}, {@code projectMany}) are fused and run together on each
+ * split once a terminal operator (or iteration) asks for results. The source is read into an array at that point,
+ * on the calling thread.</p>
+ * <p>By default the query is unordered: results may come out in any order, which lets operators such as
+ * {@link #distinct()} avoid waiting on each other. {@link #asOrdered()} keeps encounter order throughout.
+ * Operators must not depend on being called on any particular thread, or in any particular order.</p>
+ * @param <T> Type of elements of the sequence.
+ */
+public interface ParallelBlaqIterable<T> extends Iterable<T> {
+
+    /**
+     * @param parallelism Number of worker threads to use; must be at least 1.
+     * @return This query, run with {@code parallelism} workers.
+     */
+    ParallelBlaqIterable<T> withParallelism(int parallelism);
+
+    /**
+     * @return This query, with every result in the order of the source elements it came from.
+     */
+    ParallelBlaqIterable<T> asOrdered();
+
+    /**
+     * @return This query, with results in no particular order.
+     */
+    ParallelBlaqIterable<T> asUnordered();
+
+    /**
+     * @return A sequential {@link BlaqIterable} over the results of this query; operators applied to it run
+     *         on the calling thread.
+     */
+    BlaqIterable<T> sequential();
+
+    /* Intermediate ops */
+
+    ParallelBlaqIterable<T> where(Predicate<T> predicate);
+
+    <R> ParallelBlaqIterable<R> project(Function<T, R> selector);
+
+    <R> ParallelBlaqIterable<R> projectMany(Function<T, Iterable<R>> selector);
+
+    /**
+     * @return The distinct elements; when ordered, the first occurrence of each is kept.
+     */
+    ParallelBlaqIterable<T> distinct();
+
+    /* Terminal ops */
+
+    /**
+     * Folds each split into its own accumulator, then combines the accumulators in encounter order.
+     * @param seedFactory Creates an empty accumulator for each split.
+     * @param function Adds an element to an accumulator.
+     * @param combiner Merges two accumulators; must be associative.
+     */
+    <A> A aggregate(Supplier<A> seedFactory, BiFunction<A, T, A> function, BinaryOperator<A> combiner);
+
+    /**
+     * @param function An associative function, used both within and across splits.
+     */
+    T aggregate(BinaryOperator<T> function);
+
+    int sum(Function<T, Integer> selector);
+
+    long longSum(Function<T, Long> selector);
+
+    double doubleSum(Function<T, Double> selector);
+
+    double average(Function<T, Number> selector);
+
+    /**
+     * @see blaq.core.Enumerable#stats(Iterable, ToDoubleFunction)
+     */
+    Statistics stats(ToDoubleFunction<T> selector);
+
+    /**
+     * Each split gathers its own values, and they're put together for the quantiles to be selected.
+     * @see blaq.core.Enumerable#quantiles(Iterable, ToDoubleFunction, double...)
+     */
+    double[] quantiles(ToDoubleFunction<T> selector, double... probabilities);
+
+    /**
+     * Each split sketches its own values, and the sketches are merged.
+     * @see blaq.core.Enumerable#approxQuantiles(Iterable, ToDoubleFunction, double...)
+     */
+    double[] approxQuantiles(ToDoubleFunction<T> selector, double... probabilities);
+
+    /**
+     * Runs two aggregates over a single traversal; each split collects into its own containers, which are then
+     * combined in encounter order.
+     */
+    <R1, R2> Tuple2<R1, R2> aggregateAll(Collector<? super T, ?, R1> first, Collector<? super T, ?, R2> second);
+
+    <S> S min(Function<T, S> selector);
+
+    <S> S max(Function<T, S> selector);
+
+    int count();
+
+    /**
+     * Each split sketches its own keys, and the sketches are merged.
+     * @see blaq.core.Enumerable#approxCountDistinct(Iterable, Function, int)
+     */
+    <K> long approxCountDistinct(Function<T, K> keySelector, int precision);
+
+    int count(Predicate<T> predicate);
+
+    boolean any();
+
+    boolean any(Predicate<T> predicate);
+
+    boolean all(Predicate<T> predicate);
+
+    <K> BlaqIterable<IGrouping<K, T>> groupBy(Function<T, K> keySelector);
+
+    <K, V> BlaqIterable<IGrouping<K, V>> groupBy(Function<T, K> keySelector, Function<T, V> valueSelector);
+
+    <K> ILookup<K, T> toLookup(Function<T, K> keySelector);
+
+    <K, V> ILookup<K, V> toLookup(Function<T, K> keySelector, Function<T, V> valueSelector);
+
+    /**
+     * Per key {@link #aggregate(Supplier, BiFunction, BinaryOperator)}: each split keeps one accumulator per key,
+     * and the accumulators of a key found in several splits are combined in encounter order.
+     * @see blaq.core.Enumerable#groupAggregate(Iterable, Function, Supplier, BiFunction)
+     */
+    <K, A> BlaqIterable<Tuple2<K, A>> groupAggregate(Function<T, K> keySelector, Supplier<A> seedFactory,
+                                                     BiFunction<A, T, A> function, BinaryOperator<A> combiner);
+
+    /**
+     * @see blaq.core.Enumerable#countBy(Iterable, Function)
+     */
+    <K> BlaqIterable<Tuple2<K, Long>> countBy(Function<T, K> keySelector);
+
+    <K> IOrderedIterable<T> orderBy(Function<T, K> keySelector);
+
+    <K> IOrderedIterable<T> orderBy(Function<T, K> keySelector, Comparator<K> comparator);
+
+    <K> IOrderedIterable<T> orderByDescending(Function<T, K> keySelector);
+
+    List<T> toList();
+}
@@ -0,0 +1,247 @@
+package blaq.util;
+
+import blaq.core.InvalidOperationException;
+import blaq.core.NullArgumentException;
+
+import java.util.Arrays;
+import java.util.function.DoubleConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+
+/**
+ * Approximate quantiles of a sequence of {@code double}s in bounded memory: a KLL sketch (Karnin, Lang and Liberty,
+ * "Optimal quantile approximation in streams", 2016).
+ * <p>Values are kept in levels, a value at level {@code h} standing for {@code 2^h} of the values added. When the
+ * sketch is full, the lowest level over its capacity is sorted and every other value of it (starting from the
+ * first or the second, at random) moves up a level; the rest are dropped. Capacities shrink by a factor of 2/3
+ * going down from the top level, which has {@code k}, so the sketch holds about {@code 3k} values however many were
+ * added.</p>
+ * <p>With high probability, the rank of a quantile is off by no more than about 1.7% of the number of values at
+ * the default {@code k} of 200; the error goes down as {@code 1/k}. The minimum and maximum are exact. Sketches
+ * with the same {@code k} {@link #merge(QuantileSketch) merge} into a sketch of all their values, with the same
+ * guarantee.</p>
+ * Values are ordered like {@link Double#compare(double, double)}: NaN is greater than everything.
+ * Not thread-safe.
+ */
+public final class QuantileSketch implements DoubleConsumer {
+
+    /** {@code k} used when none is specified. */
+    public static final int DEFAULT_K = 200;
+
+    private static final int MIN_K = 8;
+    // Capacity of a level never goes below this
+    private static final int MIN_WIDTH = 2;
+
+    private final int k;
+    private double[][] levels = {new double[MIN_WIDTH]};
+    private int[] sizes = new int[1];
+    // Values held, and how many may be before compacting; the capacity only changes when a level is added
+    private int retained;
+    private int capacity;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    // splitmix64 state, for which half of a level is kept; seeded the same every time, so results are repeatable
+    private long random;
+
+    public QuantileSketch(){
+        this(DEFAULT_K);
+    }
+
+    /**
+     * @param k Capacity of the top level, from 8 up: the larger, the more accurate and the more memory it takes.
+     */
+    public QuantileSketch(int k){
+        if(k < MIN_K)
+            throw new IllegalArgumentException("k");
+        this.k = k;
+        capacity = k;
+    }
+
+    /**
+     * @param selector Picks the value to gather from each element.
+     * @param <T> Type of the elements.
+     * @return A collector gathering a {@link QuantileSketch}, which merges the partial results of parallel streams.
+     */
+    public static <T> Collector<T, QuantileSketch, QuantileSketch> collector(ToDoubleFunction<? super T> selector){
+        if(selector == null)
+            throw new NullArgumentException("selector");
+        return Collector.of(QuantileSketch::new, (sketch, item) -> sketch.accept(selector.applyAsDouble(item)),
+                QuantileSketch::merge, Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    @Override
+    public void accept(double value) {
+        if(count++ == 0)
+            min = max = value;
+        else {
+            if(Double.compare(value, min) < 0)
+                min = value;
+            if(Double.compare(value, max) > 0)
+                max = value;
+        }
+        append(0, value);
+        while(retained > capacity)
+            compress();
+    }
+
+    /**
+     * Adds the values gathered by {@code other} to these. {@code other} is left as it was.
+     * @return This instance.
+     * @throws IllegalArgumentException Thrown when the sketches' {@code k}s differ.
+     */
+    public QuantileSketch merge(QuantileSketch other){
+        if(other == null)
+            throw new NullArgumentException("other");
+        if(other.k != k)
+            throw new IllegalArgumentException("other");
+        if(other.count == 0)
+            return this;
+        if(count == 0){
+            min = other.min;
+            max = other.max;
+        }
+        else {
+            if(Double.compare(other.min, min) < 0)
+                min = other.min;
+            if(Double.compare(other.max, max) > 0)
+                max = other.max;
+        }
+        count += other.count;
+        for(int level = 0; level < other.levels.length; level++)
+            for(int i = 0; i < other.sizes[level]; i++)
+                append(level, other.levels[level][i]);
+        while(retained > capacity)
+            compress();
+        return this;
+    }
+
+    private void append(int level, double value){
+        if(level >= levels.length){
+            int had = levels.length;
+            levels = Arrays.copyOf(levels, level + 1);
+            for(int i = had; i <= level; i++)
+                levels[i] = new double[MIN_WIDTH];
+            sizes = Arrays.copyOf(sizes, level + 1);
+            capacity = 0;
+            for(int i = 0; i < levels.length; i++)
+                capacity += capacity(i);
+        }
+        if(sizes[level] == levels[level].length)
+            levels[level] = Arrays.copyOf(levels[level], 2 * sizes[level]);
+        levels[level][sizes[level]++] = value;
+        retained++;
+    }
+
+    private int capacity(int level){
+        int depth = levels.length - 1 - level;
+        return Math.max(MIN_WIDTH, (int) Math.ceil(k * Math.pow(2d / 3, depth)));
+    }
+
+    // Compacts the lowest level at or over its capacity
+    private void compress(){
+        int level = 0;
+        while(sizes[level] < capacity(level))
+            level++;
+        double[] values = levels[level];
+        int size = sizes[level];
+        // An odd one out stays where it is
+        int pairs = size & ~1;
+        Arrays.sort(values, 0, pairs);
+        int offset = (int) (nextRandom() >>> 63);
+        for(int i = offset; i < pairs; i += 2)
+            append(level + 1, values[i]);
+        values = levels[level];
+        if(pairs < size)
+            values[0] = values[size - 1];
+        sizes[level] = size - pairs;
+        retained -= pairs;
+    }
+
+    private long nextRandom(){
+        long z = random += 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    public int k(){
+        return k;
+    }
+
+    public long count(){
+        return count;
+    }
+
+    /**
+     * @return How many values the sketch holds, as opposed to how many were added.
+     */
+    public int retainedValues(){
+        return retained;
+    }
+
+    /**
+     * @param probability Between 0 (the minimum) and 1 (the maximum); 0.5 is the median.
+     * @return A value whose rank is close to {@code probability} of the number of values.
+     * @throws IllegalArgumentException Thrown when {@code probability} isn't between 0 and 1.
+     * @throws InvalidOperationException Thrown when there were no values.
+     */
+    public double quantile(double probability){
+        return quantiles(probability)[0];
+    }
+
+    /**
+     * @param probabilities Each between 0 and 1, in any order.
+     * @return The quantiles, in the order of {@code probabilities}.
+     * @throws IllegalArgumentException Thrown when a probability isn't between 0 and 1.
+     * @throws InvalidOperationException Thrown when there were no values.
+     */
+    public double[] quantiles(double... probabilities){
+        Quantiles.checkProbabilities(probabilities);
+        if(count == 0)
+            throw new InvalidOperationException("Sequence was empty.");
+        // Every value held, by value, with the weight of its level
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        int n = 0;
+        for(int level = 0; level < levels.length; level++)
+            for(int i = 0; i < sizes[level]; i++, n++){
+                values[n] = levels[level][i];
+                weights[n] = 1L << level;
+            }
+        sortTogether(values, weights);
+        for(int i = 1; i < retained; i++)
+            weights[i] += weights[i - 1];
+
+        double[] result = new double[probabilities.length];
+        for(int i = 0; i < probabilities.length; i++){
+            double probability = probabilities[i];
+            if(probability == 0)
+                result[i] = min;
+            else if(probability == 1)
+                result[i] = max;
+            else {
+                // The first value with at least that much weight at or below it
+                double target = probability * count;
+                int at = 0;
+                while(at < retained - 1 && weights[at] < target)
+                    at++;
+                result[i] = values[at];
+            }
+        }
+        return result;
+    }
+
+    private static void sortTogether(double[] values, long[] weights){
+        Integer[] order = new Integer[values.length];
+        for(int i = 0; i < order.length; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        double[] sortedValues = values.clone();
+        long[] sortedWeights = weights.clone();
+        for(int i = 0; i < order.length; i++){
+            values[i] = sortedValues[order[i]];
+            weights[i] = sortedWeights[order[i]];
+        }
+    }
+}
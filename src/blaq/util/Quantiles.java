@@ -0,0 +1,185 @@
+package blaq.util;
+
+import blaq.core.InvalidOperationException;
+import blaq.core.NullArgumentException;
+
+import java.util.Arrays;
+import java.util.function.DoubleConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+
+/**
+ * Exact quantiles of a sequence of {@code double}s, kept in a growing primitive buffer.
+ * <p>A quantile is found by quickselect, which only partitions the buffer around the rank wanted rather than
+ * sorting all of it: O(n) on average for each quantile, and no boxing. Between the two values closest to a
+ * quantile's rank, the result is interpolated linearly (so the median of an even number of values is the mean of
+ * the middle two).</p>
+ * <p>Two of them over different parts of a sequence {@link #merge(Quantiles) merge} into the quantiles of the
+ * whole. Memory grows with the number of values; {@link QuantileSketch} is the bounded, approximate alternative.</p>
+ * Values are ordered like {@link Double#compare(double, double)}: NaN is greater than everything.
+ * Not thread-safe.
+ */
+public final class Quantiles implements DoubleConsumer {
+
+    // Beyond that many rounds of partitioning the pivots are going badly: sort what's left instead
+    private static final int MAX_ROUNDS = 64;
+
+    private double[] values = new double[16];
+    private int count;
+
+    /**
+     * @param selector Picks the value to gather from each element.
+     * @param <T> Type of the elements.
+     * @return A collector gathering {@link Quantiles}, which merges the partial results of parallel streams.
+     */
+    public static <T> Collector<T, Quantiles, Quantiles> collector(ToDoubleFunction<? super T> selector){
+        if(selector == null)
+            throw new NullArgumentException("selector");
+        return Collector.of(Quantiles::new, (quantiles, item) -> quantiles.accept(selector.applyAsDouble(item)),
+                Quantiles::merge, Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    @Override
+    public void accept(double value) {
+        if(count == values.length)
+            values = Arrays.copyOf(values, grow(count + 1));
+        values[count++] = value;
+    }
+
+    /**
+     * Adds the values gathered by {@code other} to these. {@code other} is left as it was.
+     * @return This instance.
+     */
+    public Quantiles merge(Quantiles other){
+        if(other == null)
+            throw new NullArgumentException("other");
+        if(count + (long) other.count > values.length)
+            values = Arrays.copyOf(values, grow((int) Math.min(Integer.MAX_VALUE, count + (long) other.count)));
+        System.arraycopy(other.values, 0, values, count, other.count);
+        count += other.count;
+        return this;
+    }
+
+    private int grow(int needed){
+        if(needed > Integer.MAX_VALUE - 8)
+            throw new InvalidOperationException("Too many values to hold.");
+        return (int) Math.min(Integer.MAX_VALUE - 8, Math.max(needed, 2L * values.length));
+    }
+
+    public long count(){
+        return count;
+    }
+
+    /**
+     * @param probability Between 0 (the minimum) and 1 (the maximum); 0.5 is the median.
+     * @return The value at that rank, interpolated between the two closest values.
+     * @throws IllegalArgumentException Thrown when {@code probability} isn't between 0 and 1.
+     * @throws InvalidOperationException Thrown when there were no values.
+     */
+    public double quantile(double probability){
+        return quantiles(probability)[0];
+    }
+
+    /**
+     * Several quantiles at once. They're selected in increasing order, each only partitioning what's above the
+     * last, so asking for them together is cheaper than one at a time.
+     * @param probabilities Each between 0 and 1, in any order.
+     * @return The quantiles, in the order of {@code probabilities}.
+     * @throws IllegalArgumentException Thrown when a probability isn't between 0 and 1.
+     * @throws InvalidOperationException Thrown when there were no values.
+     */
+    public double[] quantiles(double... probabilities){
+        checkProbabilities(probabilities);
+        if(count == 0)
+            throw new InvalidOperationException("Sequence was empty.");
+        // NaNs go last, so the rest can be compared with < and ==
+        int numbers = count;
+        for(int i = count - 1; i >= 0; i--)
+            if(Double.isNaN(values[i]))
+                swap(values, i, --numbers);
+
+        Integer[] order = new Integer[probabilities.length];
+        for(int i = 0; i < order.length; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(probabilities[a], probabilities[b]));
+
+        double[] result = new double[probabilities.length];
+        // Everything below `from` is already at or below the last value selected
+        int from = 0;
+        for(int index : order){
+            double rank = probabilities[index] * (count - 1);
+            int lower = (int) rank;
+            double low = select(lower, from, numbers);
+            from = Math.max(from, lower);
+            if(rank == lower){
+                result[index] = low;
+                continue;
+            }
+            // What's above `lower` is at or above it, so the next value up is the least of it
+            double high = lower + 1 < numbers ? min(values, lower + 1, numbers) : Double.NaN;
+            // Equal neighbours need no interpolating, which would make NaN of two equal infinities
+            result[index] = high == low ? low : low + (rank - lower) * (high - low);
+        }
+        return result;
+    }
+
+    static void checkProbabilities(double[] probabilities){
+        if(probabilities == null)
+            throw new NullArgumentException("probabilities");
+        for(double probability : probabilities)
+            if(!(probability >= 0 && probability <= 1))
+                throw new IllegalArgumentException("probabilities");
+    }
+
+    // The value of rank k, with the values in [from, numbers) partitioned around it; NaN past the numbers
+    private double select(int k, int from, int numbers){
+        if(k >= numbers)
+            return Double.NaN;
+        double[] a = values;
+        int lo = from, hi = numbers;
+        for(int round = 0; hi - lo > 1; round++){
+            if(round == MAX_ROUNDS){
+                Arrays.sort(a, lo, hi);
+                break;
+            }
+            double pivot = medianOfThree(a[lo], a[(lo + hi) >>> 1], a[hi - 1]);
+            // Three ways, so runs of equal values don't make it quadratic: [lo, lt) < pivot, [lt, i) == pivot,
+            // [gt, hi) > pivot
+            int lt = lo, i = lo, gt = hi;
+            while(i < gt){
+                double value = a[i];
+                if(value < pivot)
+                    swap(a, lt++, i++);
+                else if(value > pivot)
+                    swap(a, i, --gt);
+                else
+                    i++;
+            }
+            if(k < lt)
+                hi = lt;
+            else if(k >= gt)
+                lo = gt;
+            else
+                return pivot;
+        }
+        return a[k];
+    }
+
+    private static double medianOfThree(double a, double b, double c){
+        return a < b ? (b < c ? b : Math.max(a, c)) : (a < c ? a : Math.max(b, c));
+    }
+
+    private static double min(double[] a, int from, int to){
+        double min = a[from];
+        for(int i = from + 1; i < to; i++)
+            if(a[i] < min)
+                min = a[i];
+        return min;
+    }
+
+    private static void swap(double[] a, int i, int j){
+        double tmp = a[i];
+        a[i] = a[j];
+        a[j] = tmp;
+    }
+}
@@ -0,0 +1,163 @@
+package blaq.util;
+
+import blaq.core.InvalidOperationException;
+import blaq.core.NullArgumentException;
+
+import java.util.function.DoubleConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+
+/**
+ * Count, sum, minimum, maximum, mean and variance of a sequence of {@code double}s, gathered in a single pass.
+ * <p>The mean and variance are kept up to date as values are added (Welford's method), rather than worked out
+ * from a sum of squares at the end, which loses most of its precision once the values are large next to their
+ * spread.</p>
+ * <p>Two of them over different parts of a sequence {@link #merge(Statistics) merge} into the statistics of the
+ * whole (Chan et al.), so the parts can be gathered in parallel or one chunk at a time. The sum is a
+ * {@link CompensatedSum}.</p>
+ * Minimum and maximum order values like {@link Double#compare(double, double)}, as the boxed min/max operators do.
+ * Not thread-safe.
+ */
+public final class Statistics implements DoubleConsumer {
+
+    private long count;
+    private final CompensatedSum sum = new CompensatedSum();
+    private double mean;
+    private double squaredDeviations;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    /**
+     * @param selector Picks the value to gather from each element.
+     * @param <T> Type of the elements.
+     * @return A collector gathering {@link Statistics}, which merges the partial results of parallel streams.
+     */
+    public static <T> Collector<T, Statistics, Statistics> collector(ToDoubleFunction<? super T> selector){
+        if(selector == null)
+            throw new NullArgumentException("selector");
+        return Collector.of(Statistics::new, (stats, item) -> stats.accept(selector.applyAsDouble(item)),
+                Statistics::merge, Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    @Override
+    public void accept(double value) {
+        if(count == 0)
+            min = max = value;
+        else {
+            if(Double.compare(value, min) < 0)
+                min = value;
+            if(Double.compare(value, max) > 0)
+                max = value;
+        }
+        count++;
+        sum.accept(value);
+        double delta = value - mean;
+        mean += delta / count;
+        squaredDeviations += delta * (value - mean);
+    }
+
+    /**
+     * Adds the values gathered by {@code other} to these. {@code other} is left as it was.
+     * @return This instance.
+     */
+    public Statistics merge(Statistics other){
+        if(other == null)
+            throw new NullArgumentException("other");
+        if(other.count == 0)
+            return this;
+        if(count == 0){
+            count = other.count;
+            sum.merge(other.sum);
+            mean = other.mean;
+            squaredDeviations = other.squaredDeviations;
+            min = other.min;
+            max = other.max;
+            return this;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        squaredDeviations += other.squaredDeviations + delta * delta * ((double) count * other.count / total);
+        sum.merge(other.sum);
+        if(Double.compare(other.min, min) < 0)
+            min = other.min;
+        if(Double.compare(other.max, max) > 0)
+            max = other.max;
+        count = total;
+        return this;
+    }
+
+    public long count(){
+        return count;
+    }
+
+    /**
+     * @return The sum of the values, 0 when there are none.
+     */
+    public double sum(){
+        return sum.value();
+    }
+
+    /**
+     * @throws InvalidOperationException Thrown when there were no values.
+     */
+    public double min(){
+        requireNonEmpty();
+        return min;
+    }
+
+    /**
+     * @throws InvalidOperationException Thrown when there were no values.
+     */
+    public double max(){
+        requireNonEmpty();
+        return max;
+    }
+
+    /**
+     * @throws InvalidOperationException Thrown when there were no values.
+     */
+    public double mean(){
+        requireNonEmpty();
+        return mean;
+    }
+
+    /**
+     * @return The population variance: mean squared deviation from the mean.
+     * @throws InvalidOperationException Thrown when there were no values.
+     */
+    public double variance(){
+        requireNonEmpty();
+        return squaredDeviations / count;
+    }
+
+    /**
+     * @return The (unbiased) sample variance, dividing by {@code count - 1}.
+     * @throws InvalidOperationException Thrown when there were fewer than two values.
+     */
+    public double sampleVariance(){
+        if(count < 2)
+            throw new InvalidOperationException("Sample variance needs at least two values.");
+        return squaredDeviations / (count - 1);
+    }
+
+    /**
+     * @return Square root of the population {@link #variance()}.
+     */
+    public double standardDeviation(){
+        return Math.sqrt(variance());
+    }
+
+    private void requireNonEmpty(){
+        if(count == 0)
+            throw new InvalidOperationException("Sequence was empty.");
+    }
+
+    @Override
+    public String toString() {
+        if(count == 0)
+            return "Statistics{count=0}";
+        return "Statistics{count=" + count + ", sum=" + sum.value() + ", min=" + min + ", max=" + max
+                + ", mean=" + mean + ", variance=" + variance() + "}";
+    }
+}
@@ -0,0 +1,56 @@
+package blaq.util;
+
+import java.util.Objects;
+
+/**
+ * A window of event time, {@code [start, end)}, and what was aggregated from the elements in it.
+ * @param <A> Type of the aggregate.
+ */
+public final class TimeWindow<A> {
+
+    private final long start;
+    private final long end;
+    private final A value;
+
+    public TimeWindow(long start, long end, A value){
+        this.start = start;
+        this.end = end;
+        this.value = value;
+    }
+
+    /**
+     * @return First time in the window.
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @return First time after the window.
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    public A getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(!(o instanceof TimeWindow))
+            return false;
+        TimeWindow<?> other = (TimeWindow<?>) o;
+        return start == other.start && end == other.end && Objects.equals(value, other.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(start, end, value);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + start + ", " + end + "): " + value;
+    }
+}
@@ -0,0 +1,68 @@
+package blaq.util;
+
+import blaq.core.NullArgumentException;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Where the watermark of an event time window operator ({@code tumblingWindows}, {@code sessionWindows}) is: the
+ * event time before which no more elements are expected. A window is yielded once the watermark reaches its end,
+ * and an element which would go into a window already yielded is late, and dropped.
+ * <ul>
+ *     <li>{@link #ofEvents(long)}: follows the latest timestamp read, {@code maxDelay} behind it; elements may come
+ *     up to {@code maxDelay} out of order.</li>
+ *     <li>{@link #ofClock(LongSupplier, long)}: follows a clock, {@code maxDelay} behind it, whatever the timestamps
+ *     read. The clock is asked each time an element is read, so a synthetic one makes windows come out exactly when
+ *     a test wants them to.</li>
+ * </ul>
+ * The watermark never goes back. Once the source is exhausted every window still open is yielded.
+ */
+public final class WatermarkPolicy {
+
+    private final long maxDelay;
+    private final LongSupplier clock;
+
+    private WatermarkPolicy(long maxDelay, LongSupplier clock){
+        this.maxDelay = maxDelay;
+        this.clock = clock;
+    }
+
+    /**
+     * @param maxDelay How far behind the latest timestamp an element may be and still be on time; at least 0.
+     */
+    public static WatermarkPolicy ofEvents(long maxDelay){
+        if(maxDelay < 0)
+            throw new IllegalArgumentException("maxDelay");
+        return new WatermarkPolicy(maxDelay, null);
+    }
+
+    /**
+     * @param clock Current time, in the same units as the timestamps.
+     * @param maxDelay How far behind {@code clock} an element may be and still be on time; at least 0.
+     */
+    public static WatermarkPolicy ofClock(LongSupplier clock, long maxDelay){
+        if(clock == null)
+            throw new NullArgumentException("clock");
+        if(maxDelay < 0)
+            throw new IllegalArgumentException("maxDelay");
+        return new WatermarkPolicy(maxDelay, clock);
+    }
+
+    public long maxDelay(){
+        return maxDelay;
+    }
+
+    /**
+     * @param latestTimestamp Latest timestamp read so far.
+     * @return The watermark this policy would give now; {@link Long#MIN_VALUE} rather than wrapping around.
+     */
+    public long watermark(long latestTimestamp){
+        long time = clock != null ? clock.getAsLong() : latestTimestamp;
+        return time < Long.MIN_VALUE + maxDelay ? Long.MIN_VALUE : time - maxDelay;
+    }
+
+    @Override
+    public String toString(){
+        return (clock != null ? "ofClock(" : "ofEvents(") + maxDelay + ")";
+    }
+}
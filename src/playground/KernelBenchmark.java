@@ -0,0 +1,76 @@
+package playground;
+
+import blaq.core.PrimitiveEnumerable;
+import blaq.util.Comparison;
+import blaq.util.DoubleBlaqIterable;
+import blaq.util.IntBlaqIterable;
+import blaq.util.LongBlaqIterable;
+
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * Times the array loops behind array backed primitive sequences against the same operators going through an
+ * iterator (the path taken by any other primitive sequence), over 2^20 random values.
+ * Not a rigorous benchmark: a few warm up rounds, then the best of several timed rounds. Run with a quiet machine.
+ */
+public class KernelBenchmark {
+
+    private static final int SIZE = 1 << 20;
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int TIMED_ROUNDS = 20;
+    private static final int RUNS_PER_ROUND = 20;
+
+    private static long sink;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        int[] ints = random.ints(SIZE, -1000, 1000).toArray();
+        long[] longs = random.longs(SIZE, -1L << 40, 1L << 40).toArray();
+        double[] doubles = random.doubles(SIZE).toArray();
+
+        IntBlaqIterable intArray = PrimitiveEnumerable.asBlaqIterable(ints);
+        IntBlaqIterable intIterator = intArray::iterator;
+        LongBlaqIterable longArray = PrimitiveEnumerable.asBlaqIterable(longs);
+        LongBlaqIterable longIterator = longArray::iterator;
+        DoubleBlaqIterable doubleArray = PrimitiveEnumerable.asBlaqIterable(doubles);
+        DoubleBlaqIterable doubleIterator = doubleArray::iterator;
+
+        compare("int sum", () -> intArray.sum(), () -> intIterator.sum());
+        compare("int min", () -> intArray.min(), () -> intIterator.min());
+        compare("int count(x < 0)", () -> intArray.count(Comparison.lessThan(0)),
+                () -> intIterator.count(x -> x < 0));
+        compare("int where(x < 0).sum", () -> intArray.where(Comparison.lessThan(0)).sum(),
+                () -> intIterator.where(x -> x < 0).sum());
+        compare("long sum", () -> longArray.sum(), () -> longIterator.sum());
+        compare("long max", () -> longArray.max(), () -> longIterator.max());
+        compare("double sum", () -> (long) doubleArray.sum(), () -> (long) doubleIterator.sum());
+        compare("double count(x >= 0.5)", () -> doubleArray.count(Comparison.greaterThanOrEqual(0.5)),
+                () -> doubleIterator.count(x -> x >= 0.5));
+        IntBlaqIterable range = PrimitiveEnumerable.range(0, SIZE);
+        IntBlaqIterable rangeIterator = range::iterator;
+        compare("range average", () -> (long) range.average(), () -> (long) rangeIterator.average());
+
+        System.out.println(sink == 42 ? "" : "(done)");
+    }
+
+    private static void compare(String name, LongSupplier kernel, LongSupplier iterator){
+        double kernelMicros = time(kernel);
+        double iteratorMicros = time(iterator);
+        System.out.printf("%-24s array %9.1f us   iterator %9.1f us   x%.1f%n",
+                name, kernelMicros, iteratorMicros, iteratorMicros / kernelMicros);
+    }
+
+    private static double time(LongSupplier op){
+        for(int i = 0; i < WARMUP_ROUNDS * RUNS_PER_ROUND; i++)
+            sink += op.getAsLong();
+        long best = Long.MAX_VALUE;
+        for(int round = 0; round < TIMED_ROUNDS; round++){
+            long start = System.nanoTime();
+            for(int i = 0; i < RUNS_PER_ROUND; i++)
+                sink += op.getAsLong();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / (RUNS_PER_ROUND * 1000.0);
+    }
+}
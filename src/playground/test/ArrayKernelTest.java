@@ -0,0 +1,142 @@
+package playground.test;
+
+import blaq.core.InvalidOperationException;
+import blaq.core.PrimitiveEnumerable;
+import blaq.util.Comparison;
+import blaq.util.DoubleBlaqIterable;
+import blaq.util.IntBlaqIterable;
+import blaq.util.LongBlaqIterable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+/**
+ * Array backed (and range) primitive sequences take their own paths through the aggregates and through
+ * where/count given a {@link Comparison}: they should agree with going through an iterator.
+ */
+public class ArrayKernelTest {
+
+    private static final int[] INTS = new Random(7).ints(5000, -100, 100).toArray();
+
+    private static IntBlaqIterable throughIterator(IntBlaqIterable src){
+        return src::iterator;
+    }
+
+    @Test
+    public void intAggregatesMatchIterator(){
+        IntBlaqIterable array = PrimitiveEnumerable.asBlaqIterable(INTS);
+        IntBlaqIterable iterated = throughIterator(array);
+        Assert.assertEquals(iterated.sum(), array.sum());
+        Assert.assertEquals(iterated.min(), array.min());
+        Assert.assertEquals(iterated.max(), array.max());
+        Assert.assertEquals(iterated.average(), array.average(), 0);
+    }
+
+    @Test
+    public void everyOperatorMatchesLambda(){
+        IntBlaqIterable array = PrimitiveEnumerable.asBlaqIterable(INTS);
+        Comparison.OfInt[] comparisons = {Comparison.lessThan(3), Comparison.lessThanOrEqual(3),
+                Comparison.equalTo(3), Comparison.notEqualTo(3), Comparison.greaterThanOrEqual(3),
+                Comparison.greaterThan(3)};
+        IntPredicate[] lambdas = {x -> x < 3, x -> x <= 3, x -> x == 3, x -> x != 3, x -> x >= 3, x -> x > 3};
+        for(int i = 0; i < comparisons.length; i++){
+            Assert.assertEquals(comparisons[i].toString(), throughIterator(array).count(lambdas[i]),
+                    array.count(comparisons[i]));
+            Assert.assertArrayEquals(comparisons[i].toString(), throughIterator(array).where(lambdas[i]).toArray(),
+                    array.where(comparisons[i]).toArray());
+        }
+    }
+
+    @Test
+    public void whereIsDeferred(){
+        int[] values = {1, 5, 2, 8};
+        IntBlaqIterable query = PrimitiveEnumerable.asBlaqIterable(values).where(Comparison.greaterThan(2));
+        values[0] = 10;
+        Assert.assertArrayEquals(new int[]{10, 5, 8}, query.toArray());
+    }
+
+    @Test
+    public void whereOverEmptyArray(){
+        Assert.assertFalse(PrimitiveEnumerable.asBlaqIterable(new int[0]).where(Comparison.lessThan(0))
+                .iterator().hasNext());
+    }
+
+    @Test
+    public void comparisonIsStillAPredicate(){
+        IntBlaqIterable range = PrimitiveEnumerable.range(0, 10);
+        Assert.assertEquals(3, range.count(Comparison.lessThan(3)));
+        Assert.assertArrayEquals(new int[]{8, 9}, range.where(Comparison.greaterThanOrEqual(8)).toArray());
+    }
+
+    @Test
+    public void longSumIsExact(){
+        // The running sum wraps past MAX_VALUE and back, but the total fits
+        LongBlaqIterable src = PrimitiveEnumerable.asBlaqIterable(new long[]{Long.MAX_VALUE, 1, -1});
+        Assert.assertEquals(Long.MAX_VALUE, src.sum());
+        Assert.assertEquals(Long.MAX_VALUE, throughIterator(src).sum());
+    }
+
+    private static LongBlaqIterable throughIterator(LongBlaqIterable src){
+        return src::iterator;
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void longSumOverflow(){
+        PrimitiveEnumerable.asBlaqIterable(new long[]{Long.MIN_VALUE, 5, -10}).sum();
+    }
+
+    @Test
+    public void longAverageOfOverflowingSum(){
+        LongBlaqIterable src = PrimitiveEnumerable.asBlaqIterable(new long[]{Long.MAX_VALUE, Long.MAX_VALUE});
+        Assert.assertEquals((double) Long.MAX_VALUE, src.average(), 0);
+    }
+
+    @Test(expected = InvalidOperationException.class)
+    public void maxOfEmptyArray(){
+        PrimitiveEnumerable.asBlaqIterable(new int[0]).max();
+    }
+
+    @Test
+    public void doubleMinAndMaxOrderLikeCompare(){
+        DoubleBlaqIterable src = PrimitiveEnumerable.asBlaqIterable(new double[]{0.0, Double.NaN, -0.0, 4});
+        Assert.assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(src.min()));
+        Assert.assertTrue(Double.isNaN(src.max()));
+        DoubleBlaqIterable nans = PrimitiveEnumerable.asBlaqIterable(new double[]{Double.NaN, Double.NaN});
+        Assert.assertTrue(Double.isNaN(nans.min()));
+    }
+
+    @Test
+    public void doubleComparisonsFollowOperators(){
+        DoubleBlaqIterable src = PrimitiveEnumerable.asBlaqIterable(new double[]{1, Double.NaN, 3});
+        Assert.assertEquals(0, src.count(Comparison.equalTo(Double.NaN)));
+        Assert.assertEquals(3, src.count(Comparison.notEqualTo(Double.NaN)));
+        Assert.assertArrayEquals(new double[]{3}, src.where(Comparison.greaterThan(2.0)).toArray(), 0);
+    }
+
+    @Test
+    public void rangeAggregates(){
+        IntBlaqIterable range = PrimitiveEnumerable.range(-5, 100);
+        Assert.assertEquals(throughIterator(range).sum(), range.sum());
+        Assert.assertEquals(-5, range.min());
+        Assert.assertEquals(94, range.max());
+        Assert.assertEquals(100, range.count());
+        Assert.assertEquals(44.5, range.average(), 0);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void rangeSumOverflow(){
+        PrimitiveEnumerable.range(0, 1 << 20).sum();
+    }
+
+    @Test(expected = InvalidOperationException.class)
+    public void minOfEmptyRange(){
+        PrimitiveEnumerable.range(3, 0).min();
+    }
+
+    @Test
+    public void comparisonToString(){
+        Assert.assertEquals("x <= 4", Comparison.lessThanOrEqual(4).toString());
+    }
+}
@@ -1,9 +1,19 @@
 package playground.test;
 
 import blaq.core.Enumerable;
+import blaq.util.BlaqIterable;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+
 public class AsBlaqIterableTest {
 
     @Test
@@ -18,4 +28,51 @@ public class AsBlaqIterableTest {
         Enumerable.asBlaqIterable(range);
     }
 
+    @Test
+    public void listIsWrappedNotCopied(){
+        List<Integer> src = new ArrayList<>(Arrays.asList(1, 2, 3));
+        BlaqIterable<Integer> wrapped = Enumerable.asBlaqIterable(src);
+        src.add(4);
+        Assert.assertEquals(4, wrapped.count());
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4), wrapped.toList());
+        Assert.assertTrue(wrapped instanceof List);
+        Assert.assertTrue(wrapped instanceof RandomAccess);
+        ((List<Integer>) wrapped).set(0, 10);
+        Assert.assertEquals(Integer.valueOf(10), src.get(0));
+    }
+
+    @Test
+    public void linkedListKeepsItsKind(){
+        LinkedList<String> src = new LinkedList<>(Arrays.asList("a", "b"));
+        BlaqIterable<String> wrapped = Enumerable.asBlaqIterable(src);
+        Assert.assertTrue(wrapped instanceof List);
+        Assert.assertFalse(wrapped instanceof RandomAccess);
+        src.addFirst("z");
+        Assert.assertEquals("z", wrapped.first());
+    }
+
+    @Test
+    public void setIsWrappedNotCopied(){
+        Set<String> src = new HashSet<>(Arrays.asList("a", "b"));
+        BlaqIterable<String> wrapped = Enumerable.asBlaqIterable(src);
+        Assert.assertTrue(wrapped instanceof Set);
+        src.add("c");
+        Assert.assertEquals(3, wrapped.count());
+        Assert.assertTrue(wrapped.contains("c"));
+    }
+
+    @Test
+    public void dequeKeepsItsOrder(){
+        ArrayDeque<Integer> src = new ArrayDeque<>(Arrays.asList(1, 2, 3));
+        BlaqIterable<Integer> wrapped = Enumerable.asBlaqIterable(src);
+        src.addLast(4);
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4), wrapped.toList());
+    }
+
+    @Test
+    public void blaqIterableIsReturnedAsIs(){
+        BlaqIterable<Integer> wrapped = Enumerable.asBlaqIterable(new ArrayList<>(Arrays.asList(1, 2)));
+        Assert.assertSame(wrapped, Enumerable.asBlaqIterable(wrapped));
+    }
+
 }
@@ -0,0 +1,71 @@
+package playground.test;
+
+import blaq.core.Enumerable;
+import blaq.core.NullArgumentException;
+import blaq.util.BloomFilter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class BloomFilterTest {
+
+    @Test(expected = NullArgumentException.class)
+    public void nullFilter(){
+        Enumerable.whereMaybeIn(Arrays.asList(1, 2), null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidFalsePositiveRate(){
+        new BloomFilter<Integer>(10, 1d);
+    }
+
+    @Test
+    public void noFalseNegatives(){
+        BloomFilter<Integer> bloom = BloomFilter.of(Enumerable.range(0, 10000));
+        for(int i = 0; i < 10000; i++)
+            Assert.assertTrue(bloom.mightContain(i));
+    }
+
+    @Test
+    public void falsePositiveRateIsRoughlyAsRequested(){
+        BloomFilter<Integer> bloom = new BloomFilter<>(10000, 0.01);
+        for(int i = 0; i < 10000; i++)
+            bloom.add(i);
+        int falsePositives = 0;
+        for(int i = 10000; i < 110000; i++)
+            if(bloom.mightContain(i))
+                falsePositives++;
+        Assert.assertTrue("false positives: " + falsePositives, falsePositives < 2000);
+    }
+
+    @Test
+    public void whereMaybeInKeepsAllMembers(){
+        BloomFilter<String> bloom = BloomFilter.of(Arrays.asList("a", "c"));
+        List<String> result = Enumerable.toList(Enumerable.whereMaybeIn(Arrays.asList("a", "b", "c"), bloom));
+        Assert.assertTrue(result.contains("a") && result.contains("c"));
+    }
+
+    @Test
+    public void prefilteredIntersectMatchesPlainOne(){
+        List<Integer> first = Arrays.asList(1, 5, 3, 5, 9, 2, 1, 8);
+        List<Integer> second = Arrays.asList(5, 8, 7, 1);
+
+        Assert.assertEquals(Enumerable.toList(Enumerable.intersect(first, second)),
+                Enumerable.toList(Enumerable.intersect(first, second, null, true)));
+    }
+
+    @Test
+    public void prefilteredJoinMatchesPlainJoin(){
+        List<String> outer = Arrays.asList("first", "second", "third", "fourth");
+        List<String> inner = Arrays.asList("essence", "offer", "eating", "psalm");
+
+        Iterable<String> plain = Enumerable.join(outer, inner, o -> o.charAt(0), i -> i.charAt(1),
+                (o, i) -> o + ":" + i);
+        Iterable<String> filtered = Enumerable.join(outer, inner, o -> o.charAt(0), i -> i.charAt(1),
+                (o, i) -> o + ":" + i, null, true);
+
+        Assert.assertEquals(Enumerable.toList(plain), Enumerable.toList(filtered));
+    }
+}
@@ -0,0 +1,106 @@
+package playground.test;
+
+import blaq.core.Enumerable;
+import blaq.core.PrimitiveEnumerable;
+import blaq.util.BlaqIterable;
+import blaq.util.CompensatedSum;
+import blaq.util.DoubleBlaqIterable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class CompensatedSumTest {
+
+    // Values spanning many orders of magnitude, which a plain running sum gets badly wrong
+    private static double[] values(int count){
+        Random random = new Random(11);
+        double[] values = new double[count];
+        for(int i = 0; i < count; i++)
+            values[i] = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20));
+        return values;
+    }
+
+    private static double exactSum(double[] values){
+        BigDecimal sum = BigDecimal.ZERO;
+        for(double value : values)
+            sum = sum.add(new BigDecimal(value));
+        return sum.doubleValue();
+    }
+
+    @Test
+    public void recoversLostLowBits(){
+        List<Double> src = Arrays.asList(1.0, 1e100, 1.0, -1e100);
+        Assert.assertEquals(2.0, Enumerable.doubleSum(src), 0);
+    }
+
+    @Test
+    public void floatSumDoesNotDrift(){
+        List<Float> src = new ArrayList<>(Collections.nCopies(1000000, 0.1f));
+        Assert.assertEquals(100000f, Enumerable.floatSum(src), 0.01f);
+    }
+
+    @Test
+    public void matchesExactSum(){
+        double[] values = values(100000);
+        Assert.assertEquals(exactSum(values), PrimitiveEnumerable.asBlaqIterable(values).sum(), 0);
+    }
+
+    @Test
+    public void overflowIsInfinityNotNaN(){
+        List<Double> src = Arrays.asList(Double.MAX_VALUE, Double.MAX_VALUE);
+        Assert.assertEquals(Double.POSITIVE_INFINITY, Enumerable.doubleSum(src), 0);
+        Assert.assertTrue(Double.isNaN(Enumerable.doubleSum(Arrays.asList(1.0, Double.NaN))));
+    }
+
+    @Test
+    public void mergeMatchesWhole(){
+        double[] values = values(10000);
+        CompensatedSum whole = new CompensatedSum();
+        CompensatedSum left = new CompensatedSum();
+        CompensatedSum right = new CompensatedSum();
+        for(int i = 0; i < values.length; i++){
+            whole.accept(values[i]);
+            (i < 4000 ? left : right).accept(values[i]);
+        }
+        Assert.assertEquals(whole.value(), left.merge(right).value(), 0);
+    }
+
+    @Test
+    public void parallelSumIsAccurateAndDeterministic(){
+        double[] values = values(200000);
+        DoubleBlaqIterable src = PrimitiveEnumerable.asBlaqIterable(values);
+        double single = src.parallelSum(1);
+        Assert.assertEquals(exactSum(values), single, 0);
+        for(int parallelism = 2; parallelism <= 5; parallelism++)
+            Assert.assertEquals(Double.doubleToLongBits(single), Double.doubleToLongBits(src.parallelSum(parallelism)));
+    }
+
+    @Test
+    public void parallelSumOfSmallAndEmpty(){
+        Assert.assertEquals(6.0, PrimitiveEnumerable.asBlaqIterable(new double[]{1, 2, 3}).parallelSum(), 0);
+        Assert.assertEquals(0.0, PrimitiveEnumerable.asBlaqIterable(new double[0]).parallelSum(), 0);
+    }
+
+    @Test
+    public void parallelQueryDoubleSumIsDeterministic(){
+        List<Double> src = new ArrayList<>();
+        for(double value : values(50000))
+            src.add(value);
+        BlaqIterable<Double> query = Enumerable.asBlaqIterable(src);
+        double expected = query.doubleSum(x -> x);
+        for(int parallelism = 1; parallelism <= 4; parallelism++)
+            Assert.assertEquals(Double.doubleToLongBits(expected),
+                    Double.doubleToLongBits(query.parallel(parallelism).doubleSum(x -> x)));
+    }
+
+    @Test
+    public void statisticsSumIsCompensated(){
+        Assert.assertEquals(2.0, Enumerable.stats(Arrays.asList(1.0, 1e100, 1.0, -1e100), x -> x).sum(), 0);
+    }
+}
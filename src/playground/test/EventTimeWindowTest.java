@@ -0,0 +1,119 @@
+package playground.test;
+
+import blaq.core.ArgumentOutOfRangeException;
+import blaq.core.Enumerable;
+import blaq.tools.Yield;
+import blaq.util.BlaqIterable;
+import blaq.util.TimeWindow;
+import blaq.util.WatermarkPolicy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class EventTimeWindowTest {
+
+    private static List<String> describe(Iterable<? extends TimeWindow<?>> windows){
+        List<String> result = new ArrayList<>();
+        for(TimeWindow<?> window : windows)
+            result.add(window.toString());
+        return result;
+    }
+
+    @Test
+    public void tumblingToleratesBoundedDisorder(){
+        List<Long> times = Arrays.asList(1L, 4L, 12L, 9L, 15L, 21L, 18L, 35L);
+        Iterable<TimeWindow<List<Long>>> windows = Enumerable.tumblingWindows(times, t -> t, 10,
+                WatermarkPolicy.ofEvents(5));
+        Assert.assertEquals(Arrays.asList("[0, 10): [1, 4, 9]", "[10, 20): [12, 15, 18]", "[20, 30): [21]",
+                "[30, 40): [35]"), describe(windows));
+    }
+
+    @Test
+    public void lateElementsAreDropped(){
+        List<Long> times = Arrays.asList(1L, 12L, 3L, 25L, 14L, 26L);
+        BlaqIterable<TimeWindow<Long>> counts = Enumerable.asBlaqIterable(times)
+                .tumblingWindows(t -> t, 10, WatermarkPolicy.ofEvents(0), () -> 0L, (count, t) -> count + 1);
+        Assert.assertEquals(Arrays.asList("[0, 10): 1", "[10, 20): 1", "[20, 30): 2"), describe(counts));
+    }
+
+    @Test
+    public void endlessSourceYieldsWindowsAsWatermarkPasses(){
+        AtomicInteger reads = new AtomicInteger();
+        Iterable<Long> endless = (Yield<Long>) yield -> {
+            for(long t = 0; ; t += 3){
+                reads.incrementAndGet();
+                yield.returning(t);
+            }
+        };
+        Iterator<TimeWindow<Long>> sums = Enumerable.tumblingWindows(endless, t -> t, 10, WatermarkPolicy.ofEvents(0),
+                () -> 0L, Long::sum).iterator();
+        Assert.assertEquals(new TimeWindow<>(0, 10, 0L + 3 + 6 + 9), sums.next());
+        // Read up to 12, the first time at or past the end of [0, 10)
+        Assert.assertEquals(5, reads.get());
+        Assert.assertEquals(new TimeWindow<>(10, 20, 12L + 15 + 18), sums.next());
+        Assert.assertEquals(new TimeWindow<>(20, 30, 21L + 24 + 27), sums.next());
+    }
+
+    @Test
+    public void sessionsCloseAfterGapAndMerge(){
+        // 6 arrives late but within the delay, and bridges [1, 7) and [10, 15)
+        List<Long> times = Arrays.asList(1L, 2L, 10L, 6L, 30L, 31L, 50L);
+        Iterable<TimeWindow<List<Long>>> sessions = Enumerable.sessionWindows(times, t -> t, 5,
+                WatermarkPolicy.ofEvents(5));
+        Assert.assertEquals(Arrays.asList("[1, 15): [1, 2, 6, 10]", "[30, 36): [30, 31]", "[50, 55): [50]"),
+                describe(sessions));
+    }
+
+    @Test
+    public void sessionsKeepOnlyOpenState(){
+        Iterable<Long> endless = (Yield<Long>) yield -> {
+            for(long burst = 0; ; burst++)
+                for(int i = 0; i < 3; i++)
+                    yield.returning(burst * 100 + i);
+        };
+        BlaqIterable<TimeWindow<Integer>> sizes = Enumerable.asBlaqIterable(endless).sessionWindows(t -> t, 10,
+                WatermarkPolicy.ofEvents(0), () -> 0, (n, t) -> n + 1, Integer::sum);
+        Assert.assertEquals(Arrays.asList("[0, 12): 3", "[100, 112): 3", "[200, 212): 3"),
+                describe(sizes.take(3)));
+    }
+
+    @Test
+    public void syntheticClockDrivesTheWatermark(){
+        AtomicLong clock = new AtomicLong();
+        long[][] events = {{0, 1}, {0, 2}, {5, 3}, {12, 14}, {25, 15}, {25, 2}, {40, 31}};
+        // Each event is {clock when it arrives, event time}
+        Iterable<Long> src = () -> new Iterator<Long>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < events.length;
+            }
+
+            @Override
+            public Long next() {
+                clock.set(events[next][0]);
+                return events[next++][1];
+            }
+        };
+        Iterator<TimeWindow<List<Long>>> windows = Enumerable.tumblingWindows(src, t -> t, 10,
+                WatermarkPolicy.ofClock(clock::get, 5)).iterator();
+        // Clock at 25 puts the watermark at 20: [0, 10) and [10, 20) are done, so the 2 read next is late
+        Assert.assertEquals("[0, 10): [1, 2, 3]", windows.next().toString());
+        Assert.assertEquals("[10, 20): [14, 15]", windows.next().toString());
+        Assert.assertEquals(25, clock.get());
+        Assert.assertEquals("[30, 40): [31]", windows.next().toString());
+        Assert.assertFalse(windows.hasNext());
+    }
+
+    @Test(expected = ArgumentOutOfRangeException.class)
+    public void widthMustBePositive(){
+        Enumerable.tumblingWindows(Arrays.asList(1L), t -> t, 0, WatermarkPolicy.ofEvents(0));
+    }
+}
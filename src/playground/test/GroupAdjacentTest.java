@@ -0,0 +1,102 @@
+package playground.test;
+
+import blaq.core.Enumerable;
+import blaq.core.NullArgumentException;
+import blaq.tools.Yield;
+import blaq.util.BlaqIterable;
+import blaq.util.IGrouping;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class GroupAdjacentTest {
+
+    @Test
+    public void groupsRuns(){
+        List<String> src = Arrays.asList("a1", "a2", "b1", "a3", "a4", "c1");
+        Assert.assertEquals(Arrays.asList("a=[a1, a2]", "b=[b1]", "a=[a3, a4]", "c=[c1]"),
+                TestExtensions.describe(Enumerable.groupAdjacent(src, x -> x.charAt(0))));
+    }
+
+    @Test
+    public void elementSelectorAndNullKeys(){
+        List<Integer> src = Arrays.asList(1, 3, null, null, 2);
+        Iterable<IGrouping<Boolean, String>> groups = Enumerable.groupAdjacent(src,
+                x -> x == null ? null : x % 2 == 0, x -> String.valueOf(x));
+        Assert.assertEquals(Arrays.asList("false=[1, 3]", "null=[null, null]", "true=[2]"),
+                TestExtensions.describe(groups));
+    }
+
+    @Test
+    public void emptySequenceHasNoGroups(){
+        Assert.assertFalse(Enumerable.any(Enumerable.groupAdjacent(new ArrayList<String>(), x -> x)));
+    }
+
+    @Test
+    public void yieldsEachGroupOnceItsRunEnds(){
+        AtomicInteger reads = new AtomicInteger();
+        Iterable<Integer> endless = (Yield<Integer>) yield -> {
+            for(int i = 0; ; i++){
+                reads.incrementAndGet();
+                yield.returning(i);
+            }
+        };
+        Iterator<IGrouping<Integer, Integer>> groups = Enumerable.groupAdjacent(endless, x -> x / 10).iterator();
+        IGrouping<Integer, Integer> first = groups.next();
+        Assert.assertEquals(Integer.valueOf(0), first.getKey());
+        Assert.assertEquals(10, Enumerable.count(first));
+        Assert.assertEquals(11, reads.get());
+        IGrouping<Integer, Integer> second = groups.next();
+        Assert.assertEquals(Integer.valueOf(19), Enumerable.last(second));
+    }
+
+    @Test
+    public void groupByOnSameOrderingStreams(){
+        Function<String, Integer> length = String::length;
+        List<String> src = new ArrayList<>(Arrays.asList("ccc", "a", "bb", "d", "ee"));
+        BlaqIterable<IGrouping<Integer, String>> groups = Enumerable.asBlaqIterable(src).orderBy(length).groupBy(length);
+        // Deferred now, rather than building a lookup straight away
+        src.add("ffff");
+        Assert.assertEquals(Arrays.asList("1=[a, d]", "2=[bb, ee]", "3=[ccc]", "4=[ffff]"),
+                TestExtensions.describe(groups));
+
+        List<String> descending = TestExtensions.describe(
+                Enumerable.groupBy(Enumerable.orderByDescending(src, length), length));
+        Assert.assertEquals(Arrays.asList("4=[ffff]", "3=[ccc]", "2=[bb, ee]", "1=[a, d]"), descending);
+    }
+
+    @Test
+    public void groupByOnSameOrderingSplitsKeysThatTieButDiffer(){
+        // 1.0 and 1.00 compare equal, so sorting leaves them in place, but they aren't equal keys
+        List<BigDecimal> src = Arrays.asList(new BigDecimal("1.0"), new BigDecimal("1.00"), new BigDecimal("1.0"),
+                new BigDecimal("0.5"));
+        Function<BigDecimal, BigDecimal> identity = x -> x;
+        List<String> expected = TestExtensions.describe(
+                Enumerable.groupBy(Enumerable.toList(Enumerable.orderBy(src, identity)), identity));
+        Assert.assertEquals(Arrays.asList("0.5=[0.5]", "1.0=[1.0, 1.0]", "1.00=[1.00]"), expected);
+        Assert.assertEquals(expected,
+                TestExtensions.describe(Enumerable.groupBy(Enumerable.orderBy(src, identity), identity)));
+        Assert.assertEquals(Arrays.asList("1.0=[1.0, 1.0]", "1.00=[1.00]", "0.5=[0.5]"),
+                TestExtensions.describe(Enumerable.groupBy(Enumerable.orderByDescending(src, identity), identity)));
+    }
+
+    @Test
+    public void groupByOnOtherOrderingStillGroupsWholeSequence(){
+        List<String> src = Arrays.asList("ab", "b", "aa", "c");
+        Iterable<IGrouping<Character, String>> groups =
+                Enumerable.groupBy(Enumerable.orderBy(src, String::length), x -> x.charAt(0));
+        Assert.assertEquals(Arrays.asList("b=[b]", "c=[c]", "a=[ab, aa]"), TestExtensions.describe(groups));
+    }
+
+    @Test(expected = NullArgumentException.class)
+    public void nullKeyFunctionThrows(){
+        Enumerable.groupAdjacent(Arrays.asList(1), null);
+    }
+}
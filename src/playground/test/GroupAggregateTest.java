@@ -0,0 +1,138 @@
+package playground.test;
+
+import blaq.core.Enumerable;
+import blaq.core.NullArgumentException;
+import blaq.util.BlaqIterable;
+import blaq.util.ICompareEquality;
+import blaq.util.Tuple2;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class GroupAggregateTest {
+
+    private static <K, V> Map<K, V> toMap(Iterable<Tuple2<K, V>> pairs){
+        Map<K, V> map = new LinkedHashMap<>();
+        for(Tuple2<K, V> pair : pairs)
+            map.put(pair.getItem1(), pair.getItem2());
+        return map;
+    }
+
+    @Test
+    public void countByKeepsFirstSeenOrder(){
+        List<String> src = Arrays.asList("b", "a", "b", "c", "a", "b");
+        Map<String, Long> counts = toMap(Enumerable.countBy(src, x -> x));
+        Assert.assertEquals(Arrays.asList("b", "a", "c"), new ArrayList<>(counts.keySet()));
+        Assert.assertEquals(Long.valueOf(3), counts.get("b"));
+        Assert.assertEquals(Long.valueOf(2), counts.get("a"));
+        Assert.assertEquals(Long.valueOf(1), counts.get("c"));
+    }
+
+    @Test
+    public void countByManyKeysMatchesGroupBy(){
+        List<Integer> src = new ArrayList<>();
+        for(int i = 0; i < 100000; i++)
+            src.add((i * 7919) % 5003);
+        Map<Integer, Long> counts = toMap(Enumerable.countBy(src, x -> x));
+        Assert.assertEquals(5003, counts.size());
+        for(Integer key : Enumerable.take(src, 100))
+            Assert.assertEquals(Enumerable.count(src, x -> x.equals(key)), counts.get(key).intValue());
+    }
+
+    @Test
+    public void nullKeyIsAGroup(){
+        Map<String, Long> counts = toMap(Enumerable.countBy(Arrays.asList("a", null, "a", null, null), x -> x));
+        Assert.assertEquals(Long.valueOf(3), counts.get(null));
+        Assert.assertEquals(Long.valueOf(2), counts.get("a"));
+    }
+
+    @Test
+    public void countByHonoursEquality(){
+        ICompareEquality<String> ignoreCase = new ICompareEquality<String>() {
+            @Override
+            public boolean equals(String a, String b) {
+                return a.equalsIgnoreCase(b);
+            }
+
+            @Override
+            public int hashCode(String s) {
+                return s.toLowerCase().hashCode();
+            }
+        };
+        Map<String, Long> counts = toMap(Enumerable.countBy(Arrays.asList("A", "a", "B"), x -> x, ignoreCase));
+        Assert.assertEquals(Long.valueOf(2), counts.get("A"));
+        Assert.assertEquals(Long.valueOf(1), counts.get("B"));
+    }
+
+    @Test
+    public void groupAggregateFoldsPerKey(){
+        BlaqIterable<String> src = Enumerable.asBlaqIterable(Arrays.asList("apple", "avocado", "banana", "blueberry"));
+        Map<Character, String> joined = toMap(src.groupAggregate(x -> x.charAt(0), StringBuilder::new,
+                (sb, x) -> sb.append(x.length())).project(p -> new Tuple2<>(p.getItem1(), p.getItem2().toString())));
+        Assert.assertEquals("57", joined.get('a'));
+        Assert.assertEquals("69", joined.get('b'));
+    }
+
+    @Test
+    public void groupAggregateIsDeferred(){
+        List<Integer> src = new ArrayList<>(Arrays.asList(1, 2));
+        Iterable<Tuple2<Boolean, Integer>> sums = Enumerable.groupAggregate(src, x -> x % 2 == 0, () -> 0, Integer::sum);
+        src.add(4);
+        Assert.assertEquals(Integer.valueOf(6), toMap(sums).get(true));
+    }
+
+    @Test
+    public void sumLongByOnlyFinalSumHasToFit(){
+        List<Long> src = Arrays.asList(Long.MAX_VALUE, 10L, -20L, 5L);
+        Map<Integer, Long> sums = toMap(Enumerable.sumLongBy(src, x -> 0, x -> x));
+        Assert.assertEquals(Long.valueOf(Long.MAX_VALUE - 5), sums.get(0));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void sumLongByOverflowThrows(){
+        Enumerable.toList(Enumerable.sumLongBy(Arrays.asList(Long.MAX_VALUE, 1L), x -> 0, x -> x));
+    }
+
+    @Test
+    public void sumDoubleByIsCompensated(){
+        Map<String, Double> sums = toMap(Enumerable.sumDoubleBy(Arrays.asList(1.0, 1e100, 1.0, -1e100), x -> "k", x -> x));
+        Assert.assertEquals(2.0, sums.get("k"), 0);
+    }
+
+    @Test
+    public void minAndMaxByKeyKeepFirstOnTies(){
+        List<String> src = Arrays.asList("aa", "ab", "a", "bbb", "bb", "bcd");
+        Map<Character, String> shortest = toMap(Enumerable.minByKey(src, x -> x.charAt(0), String::length));
+        Map<Character, String> longest = toMap(Enumerable.maxByKey(src, x -> x.charAt(0), String::length));
+        Assert.assertEquals("a", shortest.get('a'));
+        Assert.assertEquals("bb", shortest.get('b'));
+        Assert.assertEquals("aa", longest.get('a'));
+        Assert.assertEquals("bbb", longest.get('b'));
+    }
+
+    @Test
+    public void parallelGroupAggregateMatchesSequential(){
+        List<Integer> src = new ArrayList<>();
+        for(int i = 0; i < 50000; i++)
+            src.add(i % 97);
+        BlaqIterable<Integer> query = Enumerable.asBlaqIterable(src);
+        Map<Integer, Long> sequential = toMap(query.countBy(x -> x % 13));
+        for(int parallelism = 1; parallelism <= 4; parallelism++){
+            BlaqIterable<Tuple2<Integer, Long>> parallel = query.parallel(parallelism).countBy(x -> x % 13);
+            Assert.assertEquals(new ArrayList<>(sequential.entrySet()), new ArrayList<>(toMap(parallel).entrySet()));
+            Map<Integer, Integer> sums = toMap(query.parallel(parallelism)
+                    .groupAggregate(x -> x % 13, () -> 0, Integer::sum, Integer::sum));
+            Assert.assertEquals(toMap(query.groupAggregate(x -> x % 13, () -> 0, Integer::sum)), sums);
+        }
+    }
+
+    @Test(expected = NullArgumentException.class)
+    public void nullKeyFunctionThrows(){
+        Enumerable.countBy(Arrays.asList(1), null);
+    }
+}
@@ -0,0 +1,114 @@
+package playground.test;
+
+import blaq.core.ArgumentOutOfRangeException;
+import blaq.core.Enumerable;
+import blaq.util.BlaqIterable;
+import blaq.util.HyperLogLog;
+import blaq.util.Tuple2;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class HyperLogLogTest {
+
+    private static List<String> ids(int from, int to){
+        List<String> ids = new ArrayList<>(to - from);
+        for(int i = from; i < to; i++)
+            ids.add("user-" + i);
+        return ids;
+    }
+
+    private static void assertClose(long expected, long actual, double relativeError){
+        Assert.assertTrue("expected ~" + expected + " but was " + actual,
+                Math.abs(actual - expected) <= Math.max(1, expected * relativeError));
+    }
+
+    @Test
+    public void estimatesAreWithinErrorBounds(){
+        for(int count : new int[]{1, 10, 100, 1000, 10000, 200000}){
+            List<String> src = ids(0, count);
+            // Three standard errors: 1.04 / sqrt(2^12) is about 1.6%
+            assertClose(count, Enumerable.approxCountDistinct(src, x -> x), 0.05);
+            assertClose(count, Enumerable.approxCountDistinct(src, x -> x, 16), 0.015);
+        }
+    }
+
+    @Test
+    public void duplicatesDontCount(){
+        List<Integer> src = new ArrayList<>();
+        for(int i = 0; i < 100000; i++)
+            src.add(i % 5000);
+        BlaqIterable<Integer> query = Enumerable.asBlaqIterable(src);
+        assertClose(5000, query.approxCountDistinct(x -> x), 0.05);
+        assertClose(50, query.approxCountDistinct(x -> x % 50, 14), 0.02);
+        Assert.assertEquals(1, query.approxCountDistinct(x -> null));
+        Assert.assertEquals(0, Enumerable.approxCountDistinct(new ArrayList<Integer>(), x -> x));
+    }
+
+    @Test
+    public void mergeIsTheSketchOfTheUnion(){
+        HyperLogLog monday = Enumerable.hyperLogLog(ids(0, 6000), x -> x, 14);
+        HyperLogLog tuesday = Enumerable.hyperLogLog(ids(4000, 10000), x -> x, 14);
+        HyperLogLog both = Enumerable.hyperLogLog(ids(0, 10000), x -> x, 14);
+        Assert.assertEquals(both, new HyperLogLog(14).merge(monday).merge(tuesday));
+        assertClose(10000, monday.merge(tuesday).estimate(), 0.03);
+    }
+
+    @Test
+    public void sketchesRoundTrip() throws Exception {
+        HyperLogLog sketch = Enumerable.hyperLogLog(ids(0, 3000), x -> x, 10);
+        HyperLogLog read = HyperLogLog.fromBytes(sketch.toBytes());
+        Assert.assertEquals(sketch, read);
+        Assert.assertEquals(sketch.estimate(), read.estimate());
+        Assert.assertEquals((1 << 10) + 2, sketch.toBytes().length);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(ObjectOutputStream out = new ObjectOutputStream(bytes)){
+            out.writeObject(sketch);
+        }
+        try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))){
+            Assert.assertEquals(sketch, in.readObject());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void corruptBytesAreRejected(){
+        byte[] bytes = new HyperLogLog(8).toBytes();
+        bytes[5] = 100;
+        HyperLogLog.fromBytes(bytes);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void precisionsMustMatchToMerge(){
+        new HyperLogLog(10).merge(new HyperLogLog(12));
+    }
+
+    @Test
+    public void perGroupAndParallel(){
+        List<Integer> src = new ArrayList<>();
+        for(int i = 0; i < 60000; i++)
+            src.add(i);
+        BlaqIterable<Integer> query = Enumerable.asBlaqIterable(src);
+        // Group i % 3 holds every number with that remainder: 20000 distinct values of x / 2
+        BlaqIterable<Tuple2<Integer, HyperLogLog>> perGroup = query.parallel(4).groupAggregate(x -> x % 3,
+                () -> new HyperLogLog(14), (sketch, x) -> sketch.add(x / 2), HyperLogLog::merge);
+        Assert.assertEquals(Arrays.asList(0, 1, 2), perGroup.project(Tuple2::getItem1).toList());
+        for(Tuple2<Integer, HyperLogLog> group : perGroup)
+            assertClose(20000, group.getItem2().estimate(), 0.03);
+
+        Assert.assertEquals(query.approxCountDistinct(x -> x / 2, 14),
+                query.parallel(4).approxCountDistinct(x -> x / 2, 14));
+    }
+
+    @Test(expected = ArgumentOutOfRangeException.class)
+    public void precisionMustBeInRange(){
+        Enumerable.approxCountDistinct(Arrays.asList(1), x -> x, 19);
+    }
+}
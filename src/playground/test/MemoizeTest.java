@@ -0,0 +1,196 @@
+package playground.test;
+
+import blaq.core.Enumerable;
+import blaq.core.InvalidOperationException;
+import blaq.tools.Yield;
+import blaq.util.BlaqIterable;
+import blaq.util.BufferPolicy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MemoizeTest {
+
+    // Counts how many elements are read from it, over all its iterations
+    private static Iterable<Integer> counted(int count, AtomicInteger reads){
+        return (Yield<Integer>) yield -> {
+            for(int i = 0; i < count; i++){
+                reads.incrementAndGet();
+                yield.returning(i);
+            }
+        };
+    }
+
+    @Test
+    public void memoizeReadsSourceOnce(){
+        AtomicInteger reads = new AtomicInteger();
+        Iterable<Integer> memoized = Enumerable.memoize(counted(5, reads));
+        Assert.assertEquals(0, reads.get());
+        Assert.assertEquals(TestExtensions.numbers(5), Enumerable.toList(memoized));
+        Assert.assertEquals(TestExtensions.numbers(5), Enumerable.toList(memoized));
+        Assert.assertEquals(5, reads.get());
+    }
+
+    @Test
+    public void memoizeOnlyReadsAsFarAsAsked(){
+        AtomicInteger reads = new AtomicInteger();
+        BlaqIterable<Integer> memoized = Enumerable.asBlaqIterable(counted(100, reads)).memoize();
+        Assert.assertEquals(TestExtensions.numbers(3), memoized.take(3).toList());
+        Assert.assertEquals(3, reads.get());
+        Assert.assertEquals(TestExtensions.numbers(5), memoized.take(5).toList());
+        Assert.assertEquals(5, reads.get());
+    }
+
+    @Test
+    public void memoizeInterleavedIterations(){
+        Iterable<Integer> memoized = Enumerable.memoize(counted(4, new AtomicInteger()));
+        Iterator<Integer> first = memoized.iterator();
+        Iterator<Integer> second = memoized.iterator();
+        Assert.assertEquals(Integer.valueOf(0), first.next());
+        Assert.assertEquals(Integer.valueOf(1), first.next());
+        Assert.assertEquals(Integer.valueOf(0), second.next());
+        Assert.assertEquals(Integer.valueOf(2), first.next());
+        Assert.assertEquals(Integer.valueOf(1), second.next());
+    }
+
+    @Test
+    public void memoizeDroppingOldestReplaysTheLatest(){
+        Iterable<Integer> memoized = Enumerable.memoize(TestExtensions.numbers(10), BufferPolicy.dropOldest(3));
+        Assert.assertEquals(TestExtensions.numbers(10), Enumerable.toList(memoized));
+        Assert.assertEquals(Arrays.asList(7, 8, 9), Enumerable.toList(memoized));
+    }
+
+    @Test(expected = InvalidOperationException.class)
+    public void memoizeFailsPastCapacity(){
+        Enumerable.toList(Enumerable.memoize(TestExtensions.numbers(10), BufferPolicy.fail(5)));
+    }
+
+    @Test
+    public void teeCopiesSeeEverything(){
+        AtomicInteger reads = new AtomicInteger();
+        List<BlaqIterable<Integer>> copies = Enumerable.asBlaqIterable(counted(6, reads)).tee(3);
+        Assert.assertEquals(3, copies.size());
+        for(BlaqIterable<Integer> copy : copies)
+            Assert.assertEquals(TestExtensions.numbers(6), copy.toList());
+        Assert.assertEquals(6, reads.get());
+    }
+
+    @Test(expected = InvalidOperationException.class)
+    public void teeCopyIteratesOnce(){
+        List<Iterable<Integer>> copies = Enumerable.tee(TestExtensions.numbers(3), 2);
+        Enumerable.toList(copies.get(0));
+        Enumerable.toList(copies.get(0));
+    }
+
+    @Test
+    public void teeWithinCapacityInLockStep(){
+        List<Iterable<Integer>> copies = Enumerable.tee(TestExtensions.numbers(1000), 2, BufferPolicy.fail(2));
+        Iterator<Integer> left = copies.get(0).iterator();
+        Iterator<Integer> right = copies.get(1).iterator();
+        for(int i = 0; i < 1000; i++){
+            Assert.assertEquals(Integer.valueOf(i), left.next());
+            Assert.assertEquals(Integer.valueOf(i), right.next());
+        }
+        Assert.assertFalse(left.hasNext());
+        Assert.assertFalse(right.hasNext());
+    }
+
+    @Test(expected = InvalidOperationException.class)
+    public void teeFailsWhenCopiesDriftApart(){
+        List<Iterable<Integer>> copies = Enumerable.tee(TestExtensions.numbers(10), 2, BufferPolicy.fail(4));
+        Enumerable.toList(copies.get(0));
+    }
+
+    @Test
+    public void teeDroppingOldestSkipsForLaggingCopy(){
+        List<Iterable<Integer>> copies = Enumerable.tee(TestExtensions.numbers(10), 2, BufferPolicy.dropOldest(4));
+        Assert.assertEquals(TestExtensions.numbers(10), Enumerable.toList(copies.get(0)));
+        Assert.assertEquals(Arrays.asList(6, 7, 8, 9), Enumerable.toList(copies.get(1)));
+    }
+
+    @Test
+    public void teeBlockingOnThreads() throws Exception {
+        AtomicInteger reads = new AtomicInteger();
+        List<Iterable<Integer>> copies = Enumerable.tee(counted(10000, reads), 3, BufferPolicy.block(8));
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<List<Integer>>> results = new ArrayList<>();
+            for(Iterable<Integer> copy : copies)
+                results.add(pool.submit(() -> Enumerable.toList(copy)));
+            for(Future<List<Integer>> result : results)
+                Assert.assertEquals(TestExtensions.numbers(10000), result.get());
+        } finally {
+            pool.shutdown();
+        }
+        Assert.assertEquals(10000, reads.get());
+    }
+
+    @Test
+    public void shareSplitsOnePassBetweenIterations(){
+        AtomicInteger reads = new AtomicInteger();
+        Iterable<Integer> shared = Enumerable.share(counted(6, reads));
+        Iterator<Integer> first = shared.iterator();
+        Assert.assertEquals(Integer.valueOf(0), first.next());
+        Iterator<Integer> second = shared.iterator();
+        List<Integer> fromFirst = new ArrayList<>();
+        List<Integer> fromSecond = new ArrayList<>();
+        while(first.hasNext() || second.hasNext()){
+            if(first.hasNext())
+                fromFirst.add(first.next());
+            if(second.hasNext())
+                fromSecond.add(second.next());
+        }
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5), fromFirst);
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5), fromSecond);
+        Assert.assertEquals(6, reads.get());
+    }
+
+    @Test
+    public void shareStartsNewPassOnceFinished(){
+        AtomicInteger reads = new AtomicInteger();
+        Iterable<Integer> shared = Enumerable.share(counted(3, reads));
+        Assert.assertEquals(TestExtensions.numbers(3), Enumerable.toList(shared));
+        Assert.assertEquals(TestExtensions.numbers(3), Enumerable.toList(shared));
+        Assert.assertEquals(6, reads.get());
+    }
+
+    @Test
+    public void shortCircuitingOperatorsDontPinTheBuffer(){
+        BlaqIterable<Integer> shared = Enumerable.asBlaqIterable(
+                Enumerable.share(counted(10, new AtomicInteger()), BufferPolicy.fail(4)));
+        Assert.assertEquals(Integer.valueOf(0), shared.first());
+        Assert.assertTrue(shared.any());
+        Assert.assertTrue(shared.contains(3));
+        Assert.assertFalse(shared.all(x -> x < 5));
+        Assert.assertEquals(Arrays.asList(6, 7, 8, 9), shared.toList());
+    }
+
+    @Test
+    public void droppedIteratorStopsPinningTheBuffer(){
+        Iterable<Integer> shared = Enumerable.share(TestExtensions.numbers(100), BufferPolicy.fail(4));
+        Iterator<Integer> abandoned = shared.iterator();
+        abandoned.next();
+        WeakReference<Iterator<Integer>> collected = new WeakReference<>(abandoned);
+        abandoned = null;
+        for(int i = 0; i < 50 && collected.get() != null; i++)
+            System.gc();
+        Assert.assertNull(collected.get());
+        Assert.assertEquals(99, Enumerable.count(shared));
+    }
+
+    @Test
+    public void nullElementsAreBuffered(){
+        Iterable<String> memoized = Enumerable.memoize(Arrays.asList("a", null, "b"));
+        Assert.assertEquals(Arrays.asList("a", null, "b"), Enumerable.toList(memoized));
+        Assert.assertEquals(Arrays.asList("a", null, "b"), Enumerable.toList(memoized));
+    }
+}
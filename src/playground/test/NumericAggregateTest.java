@@ -0,0 +1,137 @@
+package playground.test;
+
+import blaq.core.Enumerable;
+import blaq.core.InvalidOperationException;
+import blaq.core.NullArgumentException;
+import blaq.tools.Yield;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+public class NumericAggregateTest {
+
+    @Test
+    public void legacySumCallsSelectorOnce(){
+        AtomicInteger calls = new AtomicInteger();
+        int sum = Enumerable.sum(Arrays.asList(1, 2, 3, 4), x -> {
+            calls.incrementAndGet();
+            return x;
+        });
+        Assert.assertEquals(10, sum);
+        Assert.assertEquals(4, calls.get());
+    }
+
+    @Test
+    public void typedSumCallsSelectorOnce(){
+        AtomicInteger calls = new AtomicInteger();
+        int sum = Enumerable.sumInt(Arrays.asList("a", "bb", "ccc"), x -> {
+            calls.incrementAndGet();
+            return x.length();
+        });
+        Assert.assertEquals(6, sum);
+        Assert.assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void sumOfEmptyIsZero(){
+        Assert.assertEquals(0, Enumerable.sumInt(new ArrayList<Integer>(), x -> x));
+        Assert.assertEquals(0L, Enumerable.sumLong(new ArrayList<Long>(), x -> x));
+        Assert.assertEquals(0.0, Enumerable.sumDouble(new ArrayList<Double>(), x -> x), 0);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void intSumOverflowThrows(){
+        Enumerable.sumInt(Arrays.asList(Integer.MAX_VALUE, 1), x -> x);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void negativeIntSumOverflowThrows(){
+        Enumerable.sumInt(Arrays.asList(Integer.MIN_VALUE, Integer.MIN_VALUE), x -> x);
+    }
+
+    @Test
+    public void intSumMayPassThroughOverflowingPartialSums(){
+        // Totalled as a long, so only the final result has to fit
+        Assert.assertEquals(Integer.MAX_VALUE - 1,
+                Enumerable.sumInt(Arrays.asList(Integer.MAX_VALUE, Integer.MAX_VALUE, -Integer.MAX_VALUE - 1), x -> x));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void longSumOverflowThrows(){
+        Enumerable.sumLong(Arrays.asList(Long.MAX_VALUE, 1L), x -> x);
+    }
+
+    @Test
+    public void averageOfOverflowingLongs(){
+        double average = Enumerable.averageLong(Arrays.asList(Long.MAX_VALUE, Long.MAX_VALUE), x -> x);
+        Assert.assertEquals((double) Long.MAX_VALUE, average, 1e3);
+    }
+
+    @Test
+    public void averageIsSinglePass(){
+        // A Yield can only be iterated once
+        Iterable<Integer> src = (Yield<Integer>) yield -> {
+            for(int i = 1; i <= 4; i++)
+                yield.returning(i);
+        };
+        Assert.assertEquals(2.5, Enumerable.averageInt(src, x -> x), 0);
+    }
+
+    @Test
+    public void boxedAverageIsSinglePass(){
+        Iterable<Integer> src = (Yield<Integer>) yield -> {
+            for(int i = 1; i <= 4; i++)
+                yield.returning(i);
+        };
+        Assert.assertEquals(2.5, Enumerable.average(src), 0);
+    }
+
+    @Test
+    public void boxedAverageOfMixedNumbers(){
+        List<Number> src = Arrays.asList(1, 2L, 3.5, 1.5f);
+        Assert.assertEquals(2.0, Enumerable.average(src), 0);
+    }
+
+    @Test(expected = InvalidOperationException.class)
+    public void averageOfEmptyThrows(){
+        Enumerable.averageDouble(new ArrayList<Double>(), x -> x);
+    }
+
+    @Test(expected = InvalidOperationException.class)
+    public void minOfEmptyThrows(){
+        Enumerable.minInt(new ArrayList<Integer>(), x -> x);
+    }
+
+    @Test
+    public void minAndMax(){
+        List<String> src = Arrays.asList("ccc", "a", "bbbb", "bb");
+        Assert.assertEquals(1, Enumerable.minInt(src, String::length));
+        Assert.assertEquals(4, Enumerable.maxInt(src, String::length));
+        Assert.assertEquals(1L, Enumerable.minLong(src, String::length));
+        Assert.assertEquals(4L, Enumerable.maxLong(src, String::length));
+    }
+
+    @Test
+    public void doubleMaxTreatsNaNAsGreatest(){
+        List<Double> src = Arrays.asList(1.0, Double.NaN, -3.0);
+        Assert.assertTrue(Double.isNaN(Enumerable.maxDouble(src, x -> x)));
+        Assert.assertEquals(-3.0, Enumerable.minDouble(src, x -> x), 0);
+    }
+
+    @Test
+    public void fromBlaqIterable(){
+        Assert.assertEquals(6, Enumerable.asBlaqIterable(Arrays.asList("a", "bb", "ccc")).sumInt(String::length));
+        Assert.assertEquals(2.0, Enumerable.asBlaqIterable(Arrays.asList("a", "bb", "ccc")).averageInt(String::length), 0);
+    }
+
+    @Test(expected = NullArgumentException.class)
+    public void nullSelector(){
+        ToIntFunction<Integer> selector = null;
+        Enumerable.sumInt(Arrays.asList(1), selector);
+    }
+}
@@ -0,0 +1,71 @@
+package playground.test;
+
+import blaq.core.Enumerable;
+import blaq.core.NullArgumentException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class OuterJoinTest {
+
+    // Join on the first character of the outer item and the second character of the inner item
+    private static final List<String> outer = Arrays.asList("first", "second", "third");
+    private static final List<String> inner = Arrays.asList("essence", "offer", "eating", "psalm");
+
+    private static String pair(String o, String i){
+        return o + ":" + i;
+    }
+
+    @Test(expected = NullArgumentException.class)
+    public void nullResultSelector(){
+        Enumerable.leftJoin(outer, inner, o -> o.charAt(0), i -> i.charAt(1), null);
+    }
+
+    @Test
+    public void leftJoinKeepsUnmatchedOuter(){
+        Iterable<String> query = Enumerable.leftJoin(outer, inner,
+                o -> o.charAt(0), i -> i.charAt(1), OuterJoinTest::pair);
+
+        Assert.assertEquals(Arrays.asList("first:offer", "second:essence", "second:psalm", "third:null"),
+                Enumerable.toList(query));
+    }
+
+    @Test
+    public void rightJoinKeepsUnmatchedInner(){
+        Iterable<String> query = Enumerable.rightJoin(outer, inner,
+                o -> o.charAt(0), i -> i.charAt(1), OuterJoinTest::pair);
+
+        Assert.assertEquals(Arrays.asList("first:offer", "second:essence", "second:psalm", "null:eating"),
+                Enumerable.toList(query));
+    }
+
+    @Test
+    public void fullJoinKeepsBothSides(){
+        Iterable<String> query = Enumerable.fullJoin(outer, inner,
+                o -> o.charAt(0), i -> i.charAt(1), OuterJoinTest::pair);
+
+        Assert.assertEquals(Arrays.asList("first:offer", "second:essence", "second:psalm", "third:null", "null:eating"),
+                Enumerable.toList(query));
+    }
+
+    @Test
+    public void nullKeysNeverMatchButAreKept(){
+        List<String> left = Arrays.asList("a", "");
+        List<String> right = Arrays.asList("", "a");
+
+        Iterable<String> query = Enumerable.fullJoin(left, right,
+                o -> o.isEmpty() ? null : o, i -> i.isEmpty() ? null : i, OuterJoinTest::pair);
+
+        Assert.assertEquals(Arrays.asList("a:a", ":null", "null:"), Enumerable.toList(query));
+    }
+
+    @Test
+    public void fullJoinCanBeIteratedTwice(){
+        Iterable<String> query = Enumerable.fullJoin(outer, inner,
+                o -> o.charAt(0), i -> i.charAt(1), OuterJoinTest::pair);
+
+        Assert.assertEquals(Enumerable.toList(query), Enumerable.toList(query));
+    }
+}
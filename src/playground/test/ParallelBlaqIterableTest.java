@@ -0,0 +1,122 @@
+package playground.test;
+
+import blaq.core.ArgumentOutOfRangeException;
+import blaq.core.Enumerable;
+import blaq.core.InvalidOperationException;
+import blaq.core.NullArgumentException;
+import blaq.util.BlaqIterable;
+import blaq.util.IGrouping;
+import blaq.util.ParallelBlaqIterable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ParallelBlaqIterableTest {
+
+    // Values from 0 to 999, repeating, in no particular order
+    private static List<Integer> scrambled(int count){
+        return Enumerable.toList(Enumerable.project(TestExtensions.numbers(count), i -> (i * 7919) % 1000));
+    }
+
+    @Test(expected = NullArgumentException.class)
+    public void nullSource(){
+        Enumerable.asParallel(null);
+    }
+
+    @Test(expected = ArgumentOutOfRangeException.class)
+    public void zeroParallelism(){
+        Enumerable.asParallel(scrambled(10), 0);
+    }
+
+    @Test
+    public void orderedPipelineKeepsEncounterOrder(){
+        List<Integer> src = scrambled(10000);
+        List<String> expected = Enumerable.toList(Enumerable.project(Enumerable.where(src, x -> x % 3 == 0), x -> "#" + x));
+
+        List<String> actual = Enumerable.asParallel(src, 4).asOrdered()
+                .where(x -> x % 3 == 0)
+                .project(x -> "#" + x)
+                .toList();
+        Assert.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void unorderedPipelineHasSameElements(){
+        List<Integer> src = scrambled(10000);
+        List<Integer> actual = Enumerable.asParallel(src, 3)
+                .projectMany(x -> Arrays.asList(x, -x))
+                .toList();
+        Assert.assertEquals(20000, actual.size());
+        Assert.assertEquals(0, Enumerable.sum(actual));
+    }
+
+    @Test
+    public void aggregatesMatchSequential(){
+        BlaqIterable<Integer> src = Enumerable.asBlaqIterable(scrambled(5000));
+        ParallelBlaqIterable<Integer> query = src.parallel(4);
+
+        Assert.assertEquals(src.sum(x -> x), query.sum(x -> x));
+        Assert.assertEquals(src.longSum(x -> (long) x), query.longSum(x -> (long) x));
+        Assert.assertEquals(src.average(x -> x), query.average(x -> x), 1e-9);
+        Integer min = query.min(x -> x), max = query.max(x -> x);
+        Assert.assertEquals(src.<Integer>min(x -> x), min);
+        Assert.assertEquals(src.<Integer>max(x -> x), max);
+        Assert.assertEquals(src.count(x -> x > 500), query.count(x -> x > 500));
+        Assert.assertTrue(query.any(x -> x == 999));
+        Assert.assertFalse(query.all(x -> x < 999));
+        Assert.assertEquals(src.toList(), query.asOrdered().aggregate(() -> new ArrayList<Integer>(),
+                (list, x) -> {
+                    list.add(x);
+                    return list;
+                }, (left, right) -> {
+                    left.addAll(right);
+                    return left;
+                }));
+    }
+
+    @Test(expected = InvalidOperationException.class)
+    public void aggregateOfEmpty(){
+        Enumerable.asParallel(Collections.<Integer>emptyList()).aggregate((a, b) -> a + b);
+    }
+
+    @Test
+    public void orderedDistinctKeepsFirstOccurrences(){
+        List<Integer> src = scrambled(5000);
+        Assert.assertEquals(Enumerable.toList(Enumerable.distinct(src)),
+                Enumerable.asParallel(src, 4).asOrdered().distinct().toList());
+        Assert.assertEquals(1000, Enumerable.asParallel(src, 4).distinct().count());
+    }
+
+    @Test
+    public void groupByKeepsKeyAndElementOrder(){
+        List<Integer> src = scrambled(3000);
+        List<String> expected = new ArrayList<>();
+        for(IGrouping<Integer, Integer> group : Enumerable.groupBy(src, x -> x % 7))
+            expected.add(group.getKey() + "=" + Enumerable.toList(group));
+        List<String> actual = new ArrayList<>();
+        for(IGrouping<Integer, Integer> group : Enumerable.asParallel(src, 4).groupBy(x -> x % 7))
+            actual.add(group.getKey() + "=" + Enumerable.toList(group));
+        Assert.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void orderByIsStable(){
+        List<Integer> src = scrambled(4000);
+        Assert.assertEquals(Enumerable.toList(Enumerable.orderBy(src, x -> x / 10)),
+                Enumerable.toList(Enumerable.asParallel(src, 4).orderBy(x -> x / 10)));
+    }
+
+    @Test
+    public void sequentialContinuesOnCallingThread(){
+        List<Integer> result = Enumerable.asParallel(scrambled(100), 2).asOrdered()
+                .project(x -> x * 2)
+                .sequential()
+                .take(3)
+                .toList();
+        Assert.assertEquals(Arrays.asList(0, 1838, 1676), result);
+    }
+}
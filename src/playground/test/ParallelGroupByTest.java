@@ -0,0 +1,73 @@
+package playground.test;
+
+import blaq.core.Enumerable;
+import blaq.util.BlaqIterable;
+import blaq.util.ILookup;
+import blaq.util.ParallelBlaqIterable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ParallelGroupByTest {
+
+    @Test
+    public void manyKeysMatchSequential(){
+        BlaqIterable<Integer> src = Enumerable.asBlaqIterable(TestExtensions.numbers(100000));
+        List<String> sequential = TestExtensions.describe(src.groupBy(x -> (x * 7919) % 10007, x -> x / 3));
+        for(int parallelism = 1; parallelism <= 4; parallelism++){
+            Assert.assertEquals(sequential, TestExtensions.describe(src.parallel(parallelism)
+                    .groupBy(x -> (x * 7919) % 10007, x -> x / 3)));
+            Assert.assertEquals(sequential, TestExtensions.describe(src.parallel(parallelism).asOrdered()
+                    .groupBy(x -> (x * 7919) % 10007, x -> x / 3)));
+        }
+    }
+
+    @Test
+    public void fewKeysKeepFirstOccurrenceOrder(){
+        List<String> src = new ArrayList<>();
+        for(int i = 0; i < 20000; i++)
+            src.add(i < 15000 ? "late" + (i % 2) : "early");
+        src.set(0, "first");
+        List<String> groups = TestExtensions.describe(
+                Enumerable.asBlaqIterable(src).parallel(4).groupBy(x -> x, String::length));
+        Assert.assertEquals(4, groups.size());
+        Assert.assertTrue(groups.get(0).startsWith("first="));
+        Assert.assertTrue(groups.get(1).startsWith("late1="));
+        Assert.assertTrue(groups.get(2).startsWith("late0="));
+        Assert.assertTrue(groups.get(3).startsWith("early="));
+    }
+
+    @Test
+    public void nullKeysAreGrouped(){
+        List<Integer> src = new ArrayList<>();
+        for(int i = 0; i < 5000; i++)
+            src.add(i % 5 == 0 ? null : i);
+        ILookup<Boolean, Integer> lookup = Enumerable.asBlaqIterable(src).parallel(3)
+                .toLookup(x -> x == null ? null : x % 2 == 0);
+        Assert.assertEquals(3, lookup.size());
+        Assert.assertEquals(1000, Enumerable.count(lookup.getItem(null)));
+        Assert.assertEquals(TestExtensions.describe(Enumerable.toLookup(src, x -> x == null ? null : x % 2 == 0)),
+                TestExtensions.describe(lookup));
+    }
+
+    @Test
+    public void groupsAfterWhereAndProjectMany(){
+        BlaqIterable<Integer> src = Enumerable.asBlaqIterable(TestExtensions.numbers(3000));
+        ParallelBlaqIterable<String> query = src.parallel(4).where(x -> x % 3 != 0)
+                .projectMany(x -> Arrays.asList("k" + x % 7, "k" + x % 11));
+        List<String> expected = TestExtensions.describe(src.where(x -> x % 3 != 0)
+                .projectMany(x -> Arrays.asList("k" + x % 7, "k" + x % 11)).groupBy(x -> x.length(), x -> x));
+        Assert.assertEquals(expected, TestExtensions.describe(query.groupBy(x -> x.length(), x -> x)));
+    }
+
+    @Test
+    public void emptyAndTinySources(){
+        Assert.assertEquals(0, Enumerable.asBlaqIterable(new ArrayList<Integer>()).parallel(4).toLookup(x -> x).size());
+        Assert.assertEquals(Arrays.asList("1=[1, 3]", "0=[2]"),
+                TestExtensions.describe(Enumerable.asBlaqIterable(Arrays.asList(1, 2, 3)).parallel(4)
+                        .groupBy(x -> x % 2)));
+    }
+}
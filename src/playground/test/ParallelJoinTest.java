@@ -0,0 +1,93 @@
+package playground.test;
+
+import blaq.core.ArgumentOutOfRangeException;
+import blaq.core.Enumerable;
+import blaq.util.ICompareEquality;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class ParallelJoinTest {
+
+    private static List<Integer> randomList(int size, int bound, long seed){
+        Random random = new Random(seed);
+        List<Integer> list = new ArrayList<>(size);
+        for(int i = 0; i < size; i++)
+            list.add(random.nextInt(bound));
+        return list;
+    }
+
+    @Test(expected = ArgumentOutOfRangeException.class)
+    public void zeroParallelism(){
+        Enumerable.parallelJoin(Arrays.asList(1), Arrays.asList(1), x -> x, x -> x, (x, y) -> x, null, true, 0);
+    }
+
+    @Test
+    public void sameResultAsJoin(){
+        // Same example as JoinTest
+        Iterable<String> outer = Arrays.asList("first", "second", "third");
+        Iterable<String> inner = Arrays.asList("essence", "offer", "eating", "psalm");
+
+        Iterable<String> query = Enumerable.parallelJoin(outer, inner,
+                outerElement -> outerElement.charAt(0),
+                innerElement -> innerElement.charAt(1),
+                (outerElement, innerElement) -> outerElement + ":" + innerElement);
+
+        Assert.assertEquals(Arrays.asList("first:offer", "second:essence", "second:psalm"), Enumerable.toList(query));
+    }
+
+    @Test
+    public void preservesOuterOrderOnLargeInput(){
+        List<Integer> outer = randomList(4000, 500, 1);
+        List<Integer> inner = randomList(600, 700, 2);
+
+        List<String> expected = Enumerable.toList(Enumerable.join(outer, inner, x -> x, x -> x % 500,
+                (o, i) -> o + ":" + i));
+        List<String> actual = Enumerable.toList(Enumerable.parallelJoin(outer, inner, x -> x, x -> x % 500,
+                (o, i) -> o + ":" + i, null, true, 3));
+
+        Assert.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void unorderedReturnsSameMatches(){
+        List<Integer> outer = randomList(5000, 300, 3);
+        List<Integer> inner = randomList(1000, 300, 4);
+
+        List<String> expected = Enumerable.toList(Enumerable.join(outer, inner, x -> x, x -> x,
+                (o, i) -> o + ":" + i));
+        List<String> actual = Enumerable.toList(Enumerable.parallelJoin(outer, inner, x -> x, x -> x,
+                (o, i) -> o + ":" + i, null, false, 4));
+
+        Collections.sort(expected);
+        Collections.sort(actual);
+        Assert.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void customEqualityAndNullKeys(){
+        ICompareEquality<String> ignoreCase = new ICompareEquality<String>() {
+            @Override
+            public boolean equals(String obj1, String obj2) {
+                return obj1.equalsIgnoreCase(obj2);
+            }
+
+            @Override
+            public int hashCode(String obj) {
+                return obj.toLowerCase().hashCode();
+            }
+        };
+        List<String> outer = Arrays.asList("A", "", "b", "C");
+        List<String> inner = Arrays.asList("a", "B", "", "a");
+
+        Iterable<String> query = Enumerable.parallelJoin(outer, inner,
+                x -> x.isEmpty() ? null : x, x -> x.isEmpty() ? null : x, (o, i) -> o + i, ignoreCase, true, 2);
+
+        Assert.assertEquals(Arrays.asList("Aa", "Aa", "bB"), Enumerable.toList(query));
+    }
+}
@@ -0,0 +1,166 @@
+package playground.test;
+
+import blaq.core.Enumerable;
+import blaq.core.InvalidOperationException;
+import blaq.tools.Yield;
+import blaq.util.BlaqIterable;
+import blaq.util.IPartition;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PartitionTest {
+
+    @Test
+    public void elementAtOfProjectionCallsProjectorOnce(){
+        AtomicInteger calls = new AtomicInteger();
+        Iterable<Integer> projected = Enumerable.project(TestExtensions.numbers(1000), x -> {
+            calls.incrementAndGet();
+            return x * 2;
+        });
+        Assert.assertEquals(1000, Enumerable.count(projected));
+        Assert.assertEquals(Integer.valueOf(1200), Enumerable.elementAt(projected, 600));
+        Assert.assertEquals(Integer.valueOf(1998), Enumerable.last(projected));
+        Assert.assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void indexedProjectionGetsItsIndex(){
+        Iterable<String> projected = Enumerable.project(Arrays.asList("a", "b", "c"), (x, i) -> x + i);
+        Assert.assertEquals("b1", Enumerable.elementAt(projected, 1));
+        Assert.assertEquals(Arrays.asList("a0", "b1", "c2"), Enumerable.toList(projected));
+    }
+
+    @Test
+    public void orderByCountDoesNotSort(){
+        AtomicInteger calls = new AtomicInteger();
+        BlaqIterable<Integer> src = Enumerable.asBlaqIterable(TestExtensions.numbers(100));
+        Assert.assertEquals(100, src.orderBy(x -> {
+            calls.incrementAndGet();
+            return -x;
+        }).count());
+        Assert.assertEquals(0, calls.get());
+    }
+
+    @Test
+    public void orderByFirstAndLastKeepTiesStable(){
+        List<String> src = Arrays.asList("bb", "a", "cc", "d", "ee");
+        BlaqIterable<String> query = Enumerable.asBlaqIterable(src);
+        Assert.assertEquals("a", query.orderBy(String::length).first());
+        Assert.assertEquals("ee", query.orderBy(String::length).last());
+        Assert.assertEquals("bb", query.orderByDescending(String::length).first());
+        Assert.assertEquals("d", query.orderByDescending(String::length).last());
+        Assert.assertEquals("ee", Enumerable.last(query.orderBy(String::length).thenBy(x -> x)));
+        Assert.assertNull(Enumerable.firstOrNull(Enumerable.orderBy(new ArrayList<String>(), String::length)));
+    }
+
+    @Test
+    public void firstOfPresortedReadsOnlyTheFirstElement(){
+        AtomicInteger calls = new AtomicInteger();
+        Iterable<Integer> src = Enumerable.project(TestExtensions.numbers(5), x -> {
+            calls.incrementAndGet();
+            return x;
+        });
+        Assert.assertEquals(Integer.valueOf(0), Enumerable.first(Enumerable.asOrderedBy(src, x -> x)));
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals(Integer.valueOf(4), Enumerable.last(Enumerable.asOrderedBy(src, x -> x)));
+
+        Iterable<Integer> endless = (Yield<Integer>) yield -> {
+            for(int i = 0; ; i++)
+                yield.returning(i);
+        };
+        Assert.assertEquals(Integer.valueOf(0), Enumerable.first(Enumerable.asOrderedBy(endless, x -> x)));
+        Assert.assertEquals(Integer.valueOf(0), Enumerable.firstOrNull(Enumerable.asOrderedBy(endless, x -> x)));
+        Assert.assertNull(Enumerable.firstOrNull(Enumerable.asOrderedBy(new ArrayList<Integer>(), x -> x)));
+    }
+
+    @Test(expected = InvalidOperationException.class)
+    public void lastOfPresortedVerifiesTheOrder(){
+        Enumerable.last(Enumerable.asOrderedBy(Arrays.asList(3, 1, 2), x -> x));
+    }
+
+    @Test
+    public void takeAndSkipAreSlices(){
+        List<Integer> src = TestExtensions.numbers(10);
+        Iterable<Integer> middle = Enumerable.take(Enumerable.skip(src, 3), 4);
+        Assert.assertTrue(middle instanceof IPartition);
+        Assert.assertEquals(4, Enumerable.count(middle));
+        Assert.assertEquals(Arrays.asList(3, 4, 5, 6), Enumerable.toList(middle));
+        Assert.assertEquals(Integer.valueOf(6), Enumerable.last(middle));
+        Assert.assertNull(Enumerable.elementAtOrNull(middle, 4));
+
+        Assert.assertEquals(0, Enumerable.count(Enumerable.skip(src, 20)));
+        Assert.assertEquals(0, Enumerable.count(Enumerable.take(src, -1)));
+        Assert.assertEquals(10, Enumerable.count(Enumerable.take(src, Integer.MAX_VALUE)));
+        Assert.assertFalse(Enumerable.any(Enumerable.skip(Enumerable.skip(src, Integer.MAX_VALUE - 1), 2)));
+    }
+
+    @Test
+    public void nestedSlicesCompose(){
+        IPartition<Integer> slice = ((IPartition<Integer>) Enumerable.skip(TestExtensions.numbers(100), 10))
+                .slice(5, 20).slice(2, 100);
+        Assert.assertEquals(18, slice.size());
+        Assert.assertEquals(Integer.valueOf(17), slice.get(0));
+        Assert.assertEquals(Integer.valueOf(34), slice.get(17));
+    }
+
+    @Test
+    public void reverseOfList(){
+        Iterable<Integer> reversed = Enumerable.reverse(Arrays.asList(1, 2, 3));
+        Assert.assertEquals(Arrays.asList(3, 2, 1), Enumerable.toList(reversed));
+        Assert.assertEquals(Integer.valueOf(1), Enumerable.last(reversed));
+        Assert.assertEquals(Integer.valueOf(3), Enumerable.elementAt(reversed, 0));
+    }
+
+    @Test
+    public void reverseOfSequenceIsDeferred(){
+        AtomicInteger iterations = new AtomicInteger();
+        Iterable<Integer> src = (Yield<Integer>) yield -> {
+            iterations.incrementAndGet();
+            for(int i = 1; i <= 3; i++)
+                yield.returning(i);
+        };
+        Iterable<Integer> reversed = Enumerable.reverse(src);
+        Assert.assertEquals(0, iterations.get());
+        Assert.assertEquals(Arrays.asList(3, 2, 1), Enumerable.toList(reversed));
+        Assert.assertEquals(1, iterations.get());
+    }
+
+    @Test
+    public void zipOfPartitionsIsAPartition(){
+        Iterable<String> zipped = Enumerable.zip(TestExtensions.numbers(5), Arrays.asList("a", "b", "c"),
+                (n, s) -> s + n);
+        Assert.assertTrue(zipped instanceof IPartition);
+        Assert.assertEquals(3, Enumerable.count(zipped));
+        Assert.assertEquals("c2", Enumerable.last(zipped));
+        Assert.assertEquals(Arrays.asList("a0", "b1", "c2"), Enumerable.toList(zipped));
+    }
+
+    @Test
+    public void partitionsSeeChangesToTheirSource(){
+        List<Integer> src = TestExtensions.numbers(3);
+        Iterable<Integer> projected = Enumerable.project(src, x -> x * 10);
+        src.add(3);
+        Assert.assertEquals(4, Enumerable.count(projected));
+        Assert.assertEquals(Arrays.asList(0, 10, 20, 30), Enumerable.toList(projected));
+    }
+
+    @Test
+    public void blaqIterableKeepsPartitions(){
+        BlaqIterable<Integer> query = Enumerable.asBlaqIterable(TestExtensions.numbers(10))
+                .project(x -> x + 1).skip(2).take(3).reverse();
+        Assert.assertTrue(query instanceof IPartition);
+        Assert.assertEquals(3, query.count());
+        Assert.assertEquals(Arrays.asList(5, 4, 3), query.toList());
+        Assert.assertEquals("[5,4,3]", query.toString());
+    }
+
+    @Test(expected = InvalidOperationException.class)
+    public void lastOfEmptyPartitionThrows(){
+        Enumerable.last(Enumerable.project(new ArrayList<Integer>(), x -> x));
+    }
+}
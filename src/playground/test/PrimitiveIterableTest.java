@@ -0,0 +1,86 @@
+package playground.test;
+
+import blaq.core.ArgumentOutOfRangeException;
+import blaq.core.Enumerable;
+import blaq.core.InvalidOperationException;
+import blaq.core.NullArgumentException;
+import blaq.core.PrimitiveEnumerable;
+import blaq.util.BlaqList;
+import blaq.util.DoubleBlaqIterable;
+import blaq.util.IntBlaqIterable;
+import blaq.util.IntHashSet;
+import blaq.util.LongBlaqIterable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class PrimitiveIterableTest {
+
+    @Test(expected = NullArgumentException.class)
+    public void nullArray(){
+        PrimitiveEnumerable.asBlaqIterable((int[]) null);
+    }
+
+    @Test(expected = ArgumentOutOfRangeException.class)
+    public void rangeTooLarge(){
+        PrimitiveEnumerable.range(Integer.MAX_VALUE, 2);
+    }
+
+    @Test(expected = InvalidOperationException.class)
+    public void minOfEmpty(){
+        PrimitiveEnumerable.asBlaqIterable(new long[0]).min();
+    }
+
+    @Test
+    public void intPipeline(){
+        IntBlaqIterable query = PrimitiveEnumerable.range(1, 10).where(x -> x % 2 == 0).project(x -> x * x);
+        Assert.assertArrayEquals(new int[]{4, 16, 36, 64, 100}, query.toArray());
+        Assert.assertEquals(220, query.sum());
+        Assert.assertEquals(4, query.min());
+        Assert.assertEquals(100, query.max());
+        Assert.assertEquals(44d, query.average(), 0d);
+        Assert.assertEquals(5, query.count());
+        Assert.assertEquals(Arrays.asList("4", "16", "36", "64", "100"), query.projectToObj(Integer::toString).toList());
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void intSumOverflow(){
+        PrimitiveEnumerable.asBlaqIterable(new int[]{Integer.MAX_VALUE, 1}).sum();
+    }
+
+    @Test
+    public void distinctKeepsFirstOccurrences(){
+        Assert.assertArrayEquals(new int[]{3, 0, 1, -7},
+                PrimitiveEnumerable.asBlaqIterable(new int[]{3, 0, 3, 1, 0, -7, 1}).distinct().toArray());
+        Assert.assertArrayEquals(new double[]{0d, -0d, Double.NaN},
+                PrimitiveEnumerable.asBlaqIterable(new double[]{0d, -0d, Double.NaN, 0d, Double.NaN}).distinct().toArray(), 0d);
+    }
+
+    @Test
+    public void hashSetGrows(){
+        IntHashSet set = new IntHashSet(2);
+        for(int i = -5000; i < 5000; i++)
+            Assert.assertTrue(set.add(i * 31));
+        for(int i = -5000; i < 5000; i++)
+            Assert.assertFalse(set.add(i * 31));
+        Assert.assertEquals(10000, set.size());
+        Assert.assertFalse(set.contains(1));
+    }
+
+    @Test
+    public void projectFromObjects(){
+        BlaqList<String> words = new BlaqList<>(Arrays.asList("a", "bbb", "cc"));
+        LongBlaqIterable lengths = words.projectToLong(String::length);
+        Assert.assertEquals(6L, lengths.sum());
+        DoubleBlaqIterable halves = words.projectToDouble(w -> w.length() / 2d);
+        Assert.assertEquals(1.5d, halves.max(), 0d);
+        Assert.assertEquals(Arrays.asList(1, 3, 2), Enumerable.toList(words.projectToInt(String::length)));
+    }
+
+    @Test
+    public void rangeStreamsInParallel(){
+        Assert.assertEquals(5050, PrimitiveEnumerable.range(1, 100).stream().parallel().sum());
+        Assert.assertEquals(0, PrimitiveEnumerable.range(Integer.MIN_VALUE, 0).count());
+    }
+}
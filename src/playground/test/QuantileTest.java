@@ -0,0 +1,154 @@
+package playground.test;
+
+import blaq.core.ArgumentOutOfRangeException;
+import blaq.core.Enumerable;
+import blaq.core.InvalidOperationException;
+import blaq.util.BlaqIterable;
+import blaq.util.QuantileSketch;
+import blaq.util.Quantiles;
+import blaq.util.Tuple2;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class QuantileTest {
+
+    private static List<Double> randomValues(int count, long seed){
+        Random random = new Random(seed);
+        List<Double> values = new ArrayList<>(count);
+        for(int i = 0; i < count; i++)
+            values.add(Math.floor(random.nextGaussian() * 100));
+        return values;
+    }
+
+    // Linear interpolation between the closest ranks, from a sorted copy
+    private static double sortedQuantile(List<Double> values, double probability){
+        List<Double> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        double rank = probability * (sorted.size() - 1);
+        int lower = (int) rank;
+        if(lower == rank)
+            return sorted.get(lower);
+        return sorted.get(lower) + (rank - lower) * (sorted.get(lower + 1) - sorted.get(lower));
+    }
+
+    // Fraction of the values at or below `value`
+    private static double rankOf(List<Double> values, double value){
+        int below = 0;
+        for(double x : values)
+            if(x <= value)
+                below++;
+        return (double) below / values.size();
+    }
+
+    @Test
+    public void exactMatchesSorting(){
+        double[] probabilities = {0.99, 0, 0.5, 0.25, 1, 0.999, 0.1};
+        for(int count : new int[]{1, 2, 7, 1000, 20001}){
+            List<Double> values = randomValues(count, count);
+            double[] quantiles = Enumerable.quantiles(values, x -> x, probabilities);
+            for(int i = 0; i < probabilities.length; i++)
+                Assert.assertEquals(sortedQuantile(values, probabilities[i]), quantiles[i], 1e-9);
+        }
+    }
+
+    @Test
+    public void medianInterpolates(){
+        BlaqIterable<Integer> src = Enumerable.asBlaqIterable(Arrays.asList(4, 1, 3, 2));
+        Assert.assertEquals(2.5, src.median(x -> x), 0);
+        Assert.assertEquals(3, Enumerable.median(Arrays.asList(5, 1, 3), x -> x), 0);
+        Assert.assertArrayEquals(new double[]{1, 1.75, 4}, src.quantiles(x -> x, 0, 0.25, 1), 0);
+    }
+
+    @Test
+    public void manyEqualValues(){
+        List<Double> values = new ArrayList<>();
+        for(int i = 0; i < 100000; i++)
+            values.add((double) (i % 3));
+        Assert.assertArrayEquals(new double[]{0, 1, 2}, Enumerable.quantiles(values, x -> x, 0.1, 0.5, 0.9), 0);
+    }
+
+    @Test
+    public void infiniteValues(){
+        double inf = Double.POSITIVE_INFINITY;
+        Assert.assertEquals(inf, Enumerable.median(Arrays.asList(inf, inf), x -> x), 0);
+        Assert.assertEquals(-inf, Enumerable.median(Arrays.asList(-inf, -inf, 1d, -inf), x -> x), 0);
+        Assert.assertArrayEquals(new double[]{-inf, 0, inf, inf},
+                Enumerable.quantiles(Arrays.asList(inf, -inf, 0d, inf, inf), x -> x, 0, 0.25, 0.625, 1), 0);
+    }
+
+    @Test
+    public void nanIsGreatest(){
+        List<Double> values = Arrays.asList(Double.NaN, 3d, 1d, 2d);
+        Assert.assertArrayEquals(new double[]{1, 2, 3, Double.NaN},
+                Enumerable.quantiles(values, x -> x, 0, 1 / 3d, 2 / 3d, 1), 1e-12);
+    }
+
+    @Test
+    public void sketchRanksAreClose(){
+        List<Double> values = randomValues(200000, 5);
+        QuantileSketch sketch = Enumerable.quantileSketch(values, x -> x, QuantileSketch.DEFAULT_K);
+        Assert.assertTrue(sketch.retainedValues() < 4 * QuantileSketch.DEFAULT_K);
+        double[] probabilities = {0.01, 0.1, 0.5, 0.9, 0.99};
+        double[] quantiles = sketch.quantiles(probabilities);
+        for(int i = 0; i < probabilities.length; i++)
+            Assert.assertEquals(probabilities[i], rankOf(values, quantiles[i]), 0.02);
+        Assert.assertEquals(Collections.min(values), sketch.quantile(0), 0);
+        Assert.assertEquals(Collections.max(values), sketch.quantile(1), 0);
+    }
+
+    @Test
+    public void mergedSketchesCoverTheUnion(){
+        List<Double> all = new ArrayList<>();
+        QuantileSketch merged = new QuantileSketch();
+        for(int day = 0; day < 10; day++){
+            List<Double> values = randomValues(10000, 100 + day);
+            for(int i = 0; i < values.size(); i++)
+                values.set(i, values.get(i) + day * 50);
+            all.addAll(values);
+            merged.merge(Enumerable.quantileSketch(values, x -> x, QuantileSketch.DEFAULT_K));
+        }
+        Assert.assertEquals(all.size(), merged.count());
+        for(double probability : new double[]{0.05, 0.5, 0.95})
+            Assert.assertEquals(probability, rankOf(all, merged.quantile(probability)), 0.02);
+    }
+
+    @Test
+    public void perGroupAndParallel(){
+        List<Double> values = randomValues(30000, 9);
+        BlaqIterable<Double> src = Enumerable.asBlaqIterable(values);
+        List<Tuple2<Boolean, Quantiles>> groups = src.groupAggregate(x -> x >= 0, Quantiles::new, (q, x) -> {
+            q.accept(x);
+            return q;
+        }).toList();
+        for(Tuple2<Boolean, Quantiles> group : groups){
+            List<Double> members = src.where(x -> x >= 0 == group.getItem1()).toList();
+            Assert.assertEquals(sortedQuantile(members, 0.9), group.getItem2().quantile(0.9), 0);
+        }
+
+        Assert.assertArrayEquals(src.quantiles(x -> x, 0.5, 0.99), src.parallel(4).quantiles(x -> x, 0.5, 0.99), 0);
+        double[] approx = src.parallel(4).approxQuantiles(x -> x, 0.5, 0.99);
+        Assert.assertEquals(0.5, rankOf(values, approx[0]), 0.02);
+        Assert.assertEquals(0.99, rankOf(values, approx[1]), 0.02);
+
+        Tuple2<Quantiles, QuantileSketch> both = src.aggregateAll(Quantiles.collector(x -> x),
+                QuantileSketch.collector(x -> x));
+        Assert.assertEquals(src.median(x -> x), both.getItem1().quantile(0.5), 0);
+        Assert.assertEquals(0.5, rankOf(values, both.getItem2().quantile(0.5)), 0.02);
+    }
+
+    @Test(expected = InvalidOperationException.class)
+    public void emptyHasNoQuantiles(){
+        Enumerable.median(new ArrayList<Double>(), x -> x);
+    }
+
+    @Test(expected = ArgumentOutOfRangeException.class)
+    public void probabilitiesMustBeInRange(){
+        Enumerable.approxQuantiles(Arrays.asList(1d), x -> x, 0.5, 1.5);
+    }
+}
@@ -21,9 +21,8 @@ public class RepeatTest {
     }
 
     /**
-     * FAIL: In Yield, the optional calls "requireNonNull" which means you cannot repeat nulls
-     * If the sequence was not to be buffered/the implementation of Yield were to change (omit using {@code Optional<T>})
-     * then this would pass.
+     * Used to fail: in Yield, the optional calls "requireNonNull" which means you cannot repeat nulls.
+     * Repeat no longer goes through Yield, so nulls can be repeated.
      */
     @Test
     public void nullRepeat(){
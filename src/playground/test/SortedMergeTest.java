@@ -0,0 +1,77 @@
+package playground.test;
+
+import blaq.core.Enumerable;
+import blaq.core.InvalidOperationException;
+import blaq.core.NullArgumentException;
+import blaq.util.IOrderedIterable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+public class SortedMergeTest {
+
+    private static final Function<String, Integer> LENGTH = String::length;
+
+    @Test(expected = NullArgumentException.class)
+    public void nullSources(){
+        Enumerable.mergeSorted(null, LENGTH);
+    }
+
+    @Test
+    public void mergeSortedIsStable(){
+        List<String> first = Arrays.asList("a", "bb", "dddd");
+        List<String> second = Arrays.asList("c", "ee", "fff");
+
+        Iterable<String> merged = Enumerable.mergeSorted(Arrays.asList(first, second), LENGTH);
+        Assert.assertEquals(Arrays.asList("a", "c", "bb", "ee", "fff", "dddd"), Enumerable.toList(merged));
+    }
+
+    @Test(expected = InvalidOperationException.class)
+    public void unsortedSourceDetected(){
+        Enumerable.toList(Enumerable.asOrderedBy(Arrays.asList("bb", "a"), LENGTH));
+    }
+
+    @Test
+    public void mergedUnionIsInSortedOrder(){
+        IOrderedIterable<String> first = Enumerable.orderBy(Arrays.asList("ccc", "a", "bb", "a"), LENGTH);
+        IOrderedIterable<String> second = Enumerable.orderBy(Arrays.asList("bb", "x", "dddd"), LENGTH);
+
+        Iterable<String> union = Enumerable.union(first, second);
+        Assert.assertTrue(union instanceof IOrderedIterable);
+        Assert.assertEquals(Arrays.asList("a", "x", "bb", "ccc", "dddd"), Enumerable.toList(union));
+    }
+
+    @Test
+    public void mergedIntersectTellsApartEqualKeys(){
+        // "ab" and "xy" share a key but aren't equal
+        IOrderedIterable<String> first = Enumerable.asOrderedBy(Arrays.asList("a", "ab", "xy", "ab", "abc"), LENGTH);
+        IOrderedIterable<String> second = Enumerable.asOrderedBy(Arrays.asList("ab", "zzz", "abc"), LENGTH);
+
+        Assert.assertEquals(Arrays.asList("ab", "abc"), Enumerable.toList(Enumerable.intersect(first, second)));
+    }
+
+    @Test
+    public void mergedExceptAndDistinctMatchHashedVersions(){
+        List<String> first = Arrays.asList("a", "ab", "xy", "ab", "b", "abc", "q");
+        List<String> second = Arrays.asList("xy", "zzz", "b");
+        IOrderedIterable<String> sortedFirst = Enumerable.asOrderedBy(Enumerable.toList(Enumerable.orderBy(first, LENGTH)), LENGTH);
+        IOrderedIterable<String> sortedSecond = Enumerable.asOrderedBy(Enumerable.toList(Enumerable.orderBy(second, LENGTH)), LENGTH);
+
+        Assert.assertEquals(Enumerable.toList(Enumerable.except(Enumerable.orderBy(first, LENGTH), second)),
+                Enumerable.toList(Enumerable.except(sortedFirst, sortedSecond)));
+        Assert.assertEquals(Enumerable.toList(Enumerable.distinct(Enumerable.toList(sortedFirst))),
+                Enumerable.toList(Enumerable.distinct(sortedFirst)));
+    }
+
+    @Test
+    public void differentOrderingsFallBackToHashing(){
+        IOrderedIterable<String> first = Enumerable.orderBy(Arrays.asList("bb", "a"), LENGTH);
+        IOrderedIterable<String> second = Enumerable.orderByDescending(Arrays.asList("a", "ccc"), LENGTH);
+
+        Assert.assertEquals(Arrays.asList("a", "bb", "ccc"), Enumerable.toList(Enumerable.union(first, second)));
+        Assert.assertFalse(Enumerable.union(first, second) instanceof IOrderedIterable);
+    }
+}
@@ -0,0 +1,148 @@
+package playground.test;
+
+import blaq.core.ArgumentOutOfRangeException;
+import blaq.core.Enumerable;
+import blaq.tools.Yield;
+import blaq.util.BlaqIterable;
+import blaq.util.CloseableIterator;
+import blaq.util.ICompareEquality;
+import blaq.util.ISerializer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SpillingTest {
+
+    private static List<Integer> scrambled(int count, int modulo){
+        List<Integer> list = new ArrayList<>();
+        for(int i = 0; i < count; i++)
+            list.add((int) ((i * 2654435761L) % modulo));
+        return list;
+    }
+
+    private static int spillFiles(){
+        String[] names = new File(System.getProperty("java.io.tmpdir"))
+                .list((dir, name) -> name.startsWith("blaq-spill"));
+        return names == null ? 0 : names.length;
+    }
+
+    // Every key the same hash, so splitting files never helps
+    private static final ICompareEquality<Integer> SAME_HASH = new ICompareEquality<Integer>() {
+        @Override
+        public int hashCode(Integer obj) {
+            return 42;
+        }
+    };
+
+    @Test
+    public void distinctMatchesInMemory(){
+        List<Integer> src = scrambled(20000, 3001);
+        List<Integer> expected = Enumerable.toList(Enumerable.distinct(src));
+        for(int limit : new int[]{25, 500, 3001, 5000})
+            Assert.assertEquals(expected, Enumerable.toList(Enumerable.distinct(src, ISerializer.integers(), limit)));
+        List<Integer> few = scrambled(200, 60);
+        Assert.assertEquals(Enumerable.toList(Enumerable.distinct(few)),
+                Enumerable.toList(Enumerable.distinct(few, ISerializer.integers(), 1)));
+    }
+
+    @Test
+    public void distinctYieldsFirstOccurrencesStraightAway(){
+        AtomicInteger reads = new AtomicInteger();
+        Iterable<Integer> endless = (Yield<Integer>) yield -> {
+            for(int i = 0; ; i++){
+                reads.incrementAndGet();
+                yield.returning(i % 7);
+            }
+        };
+        Iterator<Integer> distinct = Enumerable.distinct(endless, ISerializer.integers(), 100).iterator();
+        for(int i = 0; i < 7; i++)
+            Assert.assertEquals(Integer.valueOf(i), distinct.next());
+        Assert.assertEquals(7, reads.get());
+    }
+
+    @Test
+    public void distinctWithNullsAndEquality(){
+        List<String> src = Arrays.asList("a", null, "B", "A", "b", null, "c", "C", "d");
+        ICompareEquality<String> ignoreCase = new ICompareEquality<String>() {
+            @Override
+            public boolean equals(String a, String b) {
+                return a.equalsIgnoreCase(b);
+            }
+
+            @Override
+            public int hashCode(String s) {
+                return s.toLowerCase().hashCode();
+            }
+        };
+        BlaqIterable<String> query = Enumerable.asBlaqIterable(src);
+        Assert.assertEquals(Arrays.asList("a", null, "B", "c", "d"),
+                query.distinct(ISerializer.strings(), 2, ignoreCase).toList());
+    }
+
+    @Test
+    public void distinctWhenSplittingCantHelp(){
+        List<Integer> src = scrambled(3000, 400);
+        Assert.assertEquals(Enumerable.toList(Enumerable.distinct(src)),
+                Enumerable.toList(Enumerable.distinct(src, ISerializer.integers(), 16, SAME_HASH)));
+    }
+
+    @Test
+    public void groupByMatchesInMemory(){
+        List<Integer> src = scrambled(20000, 1009);
+        List<String> expected = TestExtensions.describe(Enumerable.groupBy(src, x -> x % 97, x -> "v" + x));
+        for(int limit : new int[]{50, 1000, 20000})
+            Assert.assertEquals(expected, TestExtensions.describe(Enumerable.groupBy(src, x -> x % 97, x -> "v" + x,
+                    ISerializer.integers(), ISerializer.strings(), limit)));
+    }
+
+    @Test
+    public void groupByNullKeysAndBigGroups(){
+        List<Integer> src = scrambled(5000, 50);
+        BlaqIterable<Integer> query = Enumerable.asBlaqIterable(src);
+        List<String> expected = TestExtensions.describe(query.groupBy(x -> x < 10 ? null : x % 3));
+        Assert.assertEquals(expected, TestExtensions.describe(query.groupBy(x -> x < 10 ? null : x % 3,
+                ISerializer.integers(), ISerializer.integers(), 20)));
+        Assert.assertEquals(TestExtensions.describe(query.groupBy(x -> x % 13)),
+                TestExtensions.describe(query.groupBy(x -> x % 13, x -> x, ISerializer.integers(),
+                        ISerializer.integers(), 20, SAME_HASH)));
+    }
+
+    @Test
+    public void temporaryFilesAreDeleted(){
+        int before = spillFiles();
+        List<Integer> src = scrambled(10000, 2000);
+        Enumerable.toList(Enumerable.distinct(src, ISerializer.integers(), 10));
+        Enumerable.toList(Enumerable.groupBy(src, x -> x, ISerializer.integers(), ISerializer.integers(), 10));
+        Assert.assertEquals(before, spillFiles());
+
+        Iterator<Integer> partly = Enumerable.distinct(src, ISerializer.integers(), 10).iterator();
+        for(int i = 0; i < 15; i++)
+            partly.next();
+        Assert.assertTrue(spillFiles() > before);
+        ((CloseableIterator<Integer>) partly).close();
+        Assert.assertEquals(before, spillFiles());
+    }
+
+    @Test
+    public void serializableElements(){
+        List<List<Integer>> src = new ArrayList<>();
+        for(int i = 0; i < 200; i++)
+            src.add(new ArrayList<>(Arrays.asList(i % 13, i % 5)));
+        ISerializer<ArrayList<Integer>> serializer = ISerializer.serializable();
+        @SuppressWarnings("unchecked")
+        ISerializer<List<Integer>> lists = (ISerializer<List<Integer>>) (ISerializer<?>) serializer;
+        Assert.assertEquals(Enumerable.toList(Enumerable.distinct(src)),
+                Enumerable.toList(Enumerable.distinct(src, lists, 4)));
+    }
+
+    @Test(expected = ArgumentOutOfRangeException.class)
+    public void limitMustBePositive(){
+        Enumerable.distinct(Arrays.asList(1), ISerializer.integers(), 0);
+    }
+}
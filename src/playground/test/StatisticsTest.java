@@ -0,0 +1,150 @@
+package playground.test;
+
+import blaq.core.Enumerable;
+import blaq.core.InvalidOperationException;
+import blaq.core.NullArgumentException;
+import blaq.tools.Yield;
+import blaq.util.BlaqIterable;
+import blaq.util.Statistics;
+import blaq.util.Tuple2;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+public class StatisticsTest {
+
+    private static final List<Integer> VALUES = Arrays.asList(2, 4, 4, 4, 5, 5, 7, 9);
+
+    @Test
+    public void allInOnePass(){
+        AtomicInteger calls = new AtomicInteger();
+        Statistics stats = Enumerable.stats(VALUES, x -> {
+            calls.incrementAndGet();
+            return x;
+        });
+        Assert.assertEquals(8, calls.get());
+        Assert.assertEquals(8, stats.count());
+        Assert.assertEquals(40.0, stats.sum(), 0);
+        Assert.assertEquals(2.0, stats.min(), 0);
+        Assert.assertEquals(9.0, stats.max(), 0);
+        Assert.assertEquals(5.0, stats.mean(), 1e-12);
+        Assert.assertEquals(4.0, stats.variance(), 1e-12);
+        Assert.assertEquals(2.0, stats.standardDeviation(), 1e-12);
+        Assert.assertEquals(32.0 / 7, stats.sampleVariance(), 1e-12);
+    }
+
+    @Test
+    public void varianceKeepsPrecisionFarFromZero(){
+        // A sum of squares would lose the spread entirely at this offset
+        List<Double> src = new ArrayList<>();
+        for(int value : VALUES)
+            src.add(1e9 + value);
+        Statistics stats = Enumerable.stats(src, x -> x);
+        Assert.assertEquals(4.0, stats.variance(), 1e-6);
+    }
+
+    @Test
+    public void mergeMatchesWhole(){
+        Random random = new Random(3);
+        Statistics whole = new Statistics();
+        Statistics left = new Statistics();
+        Statistics right = new Statistics();
+        for(int i = 0; i < 1000; i++){
+            double value = random.nextGaussian() * 10 + 50;
+            whole.accept(value);
+            (i < 300 ? left : right).accept(value);
+        }
+        left.merge(right);
+        Assert.assertEquals(whole.count(), left.count());
+        Assert.assertEquals(whole.sum(), left.sum(), 1e-9);
+        Assert.assertEquals(whole.mean(), left.mean(), 1e-9);
+        Assert.assertEquals(whole.variance(), left.variance(), 1e-9);
+        Assert.assertEquals(whole.min(), left.min(), 0);
+        Assert.assertEquals(whole.max(), left.max(), 0);
+    }
+
+    @Test
+    public void mergeWithEmpty(){
+        Statistics stats = Enumerable.stats(VALUES, x -> x);
+        Assert.assertEquals(5.0, new Statistics().merge(stats).mean(), 1e-12);
+        Assert.assertEquals(5.0, stats.merge(new Statistics()).mean(), 1e-12);
+        Assert.assertEquals(8, stats.count());
+    }
+
+    @Test
+    public void emptyHasCountAndSumOnly(){
+        Statistics stats = Enumerable.stats(new ArrayList<Integer>(), x -> x);
+        Assert.assertEquals(0, stats.count());
+        Assert.assertEquals(0.0, stats.sum(), 0);
+        try {
+            stats.mean();
+            Assert.fail();
+        } catch (InvalidOperationException expected){
+        }
+    }
+
+    @Test(expected = InvalidOperationException.class)
+    public void sampleVarianceOfOne(){
+        Enumerable.stats(Arrays.asList(3), x -> x).sampleVariance();
+    }
+
+    @Test
+    public void collectorMergesParallelStreams(){
+        Statistics stats = VALUES.parallelStream().collect(Statistics.collector(x -> x));
+        Assert.assertEquals(4.0, stats.variance(), 1e-12);
+    }
+
+    @Test
+    public void parallelStats(){
+        BlaqIterable<Integer> src = Enumerable.asBlaqIterable(Enumerable.range(1, 10000));
+        Statistics sequential = src.stats(x -> x);
+        Statistics parallel = src.parallel(4).stats(x -> x);
+        Assert.assertEquals(sequential.count(), parallel.count());
+        Assert.assertEquals(sequential.mean(), parallel.mean(), 1e-9);
+        Assert.assertEquals(sequential.variance(), parallel.variance(), 1e-3);
+    }
+
+    @Test
+    public void aggregateAllReadsSourceOnce(){
+        // A Yield can only be iterated once
+        Iterable<Integer> src = (Yield<Integer>) yield -> {
+            for(int value : VALUES)
+                yield.returning(value);
+        };
+        Tuple2<Long, Integer> result = Enumerable.aggregateAll(src, Collectors.counting(),
+                Collectors.summingInt(x -> x));
+        Assert.assertEquals(Long.valueOf(8), result.getItem1());
+        Assert.assertEquals(Integer.valueOf(40), result.getItem2());
+    }
+
+    @Test
+    public void aggregateAllList(){
+        List<Collector<? super String, ?, ?>> collectors = Arrays.asList(Collectors.counting(),
+                Collectors.joining(","), Statistics.collector(String::length));
+        List<Object> results = Enumerable.asBlaqIterable(Arrays.asList("a", "bb", "ccc")).aggregateAll(collectors);
+        Assert.assertEquals(3L, results.get(0));
+        Assert.assertEquals("a,bb,ccc", results.get(1));
+        Assert.assertEquals(2.0, ((Statistics) results.get(2)).mean(), 0);
+    }
+
+    @Test
+    public void parallelAggregateAll(){
+        BlaqIterable<Integer> src = Enumerable.asBlaqIterable(Enumerable.range(0, 1000));
+        Tuple2<Long, List<Integer>> result = src.parallel(4).asOrdered()
+                .aggregateAll(Collectors.counting(), Collectors.toList());
+        Assert.assertEquals(Long.valueOf(1000), result.getItem1());
+        Assert.assertEquals(src.toList(), result.getItem2());
+    }
+
+    @Test(expected = NullArgumentException.class)
+    public void nullSelector(){
+        Enumerable.stats(VALUES, null);
+    }
+}
@@ -0,0 +1,84 @@
+package playground.test;
+
+import blaq.core.Enumerable;
+import blaq.core.NullArgumentException;
+import blaq.util.BlaqIterable;
+import blaq.util.BlaqList;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class StreamTest {
+
+    @Test(expected = NullArgumentException.class)
+    public void nullStream(){
+        Enumerable.from((Stream<String>) null);
+    }
+
+    @Test
+    public void rangeIsSizedAndSplittable(){
+        Spliterator<Integer> spliterator = Enumerable.range(10, 1000).spliterator();
+        Assert.assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.SORTED));
+        Assert.assertEquals(1000, spliterator.getExactSizeIfKnown());
+
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        Assert.assertNotNull(prefix);
+        Assert.assertEquals(1000, prefix.estimateSize() + spliterator.estimateSize());
+    }
+
+    @Test
+    public void parallelStreamOverRange(){
+        BlaqIterable<Integer> range = Enumerable.asBlaqIterable(Enumerable.range(1, 10000));
+        Assert.assertEquals(50005000L, range.stream().parallel().mapToLong(x -> x).sum());
+    }
+
+    @Test
+    public void repeatAllowsNulls(){
+        Assert.assertEquals(Arrays.asList(null, null),
+                Enumerable.asBlaqIterable(Enumerable.repeat((String) null, 2)).stream().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void listsKeepTheirOwnSpliterator(){
+        BlaqList<Integer> list = new BlaqList<>(Enumerable.range(0, 100));
+        Spliterator<Integer> spliterator = list.where(x -> true).spliterator();
+        Assert.assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED));
+        Assert.assertEquals(100, list.stream().count());
+    }
+
+    @Test
+    public void distinctAndOrderByCharacteristics(){
+        List<String> words = Arrays.asList("ccc", "a", "bb", "a");
+        Assert.assertTrue(Enumerable.distinct(words).spliterator().hasCharacteristics(Spliterator.DISTINCT));
+
+        Spliterator<String> sorted = Enumerable.orderBy(words, String::length).spliterator();
+        Assert.assertTrue(sorted.hasCharacteristics(Spliterator.SORTED | Spliterator.SIZED));
+        Comparator<? super String> comparator = sorted.getComparator();
+        Assert.assertTrue(comparator.compare("a", "bb") < 0);
+    }
+
+    @Test
+    public void orderByStreamsInOrder(){
+        List<String> words = Arrays.asList("ccc", "a", "bb", "dddd");
+        Assert.assertEquals(Arrays.asList("a", "bb", "ccc", "dddd"),
+                new BlaqList<>(words).orderBy(String::length).stream().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void fromStreamAndSupplier(){
+        Assert.assertEquals(Arrays.asList(4, 16),
+                Enumerable.from(Stream.of(1, 2, 3, 4).parallel()).where(x -> x % 2 == 0).project(x -> x * x).toList());
+
+        Supplier<Stream<Integer>> streams = () -> Stream.of(3, 1, 2);
+        BlaqIterable<Integer> src = Enumerable.from(streams);
+        Assert.assertEquals(6, src.sum(x -> x));
+        Assert.assertEquals(3, src.count());
+    }
+}
@@ -4,13 +4,31 @@ import org.jetbrains.annotations.NotNull;
 import org.junit.Assert;
 import blaq.core.Enumerable;
 import blaq.core.InvalidOperationException;
+import blaq.util.IGrouping;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 public class TestExtensions {
 
+    // 0, 1, ..., count - 1
+    public static List<Integer> numbers(int count){
+        List<Integer> list = new ArrayList<>(count);
+        for(int i = 0; i < count; i++)
+            list.add(i);
+        return list;
+    }
+
+    // Each group as "key=[elements]", in the order they come
+    public static <K, V> List<String> describe(Iterable<IGrouping<K, V>> groups){
+        List<String> result = new ArrayList<>();
+        for(IGrouping<K, V> group : groups)
+            result.add(group.getKey() + "=" + Enumerable.toList(group));
+        return result;
+    }
+
     @SafeVarargs
     public static <T> void assertSequenceEqual(Iterable<T> actual, T... expected){
         ArrayList<T> copy = new ArrayList<>();
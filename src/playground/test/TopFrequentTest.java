@@ -0,0 +1,139 @@
+package playground.test;
+
+import blaq.core.ArgumentOutOfRangeException;
+import blaq.core.Enumerable;
+import blaq.tools.Yield;
+import blaq.util.BlaqIterable;
+import blaq.util.FrequentItems;
+import blaq.util.ICompareEquality;
+import blaq.util.Tuple2;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class TopFrequentTest {
+
+    private static <K> List<String> describe(Iterable<Tuple2<K, Long>> pairs){
+        List<String> result = new ArrayList<>();
+        for(Tuple2<K, Long> pair : pairs)
+            result.add(pair.getItem1() + "=" + pair.getItem2());
+        return result;
+    }
+
+    // Key i occurs about (1 / (i + 1)) as often as key 0, shuffled, with a long tail of keys occurring once
+    private static List<Integer> skewed(int heavyKeys, int tail, long seed){
+        List<Integer> src = new ArrayList<>();
+        for(int key = 0; key < heavyKeys; key++)
+            for(int i = 0; i < 5000 / (key + 1); i++)
+                src.add(key);
+        for(int i = 0; i < tail; i++)
+            src.add(1000000 + i);
+        Collections.shuffle(src, new Random(seed));
+        return src;
+    }
+
+    @Test
+    public void exactMatchesSortingCounts(){
+        List<Integer> src = skewed(50, 20000, 1);
+        List<String> expected = describe(Enumerable.asBlaqIterable(Enumerable.countBy(src, x -> x))
+                .orderByDescending(pair -> pair.getItem2()).take(10));
+        Assert.assertEquals(expected, describe(Enumerable.topFrequent(src, x -> x, 10)));
+    }
+
+    @Test
+    public void tiesKeepFirstOccurrence(){
+        BlaqIterable<String> src = Enumerable.asBlaqIterable(Arrays.asList("b", "a", "c", "a", "d", "c", "b", null));
+        Assert.assertEquals(Arrays.asList("b=2", "a=2", "c=2"), describe(src.topFrequent(x -> x, 3)));
+        Assert.assertEquals(Arrays.asList("b=2", "a=2", "c=2", "d=1", "null=1"),
+                describe(src.topFrequent(x -> x, 100)));
+    }
+
+    @Test
+    public void exactWithEquality(){
+        ICompareEquality<String> ignoreCase = new ICompareEquality<String>() {
+            @Override
+            public boolean equals(String a, String b) {
+                return a.equalsIgnoreCase(b);
+            }
+
+            @Override
+            public int hashCode(String s) {
+                return s.toLowerCase().hashCode();
+            }
+        };
+        List<String> src = Arrays.asList("x", "Y", "y", "X", "y", "z");
+        Assert.assertEquals(Arrays.asList("Y=3", "x=2"),
+                describe(Enumerable.topFrequent(src, s -> s, 2, ignoreCase)));
+    }
+
+    @Test
+    public void approximateFindsHeavyHitters(){
+        List<Integer> src = skewed(20, 100000, 2);
+        List<Tuple2<Integer, Long>> top = Enumerable.asBlaqIterable(src).approxTopFrequent(x -> x, 5, 200).toList();
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4), Enumerable.toList(
+                Enumerable.asBlaqIterable(top).project(Tuple2::getItem1)));
+        // Never under the true count, and over it by no more than n / capacity
+        long slack = src.size() / 200;
+        for(Tuple2<Integer, Long> pair : top){
+            long exact = 5000 / (pair.getItem1() + 1);
+            Assert.assertTrue(pair.getItem2() >= exact);
+            Assert.assertTrue(pair.getItem2() <= exact + slack);
+        }
+    }
+
+    @Test
+    public void summaryFollowsAnEndlessStream(){
+        Iterable<Integer> endless = (Yield<Integer>) yield -> {
+            Random random = new Random(3);
+            for(int i = 0; ; i++)
+                yield.returning(i % 4 == 0 ? 7 : i % 10 == 1 ? 8 : 100 + random.nextInt(1000000));
+        };
+        FrequentItems<Integer> summary = new FrequentItems<>(64);
+        int read = 0;
+        for(Integer key : endless){
+            summary.add(key);
+            if(++read == 200000)
+                break;
+        }
+        Assert.assertEquals(Arrays.asList(7, 8), Enumerable.toList(
+                Enumerable.asBlaqIterable(summary.top(2)).project(Tuple2::getItem1)));
+        Assert.assertTrue(summary.estimate(7) - summary.error(7) <= 50000);
+        Assert.assertTrue(summary.estimate(7) >= 50000);
+    }
+
+    @Test
+    public void mergedSummariesFindTheUnionsHeavyHitters(){
+        FrequentItems<Integer> merged = new FrequentItems<>(100);
+        List<Integer> all = new ArrayList<>();
+        for(int part = 0; part < 4; part++){
+            List<Integer> src = skewed(10, 30000, 10 + part);
+            all.addAll(src);
+            FrequentItems<Integer> summary = new FrequentItems<>(100);
+            for(int key : src)
+                summary.add(key);
+            merged.merge(summary);
+        }
+        Assert.assertEquals(all.size(), merged.count());
+        List<String> exact = describe(Enumerable.topFrequent(all, x -> x, 3));
+        Assert.assertEquals(Arrays.asList("0=20000", "1=10000", "2=6664"), exact);
+        for(Tuple2<Integer, Long> pair : merged.top(3))
+            Assert.assertTrue(pair.getItem2() - merged.error(pair.getItem1()) <= 20000);
+        Assert.assertEquals(Arrays.asList(0, 1, 2), Enumerable.toList(
+                Enumerable.asBlaqIterable(merged.top(3)).project(Tuple2::getItem1)));
+    }
+
+    @Test(expected = ArgumentOutOfRangeException.class)
+    public void countMustBePositive(){
+        Enumerable.topFrequent(Arrays.asList(1), x -> x, 0);
+    }
+
+    @Test(expected = ArgumentOutOfRangeException.class)
+    public void capacityMustHoldCount(){
+        Enumerable.approxTopFrequent(Arrays.asList(1), x -> x, 10, 5);
+    }
+}
@@ -0,0 +1,93 @@
+package playground.test;
+
+import blaq.core.ArgumentOutOfRangeException;
+import blaq.core.Enumerable;
+import blaq.util.BlaqIterable;
+import blaq.util.IGrouping;
+import blaq.util.Tuple2;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class TopNByTest {
+
+    private static <T> List<T> first(Iterable<T> src, int n){
+        List<T> all = Enumerable.toList(src);
+        return all.subList(0, Math.min(n, all.size()));
+    }
+
+    // (student, grade) pairs
+    private static List<Tuple2<String, Integer>> grades(){
+        return Arrays.asList(new Tuple2<>("ann", 70), new Tuple2<>("bob", 90), new Tuple2<>("ann", 95),
+                new Tuple2<>("cat", 60), new Tuple2<>("ann", 80), new Tuple2<>("bob", 90), new Tuple2<>("ann", 95),
+                new Tuple2<>("bob", 85), new Tuple2<>("ann", 99));
+    }
+
+    private static List<String> describeGrades(Iterable<IGrouping<String, Tuple2<String, Integer>>> groups){
+        List<String> result = new ArrayList<>();
+        for(IGrouping<String, Tuple2<String, Integer>> group : groups)
+            result.add(group.getKey() + "=" + Enumerable.toList(Enumerable.asBlaqIterable(group)
+                    .project(Tuple2::getItem2)));
+        return result;
+    }
+
+    @Test
+    public void topGradesPerStudent(){
+        BlaqIterable<Tuple2<String, Integer>> src = Enumerable.asBlaqIterable(grades());
+        Assert.assertEquals(Arrays.asList("ann=[99, 95, 95]", "bob=[90, 90, 85]", "cat=[60]"),
+                describeGrades(src.topNByDescending(Tuple2::getItem1, Tuple2::getItem2, 3)));
+        Assert.assertEquals(Arrays.asList("ann=[70, 80]", "bob=[85, 90]", "cat=[60]"),
+                describeGrades(src.topNBy(Tuple2::getItem1, Tuple2::getItem2, 2)));
+    }
+
+    @Test
+    public void tiesKeepEncounterOrder(){
+        // Sorted by length: all of a group's elements tie, so the first ones read are kept, in order
+        List<String> words = Arrays.asList("ab", "cd", "x", "ef", "y", "gh", "z");
+        Assert.assertEquals(Arrays.asList("2=[ab, cd]", "1=[x, y]"),
+                TestExtensions.describe(Enumerable.topNBy(words, String::length, String::length, 2)));
+        Assert.assertEquals(Arrays.asList("2=[ab, cd, ef]", "1=[x, y, z]"),
+                TestExtensions.describe(Enumerable.topNByDescending(words, String::length, String::length, 3)));
+    }
+
+    @Test
+    public void matchesGroupByOrderByTake(){
+        Random random = new Random(17);
+        List<Integer> src = new ArrayList<>();
+        for(int i = 0; i < 20000; i++)
+            src.add(random.nextInt(1000));
+        BlaqIterable<Integer> query = Enumerable.asBlaqIterable(src);
+        Comparator<Integer> byLastDigit = Comparator.comparingInt(x -> x % 10);
+        for(int n : new int[]{1, 5, 500}){
+            List<String> expected = new ArrayList<>();
+            for(IGrouping<Integer, Integer> group : query.groupBy(x -> x % 37))
+                expected.add(group.getKey() + "=" + first(Enumerable.orderBy(
+                        Enumerable.toList(group), x -> x, byLastDigit), n));
+            Assert.assertEquals(expected, TestExtensions.describe(query.topNBy(x -> x % 37, x -> x, n, byLastDigit)));
+
+            List<String> descending = new ArrayList<>();
+            for(IGrouping<Integer, Integer> group : query.groupBy(x -> x % 37))
+                descending.add(group.getKey() + "=" + first(Enumerable.orderByDescending(
+                        Enumerable.toList(group), x -> x, byLastDigit), n));
+            Assert.assertEquals(descending,
+                    TestExtensions.describe(query.topNByDescending(x -> x % 37, x -> x, n, byLastDigit)));
+        }
+    }
+
+    @Test
+    public void nullGroupKey(){
+        List<Integer> src = Arrays.asList(5, 3, 8, 1, 9, 2);
+        Assert.assertEquals(Arrays.asList("null=[1, 3]", "true=[2, 8]"), TestExtensions.describe(Enumerable.topNBy(src,
+                x -> x % 2 == 0 ? Boolean.TRUE : null, x -> x, 2)));
+    }
+
+    @Test(expected = ArgumentOutOfRangeException.class)
+    public void nMustBePositive(){
+        Enumerable.topNBy(Arrays.asList(1), x -> x, x -> x, 0);
+    }
+}
@@ -0,0 +1,70 @@
+package playground.test;
+
+import blaq.core.Enumerable;
+import blaq.core.NullArgumentException;
+import blaq.util.ICompareEquality;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class WhereExistsTest {
+
+    @Test(expected = NullArgumentException.class)
+    public void nullOuter(){
+        List<String> outer = null;
+        Enumerable.whereExists(outer, Arrays.asList("a"), x -> x, x -> x);
+    }
+
+    @Test(expected = NullArgumentException.class)
+    public void nullInnerKeySelector(){
+        Enumerable.whereNotExists(Arrays.asList("a"), Arrays.asList("a"), x -> x, null);
+    }
+
+    @Test
+    public void outerElementsReturnedOnceEach(){
+        // "second" matches both "essence" and "psalm" but must only come out once
+        Iterable<String> outer = Arrays.asList("first", "second", "third");
+        Iterable<String> inner = Arrays.asList("essence", "offer", "eating", "psalm");
+
+        Iterable<String> query = Enumerable.whereExists(outer, inner,
+                outerElement -> outerElement.charAt(0),
+                innerElement -> innerElement.charAt(1));
+
+        Assert.assertEquals(Arrays.asList("first", "second"), Enumerable.toList(query));
+    }
+
+    @Test
+    public void notExistsKeepsUnmatchedAndNullKeys(){
+        // Empty strings have a null key, which never matches anything
+        Iterable<String> outer = Arrays.asList("first", "", "second", "third");
+        Iterable<String> inner = Arrays.asList("essence", "offer", "eating", "psalm");
+
+        Iterable<String> query = Enumerable.whereNotExists(outer, inner,
+                outerElement -> outerElement.isEmpty() ? null : outerElement.charAt(0),
+                innerElement -> innerElement.charAt(1));
+
+        Assert.assertEquals(Arrays.asList("", "third"), Enumerable.toList(query));
+    }
+
+    @Test
+    public void customEqualityIsHonoured(){
+        ICompareEquality<String> ignoreCase = new ICompareEquality<String>() {
+            @Override
+            public boolean equals(String obj1, String obj2) {
+                return obj1.equalsIgnoreCase(obj2);
+            }
+
+            @Override
+            public int hashCode(String obj) {
+                return obj.toLowerCase().hashCode();
+            }
+        };
+
+        Iterable<String> query = Enumerable.whereExists(Arrays.asList("ABC", "def", "Ghi"),
+                Arrays.asList("abc", "GHI"), x -> x, x -> x, ignoreCase);
+
+        Assert.assertEquals(Arrays.asList("ABC", "Ghi"), Enumerable.toList(query));
+    }
+}
@@ -0,0 +1,139 @@
+package playground.test;
+
+import blaq.core.ArgumentOutOfRangeException;
+import blaq.core.Enumerable;
+import blaq.core.PrimitiveEnumerable;
+import blaq.util.BlaqIterable;
+import blaq.util.DoubleBlaqIterable;
+import blaq.util.IntBlaqIterable;
+import blaq.util.LongBlaqIterable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class WindowTest {
+
+    private static int[] randomInts(int count, long seed){
+        Random random = new Random(seed);
+        int[] values = new int[count];
+        for(int i = 0; i < count; i++)
+            values[i] = random.nextInt(2001) - 1000;
+        return values;
+    }
+
+    @Test
+    public void slidingTumblingAndHopping(){
+        List<Integer> src = Arrays.asList(1, 2, 3, 4, 5, 6, 7);
+        Assert.assertEquals(Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(2, 3, 4), Arrays.asList(3, 4, 5),
+                Arrays.asList(4, 5, 6), Arrays.asList(5, 6, 7)), Enumerable.toList(Enumerable.window(src, 3)));
+        Assert.assertEquals(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3, 4), Arrays.asList(5, 6)),
+                Enumerable.toList(Enumerable.window(src, 2, 2)));
+        Assert.assertEquals(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(4, 5)),
+                Enumerable.asBlaqIterable(src).window(2, 3).toList());
+        Assert.assertFalse(Enumerable.any(Enumerable.window(src, 8)));
+    }
+
+    @Test
+    public void windowsCanBeKept(){
+        List<List<String>> windows = Enumerable.toList(Enumerable.window(Arrays.asList("a", null, "b", "c"), 2));
+        Assert.assertEquals(Arrays.asList(Arrays.asList("a", null), Arrays.asList(null, "b"), Arrays.asList("b", "c")),
+                windows);
+    }
+
+    @Test
+    public void intAggregatesMatchRecomputing(){
+        int[] values = randomInts(5000, 7);
+        IntBlaqIterable src = PrimitiveEnumerable.asBlaqIterable(values);
+        for(int size : new int[]{1, 3, 50}){
+            for(int step : new int[]{1, 2, size, size + 3}){
+                long[] sums = src.windowSum(size, step).toArray();
+                double[] averages = src.windowAverage(size, step).toArray();
+                int[] mins = src.windowMin(size, step).toArray();
+                int[] maxes = src.windowMax(size, step).toArray();
+                int windows = 0;
+                for(int end = size; end <= values.length; end += step, windows++){
+                    long sum = 0;
+                    int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+                    for(int i = end - size; i < end; i++){
+                        sum += values[i];
+                        min = Math.min(min, values[i]);
+                        max = Math.max(max, values[i]);
+                    }
+                    Assert.assertEquals(sum, sums[windows]);
+                    Assert.assertEquals((double) sum / size, averages[windows], 1e-9);
+                    Assert.assertEquals(min, mins[windows]);
+                    Assert.assertEquals(max, maxes[windows]);
+                }
+                Assert.assertEquals(windows, sums.length);
+                Assert.assertEquals(windows, mins.length);
+            }
+        }
+    }
+
+    @Test
+    public void longSumsOnlyHaveToFitPerWindow(){
+        LongBlaqIterable src = PrimitiveEnumerable.asBlaqIterable(
+                new long[]{Long.MAX_VALUE, 10, -20, Long.MIN_VALUE, 25});
+        Assert.assertArrayEquals(new long[]{Long.MAX_VALUE - 10, Long.MIN_VALUE + 5},
+                src.windowSum(3, 2).toArray());
+        Assert.assertEquals(Long.MAX_VALUE / 2.0, src.windowAverage(2).toArray()[0], 1e3);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void longWindowSumOverflowThrows(){
+        PrimitiveEnumerable.asBlaqIterable(new long[]{Long.MAX_VALUE, 1}).windowSum(2).toArray();
+    }
+
+    @Test
+    public void doubleSumsLeaveNoErrorBehind(){
+        DoubleBlaqIterable src = PrimitiveEnumerable.asBlaqIterable(
+                new double[]{1e100, 1, 1, Double.POSITIVE_INFINITY, 2, 3, Double.NaN, 4, 5});
+        double[] sums = src.windowSum(2).toArray();
+        Assert.assertArrayEquals(new double[]{1e100, 2, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, 5,
+                Double.NaN, Double.NaN, 9}, sums, 0);
+        Assert.assertEquals(4.5, src.windowAverage(2).toArray()[7], 0);
+    }
+
+    @Test
+    public void doubleExtremesOrderLikeMinAndMax(){
+        DoubleBlaqIterable src = PrimitiveEnumerable.asBlaqIterable(new double[]{3, Double.NaN, 1, -0.0, 0.0, 2});
+        Assert.assertArrayEquals(new double[]{1, -0.0, -0.0, -0.0}, src.windowMin(3).toArray(), 0);
+        Assert.assertArrayEquals(new double[]{Double.NaN, Double.NaN, 1, 2}, src.windowMax(3).toArray(), 0);
+    }
+
+    @Test
+    public void objectExtremesKeepFirstOnTies(){
+        BlaqIterable<String> src = Enumerable.asBlaqIterable(Arrays.asList("bb", "a", "cc", "d", "ee", "f"));
+        Comparator<String> byLength = Comparator.comparingInt(String::length);
+        Assert.assertEquals(Arrays.asList("bb", "cc", "cc", "ee"), src.windowMax(3, 1, byLength).toList());
+        Assert.assertEquals(Arrays.asList("a", "a", "d", "d"), src.windowMin(3, 1, byLength).toList());
+        Assert.assertEquals(Arrays.asList("a", "cc", "ee"), src.windowMin(2, 2, null).toList());
+    }
+
+    @Test
+    public void objectExtremesMatchRecomputing(){
+        int[] values = randomInts(2000, 11);
+        List<Integer> src = new ArrayList<>();
+        for(int value : values)
+            src.add(value);
+        List<Integer> maxes = Enumerable.toList(Enumerable.windowMax(src, 40, 3));
+        for(int i = 0; i < maxes.size(); i++)
+            Assert.assertEquals(Collections.max(src.subList(i * 3, i * 3 + 40)), maxes.get(i));
+    }
+
+    @Test(expected = ArgumentOutOfRangeException.class)
+    public void sizeMustBePositive(){
+        Enumerable.window(Arrays.asList(1), 0);
+    }
+
+    @Test(expected = ArgumentOutOfRangeException.class)
+    public void stepMustBePositive(){
+        PrimitiveEnumerable.windowSum(PrimitiveEnumerable.range(0, 5), 2, 0);
+    }
+}
@@ -82,6 +82,13 @@ public class QuerySchool {
                 .count(); // Query here
         System.out.println("Average: " + avgs);
 
+        // Semi-join: each student is counted once, and only the grade keys are held in memory
+        int passing = students
+                .where(student -> student.age < 20)
+                .whereExists(grades.where(grade -> grade.grade >= 70), student -> student.SID, grade -> grade.SID)
+                .count();
+        System.out.println("Students with a grade of 70 or above: " + passing);
+
         // TODO Task 5: Switch
         // TODO If you were using BlaqIterable, purely use Enumerable (and vice versa) and redo Task 4
         int avgs2 = Enumerable.count(
@@ -100,20 +107,26 @@ public class QuerySchool {
         // TODO those who got higher than the overall average in consideration.
         System.out.println("\n**Final Task**\n");
 
-        System.out.println(students
-                .join(grades, student -> student.SID, grade -> grade.SID, Tuple2::new).toList());
-
-        IOrderedIterable<Tuple2<Student, Grade>> sortedByGrades = students
+        // The join is used three times below; memoized, it's only worked out once
+        BlaqIterable<Tuple2<Student, Grade>> studentGrades = students
                 .join(grades, student -> student.SID, grade -> grade.SID, Tuple2::new)
+                .memoize();
+        System.out.println(studentGrades.toList());
+
+        IOrderedIterable<Tuple2<Student, Grade>> sortedByGrades = studentGrades
                 .orderBy(tuple -> tuple.getItem2().grade);
 
         Tuple2<Student, Grade> topPair = sortedByGrades.first();
         System.out.println("Top most student: " + topPair.getItem1() + " with grade: " + topPair.getItem2().grade);
 
-        double overallAverage = sortedByGrades.average(x -> x.getItem2().grade);
+        // One pass over the join gives the average along with the rest; it doesn't need sorting first
+        Statistics gradeStats = studentGrades.stats(tuple -> tuple.getItem2().grade);
+        System.out.println("Grades: " + gradeStats);
+        double overallAverage = gradeStats.mean();
 
         BlaqIterable<Tuple2<Student, Grade>> top9 = sortedByGrades.skip(1).take(9)
-                .where(t -> t.getItem2().grade - overallAverage > 0);
+                .where(t -> t.getItem2().grade - overallAverage > 0)
+                .memoize(); // Otherwise sorted again by any() and then by forEach
 
         System.out.println("Ranked top 9: ");
         if(!top9.any())